@@ -0,0 +1,203 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.MediaPlayer;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Mesure de latence bout-en-bout de l'adhan : horodatage de chaque étape (alarme prévue,
+ * AdhanReceiver, AdhanService, résolution du son, lecteur préparé, première trame audible)
+ * puis agrégation dans des histogrammes à seaux fixes persistés dans "adhan_latency".
+ */
+public final class AdhanLatencyTracker {
+
+    private static final String TAG = "AdhanLatency";
+    private static final String PREFS = "adhan_latency";
+    /** Horodatage de réception de l'alarme, transmis AdhanReceiver → AdhanService. */
+    public static final String EXTRA_RECEIVED_AT = "ADHAN_RECEIVED_AT";
+
+    /** Bornes supérieures (ms) des seaux ; le dernier seau compte tout ce qui dépasse. */
+    public static final long[] BUCKET_BOUNDS_MS = { 50, 100, 250, 500, 1000, 2000, 5000, 10000, 30000, 60000 };
+
+    public static final String SEG_TRIGGER_TO_RECEIVER = "trigger_to_receiver";
+    public static final String SEG_RECEIVER_TO_SERVICE = "receiver_to_service";
+    public static final String SEG_SERVICE_TO_RESOLVED = "service_to_resolved";
+    public static final String SEG_RESOLVED_TO_PREPARED = "resolved_to_prepared";
+    public static final String SEG_PREPARED_TO_AUDIBLE = "prepared_to_audible";
+    public static final String SEG_TRIGGER_TO_AUDIBLE = "trigger_to_audible";
+    public static final String[] SEGMENTS = {
+            SEG_TRIGGER_TO_RECEIVER, SEG_RECEIVER_TO_SERVICE, SEG_SERVICE_TO_RESOLVED,
+            SEG_RESOLVED_TO_PREPARED, SEG_PREPARED_TO_AUDIBLE, SEG_TRIGGER_TO_AUDIBLE };
+
+    private static final String KEY_LAST_TRACE = "last_trace";
+    private static final long AUDIBLE_POLL_MS = 10;
+    private static final long AUDIBLE_TIMEOUT_MS = 3000;
+    private static final Object LOCK = new Object();
+
+    private final String prayerLabel;
+    private final long scheduledAt;
+    private final long receivedAt;
+    private final long serviceAt;
+    private long resolvedAt;
+    private long preparedAt;
+    private boolean recorded;
+
+    AdhanLatencyTracker(String prayerLabel, long scheduledAt, long receivedAt, long serviceAt) {
+        this.prayerLabel = prayerLabel;
+        this.scheduledAt = scheduledAt;
+        this.receivedAt = receivedAt;
+        this.serviceAt = serviceAt;
+    }
+
+    void markResolved() {
+        if (resolvedAt == 0) {
+            resolvedAt = System.currentTimeMillis();
+        }
+    }
+
+    void markPrepared() {
+        if (preparedAt == 0) {
+            preparedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Après start(), surveille la position du lecteur : la première avance est retenue comme
+     * première trame audible. Les callbacks tournent sur le main looper.
+     */
+    void awaitFirstAudible(Context context, MediaPlayer player, boolean prewarmed) {
+        final Context appContext = context.getApplicationContext();
+        final Handler handler = new Handler(Looper.getMainLooper());
+        final long startedAt = System.currentTimeMillis();
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                long now = System.currentTimeMillis();
+                try {
+                    if (player.getCurrentPosition() > 0) {
+                        record(appContext, now, prewarmed);
+                        return;
+                    }
+                } catch (IllegalStateException e) {
+                    // Lecteur libéré entre-temps : on garde ce qui a été mesuré
+                    return;
+                }
+                if (now - startedAt < AUDIBLE_TIMEOUT_MS) {
+                    handler.postDelayed(this, AUDIBLE_POLL_MS);
+                } else {
+                    warningLog(TAG, "Aucune trame audible détectée après " + AUDIBLE_TIMEOUT_MS + " ms");
+                    record(appContext, now, prewarmed);
+                }
+            }
+        });
+    }
+
+    private void record(Context context, long audibleAt, boolean prewarmed) {
+        if (recorded) {
+            return;
+        }
+        recorded = true;
+
+        synchronized (LOCK) {
+            SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+            SharedPreferences.Editor editor = prefs.edit();
+            addSample(prefs, editor, SEG_TRIGGER_TO_RECEIVER, scheduledAt, receivedAt);
+            addSample(prefs, editor, SEG_RECEIVER_TO_SERVICE, receivedAt, serviceAt);
+            addSample(prefs, editor, SEG_SERVICE_TO_RESOLVED, serviceAt, resolvedAt);
+            addSample(prefs, editor, SEG_RESOLVED_TO_PREPARED, resolvedAt, preparedAt);
+            addSample(prefs, editor, SEG_PREPARED_TO_AUDIBLE, preparedAt, audibleAt);
+            addSample(prefs, editor, SEG_TRIGGER_TO_AUDIBLE, scheduledAt, audibleAt);
+
+            try {
+                JSONObject trace = new JSONObject();
+                trace.put("prayer", prayerLabel);
+                trace.put("prewarmed", prewarmed);
+                trace.put("scheduledAt", scheduledAt);
+                trace.put("receivedAt", receivedAt);
+                trace.put("serviceAt", serviceAt);
+                trace.put("resolvedAt", resolvedAt);
+                trace.put("preparedAt", preparedAt);
+                trace.put("audibleAt", audibleAt);
+                editor.putString(KEY_LAST_TRACE, trace.toString());
+            } catch (JSONException e) {
+                errorLog(TAG, "Trace non sérialisée: " + e.getMessage());
+            }
+            editor.apply();
+        }
+
+        if (scheduledAt > 0) {
+            debugLog(TAG, "⏱️ Adhan " + prayerLabel + " audible " + (audibleAt - scheduledAt)
+                    + " ms après l'heure prévue (pré-chauffé: " + prewarmed + ")");
+        }
+    }
+
+    /** Ajoute (to - from) à l'histogramme du segment ; ignoré si une borne est inconnue. */
+    private static void addSample(SharedPreferences prefs, SharedPreferences.Editor editor, String segment,
+            long from, long to) {
+        if (from <= 0 || to <= 0) {
+            return;
+        }
+        long delta = Math.max(0, to - from);
+        long[] counts = readCounts(prefs, segment);
+        counts[bucketIndex(delta)]++;
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(counts[i]);
+        }
+        editor.putString("hist_" + segment, sb.toString());
+        editor.putLong("sum_" + segment, prefs.getLong("sum_" + segment, 0) + delta);
+        editor.putLong("max_" + segment, Math.max(prefs.getLong("max_" + segment, 0), delta));
+        editor.putLong("last_" + segment, delta);
+    }
+
+    static int bucketIndex(long deltaMs) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (deltaMs <= BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    static long[] readCounts(SharedPreferences prefs, String segment) {
+        long[] counts = new long[BUCKET_BOUNDS_MS.length + 1];
+        String raw = prefs.getString("hist_" + segment, null);
+        if (raw == null || raw.isEmpty()) {
+            return counts;
+        }
+        String[] parts = raw.split(",");
+        for (int i = 0; i < parts.length && i < counts.length; i++) {
+            try {
+                counts[i] = Long.parseLong(parts[i]);
+            } catch (NumberFormatException e) {
+                counts[i] = 0;
+            }
+        }
+        return counts;
+    }
+
+    static SharedPreferences getPrefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    static String getLastTrace(Context context) {
+        return getPrefs(context).getString(KEY_LAST_TRACE, null);
+    }
+
+    static void reset(Context context) {
+        synchronized (LOCK) {
+            getPrefs(context).edit().clear().apply();
+        }
+    }
+}
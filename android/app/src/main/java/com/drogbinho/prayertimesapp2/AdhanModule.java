@@ -21,6 +21,10 @@ import android.content.SharedPreferences;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import android.util.Base64;
 import android.util.Log;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
@@ -47,6 +51,7 @@ public class AdhanModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void playAdhan() {
+        SettingsStore.flush(); // le service relit son, volume et prières muettes
         Intent serviceIntent = new Intent(getReactApplicationContext(), AdhanService.class);
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
             getReactApplicationContext().startForegroundService(serviceIntent);
@@ -79,7 +84,8 @@ public class AdhanModule extends ReactContextBaseJavaModule {
         notificationDebugLog("AdhanModule", "🚫 DÉBUT ANNULATION ALARMES ADHAN COMPLÈTE");
         notificationDebugLog("AdhanModule", "**************************************");
         systemOutLog("ADHAN_DEBUG: Début annulation alarmes COMPLÈTE");
-        int cancelCount = 0;
+        // File de l'horizon d'abord (sinon les adhans encore en attente seraient réarmés)
+        int cancelCount = AlarmHorizon.cancelKind(context, alarmManager, AlarmHorizon.KIND_ADHAN);
 
         // 🔧 CORRECTION : Ajouter les nouveaux formats avec date
         java.text.SimpleDateFormat dayFormat = new java.text.SimpleDateFormat("yyyyMMdd", java.util.Locale.getDefault());
@@ -150,33 +156,13 @@ public class AdhanModule extends ReactContextBaseJavaModule {
                     // Continue silencieusement pour les autres patterns
                 }
             }
-
-            // 7. MÉTHODE BRUTE-FORCE: Teste une gamme de requestCodes autour de certains
-            // values
-            // pour capturer d'éventuelles variations de timestamp
-            int baseRequestCode = prayer.hashCode();
-            for (int offset = -1000; offset <= 1000; offset += 100) {
-                try {
-                    int testRequestCode = baseRequestCode + offset;
-                    PendingIntent testPendingIntent = PendingIntent.getBroadcast(
-                            context,
-                            testRequestCode,
-                            intent,
-                            PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
-
-                    if (testPendingIntent != null) {
-                        alarmManager.cancel(testPendingIntent);
-                        testPendingIntent.cancel();
-                        cancelCount++;
-                        errorLog("AdhanModule",
-                                "🚫 BRUTE-FORCE ANNULÉ: requestCode " + testRequestCode + " pour " + prayer);
-                    }
-                } catch (Exception e) {
-                    // Continue silencieusement
-                }
-            }
+            // (Plus de balayage brute-force requestCode ± 1000 : ces codes ne correspondent à
+            // aucun format jamais programmé ; budget vérifié par AlarmSchedulingPerfTest)
         }
 
+        // Pré-chauffages associés aux alarmes adhan
+        AdhanPrewarm.cancelAll(context, alarmManager);
+
         // Force l'arrêt du service d'adhan s'il est en cours
         Intent serviceIntent = new Intent(context, AdhanService.class);
         context.stopService(serviceIntent);
@@ -187,13 +173,11 @@ public class AdhanModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void scheduleAdhanAlarms(ReadableMap prayerTimes, String adhanSound) {
-        errorLog("AdhanModule", "**************************************");
-        errorLog("AdhanModule", "📢 DÉBUT PROGRAMMATION ALARMES ADHAN");
-        errorLog("AdhanModule", "**************************************");
+        debugLog("AdhanModule", "📢 DÉBUT PROGRAMMATION ALARMES ADHAN (son: {})", adhanSound);
         systemOutLog("ADHAN_DEBUG: Début programmation alarmes");
         Context context = getReactApplicationContext();
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
 
+        AlarmHorizon.Batch batch = new AlarmHorizon.Batch();
         ReadableMapKeySetIterator iterator = prayerTimes.keySetIterator();
         while (iterator.hasNextKey()) {
             String key = iterator.nextKey(); // ex: Maghrib_today ou Maghrib_tomorrow
@@ -211,34 +195,32 @@ public class AdhanModule extends ReactContextBaseJavaModule {
                 intent.putExtra("PRAYER_LABEL", displayLabel);
                 intent.putExtra("NOTIF_TITLE", notifTitle);
                 intent.putExtra("NOTIF_BODY", notifBody);
+                intent.putExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT, triggerAtMillis);
 
                 // 🔧 CORRECTION : Utiliser le même système de requestCode avec date
                 java.text.SimpleDateFormat dayFormat = new java.text.SimpleDateFormat("yyyyMMdd", java.util.Locale.getDefault());
                 String dayString = dayFormat.format(new java.util.Date(triggerAtMillis));
                 int requestCode = (displayLabel + "_" + dayString).hashCode();
 
-                PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                        context,
-                        requestCode,
-                        intent,
-                        PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
                 try {
-                    alarmManager.setAlarmClock(
-                            new AlarmManager.AlarmClockInfo(triggerAtMillis, null),
-                            pendingIntent);
-                    debugLog("AdhanModule", String.format(
-                            "✅ Alarme adhan programmée pour %s à %d (dans %d minutes) [jour: %s, requestCode: %d]",
-                            displayLabel,
-                            triggerAtMillis,
-                            (triggerAtMillis - System.currentTimeMillis()) / 60000,
-                            dayString,
-                            requestCode));
+                    // File locale : seules les prochaines alarmes sont armées (pré-chauffage compris)
+                    batch.add(AlarmHorizon.KIND_ADHAN, triggerAtMillis, requestCode, intent);
+                    if (isDebugEnabled("AdhanModule")) {
+                        debugLog("AdhanModule", String.format(
+                                "✅ Alarme adhan programmée pour %s à %d (dans %d minutes) [jour: %s, requestCode: %d]",
+                                displayLabel,
+                                triggerAtMillis,
+                                (triggerAtMillis - System.currentTimeMillis()) / 60000,
+                                dayString,
+                                requestCode));
+                    }
                 } catch (Exception e) {
                     errorLog("AdhanModule", "❌ Erreur lors de la programmation de l'alarme adhan: " + e.getMessage());
                 }
             }
         }
+        batch.commit(context);
+        SettingsStore.flush(); // réglages relus par les receivers au déclenchement
     }
 
     // ============ PRAYER REMINDERS (rappel X min avant prière) ============
@@ -246,10 +228,10 @@ public class AdhanModule extends ReactContextBaseJavaModule {
     @ReactMethod
     public void schedulePrayerReminders(ReadableArray reminders) {
         Context context = getReactApplicationContext();
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
 
         errorLog("AdhanModule", "🔍 DEBUG RAPPELS - Received " + reminders.size() + " reminders from JS");
 
+        AlarmHorizon.Batch batch = new AlarmHorizon.Batch();
         for (int i = 0; i < reminders.size(); i++) {
             ReadableMap notif = reminders.getMap(i);
             if (notif == null)
@@ -287,23 +269,9 @@ public class AdhanModule extends ReactContextBaseJavaModule {
             // Utilise un requestCode unique pour les rappels
             int requestCode = ("reminder_" + prayer + "_" + triggerAtMillis).hashCode();
 
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                    context,
-                    requestCode,
-                    intent,
-                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
             try {
-                if (isToday) {
-                    alarmManager.setAlarmClock(
-                            new AlarmManager.AlarmClockInfo(triggerAtMillis, null),
-                            pendingIntent);
-                } else {
-                    alarmManager.setExactAndAllowWhileIdle(
-                            AlarmManager.RTC_WAKEUP,
-                            triggerAtMillis,
-                            pendingIntent);
-                }
+                // Aujourd'hui comme demain : armé par l'horizon quand il fait partie des prochaines alarmes
+                batch.add(AlarmHorizon.KIND_REMINDER, triggerAtMillis, requestCode, intent);
                 NotificationAlarmRegistry.appendReminder(context, prayer, triggerAtMillis);
                 // DIAGNOSTIC TEMPOREL PRÉCIS
                 long now = System.currentTimeMillis();
@@ -321,11 +289,13 @@ public class AdhanModule extends ReactContextBaseJavaModule {
                         targetStr,
                         minutesUntil,
                         secondsUntil,
-                        isToday ? "setAlarmClock" : "setExactAndAllowWhileIdle"));
+                        isToday ? "horizon (aujourd'hui)" : "horizon (demain)"));
             } catch (Exception e) {
                 errorLog("AdhanModule", "❌ Erreur lors de la programmation du rappel: " + e.getMessage());
             }
         }
+        batch.commit(context);
+        SettingsStore.flush(); // réglages relus par les receivers au déclenchement
     }
 
     @ReactMethod
@@ -353,6 +323,22 @@ public class AdhanModule extends ReactContextBaseJavaModule {
             }
             
             status.putArray("adhanFlags", alarmsInfo);
+
+            // ⏱️ Décalage réel du dernier démarrage d'adhan (pré-chauffage)
+            WritableMap startInfo = Arguments.createMap();
+            startInfo.putBoolean("prewarmEnabled", AdhanPrewarm.isEnabled(context));
+            startInfo.putString("prayer", prefs.getString(AdhanPrewarm.KEY_LAST_START_PRAYER, null));
+            startInfo.putDouble("startedAt", prefs.getLong(AdhanPrewarm.KEY_LAST_START_AT, 0));
+            if (prefs.contains(AdhanPrewarm.KEY_LAST_START_OFFSET_MS)) {
+                startInfo.putDouble("offsetMs", prefs.getLong(AdhanPrewarm.KEY_LAST_START_OFFSET_MS, 0));
+            } else {
+                startInfo.putNull("offsetMs");
+            }
+            startInfo.putBoolean("prewarmed", prefs.getBoolean(AdhanPrewarm.KEY_LAST_START_PREWARMED, false));
+            startInfo.putDouble("prewarmHits", prefs.getLong(AdhanPrewarm.KEY_PREWARM_HITS, 0));
+            startInfo.putDouble("prewarmMisses", prefs.getLong(AdhanPrewarm.KEY_PREWARM_MISSES, 0));
+            status.putMap("lastAdhanStart", startInfo);
+            status.putMap("latency", buildLatencyStats(context));
             status.putDouble("currentTime", System.currentTimeMillis());
             status.putString("currentTimeFormatted", new java.util.Date().toString());
             
@@ -370,6 +356,68 @@ public class AdhanModule extends ReactContextBaseJavaModule {
         }
     }
 
+    // ⏱️ Histogrammes de latence adhan (AdhanLatencyTracker)
+    @ReactMethod
+    public void getAdhanLatencyStats(Promise promise) {
+        try {
+            promise.resolve(buildLatencyStats(getReactApplicationContext()));
+        } catch (Exception e) {
+            promise.reject("LATENCY_ERROR", "Erreur lecture latence: " + e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void resetAdhanLatencyStats(Promise promise) {
+        try {
+            AdhanLatencyTracker.reset(getReactApplicationContext());
+            promise.resolve(true);
+        } catch (Exception e) {
+            promise.reject("LATENCY_ERROR", "Erreur remise à zéro latence: " + e.getMessage());
+        }
+    }
+
+    private WritableMap buildLatencyStats(Context context) {
+        SharedPreferences prefs = AdhanLatencyTracker.getPrefs(context);
+        WritableMap stats = Arguments.createMap();
+
+        WritableArray bounds = Arguments.createArray();
+        for (long bound : AdhanLatencyTracker.BUCKET_BOUNDS_MS) {
+            bounds.pushDouble(bound);
+        }
+        stats.putArray("bucketBoundsMs", bounds);
+
+        WritableMap segments = Arguments.createMap();
+        for (String segment : AdhanLatencyTracker.SEGMENTS) {
+            long[] counts = AdhanLatencyTracker.readCounts(prefs, segment);
+            WritableArray countsArray = Arguments.createArray();
+            long total = 0;
+            for (long count : counts) {
+                countsArray.pushDouble(count);
+                total += count;
+            }
+            WritableMap segmentMap = Arguments.createMap();
+            segmentMap.putArray("counts", countsArray);
+            segmentMap.putDouble("samples", total);
+            segmentMap.putDouble("sumMs", prefs.getLong("sum_" + segment, 0));
+            segmentMap.putDouble("maxMs", prefs.getLong("max_" + segment, 0));
+            segmentMap.putDouble("lastMs", prefs.getLong("last_" + segment, 0));
+            segments.putMap(segment, segmentMap);
+        }
+        stats.putMap("segments", segments);
+        stats.putString("lastTrace", AdhanLatencyTracker.getLastTrace(context));
+        return stats;
+    }
+
+    // 🔧 Niveau de log natif par tag à l'exécution (ex. "AdhanService", "debug")
+    @ReactMethod
+    public void setNativeLogLevel(String tag, String level) {
+        if (tag == null || tag.isEmpty()) {
+            ConditionalLogger.clearTagLevels();
+            return;
+        }
+        ConditionalLogger.setTagLevel(tag, ConditionalLogger.parseLevel(level));
+    }
+
     @ReactMethod
     public void clearAdhanFlags(Promise promise) {
         try {
@@ -392,11 +440,12 @@ public class AdhanModule extends ReactContextBaseJavaModule {
         AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
 
         errorLog("AdhanModule", "**************************************");
-        errorLog("AdhanModule", "🚫 DÉBUT ANNULATION RAPPELS (registre + motifs simples + grille 3 min)");
+        errorLog("AdhanModule", "🚫 DÉBUT ANNULATION RAPPELS (horizon + registre + motifs simples + grille 3 min)");
         errorLog("AdhanModule", "**************************************");
         systemOutLog("ADHAN_DEBUG: Début annulation rappels (registre)");
 
-        int cancelCount = NotificationAlarmRegistry.cancelAllPrayerReminders(context, alarmManager);
+        int cancelCount = AlarmHorizon.cancelKind(context, alarmManager, AlarmHorizon.KIND_REMINDER);
+        cancelCount += NotificationAlarmRegistry.cancelAllPrayerReminders(context, alarmManager);
 
         errorLog("AdhanModule", "✅ ANNULATION RAPPELS TERMINÉE : " + cancelCount + " rappels annulés.");
         systemOutLog("ADHAN_DEBUG: Annulation rappels terminée - " + cancelCount + " rappels");
@@ -413,8 +462,9 @@ public class AdhanModule extends ReactContextBaseJavaModule {
             return;
         }
 
-        errorLog("AdhanModule", "🚫 DÉBUT ANNULATION DHIKR (registre + grille legacy 3 min)");
-        int cancelCount = NotificationAlarmRegistry.cancelAllDhikrNotifications(context, alarmManager);
+        errorLog("AdhanModule", "🚫 DÉBUT ANNULATION DHIKR (horizon + registre + grille legacy 3 min)");
+        int cancelCount = AlarmHorizon.cancelKind(context, alarmManager, AlarmHorizon.KIND_DHIKR);
+        cancelCount += NotificationAlarmRegistry.cancelAllDhikrNotifications(context, alarmManager);
         errorLog("AdhanModule", "✅ ANNULATION DHIKR TERMINÉE : " + cancelCount + " alarmes annulées.");
     }
 
@@ -480,9 +530,9 @@ public class AdhanModule extends ReactContextBaseJavaModule {
         debugLog("AdhanModule", "📩 Réception des notifications Dhikr depuis JS : " + dhikrNotifications.size());
         errorLog("AdhanModule", "📿 DHIKR (JS) — réception de " + dhikrNotifications.size() + " notification(s) à programmer");
         Context context = getReactApplicationContext();
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
 
         int scheduled = 0;
+        AlarmHorizon.Batch batch = new AlarmHorizon.Batch();
         for (int i = 0; i < dhikrNotifications.size(); i++) {
             ReadableMap notif = dhikrNotifications.getMap(i);
             if (notif == null)
@@ -505,16 +555,8 @@ public class AdhanModule extends ReactContextBaseJavaModule {
 
             int requestCode = (type + "_" + prayer + "_" + triggerMillis).hashCode();
 
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                    context,
-                    requestCode,
-                    intent,
-                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
             try {
-                alarmManager.setAlarmClock(
-                        new AlarmManager.AlarmClockInfo(triggerMillis, null),
-                        pendingIntent);
+                batch.add(AlarmHorizon.KIND_DHIKR, triggerMillis, requestCode, intent);
                 scheduled++;
                 NotificationAlarmRegistry.appendDhikr(context, type, prayer, triggerMillis);
                 debugLog("AdhanModule", "✅ Dhikr programmé: " + type + " - " + prayer);
@@ -522,7 +564,9 @@ public class AdhanModule extends ReactContextBaseJavaModule {
                 errorLog("AdhanModule", "❌ Erreur programmation dhikr: " + e.getMessage());
             }
         }
-        errorLog("AdhanModule", "📿 DHIKR (JS) — fin programmation : " + scheduled + " alarme(s) setAlarmClock OK");
+        batch.commit(context);
+        SettingsStore.flush(); // réglages relus par les receivers au déclenchement
+        errorLog("AdhanModule", "📿 DHIKR (JS) — fin programmation : " + scheduled + " alarme(s) ajoutée(s) à l'horizon");
     }
 
     // ============ PARAMÈTRES (stockage/reprog automatique) ============
@@ -530,35 +574,33 @@ public class AdhanModule extends ReactContextBaseJavaModule {
     @ReactMethod
     public void setAdhanSound(String adhanSound) {
         debugLog("AdhanModule", "🎵 setAdhanSound appelé avec: " + adhanSound);
-        SharedPreferences prefs = getReactApplicationContext()
-                .getSharedPreferences("adhan_prefs",
-                        Context.MODE_PRIVATE);
-
-        // Debug: vérifier la valeur avant
-        String oldValue = prefs.getString("ADHAN_SOUND", "null");
-        debugLog("AdhanModule", "  - Ancienne valeur: " + oldValue);
-
-        // Sauvegarder
-        prefs.edit().putString("ADHAN_SOUND", adhanSound).apply();
+        Context context = getReactApplicationContext();
+        String oldValue = SettingsStore.get(context).adhanSound;
+        SettingsStore.updateNow(context, editor -> editor.setAdhanSound(adhanSound));
+        debugLog("AdhanModule", "✅ Son d'adhan sauvegardé: {} (avant: {})", adhanSound, oldValue);
+    }
 
-        // Debug: vérifier la valeur après
-        String newValue = prefs.getString("ADHAN_SOUND", "null");
-        debugLog("AdhanModule", "  - Nouvelle valeur: " + newValue);
-        debugLog("AdhanModule", "✅ Son d'adhan sauvegardé: " + adhanSound);
+    @ReactMethod
+    public void setAdhanPrewarmEnabled(boolean enabled) {
+        getReactApplicationContext().getSharedPreferences("adhan_prefs", Context.MODE_PRIVATE)
+                .edit()
+                .putBoolean(AdhanPrewarm.KEY_ENABLED, enabled)
+                .apply();
+        if (!enabled) {
+            Context context = getReactApplicationContext();
+            AdhanPrewarm.cancelAll(context, (AlarmManager) context.getSystemService(Context.ALARM_SERVICE));
+        }
+        debugLog("AdhanModule", "🔥 Pré-chauffage adhan " + (enabled ? "activé" : "désactivé"));
     }
 
     @ReactMethod
     public void setAdhanVolume(float volume) {
-        SharedPreferences prefs = getReactApplicationContext().getSharedPreferences("adhan_prefs",
-                Context.MODE_PRIVATE);
-        prefs.edit().putFloat("adhan_volume", volume).apply();
+        SettingsStore.updateNow(getReactApplicationContext(), editor -> editor.setAdhanVolume(volume));
     }
 
     @ReactMethod
     public void getAdhanVolume(Promise promise) {
-        SharedPreferences prefs = getReactApplicationContext().getSharedPreferences("adhan_prefs",
-                Context.MODE_PRIVATE);
-        float volume = prefs.getFloat("adhan_volume", 1.0f);
+        float volume = SettingsStore.get(getReactApplicationContext()).adhanVolume;
         promise.resolve((double) volume);
     }
 
@@ -566,21 +608,15 @@ public class AdhanModule extends ReactContextBaseJavaModule {
     public void updateMutedPrayers(ReadableArray mutedPrayersArray) {
         try {
             Context context = getReactApplicationContext();
-            SharedPreferences prefs = context.getSharedPreferences("muted_prayers", Context.MODE_PRIVATE);
-            SharedPreferences.Editor editor = prefs.edit();
 
             // Convertir l'array en Set<String> pour faciliter les vérifications
-            StringBuilder mutedPrayersString = new StringBuilder();
+            java.util.Set<String> mutedPrayers = new java.util.LinkedHashSet<>();
             for (int i = 0; i < mutedPrayersArray.size(); i++) {
-                if (i > 0)
-                    mutedPrayersString.append(",");
-                mutedPrayersString.append(mutedPrayersArray.getString(i));
+                mutedPrayers.add(mutedPrayersArray.getString(i));
             }
+            SettingsStore.updateNow(context, editor -> editor.setMutedPrayers(mutedPrayers));
 
-            editor.putString("muted_prayers_list", mutedPrayersString.toString());
-            editor.apply();
-
-            debugLog("AdhanModule", "Prières muettes mises à jour: " + mutedPrayersString.toString());
+            debugLog("AdhanModule", "Prières muettes mises à jour: {}", mutedPrayers);
         } catch (Exception e) {
             errorLog("AdhanModule", "Erreur lors de la mise à jour des prières muettes: " + e.getMessage());
         }
@@ -590,13 +626,25 @@ public class AdhanModule extends ReactContextBaseJavaModule {
     public void setCalculationMethod(String method) {
         SharedPreferences prefs = getReactApplicationContext().getSharedPreferences("adhan_prefs",
                 Context.MODE_PRIVATE);
+        String previousMethod = prefs.getString("calc_method", null);
+        if (method != null && method.equals(previousMethod)) {
+            debugLog("AdhanModule", "Méthode de calcul inchangée ({}), alarmes conservées", method);
+            return;
+        }
         prefs.edit().putString("calc_method", method).apply();
 
         debugLog("AdhanModule", "✅ Méthode de calcul sauvegardée: " + method);
 
-        // IMPORTANT: Annuler immédiatement toutes les alarmes existantes pour éviter
-        // les conflits
-        // car elles peuvent être basées sur l'ancienne méthode de calcul
+        // Position connue : on ne décale que les alarmes dont l'heure change vraiment
+        float lat = prefs.getFloat("lat", 0f);
+        float lon = prefs.getFloat("lon", 0f);
+        if (previousMethod != null && (lat != 0f || lon != 0f)) {
+            applyPrayerTimesChange(lat, lon, previousMethod, lat, lon, method);
+            return;
+        }
+
+        // Sans référence pour comparer : annuler toutes les alarmes existantes pour éviter
+        // les conflits, car elles peuvent être basées sur l'ancienne méthode de calcul
         cancelAllAdhanAlarms();
         cancelAllPrayerReminders();
         if (getReactApplicationContext().hasActiveCatalystInstance()) {
@@ -612,20 +660,15 @@ public class AdhanModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void setLocation(double lat, double lon) {
-        // Sauvegarde pour l'utilisation immédiate par la logique de calcul Adhan
-        // (adhan_prefs)
-        // Cette partie est toujours mise à jour, même avec (0.0, 0.0),
-        // car le calcul immédiat pourrait avoir besoin de ces valeurs temporairement.
-        getReactApplicationContext()
-                .getSharedPreferences("adhan_prefs", Context.MODE_PRIVATE)
-                .edit()
-                .putFloat("lat", (float) lat)
-                .putFloat("lon", (float) lon)
-                .apply();
+        Context context = getReactApplicationContext();
+        SharedPreferences adhanPrefs = context.getSharedPreferences("adhan_prefs", Context.MODE_PRIVATE);
 
         // Protection contre les coordonnées (0,0) pour la sauvegarde persistante
         // destinée à la reprogrammation automatique.
         if (lat == 0.0 && lon == 0.0) {
+            // adhan_prefs est toujours mis à jour, même avec (0.0, 0.0), car le calcul
+            // immédiat pourrait avoir besoin de ces valeurs temporairement.
+            adhanPrefs.edit().putFloat("lat", 0f).putFloat("lon", 0f).apply();
             warningLog("AdhanModule",
                     "⚠️ setLocation appelée avec (0.0, 0.0). Ces coordonnées ne seront PAS sauvegardées dans prayer_times_settings pour auto_latitude/longitude afin d'éviter de perturber la reprogrammation. Les valeurs précédentes (si valides) seront conservées.");
             // Ne pas mettre à jour prayer_times_settings avec (0,0) pour
@@ -635,27 +678,59 @@ public class AdhanModule extends ReactContextBaseJavaModule {
             return;
         }
 
+        // 🛰️ Hystérésis : la position de référence (celle des alarmes programmées) n'est
+        // remplacée que si les horaires bougent au-delà de la tolérance. Le bruit GPS et les
+        // petits déplacements ne coûtent ni écriture ni reprogrammation.
+        float oldLat = adhanPrefs.getFloat("lat", 0f);
+        float oldLon = adhanPrefs.getFloat("lon", 0f);
+        boolean alreadyAuto = "auto".equals(SettingsStore.get(context).locationMode);
+        if ((oldLat != 0f || oldLon != 0f) && alreadyAuto) {
+            if (PrayerShift.isGpsNoise(oldLat, oldLon, lat, lon)) {
+                debugLog("AdhanModule", "📍 setLocation ignorée: déplacement {} m (bruit GPS)",
+                        (long) PrayerShift.distanceMeters(oldLat, oldLon, lat, lon));
+                return;
+            }
+            String method = adhanPrefs.getString("calc_method", PrayerCalculator.DEFAULT_METHOD);
+            if (!applyPrayerTimesChange(oldLat, oldLon, method, lat, lon, method)) {
+                return;
+            }
+        }
+
+        adhanPrefs.edit().putFloat("lat", (float) lat).putFloat("lon", (float) lon).apply();
+
         // Sauvegarde dans prayer_times_settings pour la reprogrammation par
-        // AdhanService
-        SharedPreferences settingsPrefs = getReactApplicationContext()
-                .getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
-        SharedPreferences.Editor settingsEditor = settingsPrefs.edit();
-        settingsEditor.putFloat("auto_latitude", (float) lat);
-        settingsEditor.putFloat("auto_longitude", (float) lon);
-        // S'assurer que le location_mode est "auto" quand on reçoit des coordonnées
-        // automatiques valides.
-        settingsEditor.putString("location_mode", "auto");
-        settingsEditor.apply();
-
-        // Log de vérification amélioré: Lire directement depuis SharedPreferences après
-        // l'écriture
-        float V_savedLat = settingsPrefs.getFloat("auto_latitude", -999.0f); // Valeur par défaut unique pour le log
-        float V_savedLon = settingsPrefs.getFloat("auto_longitude", -999.0f);
-        String V_savedMode = settingsPrefs.getString("location_mode", "MODE_LECTURE_ERREUR");
-        debugLog("AdhanModule",
-                "📍 Vérification setLocation (prayer_times_settings): Lat_lu=" + V_savedLat + ", Lon_lu="
-                        + V_savedLon + ", Mode_lu=" + V_savedMode + " (Valeurs entrantes: lat=" + lat + ", lon=" + lon
-                        + ")");
+        // AdhanService. S'assurer que le location_mode est "auto" quand on reçoit des
+        // coordonnées automatiques valides.
+        SettingsStore.Snapshot saved = SettingsStore.updateNow(context, editor -> editor
+                .setAutoLocation((float) lat, (float) lon)
+                .setLocationMode("auto"));
+        debugLog("AdhanModule", "📍 setLocation (prayer_times_settings): lat={}, lon={}, mode={}",
+                saved.autoLatitude, saved.autoLongitude, saved.locationMode);
+    }
+
+    /**
+     * Compare les horaires avant / après sur la période couverte par les alarmes en file et
+     * ne décale que celles dont la prière bouge de plus de {@link PrayerShift#TOLERANCE_MINUTES}.
+     * false si aucun horaire ne bouge assez (rien n'a été modifié).
+     */
+    private boolean applyPrayerTimesChange(double oldLat, double oldLon, String oldMethod,
+            double newLat, double newLon, String newMethod) {
+        Context context = getReactApplicationContext();
+        long startNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        long latest = AlarmHorizon.latestTrigger(context);
+        int days = (int) Math.min(62, Math.max(2, (latest - now) / (24 * 60 * 60 * 1000L) + 2));
+        PrayerShift shift = PrayerShift.compute(oldLat, oldLon, oldMethod, newLat, newLon, newMethod, now, days,
+                TimeZone.getDefault());
+        int maxShift = shift.maxShiftMinutes();
+        if (!shift.movesAlarms()) {
+            debugLog("AdhanModule", "🕐 Horaires quasi inchangés (max {} min), alarmes conservées", maxShift);
+            return false;
+        }
+        int moved = AlarmHorizon.retime(context, shift, PrayerShift.TOLERANCE_MINUTES * 60_000L);
+        debugLog("AdhanModule", "🕐 Horaires décalés jusqu'à {} min : {} alarme(s) déplacée(s) en {} ms", maxShift,
+                moved, (System.nanoTime() - startNanos) / 1_000_000L);
+        return true;
     }
 
     @ReactMethod
@@ -772,96 +847,92 @@ public class AdhanModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void saveNotificationSettings(ReadableMap settings) {
-        SharedPreferences prefs = getReactApplicationContext()
-                .getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = prefs.edit();
-
-        // Rend tous les paramètres optionnels pour éviter les crashes
-        if (settings.hasKey("notificationsEnabled")) {
-            editor.putBoolean("notifications_enabled", settings.getBoolean("notificationsEnabled"));
-        }
-        if (settings.hasKey("remindersEnabled")) {
-            editor.putBoolean("reminders_enabled", settings.getBoolean("remindersEnabled"));
-        }
-        if (settings.hasKey("enabledAfterSalah")) {
-            editor.putBoolean("enabled_after_salah", settings.getBoolean("enabledAfterSalah"));
-        }
-        if (settings.hasKey("enabledMorningDhikr")) {
-            editor.putBoolean("enabled_morning_dhikr", settings.getBoolean("enabledMorningDhikr"));
-        }
-        if (settings.hasKey("enabledEveningDhikr")) {
-            editor.putBoolean("enabled_evening_dhikr", settings.getBoolean("enabledEveningDhikr"));
-        }
-        if (settings.hasKey("enabledSelectedDua")) {
-            editor.putBoolean("enabled_selected_dua", settings.getBoolean("enabledSelectedDua"));
-        }
-        if (settings.hasKey("duaAfterAdhanEnabled")) {
-            editor.putBoolean("dua_after_adhan_enabled", settings.getBoolean("duaAfterAdhanEnabled"));
-        }
+        // Un seul remplacement du snapshot pour tout le lot, écrit tout de suite : AdhanService
+        // et les receivers relisent ces réglages à la reprogrammation
+        SettingsStore.updateNow(getReactApplicationContext(), editor -> {
+            // Rend tous les paramètres optionnels pour éviter les crashes
+            if (settings.hasKey("notificationsEnabled")) {
+                editor.setNotificationsEnabled(settings.getBoolean("notificationsEnabled"));
+            }
+            if (settings.hasKey("remindersEnabled")) {
+                editor.setRemindersEnabled(settings.getBoolean("remindersEnabled"));
+            }
+            if (settings.hasKey("enabledAfterSalah")) {
+                editor.setEnabledAfterSalah(settings.getBoolean("enabledAfterSalah"));
+            }
+            if (settings.hasKey("enabledMorningDhikr")) {
+                editor.setEnabledMorningDhikr(settings.getBoolean("enabledMorningDhikr"));
+            }
+            if (settings.hasKey("enabledEveningDhikr")) {
+                editor.setEnabledEveningDhikr(settings.getBoolean("enabledEveningDhikr"));
+            }
+            if (settings.hasKey("enabledSelectedDua")) {
+                editor.setEnabledSelectedDua(settings.getBoolean("enabledSelectedDua"));
+            }
+            if (settings.hasKey("duaAfterAdhanEnabled")) {
+                editor.setDuaAfterAdhanEnabled(settings.getBoolean("duaAfterAdhanEnabled"));
+            }
 
-        // Sauvegarde du reminderOffset
-        if (settings.hasKey("reminderOffset")) {
-            editor.putInt("reminder_offset", settings.getInt("reminderOffset"));
-        }
+            // Sauvegarde du reminderOffset
+            if (settings.hasKey("reminderOffset")) {
+                editor.setReminderOffset(settings.getInt("reminderOffset"));
+            }
 
-        // CRITIQUE: Sauvegarde de la méthode de calcul pour le widget
-        if (settings.hasKey("calcMethod")) {
-            String newCalcMethod = settings.getString("calcMethod");
-            editor.putString("calc_method", newCalcMethod);
-            debugLog("AdhanModule",
-                    "[DEBUG] 💾 Méthode de calcul sauvegardée dans prayer_times_settings: " + newCalcMethod);
-        }
+            // CRITIQUE: Sauvegarde de la méthode de calcul pour le widget
+            if (settings.hasKey("calcMethod")) {
+                String newCalcMethod = settings.getString("calcMethod");
+                editor.setCalcMethod(newCalcMethod);
+                debugLog("AdhanModule",
+                        "[DEBUG] 💾 Méthode de calcul sauvegardée dans prayer_times_settings: " + newCalcMethod);
+            }
 
-        // Sauvegarde des délais de dhikrs
-        if (settings.hasKey("delayAfterSalah")) { // Sera toujours 5 depuis le JS maintenant
-            editor.putInt("delay_after_salah", settings.getInt("delayAfterSalah"));
-        } else {
-            editor.putInt("delay_after_salah", 5); // Assurer une valeur par défaut ici aussi
-        }
-        if (settings.hasKey("delayMorningDhikr")) {
-            editor.putInt("delay_morning_dhikr", settings.getInt("delayMorningDhikr"));
-        }
-        if (settings.hasKey("delayEveningDhikr")) {
-            editor.putInt("delay_evening_dhikr", settings.getInt("delayEveningDhikr"));
-        }
-        if (settings.hasKey("delaySelectedDua")) {
-            editor.putInt("delay_selected_dua", settings.getInt("delaySelectedDua"));
-        }
+            // Sauvegarde des délais de dhikrs
+            if (settings.hasKey("delayAfterSalah")) { // Sera toujours 5 depuis le JS maintenant
+                editor.setDelayAfterSalah(settings.getInt("delayAfterSalah"));
+            } else {
+                editor.setDelayAfterSalah(5); // Assurer une valeur par défaut ici aussi
+            }
+            if (settings.hasKey("delayMorningDhikr")) {
+                editor.setDelayMorningDhikr(settings.getInt("delayMorningDhikr"));
+            }
+            if (settings.hasKey("delayEveningDhikr")) {
+                editor.setDelayEveningDhikr(settings.getInt("delayEveningDhikr"));
+            }
+            if (settings.hasKey("delaySelectedDua")) {
+                editor.setDelaySelectedDua(settings.getInt("delaySelectedDua"));
+            }
 
-        // Sauvegarde la langue actuelle
-        if (settings.hasKey("currentLanguage")) {
-            editor.putString("current_language", settings.getString("currentLanguage"));
-        }
+            // Sauvegarde la langue actuelle
+            if (settings.hasKey("currentLanguage")) {
+                editor.setLanguage(settings.getString("currentLanguage"));
+            }
 
-        // ==== AJOUTS POUR LA REPROGRAMMATION ROBUSTE ====
-        if (settings.hasKey("locationMode")) {
-            String locationMode = settings.getString("locationMode");
-            editor.putString("location_mode", locationMode);
-            debugLog("AdhanModule", "📍 Location mode sauvegardé: " + locationMode);
-
-            if ("manual".equals(locationMode) && settings.hasKey("manualLocation")) {
-                ReadableMap manualLocation = settings.getMap("manualLocation");
-                if (manualLocation != null) {
-                    if (manualLocation.hasKey("lat")) {
-                        editor.putFloat("manual_latitude", (float) manualLocation.getDouble("lat"));
-                        debugLog("AdhanModule", "📍 Manual Latitude sauvegardée: " + manualLocation.getDouble("lat"));
-                    }
-                    if (manualLocation.hasKey("lon")) {
-                        editor.putFloat("manual_longitude", (float) manualLocation.getDouble("lon"));
-                        debugLog("AdhanModule", "📍 Manual Longitude sauvegardée: " + manualLocation.getDouble("lon"));
-                    }
-                    if (manualLocation.hasKey("city")) {
-                        editor.putString("manual_city_name", manualLocation.getString("city"));
-                        debugLog("AdhanModule", "📍 Manual City sauvegardé: " + manualLocation.getString("city"));
+            // ==== AJOUTS POUR LA REPROGRAMMATION ROBUSTE ====
+            if (settings.hasKey("locationMode")) {
+                String locationMode = settings.getString("locationMode");
+                editor.setLocationMode(locationMode);
+                debugLog("AdhanModule", "📍 Location mode sauvegardé: " + locationMode);
+
+                if ("manual".equals(locationMode) && settings.hasKey("manualLocation")) {
+                    ReadableMap manualLocation = settings.getMap("manualLocation");
+                    if (manualLocation != null) {
+                        if (manualLocation.hasKey("lat")) {
+                            editor.setManualLatitude((float) manualLocation.getDouble("lat"));
+                            debugLog("AdhanModule", "📍 Manual Latitude sauvegardée: " + manualLocation.getDouble("lat"));
+                        }
+                        if (manualLocation.hasKey("lon")) {
+                            editor.setManualLongitude((float) manualLocation.getDouble("lon"));
+                            debugLog("AdhanModule", "📍 Manual Longitude sauvegardée: " + manualLocation.getDouble("lon"));
+                        }
+                        if (manualLocation.hasKey("city")) {
+                            editor.setManualCityName(manualLocation.getString("city"));
+                            debugLog("AdhanModule", "📍 Manual City sauvegardé: " + manualLocation.getString("city"));
+                        }
                     }
                 }
             }
-        }
-        // Les coordonnées automatiques sont déjà sauvegardées via setLocation dans
-        // "adhan_prefs"
-        // lat, lon. AdhanService les lit déjà.
-
-        editor.apply();
+            // Les coordonnées automatiques sont déjà sauvegardées via setLocation.
+        });
         debugLog("AdhanModule", "✅ Paramètres de notification et localisation sauvegardés");
 
         // Mettre à jour le widget si les horaires ont changé
@@ -870,21 +941,19 @@ public class AdhanModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void saveTodayPrayerTimes(ReadableMap prayerTimes) {
-        SharedPreferences prefs = getReactApplicationContext()
-                .getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = prefs.edit();
+        Context context = getReactApplicationContext();
+        SharedPreferences prefs = context.getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
 
         // CRITIQUE: Marquer que cette sauvegarde vient d'un changement de méthode de
         // calcul
         boolean isFromMethodChange = prefs.getBoolean("pending_method_change", false);
         if (isFromMethodChange) {
             debugLog("AdhanModule", "[DEBUG] 🎯 Sauvegarde PRIORITAIRE depuis changement méthode");
-            editor.putBoolean("pending_method_change", false);
         }
 
         try {
             // JavaScript envoie maintenant directement des strings au format "HH:MM"
-            org.json.JSONObject json = new org.json.JSONObject();
+            Map<String, String> times = new java.util.LinkedHashMap<>();
             ReadableMapKeySetIterator iterator = prayerTimes.keySetIterator();
             while (iterator.hasNextKey()) {
                 String prayerName = iterator.nextKey(); // ex: "Fajr", "Dhuhr", etc.
@@ -893,47 +962,38 @@ public class AdhanModule extends ReactContextBaseJavaModule {
                 if (type == ReadableType.String) {
                     // JavaScript envoie directement "HH:MM"
                     String timeString = prayerTimes.getString(prayerName);
-                    json.put(prayerName, timeString);
-                    debugLog("AdhanModule", "✅ " + prayerName + ": " + timeString);
+                    times.put(prayerName, timeString);
+                    debugLog("AdhanModule", "✅ {}: {}", prayerName, timeString);
                 } else {
                     warningLog("AdhanModule",
                             "⚠️ Type inattendu pour " + prayerName + ": " + type + " (attendu: String)");
                 }
             }
 
-            // 🆕 AMÉLIORATION: Sauvegarde multiple pour compatibilité anciennes versions
-            // Android
-            String jsonString = json.toString();
-
-            // Sauvegarde principale
-            editor.putString("today_prayer_times", jsonString);
-
-            // 🆕 NOUVEAU: Sauvegarde de backup avec un préfixe de date pour éviter les
-            // conflits
             Calendar now = Calendar.getInstance();
             String dateKey = String.format(Locale.getDefault(), "%04d-%02d-%02d",
                     now.get(Calendar.YEAR),
                     now.get(Calendar.MONTH) + 1,
                     now.get(Calendar.DAY_OF_MONTH));
-            editor.putString("prayer_times_backup_" + dateKey, jsonString);
 
-            // 🆕 Sauvegarde individuelle pour chaque prière (fallback supplémentaire)
-            ReadableMapKeySetIterator iter2 = prayerTimes.keySetIterator();
-            while (iter2.hasNextKey()) {
-                String prayerName = iter2.nextKey();
-                if (prayerTimes.getType(prayerName) == ReadableType.String) {
-                    String timeString = prayerTimes.getString(prayerName);
-                    editor.putString("prayer_" + prayerName.toLowerCase() + "_time", timeString);
+            // Sauvegarde principale (JSON unique) ; les anciennes clés individuelles
+            // prayer_<nom>_time ne sont plus écrites et sont supprimées
+            // Écrit tout de suite : pending_method_change est relu par les services
+            SettingsStore.updateNow(context, editor -> {
+                editor.setTodayPrayerTimes(times, dateKey);
+                for (String prayerName : times.keySet()) {
+                    editor.putRaw(SettingsStore.PREFS_SETTINGS,
+                            "prayer_" + prayerName.toLowerCase() + "_time", null);
                 }
-            }
-
-            // 🆕 Sauvegarder la date de dernière mise à jour
-            editor.putLong("last_prayer_times_update", System.currentTimeMillis());
-            editor.putString("last_prayer_times_date", dateKey);
+                if (isFromMethodChange) {
+                    editor.putRaw(SettingsStore.PREFS_SETTINGS, "pending_method_change", false);
+                }
+            });
 
-            editor.apply();
+            // Backup daté dans l'historique borné (fichier circulaire, plus de clé par jour)
+            PrayerTimesHistory.put(context, dateKey, times);
 
-            debugLog("AdhanModule", "💾 Horaires du jour sauvegardés pour le widget (avec backups): " + jsonString);
+            debugLog("AdhanModule", "💾 Horaires du jour sauvegardés pour le widget: {}", times);
 
             // Mettre à jour le widget avec un petit délai pour s'assurer que les
             // préférences sont bien écrites
@@ -1080,31 +1140,13 @@ public class AdhanModule extends ReactContextBaseJavaModule {
             return;
         }
 
-        Intent intent = new Intent(context, PrayerTimesWidget.class);
-        intent.setAction("SMART_UPDATE_WIDGET");
-
-        android.app.PendingIntent pendingIntent = android.app.PendingIntent.getBroadcast(
-                context,
-                9999, // ID unique pour le widget
-                intent,
-                android.app.PendingIntent.FLAG_UPDATE_CURRENT | android.app.PendingIntent.FLAG_IMMUTABLE);
-
-        // 🔋 ÉCONOMIE BATTERIE: 30 minutes au lieu de 5 (96 fois/jour au lieu de 288)
+        // 🔋 ÉCONOMIE BATTERIE: toutes les 30 min dans la chaîne de réveil commune (avec une
+        // tolérance qui lui permet de partager le réveil d'une autre tâche ou d'une alarme)
         // + Les mises à jour immédiates après chaque prière restent
-        long intervalMillis = 30 * 60 * 1000; // 30 minutes
-        long firstTrigger = System.currentTimeMillis() + intervalMillis;
-
-        try {
-            alarmManager.setRepeating(
-                    android.app.AlarmManager.RTC_WAKEUP,
-                    firstTrigger,
-                    intervalMillis,
-                    pendingIntent);
-            debugLog("AdhanModule", "📱 Widget programmé pour mise à jour économique toutes les 30min ("
-                    + appWidgetIds.length + " widgets détectés)");
-        } catch (Exception e) {
-            errorLog("AdhanModule", "❌ Erreur programmation widget: " + e.getMessage());
-        }
+        cancelLegacyWidgetAlarm(context, alarmManager);
+        WakeupCoordinator.enable(context, WakeupCoordinator.TASK_WIDGET_REFRESH);
+        debugLog("AdhanModule", "📱 Rafraîchissement périodique du widget actif ("
+                + appWidgetIds.length + " widgets détectés)");
     }
 
     private void cancelWidgetUpdates(Context context) {
@@ -1113,6 +1155,13 @@ public class AdhanModule extends ReactContextBaseJavaModule {
         if (alarmManager == null)
             return;
 
+        cancelLegacyWidgetAlarm(context, alarmManager);
+        WakeupCoordinator.disable(context, WakeupCoordinator.TASK_WIDGET_REFRESH);
+        debugLog("AdhanModule", "🚫 Planificateur de widget annulé");
+    }
+
+    /** Ancienne alarme répétitive dédiée (setRepeating toutes les 30 min). */
+    private void cancelLegacyWidgetAlarm(Context context, android.app.AlarmManager alarmManager) {
         Intent intent = new Intent(context, PrayerTimesWidget.class);
         intent.setAction("SMART_UPDATE_WIDGET");
 
@@ -1125,10 +1174,75 @@ public class AdhanModule extends ReactContextBaseJavaModule {
         if (pendingIntent != null) {
             alarmManager.cancel(pendingIntent);
             pendingIntent.cancel();
-            debugLog("AdhanModule", "🚫 Planificateur de widget annulé");
         }
     }
 
+    /** Réveils de la chaîne commune et exécutions par tâche (impact batterie). */
+    @ReactMethod
+    public void getWakeupStats(Promise promise) {
+        try {
+            WritableMap stats = Arguments.createMap();
+            for (Map.Entry<String, Long> entry : WakeupCoordinator.getStats(getReactApplicationContext()).entrySet()) {
+                stats.putDouble(entry.getKey(), entry.getValue());
+            }
+            promise.resolve(stats);
+        } catch (Exception e) {
+            promise.reject("WAKEUP_STATS_ERROR", e);
+        }
+    }
+
+    // ============ CALENDRIER ============
+
+    /** Plage maximale d'un appel computeTimetable (deux ans). */
+    private static final int MAX_TIMETABLE_DAYS = 731;
+    private static final ExecutorService TIMETABLE_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /**
+     * Horaires de {@code days} jours à partir de startDate ("yyyy-MM-dd"), calculés hors thread
+     * du bridge en un seul appel. Résultat : { startDate, days, stride, order, packed } où packed
+     * = base64 d'un Int16Array little-endian (stride valeurs par jour, minutes depuis le minuit
+     * local, voir {@link PrayerCalculator#computeRange}).
+     */
+    @ReactMethod
+    public void computeTimetable(double lat, double lon, String method, String startDate, int days,
+            Promise promise) {
+        if (days <= 0 || days > MAX_TIMETABLE_DAYS) {
+            promise.reject("TIMETABLE_INVALID_RANGE", "days doit être entre 1 et " + MAX_TIMETABLE_DAYS);
+            return;
+        }
+        // Date stricte : "2026-02-30" ou "2026-13-01" ne sont pas reportées sur le mois suivant
+        final int[] date = PrayerCalculator.parseDate(startDate);
+        if (date == null) {
+            promise.reject("TIMETABLE_INVALID_DATE", "Date attendue au format yyyy-MM-dd: " + startDate);
+            return;
+        }
+        TIMETABLE_EXECUTOR.execute(() -> {
+            try {
+                long startNanos = System.nanoTime();
+                short[] times = PrayerCalculator.computeRange(lat, lon, method, date[0], date[1], date[2], days,
+                        TimeZone.getDefault());
+
+                WritableMap result = Arguments.createMap();
+                result.putString("startDate", startDate);
+                result.putInt("days", days);
+                result.putInt("stride", PrayerCalculator.RANGE_STRIDE);
+                WritableArray order = Arguments.createArray();
+                for (String prayer : new String[] { "Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha" }) {
+                    order.pushString(prayer);
+                }
+                result.putArray("order", order);
+                result.putString("packed",
+                        Base64.encodeToString(PrayerCalculator.packLittleEndian(times), Base64.NO_WRAP));
+                debugLog("AdhanModule", "📅 Calendrier {} jours calculé en {} ms", days,
+                        (System.nanoTime() - startNanos) / 1_000_000L);
+                promise.resolve(result);
+            } catch (Exception e) {
+                errorLog("AdhanModule", "❌ Erreur calcul calendrier: " + e.getMessage(), e);
+                promise.reject("TIMETABLE_ERROR", e.getMessage());
+            }
+        });
+    }
+
     // ============ CONTENU PREMIUM ============
 
     @ReactMethod
@@ -1146,6 +1260,8 @@ public class AdhanModule extends ReactContextBaseJavaModule {
             boolean success = premiumPrefs.edit()
                 .putString("downloaded_premium_content", jsonData)
                 .commit(); // ✅ SYNCHRONE
+            // JS vient aussi d'écrire downloaded_premium_content dans AsyncStorage
+            AsyncStorageReader.invalidate();
             
             if (success) {
                 // Vérification : Relire pour confirmer
@@ -0,0 +1,260 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.media.MediaPlayer;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Pré-chauffage de l'adhan : ~1 min avant l'heure, on résout le fichier audio et on
+ * prépare le MediaPlayer, puis AdhanService le récupère via {@link #take} pour démarrer
+ * la lecture sans attendre le stockage ni le décodeur.
+ */
+public final class AdhanPrewarm {
+
+    private static final String TAG = "AdhanPrewarm";
+    public static final String ACTION_PREWARM = "com.drogbinho.prayertimesapp2.ACTION_ADHAN_PREWARM";
+    /** Heure prévue de l'adhan, propagée AdhanReceiver → AdhanService pour mesurer le décalage. */
+    public static final String EXTRA_SCHEDULED_AT = "ADHAN_SCHEDULED_AT";
+
+    private static final String PREFS = "adhan_prefs";
+    public static final String KEY_ENABLED = "adhan_prewarm_enabled";
+    public static final String KEY_LAST_START_PRAYER = "last_start_prayer";
+    public static final String KEY_LAST_START_OFFSET_MS = "last_start_offset_ms";
+    public static final String KEY_LAST_START_PREWARMED = "last_start_prewarmed";
+    public static final String KEY_LAST_START_AT = "last_start_at";
+    public static final String KEY_PREWARM_HITS = "prewarm_hits";
+    public static final String KEY_PREWARM_MISSES = "prewarm_misses";
+
+    static final long PREWARM_LEAD_MS = 60 * 1000L;
+    /** Au-delà, un lecteur préparé mais jamais récupéré est libéré. */
+    private static final long MAX_HOLD_MS = 3 * 60 * 1000L;
+    /** Attente maximale avant l'heure exacte si le service démarre en avance. */
+    static final long MAX_EARLY_WAIT_MS = 5 * 1000L;
+
+    private static final String[] PRAYERS = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
+    private static final Object LOCK = new Object();
+
+    private static MediaPlayer preparedPlayer;
+    private static String preparedPrayer;
+    private static String preparedSound;
+    private static long preparedAt;
+
+    private AdhanPrewarm() {}
+
+    public static boolean isEnabled(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).getBoolean(KEY_ENABLED, true);
+    }
+
+    private static int requestCode(String prayerName, long adhanAtMillis) {
+        String dayString = new SimpleDateFormat("yyyyMMdd", Locale.getDefault()).format(new Date(adhanAtMillis));
+        return ("prewarm_" + prayerName + "_" + dayString).hashCode();
+    }
+
+    private static Intent buildIntent(Context context) {
+        Intent intent = new Intent(context, AdhanPrewarmReceiver.class);
+        intent.setAction(ACTION_PREWARM);
+        return intent;
+    }
+
+    /**
+     * Programme le pré-chauffage PREWARM_LEAD_MS avant l'adhan (même clé jour que l'alarme
+     * adhan, une reprogrammation écrase donc la précédente).
+     */
+    public static void schedule(Context context, AlarmManager alarmManager, String prayerName,
+            long adhanAtMillis, String adhanSound) {
+        if (prayerName == null || !isEnabled(context)) {
+            return;
+        }
+        long prewarmAt = adhanAtMillis - PREWARM_LEAD_MS;
+        if (prewarmAt <= System.currentTimeMillis()) {
+            debugLog(TAG, "Pré-chauffage ignoré pour " + prayerName + " (trop proche de l'adhan)");
+            return;
+        }
+
+        Intent intent = buildIntent(context);
+        intent.putExtra("PRAYER_LABEL", prayerName);
+        intent.putExtra("ADHAN_SOUND", adhanSound);
+        intent.putExtra(EXTRA_SCHEDULED_AT, adhanAtMillis);
+
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, requestCode(prayerName, adhanAtMillis),
+                intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        try {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, prewarmAt, pendingIntent);
+            debugLog(TAG, "Pré-chauffage programmé pour " + prayerName + " à " + new Date(prewarmAt));
+        } catch (Exception e) {
+            warningLog(TAG, "Pré-chauffage non programmé pour " + prayerName + ": " + e.getMessage());
+        }
+    }
+
+    /** Annule le pré-chauffage d'un adhan précis (alarme sortie de l'horizon). */
+    public static void cancel(Context context, AlarmManager alarmManager, String prayerName, long adhanAtMillis) {
+        if (prayerName == null) {
+            return;
+        }
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, requestCode(prayerName, adhanAtMillis),
+                buildIntent(context), PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+        if (pendingIntent != null) {
+            alarmManager.cancel(pendingIntent);
+            pendingIntent.cancel();
+        }
+    }
+
+    /** Annule les pré-chauffages d'hier, aujourd'hui et demain. */
+    public static void cancelAll(Context context, AlarmManager alarmManager) {
+        Calendar cal = Calendar.getInstance();
+        int cancelCount = 0;
+        for (int dayOffset = -1; dayOffset <= 1; dayOffset++) {
+            cal.setTimeInMillis(System.currentTimeMillis());
+            cal.add(Calendar.DAY_OF_YEAR, dayOffset);
+            for (String prayer : PRAYERS) {
+                PendingIntent pendingIntent = PendingIntent.getBroadcast(context,
+                        requestCode(prayer, cal.getTimeInMillis()), buildIntent(context),
+                        PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+                if (pendingIntent != null) {
+                    alarmManager.cancel(pendingIntent);
+                    pendingIntent.cancel();
+                    cancelCount++;
+                }
+            }
+        }
+        release();
+        debugLog(TAG, cancelCount + " pré-chauffages annulés");
+    }
+
+    /**
+     * Résout le son et prépare le lecteur. Appelé hors thread principal par
+     * AdhanPrewarmReceiver ; les callbacks MediaPlayer arriveront sur le main looper.
+     */
+    static void prepare(Context context, String prayerName, String adhanSound, long adhanAtMillis) {
+        String sound = adhanSound != null ? adhanSound
+                : context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).getString("ADHAN_SOUND", "misharyrachid");
+        MediaPlayer player = null;
+        try {
+            if (AdhanService.isPremiumSound(sound)) {
+                String path = AdhanService.getPremiumSoundPath(context, sound);
+                if (path != null && new File(path).exists()) {
+                    player = new MediaPlayer();
+                    player.setDataSource(path);
+                    player.prepare();
+                }
+            }
+            if (player == null) {
+                int resId = context.getResources().getIdentifier(sound, "raw", context.getPackageName());
+                if (resId == 0) {
+                    // Les variantes / fallbacks restent gérés par AdhanService
+                    debugLog(TAG, "Pré-chauffage: ressource introuvable pour " + sound);
+                    return;
+                }
+                player = MediaPlayer.create(context, resId);
+            }
+        } catch (Exception e) {
+            warningLog(TAG, "Pré-chauffage échoué pour " + prayerName + ": " + e.getMessage());
+            if (player != null) {
+                player.release();
+            }
+            return;
+        }
+        if (player == null) {
+            return;
+        }
+
+        synchronized (LOCK) {
+            releaseLocked();
+            preparedPlayer = player;
+            preparedPrayer = prayerName;
+            preparedSound = sound;
+            preparedAt = System.currentTimeMillis();
+        }
+        debugLog(TAG, "🔥 Lecteur pré-chauffé pour " + prayerName + " (" + sound + ")");
+        TraceRecorder.record(TraceRecorder.SUB_ADHAN, TraceRecorder.EV_ADHAN_PREWARM_READY, adhanAtMillis, 0);
+
+        new Handler(Looper.getMainLooper()).postDelayed(AdhanPrewarm::releaseIfStale, MAX_HOLD_MS);
+    }
+
+    /**
+     * Récupère le lecteur préparé s'il correspond à la prière et au son demandés.
+     * Le lecteur appartient ensuite à l'appelant.
+     */
+    static MediaPlayer take(String prayerName, String sound) {
+        synchronized (LOCK) {
+            if (preparedPlayer == null) {
+                return null;
+            }
+            boolean matches = prayerName != null && prayerName.equals(preparedPrayer)
+                    && sound != null && sound.equals(preparedSound)
+                    && System.currentTimeMillis() - preparedAt < MAX_HOLD_MS;
+            if (!matches) {
+                releaseLocked();
+                return null;
+            }
+            MediaPlayer player = preparedPlayer;
+            preparedPlayer = null;
+            preparedPrayer = null;
+            preparedSound = null;
+            return player;
+        }
+    }
+
+    static void release() {
+        synchronized (LOCK) {
+            releaseLocked();
+        }
+    }
+
+    private static void releaseIfStale() {
+        synchronized (LOCK) {
+            if (preparedPlayer != null && System.currentTimeMillis() - preparedAt >= MAX_HOLD_MS) {
+                debugLog(TAG, "Lecteur pré-chauffé non utilisé, libération (" + preparedPrayer + ")");
+                releaseLocked();
+            }
+        }
+    }
+
+    private static void releaseLocked() {
+        if (preparedPlayer != null) {
+            try {
+                preparedPlayer.release();
+            } catch (Exception e) {
+                warningLog(TAG, "Erreur libération lecteur pré-chauffé: " + e.getMessage());
+            }
+        }
+        preparedPlayer = null;
+        preparedPrayer = null;
+        preparedSound = null;
+        preparedAt = 0;
+    }
+
+    /** Mémorise le décalage réel entre l'heure prévue et le démarrage de la lecture. */
+    static void recordStart(Context context, String prayerName, long scheduledAtMillis, boolean prewarmed) {
+        long now = System.currentTimeMillis();
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        SharedPreferences.Editor editor = prefs.edit()
+                .putString(KEY_LAST_START_PRAYER, prayerName)
+                .putBoolean(KEY_LAST_START_PREWARMED, prewarmed)
+                .putLong(KEY_LAST_START_AT, now)
+                .putLong(prewarmed ? KEY_PREWARM_HITS : KEY_PREWARM_MISSES,
+                        prefs.getLong(prewarmed ? KEY_PREWARM_HITS : KEY_PREWARM_MISSES, 0) + 1);
+        if (scheduledAtMillis > 0) {
+            long offset = now - scheduledAtMillis;
+            editor.putLong(KEY_LAST_START_OFFSET_MS, offset);
+            debugLog(TAG, "⏱️ Adhan " + prayerName + " démarré avec " + offset + " ms de décalage (pré-chauffé: "
+                    + prewarmed + ")");
+        } else {
+            editor.remove(KEY_LAST_START_OFFSET_MS);
+        }
+        editor.apply();
+    }
+}
@@ -0,0 +1,42 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Reçoit l'alarme de pré-chauffage (~1 min avant l'adhan) et prépare le lecteur hors du
+ * thread principal. Pas de service de premier plan : le travail tient dans goAsync().
+ */
+public class AdhanPrewarmReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (intent == null || !AdhanPrewarm.ACTION_PREWARM.equals(intent.getAction())) {
+            return;
+        }
+        if (!AdhanPrewarm.isEnabled(context)) {
+            return;
+        }
+
+        final String prayerLabel = intent.getStringExtra("PRAYER_LABEL");
+        final String adhanSound = intent.getStringExtra("ADHAN_SOUND");
+        final long adhanAtMillis = intent.getLongExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT, 0);
+        final Context appContext = context.getApplicationContext();
+        final PendingResult pendingResult = goAsync();
+
+        debugLog("AdhanPrewarmReceiver", "Pré-chauffage adhan pour " + prayerLabel);
+
+        new Thread(() -> {
+            try {
+                AdhanPrewarm.prepare(appContext, prayerLabel, adhanSound, adhanAtMillis);
+            } catch (Exception e) {
+                errorLog("AdhanPrewarmReceiver", "Erreur pré-chauffage: " + e.getMessage(), e);
+            } finally {
+                pendingResult.finish();
+            }
+        }, "AdhanPrewarm").start();
+    }
+}
@@ -10,6 +10,9 @@ import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
 public class AdhanReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
+        // Réarme les prochaines alarmes de l'horizon avant tout retour anticipé
+        AlarmHorizon.onFired(context);
+
         try {
             String adhanSound = intent.getStringExtra("ADHAN_SOUND");
             String prayerLabel = intent.getStringExtra("PRAYER_LABEL");
@@ -55,6 +58,9 @@ public class AdhanReceiver extends BroadcastReceiver {
 
             Intent serviceIntent = new Intent(context, AdhanService.class);
             serviceIntent.putExtras(intent);
+            serviceIntent.putExtra(AdhanLatencyTracker.EXTRA_RECEIVED_AT, now);
+            TraceRecorder.record(TraceRecorder.SUB_ADHAN, TraceRecorder.EV_ADHAN_ALARM_RECEIVED,
+                    intent.getLongExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT, 0), 0);
 
             if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
                 context.startForegroundService(serviceIntent);
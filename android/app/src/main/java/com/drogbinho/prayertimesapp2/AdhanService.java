@@ -41,23 +41,16 @@ public class AdhanService extends Service {
     private MediaPlayer mediaPlayer;
     private String lastPrayerLabel = null; // Utilisé pour savoir quelle prière arrêter et pour la reprog après Isha
     private boolean isPlayingDuaAfterAdhan = false; // Indique si on joue le dua après l'adhan
+    private long scheduledAtMillis = 0; // Heure prévue de l'adhan (0 si inconnue), pour mesurer le décalage
+    private AdhanLatencyTracker latencyTracker; // Horodatage des étapes de l'adhan en cours
+    // Reprogrammation après boot hors thread principal (créé à la demande)
+    private HandlerThread bootWorker;
+    private Handler bootHandler;
 
-    // Méthode pour vérifier si une prière est muette
+    // Méthode pour vérifier si une prière est muette (ensemble déjà parsé dans le snapshot)
     private boolean isPrayerMuted(String prayerLabel) {
         try {
-            SharedPreferences prefs = getSharedPreferences("muted_prayers", MODE_PRIVATE);
-            String mutedPrayersList = prefs.getString("muted_prayers_list", "");
-            if (mutedPrayersList.isEmpty()) {
-                return false;
-            }
-
-            String[] mutedPrayers = mutedPrayersList.split(",");
-            for (String mutedPrayer : mutedPrayers) {
-                if (mutedPrayer.trim().equals(prayerLabel)) {
-                    return true;
-                }
-            }
-            return false;
+            return SettingsStore.get(this).isPrayerMuted(prayerLabel);
         } catch (Exception e) {
             errorLog(TAG, "Erreur lors de la vérification des prières muettes: " + e.getMessage());
             return false; // En cas d'erreur, ne pas rendre muet
@@ -107,6 +100,7 @@ public class AdhanService extends Service {
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
+        long commandReceivedAt = System.currentTimeMillis();
         errorLog(TAG, "**************************************");
         errorLog(TAG, "🔥 ADHAN SERVICE - COMMANDE REÇUE");
         errorLog(TAG, "**************************************");
@@ -121,10 +115,9 @@ public class AdhanService extends Service {
         String action = intent.getAction();
         String prayerLabel = intent.getStringExtra("PRAYER_LABEL"); // Peut être null pour une action STOP générique
 
-        // Récupère la langue actuelle des SharedPreferences pour les textes de la notif
+        // Récupère la langue actuelle (snapshot SettingsStore) pour les textes de la notif
         // de service
-        SharedPreferences settings = getSharedPreferences("prayer_times_settings", MODE_PRIVATE);
-        String currentLanguage = settings.getString("current_language", "en");
+        String currentLanguage = SettingsStore.get(this).language;
 
         if (ACTION_STOP.equals(action)) {
             String stopReason = prayerLabel != null ? prayerLabel
@@ -158,9 +151,9 @@ public class AdhanService extends Service {
 
         if (ACTION_REPROGRAM_ADHAN_ALARMS.equals(action)) {
             debugLog(TAG, "[BOOT_COMPLETED] Reprogrammation après redémarrage du téléphone (ancienne méthode)");
-            reprogramAlarmsAfterBoot();
-            stopSelf(); // Arrête le service après reprogrammation
-            return START_NOT_STICKY;
+            startBootReprogramming(startId);
+            // Relivré si le processus est tué avant la fin : reprise à l'étape suivante
+            return START_REDELIVER_INTENT;
         }
 
         if (ACTION_REPROGRAM_ADHAN_ALARMS_DELAYED.equals(action)) {
@@ -168,10 +161,9 @@ public class AdhanService extends Service {
                     "[BOOT_COMPLETED_DELAYED] Reprogrammation différée après redémarrage du téléphone (Android 15+ compatible)");
             // Cette action ne démarre PAS en service de premier plan pour être compatible
             // avec Android 15+
-            // Elle effectue juste la reprogrammation en arrière-plan
-            reprogramAlarmsAfterBoot();
-            stopSelf(); // Arrête le service après reprogrammation
-            return START_NOT_STICKY;
+            // Elle effectue juste la reprogrammation en arrière-plan (thread dédié, par étapes)
+            startBootReprogramming(startId);
+            return START_REDELIVER_INTENT;
         }
 
         // Si on arrive ici, ce n'est ni une action STOP ni une action de
@@ -228,6 +220,10 @@ public class AdhanService extends Service {
         }
         debugLog(TAG, "Service démarré en premier plan pour: " + prayerLabel);
 
+        this.scheduledAtMillis = intent.getLongExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT, 0);
+        TraceRecorder.record(TraceRecorder.SUB_ADHAN, TraceRecorder.EV_ADHAN_SERVICE_START, scheduledAtMillis, 0);
+        this.latencyTracker = new AdhanLatencyTracker(prayerLabel, scheduledAtMillis,
+                intent.getLongExtra(AdhanLatencyTracker.EXTRA_RECEIVED_AT, 0), commandReceivedAt);
         playAdhanSound(intent.getStringExtra("ADHAN_SOUND"), prayerLabel, currentLanguage);
 
         return START_STICKY; // Reste actif jusqu'à arrêt explicite
@@ -238,11 +234,11 @@ public class AdhanService extends Service {
             stopAdhan(); // Arrête toute lecture précédente
         }
 
-        SharedPreferences adhanPrefs = getSharedPreferences("adhan_prefs", MODE_PRIVATE);
-        String soundFromPrefs = adhanPrefs.getString("ADHAN_SOUND", "misharyrachid");
+        SettingsStore.Snapshot settings = SettingsStore.get(this);
+        String soundFromPrefs = settings.adhanSound;
         String soundToPlay = (adhanSoundKey != null) ? adhanSoundKey : soundFromPrefs;
 
-        float volume = adhanPrefs.getFloat("adhan_volume", 1.0f);
+        float volume = settings.adhanVolume;
 
         debugLog(TAG, "🔊 ============ DEBUG SONS ADHAN ============");
         debugLog(TAG, "  - adhanSoundKey (Intent): " + adhanSoundKey);
@@ -252,11 +248,23 @@ public class AdhanService extends Service {
         debugLog(TAG, "  - prayerLabel: " + prayerLabelForCompletion);
         debugLog(TAG, "📢 Tentative de lecture Adhan: " + soundToPlay + " pour " + prayerLabelForCompletion);
 
+        // 🚀 NOUVEAU : Reprendre le lecteur pré-chauffé (AdhanPrewarm) s'il correspond
+        MediaPlayer prewarmedPlayer = AdhanPrewarm.take(prayerLabelForCompletion, soundToPlay);
+        if (prewarmedPlayer != null) {
+            debugLog(TAG, "🔥 Lecteur pré-chauffé récupéré pour " + prayerLabelForCompletion);
+            mediaPlayer = prewarmedPlayer;
+            // Résolution et préparation déjà faites hors du chemin critique
+            latencyTracker.markResolved();
+            latencyTracker.markPrepared();
+            startPrewarmedAdhan(volume, prayerLabelForCompletion);
+            return;
+        }
+
         // Vérifier d'abord si c'est un son premium téléchargé
         if (isPremiumSound(soundToPlay)) {
             debugLog(TAG, "🔍 SON PREMIUM DÉTECTÉ: " + soundToPlay);
             debugLog(TAG, "🔍 Recherche du fichier premium...");
-            String premiumFilePath = getPremiumSoundPath(soundToPlay);
+            String premiumFilePath = getPremiumSoundPath(this, soundToPlay);
             debugLog(TAG, "🔍 Chemin retourné par getPremiumSoundPath: " + premiumFilePath);
 
             if (premiumFilePath != null) {
@@ -268,6 +276,7 @@ public class AdhanService extends Service {
                 if (premiumFile.exists()) {
                     debugLog(TAG, "✅ FICHIER PREMIUM TROUVÉ: " + premiumFilePath);
                     debugLog(TAG, "🎵 LECTURE DU SON PREMIUM...");
+                    latencyTracker.markResolved();
                     playPremiumAdhanSound(premiumFilePath, volume, prayerLabelForCompletion);
                     return;
                 } else {
@@ -570,12 +579,14 @@ public class AdhanService extends Service {
             }
         }
 
+        latencyTracker.markResolved();
         mediaPlayer = MediaPlayer.create(this, resId);
         if (mediaPlayer == null) {
             errorLog(TAG, "MediaPlayer.create a échoué pour resId: " + resId);
             handleAdhanCompletion(prayerLabelForCompletion);
             return;
         }
+        latencyTracker.markPrepared();
 
         try {
             AudioManager audioManager = (AudioManager) getSystemService(Context.AUDIO_SERVICE);
@@ -605,6 +616,7 @@ public class AdhanService extends Service {
             });
 
             mediaPlayer.start();
+            onAdhanPlaybackStarted(prayerLabelForCompletion, false);
             debugLog(TAG, "Adhan démarré pour: " + prayerLabelForCompletion);
 
         } catch (Exception e) {
@@ -614,144 +626,98 @@ public class AdhanService extends Service {
     }
 
     // Vérifier si c'est un son premium
-    private boolean isPremiumSound(String soundName) {
+    static boolean isPremiumSound(String soundName) {
         return soundName != null && soundName.startsWith("adhan_");
     }
 
     // Obtenir le chemin du fichier premium téléchargé
-    private String getPremiumSoundPath(String soundName) {
+    // 🚀 NOUVEAU : statique pour être partagé avec le pré-chauffage (AdhanPrewarm)
+    static String getPremiumSoundPath(Context context, String soundName) {
         try {
-            errorLog(TAG, "🔍 ========== RECHERCHE SON PREMIUM ==========");
-            errorLog(TAG, "🔍 Son demandé: " + soundName);
-
-            // Essayer plusieurs noms de bases de données AsyncStorage (pour compatibilité)
-            String[] possibleDbNames = {
-                    "RCTAsyncLocalStorage_AsyncStorageDatabase",
-                    "AsyncStorage",
-                    "RCTAsyncLocalStorage"
-            };
+            debugLog(TAG, "🔍 Recherche son premium: {}", soundName);
 
-            String downloadedContentJson = null;
+            // AsyncStorage lu via la connexion partagée (cache invalidé à chaque écriture JS)
+            String downloadedContentJson = AsyncStorageReader.get(context,
+                    AsyncStorageReader.KEY_DOWNLOADED_CONTENT);
             String foundInDb = null;
-
-            // Essayer chaque nom de base de données
-            for (String dbName : possibleDbNames) {
-                try {
-                    SharedPreferences prefs = getSharedPreferences(dbName, MODE_PRIVATE);
-                    downloadedContentJson = prefs.getString("downloaded_premium_content", null);
-                    if (downloadedContentJson != null) {
-                        foundInDb = dbName;
-                        errorLog(TAG, "✅ Données premium trouvées dans: " + dbName);
-                        errorLog(TAG, "📦 Contenu JSON (premiers 200 chars): "
-                                + downloadedContentJson.substring(0, Math.min(200, downloadedContentJson.length())));
-                        break;
-                    } else {
-                        debugLog(TAG, "❌ Pas de données dans: " + dbName);
-                    }
-                } catch (Exception e) {
-                    debugLog(TAG, "❌ Erreur accès " + dbName + ": " + e.getMessage());
-                }
+            if (downloadedContentJson != null) {
+                foundInDb = "AsyncStorage";
+                debugLog(TAG, "✅ Données premium trouvées dans AsyncStorage ({} chars)",
+                        downloadedContentJson.length());
             }
 
             // Si pas trouvé dans AsyncStorage, essayer dans les préférences dédiées
             if (downloadedContentJson == null) {
-                SharedPreferences premiumPrefs = getSharedPreferences("premium_content", MODE_PRIVATE);
+                SharedPreferences premiumPrefs = context.getSharedPreferences("premium_content",
+                        Context.MODE_PRIVATE);
                 downloadedContentJson = premiumPrefs.getString("downloaded_premium_content", null);
                 if (downloadedContentJson != null) {
                     foundInDb = "premium_content";
-                    errorLog(TAG, "✅ Données premium trouvées dans premium_content");
-                    errorLog(TAG, "📦 Contenu JSON (premiers 200 chars): "
-                            + downloadedContentJson.substring(0, Math.min(200, downloadedContentJson.length())));
+                    debugLog(TAG, "✅ Données premium trouvées dans premium_content ({} chars)",
+                            downloadedContentJson.length());
                 } else {
-                    errorLog(TAG, "❌ Pas de données dans premium_content non plus");
+                    debugLog(TAG, "❌ Pas de données dans premium_content non plus");
                 }
             }
 
             // 🚀 NOUVEAU FALLBACK : Si toujours rien, scanner le dossier physique
             // directement
             if (downloadedContentJson == null) {
-                errorLog(TAG, "🔍 FALLBACK: Scan du dossier physique...");
-                String physicalPath = scanPhysicalDirectoryForAdhan(soundName);
+                debugLog(TAG, "🔍 FALLBACK: Scan du dossier physique...");
+                String physicalPath = scanPhysicalDirectoryForAdhan(context, soundName);
                 if (physicalPath != null) {
-                    errorLog(TAG, "✅✅✅ FICHIER TROUVÉ PAR SCAN PHYSIQUE ✅✅✅");
-                    errorLog(TAG, "   Chemin: " + physicalPath);
-                    errorLog(TAG, "=========================================");
+                    debugLog(TAG, "✅ Fichier trouvé par scan physique: {}", physicalPath);
                     return physicalPath;
                 } else {
-                    errorLog(TAG, "❌ Scan physique: Aucun fichier trouvé");
+                    warnLog(TAG, "❌ Scan physique: aucun fichier trouvé pour {}", soundName);
                 }
             }
 
             if (downloadedContentJson != null) {
-                errorLog(TAG, "📦 Base de données trouvée dans: " + foundInDb);
-
                 // Parser le JSON pour trouver le chemin du fichier
                 org.json.JSONObject downloadedContent = new org.json.JSONObject(downloadedContentJson);
-                errorLog(TAG, "🔍 Clés disponibles dans le JSON: " + downloadedContent.keys().toString());
-                errorLog(TAG, "🔍 Recherche de la clé: '" + soundName + "'");
 
                 // 🚀 NOUVEAU : Générer plusieurs variantes du nom pour maximiser les chances de trouver le fichier
                 java.util.List<String> soundNameVariants = new java.util.ArrayList<>();
                 soundNameVariants.add(soundName); // Nom original
-                
+
                 // Variante sans préfixe "adhan_"
                 if (soundName.startsWith("adhan_")) {
                     soundNameVariants.add(soundName.substring(6)); // Enlever "adhan_"
-                    errorLog(TAG, "🔄 Variante ajoutée (sans préfixe): " + soundName.substring(6));
                 } else {
                     // Variante avec préfixe "adhan_"
                     soundNameVariants.add("adhan_" + soundName);
-                    errorLog(TAG, "🔄 Variante ajoutée (avec préfixe): adhan_" + soundName);
                 }
 
                 // Essayer chaque variante
                 for (String variant : soundNameVariants) {
-                    errorLog(TAG, "🔍 Test variante: '" + variant + "'");
-                    
                     if (downloadedContent.has(variant)) {
-                        errorLog(TAG, "✅ Clé trouvée dans JSON: " + variant);
                         org.json.JSONObject contentInfo = downloadedContent.getJSONObject(variant);
                         String filePath = contentInfo.getString("downloadPath");
-                        errorLog(TAG, "📁 Chemin extrait: " + filePath);
 
                         // Vérifier que le fichier existe vraiment
                         java.io.File file = new java.io.File(filePath);
                         if (file.exists()) {
-                            long fileSize = file.length();
-                            errorLog(TAG, "✅✅✅ FICHIER PREMIUM TROUVÉ ✅✅✅");
-                            errorLog(TAG, "   Variante utilisée: " + variant);
-                            errorLog(TAG, "   Chemin: " + filePath);
-                            errorLog(TAG, "   Taille: " + fileSize + " bytes");
-                            errorLog(TAG, "=========================================");
+                            debugLog(TAG, "✅ Fichier premium trouvé ({}, {}): {}", variant, foundInDb, filePath);
                             return filePath;
                         } else {
-                            errorLog(TAG, "⚠️ Clé trouvée mais fichier manquant: " + filePath);
+                            warnLog(TAG, "⚠️ Clé trouvée mais fichier manquant: {}", filePath);
                             // Continuer avec la prochaine variante
                         }
                     }
                 }
 
                 // Si aucune variante n'a fonctionné
-                errorLog(TAG, "❌❌❌ AUCUNE VARIANTE TROUVÉE DANS JSON ❌❌❌");
-                errorLog(TAG, "   Clé recherchée: '" + soundName + "'");
-                errorLog(TAG, "   Variantes testées: " + soundNameVariants.toString());
-                errorLog(TAG, "   Clés disponibles: " + downloadedContent.keys().toString());
-                errorLog(TAG, "🔍 FALLBACK: Tentative scan physique...");
-                
+                warnLog(TAG, "❌ Aucune variante trouvée dans le JSON: {}", soundNameVariants);
+
                 // 🚀 FALLBACK : Scanner le dossier physique même si JSON existe
-                String physicalPath = scanPhysicalDirectoryForAdhan(soundName);
+                String physicalPath = scanPhysicalDirectoryForAdhan(context, soundName);
                 if (physicalPath != null) {
-                    errorLog(TAG, "✅✅✅ FICHIER TROUVÉ PAR SCAN PHYSIQUE (malgré JSON présent) ✅✅✅");
-                    errorLog(TAG, "   Chemin: " + physicalPath);
-                    errorLog(TAG, "=========================================");
+                    debugLog(TAG, "✅ Fichier trouvé par scan physique (malgré JSON présent): {}", physicalPath);
                     return physicalPath;
                 }
-                
-                errorLog(TAG, "=========================================");
             } else {
-                errorLog(TAG, "❌❌❌ AUCUNE BASE DE DONNÉES TROUVÉE ❌❌❌");
-                errorLog(TAG, "   Testé: AsyncStorage + premium_content");
-                errorLog(TAG, "=========================================");
+                warnLog(TAG, "❌ Aucune donnée premium (AsyncStorage + premium_content) pour {}", soundName);
             }
         } catch (Exception e) {
             errorLog(TAG, "❌ Erreur récupération chemin premium: " + e.getMessage());
@@ -760,20 +726,16 @@ public class AdhanService extends Service {
     }
 
     // 🚀 NOUVEAU : Scanner le dossier physique pour trouver le fichier Adhan
-    private String scanPhysicalDirectoryForAdhan(String soundName) {
+    private static String scanPhysicalDirectoryForAdhan(Context context, String soundName) {
         try {
-            errorLog(TAG, "📁 Début scan physique pour: " + soundName);
-
             // Chemin du dossier premium_content
-            java.io.File premiumDir = new java.io.File(getFilesDir(), "premium_content");
+            java.io.File premiumDir = new java.io.File(context.getFilesDir(), "premium_content");
 
             if (!premiumDir.exists() || !premiumDir.isDirectory()) {
-                errorLog(TAG, "❌ Dossier premium_content n'existe pas: " + premiumDir.getAbsolutePath());
+                debugLog(TAG, "❌ Dossier premium_content n'existe pas: {}", premiumDir);
                 return null;
             }
 
-            errorLog(TAG, "📁 Dossier trouvé: " + premiumDir.getAbsolutePath());
-
             // Lister tous les fichiers .mp3
             java.io.File[] files = premiumDir.listFiles(new java.io.FileFilter() {
                 @Override
@@ -783,58 +745,43 @@ public class AdhanService extends Service {
             });
 
             if (files == null || files.length == 0) {
-                errorLog(TAG, "❌ Aucun fichier .mp3 trouvé dans le dossier");
+                debugLog(TAG, "❌ Aucun fichier .mp3 trouvé dans {}", premiumDir);
                 return null;
             }
 
-            errorLog(TAG, "📦 " + files.length + " fichiers .mp3 trouvés");
-
             // 🚀 NOUVEAU : Générer plusieurs variantes du nom de fichier pour maximiser les chances
             java.util.List<String> targetFileNames = new java.util.ArrayList<>();
             targetFileNames.add(soundName + ".mp3"); // Nom original
-            
+
             // Variante sans préfixe "adhan_"
             if (soundName.startsWith("adhan_")) {
                 targetFileNames.add(soundName.substring(6) + ".mp3"); // Enlever "adhan_"
-                errorLog(TAG, "🔄 Variante fichier ajoutée: " + soundName.substring(6) + ".mp3");
             } else {
                 // Variante avec préfixe "adhan_"
                 targetFileNames.add("adhan_" + soundName + ".mp3");
-                errorLog(TAG, "🔄 Variante fichier ajoutée: adhan_" + soundName + ".mp3");
             }
 
             // Chercher le fichier qui correspond à l'une des variantes
             for (java.io.File file : files) {
                 String fileName = file.getName();
-                
+
                 for (String targetFileName : targetFileNames) {
                     if (fileName.equals(targetFileName)) {
-                        errorLog(TAG, "✅ CORRESPONDANCE TROUVÉE: " + file.getAbsolutePath());
-                        errorLog(TAG, "   Variante: " + targetFileName);
-                        errorLog(TAG, "📏 Taille: " + file.length() + " bytes");
-
                         // Vérifier que le fichier n'est pas vide ou corrompu
                         if (file.length() > 10000) { // Au moins 10KB pour un fichier audio valide
+                            debugLog(TAG, "✅ Correspondance trouvée: {} ({} bytes)", file, file.length());
                             return file.getAbsolutePath();
                         } else {
-                            errorLog(TAG, "⚠️ Fichier trop petit (probablement corrompu): " + file.length() + " bytes");
+                            warnLog(TAG, "⚠️ Fichier trop petit (probablement corrompu): {}", file);
                         }
                     }
                 }
             }
 
-            errorLog(TAG, "❌ Aucun fichier correspondant trouvé");
-            errorLog(TAG, "   Variantes recherchées: " + targetFileNames.toString());
-            
-            // Log tous les fichiers disponibles pour debug
-            errorLog(TAG, "📂 Fichiers disponibles dans le dossier:");
-            for (java.io.File file : files) {
-                errorLog(TAG, "   - " + file.getName());
-            }
+            debugLog(TAG, "❌ Aucun fichier correspondant parmi {} fichiers ({})", files.length, targetFileNames);
 
         } catch (Exception e) {
-            errorLog(TAG, "❌ Erreur scan physique: " + e.getMessage());
-            e.printStackTrace();
+            errorLog(TAG, "❌ Erreur scan physique: " + e.getMessage(), e);
         }
 
         return null;
@@ -846,6 +793,7 @@ public class AdhanService extends Service {
             mediaPlayer = new MediaPlayer();
             mediaPlayer.setDataSource(filePath);
             mediaPlayer.prepare();
+            latencyTracker.markPrepared();
 
             // Vérifier si cette prière est muette par l'utilisateur
             boolean isPrayerMutedByUser = isPrayerMuted(prayerLabelForCompletion);
@@ -871,6 +819,7 @@ public class AdhanService extends Service {
             });
 
             mediaPlayer.start();
+            onAdhanPlaybackStarted(prayerLabelForCompletion, false);
             debugLog(TAG, "Adhan premium démarré pour: " + prayerLabelForCompletion);
 
         } catch (Exception e) {
@@ -879,6 +828,64 @@ public class AdhanService extends Service {
         }
     }
 
+    // 🚀 NOUVEAU : Démarre le lecteur déjà préparé, à l'heure exacte si le service est en avance
+    private void startPrewarmedAdhan(float volume, String prayerLabelForCompletion) {
+        final MediaPlayer player = mediaPlayer;
+        try {
+            if (isPrayerMuted(prayerLabelForCompletion)) {
+                debugLog(TAG, "Prière " + prayerLabelForCompletion + " est muette par l'utilisateur. Volume à 0.");
+                player.setVolume(0, 0);
+            } else {
+                player.setVolume(volume, volume);
+            }
+
+            player.setOnCompletionListener(mp -> {
+                debugLog(TAG, "Adhan terminé pour: " + prayerLabelForCompletion);
+                handleAdhanCompletion(prayerLabelForCompletion);
+            });
+
+            player.setOnErrorListener((mp, what, extra) -> {
+                errorLog(TAG, "Erreur MediaPlayer pré-chauffé: what=" + what + ", extra=" + extra);
+                handleAdhanCompletion(prayerLabelForCompletion);
+                return true;
+            });
+
+            long waitMs = scheduledAtMillis > 0 ? scheduledAtMillis - System.currentTimeMillis() : 0;
+            if (waitMs > 0) {
+                long delay = Math.min(waitMs, AdhanPrewarm.MAX_EARLY_WAIT_MS);
+                new Handler(Looper.getMainLooper()).postDelayed(() -> {
+                    // Le lecteur a pu être arrêté entre-temps (ACTION_STOP)
+                    if (mediaPlayer == player) {
+                        player.start();
+                        onAdhanPlaybackStarted(prayerLabelForCompletion, true);
+                    }
+                }, delay);
+                debugLog(TAG, "Adhan pré-chauffé démarrera dans " + delay + " ms");
+            } else {
+                player.start();
+                onAdhanPlaybackStarted(prayerLabelForCompletion, true);
+                debugLog(TAG, "Adhan pré-chauffé démarré pour: " + prayerLabelForCompletion);
+            }
+        } catch (Exception e) {
+            errorLog(TAG, "Erreur démarrage lecteur pré-chauffé: " + e.getMessage(), e);
+            handleAdhanCompletion(prayerLabelForCompletion);
+        }
+    }
+
+    // ⏱️ Décalage de démarrage (pré-chauffage) + détection de la première trame audible
+    private void onAdhanPlaybackStarted(String prayerLabel, boolean prewarmed) {
+        AdhanPrewarm.recordStart(this, prayerLabel, scheduledAtMillis, prewarmed);
+        long fireLatency = scheduledAtMillis > 0 ? System.currentTimeMillis() - scheduledAtMillis : 0;
+        TraceRecorder.record(TraceRecorder.SUB_ADHAN, TraceRecorder.EV_ADHAN_PLAYBACK_STARTED,
+                fireLatency, prewarmed ? 1 : 0);
+        if (scheduledAtMillis > 0) {
+            PerfMetrics.record(PerfMetrics.H_ADHAN_FIRE_LATENCY_MS, fireLatency);
+        }
+        if (latencyTracker != null && mediaPlayer != null) {
+            latencyTracker.awaitFirstAudible(this, mediaPlayer, prewarmed);
+        }
+    }
+
     private void handleAdhanCompletion(String completedPrayerLabel) {
         if (!isPlayingDuaAfterAdhan) {
             // L'adhan principal vient de se terminer, maintenant jouer le dua après l'adhan
@@ -910,9 +917,8 @@ public class AdhanService extends Service {
 
     private void playDuaAfterAdhan(String prayerLabelForCompletion) {
         // 🚀 NOUVEAU : Vérifier si la dua après l'adhan est activée
-        SharedPreferences settingsPrefs = getSharedPreferences("prayer_times_settings", MODE_PRIVATE);
-        boolean duaAfterAdhanEnabled = settingsPrefs.getBoolean("dua_after_adhan_enabled", false); // Par défaut
-                                                                                                   // désactivé
+        SettingsStore.Snapshot settings = SettingsStore.get(this);
+        boolean duaAfterAdhanEnabled = settings.duaAfterAdhanEnabled; // Par défaut désactivé
 
         if (!duaAfterAdhanEnabled) {
             debugLog(TAG, "Dua après adhan désactivée par l'utilisateur. Passage direct à la terminaison finale.");
@@ -920,8 +926,7 @@ public class AdhanService extends Service {
             return;
         }
 
-        SharedPreferences adhanPrefs = getSharedPreferences("adhan_prefs", MODE_PRIVATE);
-        float volume = adhanPrefs.getFloat("adhan_volume", 1.0f);
+        float volume = settings.adhanVolume;
 
         debugLog(TAG,
                 "Tentative de lecture dua après adhan pour " + prayerLabelForCompletion + " avec volume " + volume);
@@ -981,9 +986,8 @@ public class AdhanService extends Service {
     }
 
     private void createCompletedAdhanNotification(String prayerLabel) {
-        // Récupère la langue actuelle des SharedPreferences
-        SharedPreferences settings = getSharedPreferences("prayer_times_settings", MODE_PRIVATE);
-        String currentLanguage = settings.getString("current_language", "en");
+        // Récupère la langue actuelle (snapshot SettingsStore)
+        String currentLanguage = SettingsStore.get(this).language;
 
         // Titre et corps de la notification selon la langue (lecture depuis les JSON assets)
         String notifTitle = getLocalizedTextFromJson(this, "adhan_completed_title", currentLanguage, "Adhan ended");
@@ -1058,6 +1062,11 @@ public class AdhanService extends Service {
     public void onDestroy() {
         super.onDestroy();
         stopAdhan();
+        if (bootWorker != null) {
+            bootWorker.quitSafely(); // Les étapes déjà postées se terminent
+            bootWorker = null;
+            bootHandler = null;
+        }
         debugLog(TAG, "AdhanService onDestroy: Service détruit.");
     }
 
@@ -1079,23 +1088,22 @@ public class AdhanService extends Service {
         cancelAllAdhanAlarmsOnly(context, alarmManager);
 
         // 2. LECTURE DE TOUS LES PARAMÈTRES NÉCESSAIRES
-        SharedPreferences adhanPrefs = getSharedPreferences("adhan_prefs", MODE_PRIVATE);
-        SharedPreferences settingsPrefs = getSharedPreferences("prayer_times_settings", MODE_PRIVATE);
+        SettingsStore.Snapshot settings = SettingsStore.get(context);
 
-        String language = settingsPrefs.getString("current_language", "en");
-        debugLog(TAG, "Réprogram: Langue pour notifications: " + language);
+        String language = settings.language;
+        debugLog(TAG, "Réprogram: Langue pour notifications: {}", language);
 
         // Paramètres de localisation
-        String locationMode = settingsPrefs.getString("location_mode", "auto");
+        String locationMode = settings.locationMode;
         double latitude, longitude;
         if ("manual".equals(locationMode)) {
-            latitude = settingsPrefs.getFloat("manual_latitude", 0f);
-            longitude = settingsPrefs.getFloat("manual_longitude", 0f);
-            debugLog(TAG, "Réprogram: Mode manuel, Lat: " + latitude + ", Lon: " + longitude);
+            latitude = settings.manualLatitude;
+            longitude = settings.manualLongitude;
+            debugLog(TAG, "Réprogram: Mode manuel, Lat: {}, Lon: {}", latitude, longitude);
         } else { // Mode "auto"
-            latitude = settingsPrefs.getFloat("auto_latitude", 0f);
-            longitude = settingsPrefs.getFloat("auto_longitude", 0f);
-            debugLog(TAG, "Réprogram: Mode auto, Lat: " + latitude + ", Lon: " + longitude);
+            latitude = settings.autoLatitude;
+            longitude = settings.autoLongitude;
+            debugLog(TAG, "Réprogram: Mode auto, Lat: {}, Lon: {}", latitude, longitude);
         }
 
         if (latitude == 0.0 && longitude == 0.0) {
@@ -1103,34 +1111,33 @@ public class AdhanService extends Service {
             return;
         }
 
-        // 🔧 CORRECTION : Lire depuis les bons SharedPreferences avec les bonnes clés
-        String calcMethodName = settingsPrefs.getString("calc_method", "MuslimWorldLeague");
-        String adhanSound = adhanPrefs.getString("ADHAN_SOUND", "misharyrachid");
+        // 🔧 CORRECTION : Paramètres lus depuis le snapshot SettingsStore (mêmes clés)
+        String calcMethodName = settings.calcMethod;
+        String adhanSound = settings.adhanSound;
 
-        errorLog(TAG,
-                "🔧 Réprogram: Paramètres chargés - CalcMethod: " + calcMethodName + ", AdhanSound: " + adhanSound);
+        debugLog(TAG, "🔧 Réprogram: Paramètres chargés - CalcMethod: {}, AdhanSound: {}", calcMethodName,
+                adhanSound);
 
         // Paramètres généraux de notification
-        boolean notificationsEnabled = settingsPrefs.getBoolean("notifications_enabled", true);
+        boolean notificationsEnabled = settings.notificationsEnabled;
         if (!notificationsEnabled) {
             debugLog(TAG, "Réprogram: Notifications désactivées globalement. Arrêt de la reprogrammation.");
             return;
         }
 
         // Paramètres des rappels
-        boolean remindersEnabled = settingsPrefs.getBoolean("reminders_enabled", true);
-        int reminderOffset = settingsPrefs.getInt("reminder_offset", 10);
+        boolean remindersEnabled = settings.remindersEnabled;
+        int reminderOffset = settings.reminderOffset;
 
         // Paramètres des Dhikrs
-        boolean enabledAfterSalah = settingsPrefs.getBoolean("enabled_after_salah", true);
+        boolean enabledAfterSalah = settings.enabledAfterSalah;
         int delayAfterSalah = 5; // Fixé à 5 minutes
-        boolean enabledMorningDhikr = settingsPrefs.getBoolean("enabled_morning_dhikr", true);
-        int delayMorningDhikr = settingsPrefs.getInt("delay_morning_dhikr", 30);
-        boolean enabledEveningDhikr = settingsPrefs.getBoolean("enabled_evening_dhikr", true);
-        int delayEveningDhikr = settingsPrefs.getInt("delay_evening_dhikr", 30);
-        boolean enabledSelectedDua = settingsPrefs.getBoolean("enabled_selected_dua", false); // Typiquement false par
-                                                                                              // défaut
-        int delaySelectedDua = settingsPrefs.getInt("delay_selected_dua", 30);
+        boolean enabledMorningDhikr = settings.enabledMorningDhikr;
+        int delayMorningDhikr = settings.delayMorningDhikr;
+        boolean enabledEveningDhikr = settings.enabledEveningDhikr;
+        int delayEveningDhikr = settings.delayEveningDhikr;
+        boolean enabledSelectedDua = settings.enabledSelectedDua; // Typiquement false par défaut
+        int delaySelectedDua = settings.delaySelectedDua;
 
         // 3. CALCUL DES HEURES DE PRIÈRE POUR DEMAIN
         CalculationParameters calcParams = getCalculationParameters(calcMethodName);
@@ -1140,35 +1147,38 @@ public class AdhanService extends Service {
         Coordinates coordinates = new Coordinates(latitude, longitude);
         PrayerTimes prayerTimesTomorrow = new PrayerTimes(coordinates, dateComponents, calcParams);
 
-        debugLog(TAG, "Réprogram: Horaires pour demain (" + dateComponents.toString() + "): F:" +
-                prayerTimesTomorrow.fajr + ", D:" + prayerTimesTomorrow.dhuhr + ", A:" + prayerTimesTomorrow.asr +
-                ", M:" + prayerTimesTomorrow.maghrib + ", I:" + prayerTimesTomorrow.isha);
+        if (isDebugEnabled(TAG)) {
+            debugLog(TAG, "Réprogram: Horaires pour demain (" + dateComponents.toString() + "): F:" +
+                    prayerTimesTomorrow.fajr + ", D:" + prayerTimesTomorrow.dhuhr + ", A:" + prayerTimesTomorrow.asr +
+                    ", M:" + prayerTimesTomorrow.maghrib + ", I:" + prayerTimesTomorrow.isha);
+        }
 
-        // 4. REPROGRAMMATION DES ADHANS
+        // 4. REPROGRAMMATION DES ADHANS (un seul lot : un seul réarmement de l'horizon)
+        AlarmHorizon.Batch batch = new AlarmHorizon.Batch();
         debugLog(TAG, "Réprogram: Reprogrammation des Adhans...");
-        scheduleAdhanAlarmInternal(context, alarmManager, "Fajr", prayerTimesTomorrow.fajr.getTime(), adhanSound,
+        scheduleAdhanAlarmInternal(context, batch, "Fajr", prayerTimesTomorrow.fajr.getTime(), adhanSound,
                 language);
-        scheduleAdhanAlarmInternal(context, alarmManager, "Dhuhr", prayerTimesTomorrow.dhuhr.getTime(), adhanSound,
+        scheduleAdhanAlarmInternal(context, batch, "Dhuhr", prayerTimesTomorrow.dhuhr.getTime(), adhanSound,
                 language);
-        scheduleAdhanAlarmInternal(context, alarmManager, "Asr", prayerTimesTomorrow.asr.getTime(), adhanSound,
+        scheduleAdhanAlarmInternal(context, batch, "Asr", prayerTimesTomorrow.asr.getTime(), adhanSound,
                 language);
-        scheduleAdhanAlarmInternal(context, alarmManager, "Maghrib", prayerTimesTomorrow.maghrib.getTime(), adhanSound,
+        scheduleAdhanAlarmInternal(context, batch, "Maghrib", prayerTimesTomorrow.maghrib.getTime(), adhanSound,
                 language);
-        scheduleAdhanAlarmInternal(context, alarmManager, "Isha", prayerTimesTomorrow.isha.getTime(), adhanSound,
+        scheduleAdhanAlarmInternal(context, batch, "Isha", prayerTimesTomorrow.isha.getTime(), adhanSound,
                 language);
 
         // 5. REPROGRAMMATION DES RAPPELS
         if (remindersEnabled) {
-            debugLog(TAG, "Réprogram: Reprogrammation des Rappels (offset: " + reminderOffset + " min)...");
-            scheduleReminderInternal(context, alarmManager, "Fajr", prayerTimesTomorrow.fajr.getTime(), reminderOffset,
+            debugLog(TAG, "Réprogram: Reprogrammation des Rappels (offset: {} min)...", reminderOffset);
+            scheduleReminderInternal(context, batch, "Fajr", prayerTimesTomorrow.fajr.getTime(), reminderOffset,
                     language);
-            scheduleReminderInternal(context, alarmManager, "Dhuhr", prayerTimesTomorrow.dhuhr.getTime(),
+            scheduleReminderInternal(context, batch, "Dhuhr", prayerTimesTomorrow.dhuhr.getTime(),
                     reminderOffset, language);
-            scheduleReminderInternal(context, alarmManager, "Asr", prayerTimesTomorrow.asr.getTime(), reminderOffset,
+            scheduleReminderInternal(context, batch, "Asr", prayerTimesTomorrow.asr.getTime(), reminderOffset,
                     language);
-            scheduleReminderInternal(context, alarmManager, "Maghrib", prayerTimesTomorrow.maghrib.getTime(),
+            scheduleReminderInternal(context, batch, "Maghrib", prayerTimesTomorrow.maghrib.getTime(),
                     reminderOffset, language);
-            scheduleReminderInternal(context, alarmManager, "Isha", prayerTimesTomorrow.isha.getTime(), reminderOffset,
+            scheduleReminderInternal(context, batch, "Isha", prayerTimesTomorrow.isha.getTime(), reminderOffset,
                     language);
         }
 
@@ -1190,26 +1200,27 @@ public class AdhanService extends Service {
             long prayerTimestamp = prayerTimeDate.getTime();
 
             if (enabledAfterSalah) {
-                scheduleDhikrInternal(context, alarmManager, "afterSalah", prayerName, prayerTimestamp, delayAfterSalah,
+                scheduleDhikrInternal(context, batch, "afterSalah", prayerName, prayerTimestamp, delayAfterSalah,
                         language);
             }
             if (enabledMorningDhikr && "Fajr".equals(prayerName)) {
-                scheduleDhikrInternal(context, alarmManager, "dhikrMorning", prayerName, prayerTimestamp,
+                scheduleDhikrInternal(context, batch, "dhikrMorning", prayerName, prayerTimestamp,
                         delayMorningDhikr, language);
             }
             if (enabledEveningDhikr && "Maghrib".equals(prayerName)) { // Typiquement Maghrib pour Evening Dhikr
-                scheduleDhikrInternal(context, alarmManager, "eveningDhikr", prayerName, prayerTimestamp,
+                scheduleDhikrInternal(context, batch, "eveningDhikr", prayerName, prayerTimestamp,
                         delayEveningDhikr, language);
             }
             // SelectedDua: typiquement pour Dhuhr, Asr, Isha (éviter Fajr/Maghrib si déjà
             // couverts)
             if (enabledSelectedDua) {
                 if ("Dhuhr".equals(prayerName) || "Asr".equals(prayerName) || "Isha".equals(prayerName)) {
-                    scheduleDhikrInternal(context, alarmManager, "selectedDua", prayerName, prayerTimestamp,
+                    scheduleDhikrInternal(context, batch, "selectedDua", prayerName, prayerTimestamp,
                             delaySelectedDua, language);
                 }
             }
         }
+        batch.commit(context);
         debugLog(TAG, "====> REPROGRAMMATION COMPLÈTE POUR DEMAIN TERMINÉE <====");
     }
 
@@ -1223,19 +1234,18 @@ public class AdhanService extends Service {
         cancelAllAdhanAlarmsOnly(context, alarmManager);
 
         // 2. LECTURE DES PARAMÈTRES
-        SharedPreferences adhanPrefs = getSharedPreferences("adhan_prefs", MODE_PRIVATE);
-        SharedPreferences settingsPrefs = getSharedPreferences("prayer_times_settings", MODE_PRIVATE);
+        SettingsStore.Snapshot settings = SettingsStore.get(context);
 
-        String language = settingsPrefs.getString("current_language", "en");
-        String locationMode = settingsPrefs.getString("location_mode", "auto");
+        String language = settings.language;
+        String locationMode = settings.locationMode;
 
         double latitude, longitude;
         if ("manual".equals(locationMode)) {
-            latitude = settingsPrefs.getFloat("manual_latitude", 0f);
-            longitude = settingsPrefs.getFloat("manual_longitude", 0f);
+            latitude = settings.manualLatitude;
+            longitude = settings.manualLongitude;
         } else {
-            latitude = settingsPrefs.getFloat("auto_latitude", 0f);
-            longitude = settingsPrefs.getFloat("auto_longitude", 0f);
+            latitude = settings.autoLatitude;
+            longitude = settings.autoLongitude;
         }
 
         errorLog(TAG, "🔍 ReprogRest: Coordonnées chargées: lat=" + latitude + ", lon=" + longitude + ", mode="
@@ -1247,9 +1257,9 @@ public class AdhanService extends Service {
             return;
         }
 
-        // 🔧 CORRECTION : Lire depuis les bons SharedPreferences avec les bonnes clés
-        String calcMethodName = settingsPrefs.getString("calc_method", "MuslimWorldLeague");
-        String adhanSound = adhanPrefs.getString("ADHAN_SOUND", "misharyrachid");
+        // 🔧 CORRECTION : Paramètres lus depuis le snapshot SettingsStore (mêmes clés)
+        String calcMethodName = settings.calcMethod;
+        String adhanSound = settings.adhanSound;
 
         errorLog(TAG,
                 "🔧 ReprogRest: Paramètres chargés - CalcMethod: " + calcMethodName + ", AdhanSound: " + adhanSound);
@@ -1295,6 +1305,9 @@ public class AdhanService extends Service {
         errorLog(TAG, "🔍 AUDIT: Début boucle programmation adhans restants - completedIndex=" + completedIndex
                 + ", prayers.length=" + prayers.length);
 
+        // Un seul lot pour toute la reprogrammation : un seul réarmement de l'horizon
+        AlarmHorizon.Batch batch = new AlarmHorizon.Batch();
+
         for (int i = completedIndex + 1; i < prayers.length; i++) {
             errorLog(TAG, "🔍 AUDIT: Vérification " + prayers[i] + " (index " + i + ") - heure: " + todayPrayerTimes[i]
                     + " vs maintenant: " + new Date(currentTimeMillis));
@@ -1302,7 +1315,7 @@ public class AdhanService extends Service {
             if (todayPrayerTimes[i].getTime() > currentTimeMillis) {
                 errorLog(TAG, "✅ AUDIT: Aujourd'hui " + prayers[i] + " DOIT être programmé: " + todayPrayerTimes[i]);
                 try {
-                    scheduleAdhanAlarmInternal(context, alarmManager, prayers[i], todayPrayerTimes[i].getTime(),
+                    scheduleAdhanAlarmInternal(context, batch, prayers[i], todayPrayerTimes[i].getTime(),
                             adhanSound, language);
                     errorLog(TAG, "✅ AUDIT: " + prayers[i] + " programmé avec SUCCÈS !");
                 } catch (Exception e) {
@@ -1323,7 +1336,7 @@ public class AdhanService extends Service {
         debugLog(TAG, "ReprogRest: Programmation de toutes les prières de demain");
         for (int i = 0; i < prayers.length; i++) {
             debugLog(TAG, "ReprogRest: Demain " + prayers[i] + " programmé: " + tomorrowPrayerTimes[i]);
-            scheduleAdhanAlarmInternal(context, alarmManager, prayers[i], tomorrowPrayerTimes[i].getTime(), adhanSound,
+            scheduleAdhanAlarmInternal(context, batch, prayers[i], tomorrowPrayerTimes[i].getTime(), adhanSound,
                     language);
         }
 
@@ -1342,30 +1355,30 @@ public class AdhanService extends Service {
         }
 
         // 6. PROGRAMMER LES RAPPELS ET DHIKRS
-        boolean remindersEnabled = settingsPrefs.getBoolean("reminders_enabled", true);
-        int reminderOffset = settingsPrefs.getInt("reminder_offset", 10);
-
-        boolean enabledAfterSalah = settingsPrefs.getBoolean("enabled_after_salah", true);
-        boolean enabledMorningDhikr = settingsPrefs.getBoolean("enabled_morning_dhikr", true);
-        boolean enabledEveningDhikr = settingsPrefs.getBoolean("enabled_evening_dhikr", true);
-        boolean enabledSelectedDua = settingsPrefs.getBoolean("enabled_selected_dua", true);
-        int delayAfterSalah = settingsPrefs.getInt("delay_after_salah", 15);
-        int delayMorningDhikr = settingsPrefs.getInt("delay_morning_dhikr", 10);
-        int delayEveningDhikr = settingsPrefs.getInt("delay_evening_dhikr", 10);
-        int delaySelectedDua = settingsPrefs.getInt("delay_selected_dua", 15);
+        boolean remindersEnabled = settings.remindersEnabled;
+        int reminderOffset = settings.reminderOffset;
+
+        boolean enabledAfterSalah = settings.enabledAfterSalah;
+        boolean enabledMorningDhikr = settings.enabledMorningDhikr;
+        boolean enabledEveningDhikr = settings.enabledEveningDhikr;
+        boolean enabledSelectedDua = settings.enabledSelectedDua;
+        int delayAfterSalah = settings.delayAfterSalah;
+        int delayMorningDhikr = settings.delayMorningDhikr;
+        int delayEveningDhikr = settings.delayEveningDhikr;
+        int delaySelectedDua = settings.delaySelectedDua;
 
         if (remindersEnabled) {
             // Rappels pour les prières restantes d'aujourd'hui
             for (int i = completedIndex + 1; i < prayers.length; i++) {
                 if (todayPrayerTimes[i].getTime() > currentTimeMillis) {
-                    scheduleReminderInternal(context, alarmManager, prayers[i], todayPrayerTimes[i].getTime(),
+                    scheduleReminderInternal(context, batch, prayers[i], todayPrayerTimes[i].getTime(),
                             reminderOffset, language);
                 }
             }
 
             // Rappels pour toutes les prières de demain
             for (int i = 0; i < prayers.length; i++) {
-                scheduleReminderInternal(context, alarmManager, prayers[i], tomorrowPrayerTimes[i].getTime(),
+                scheduleReminderInternal(context, batch, prayers[i], tomorrowPrayerTimes[i].getTime(),
                         reminderOffset, language);
             }
         }
@@ -1378,20 +1391,20 @@ public class AdhanService extends Service {
                 long prayerTimestamp = todayPrayerTimes[i].getTime();
 
                 if (enabledAfterSalah) {
-                    scheduleDhikrInternal(context, alarmManager, "afterSalah", prayerName, prayerTimestamp,
+                    scheduleDhikrInternal(context, batch, "afterSalah", prayerName, prayerTimestamp,
                             delayAfterSalah, language);
                 }
                 if (enabledMorningDhikr && "Fajr".equals(prayerName)) {
-                    scheduleDhikrInternal(context, alarmManager, "dhikrMorning", prayerName, prayerTimestamp,
+                    scheduleDhikrInternal(context, batch, "dhikrMorning", prayerName, prayerTimestamp,
                             delayMorningDhikr, language);
                 }
                 if (enabledEveningDhikr && "Maghrib".equals(prayerName)) {
-                    scheduleDhikrInternal(context, alarmManager, "eveningDhikr", prayerName, prayerTimestamp,
+                    scheduleDhikrInternal(context, batch, "eveningDhikr", prayerName, prayerTimestamp,
                             delayEveningDhikr, language);
                 }
                 if (enabledSelectedDua
                         && ("Dhuhr".equals(prayerName) || "Asr".equals(prayerName) || "Isha".equals(prayerName))) {
-                    scheduleDhikrInternal(context, alarmManager, "selectedDua", prayerName, prayerTimestamp,
+                    scheduleDhikrInternal(context, batch, "selectedDua", prayerName, prayerTimestamp,
                             delaySelectedDua, language);
                 }
             }
@@ -1403,230 +1416,281 @@ public class AdhanService extends Service {
             long prayerTimestamp = tomorrowPrayerTimes[i].getTime();
 
             if (enabledAfterSalah) {
-                scheduleDhikrInternal(context, alarmManager, "afterSalah", prayerName, prayerTimestamp, delayAfterSalah,
+                scheduleDhikrInternal(context, batch, "afterSalah", prayerName, prayerTimestamp, delayAfterSalah,
                         language);
             }
             if (enabledMorningDhikr && "Fajr".equals(prayerName)) {
-                scheduleDhikrInternal(context, alarmManager, "dhikrMorning", prayerName, prayerTimestamp,
+                scheduleDhikrInternal(context, batch, "dhikrMorning", prayerName, prayerTimestamp,
                         delayMorningDhikr, language);
             }
             if (enabledEveningDhikr && "Maghrib".equals(prayerName)) {
-                scheduleDhikrInternal(context, alarmManager, "eveningDhikr", prayerName, prayerTimestamp,
+                scheduleDhikrInternal(context, batch, "eveningDhikr", prayerName, prayerTimestamp,
                         delayEveningDhikr, language);
             }
             if (enabledSelectedDua
                     && ("Dhuhr".equals(prayerName) || "Asr".equals(prayerName) || "Isha".equals(prayerName))) {
-                scheduleDhikrInternal(context, alarmManager, "selectedDua", prayerName, prayerTimestamp,
+                scheduleDhikrInternal(context, batch, "selectedDua", prayerName, prayerTimestamp,
                         delaySelectedDua, language);
             }
         }
 
+        batch.commit(context);
+
         debugLog(TAG, "====> REPROGRAMMATION PRIÈRES RESTANTES + DEMAIN TERMINÉE <====");
         errorLog(TAG, "🔥 REPROGRAMMATION COMPLETE - VERSION AVEC DEBUG");
     }
 
+    /**
+     * Lance la reprogrammation après redémarrage sur le thread de travail : le service
+     * s'arrête (stopSelf(startId)) une fois toutes les étapes terminées.
+     */
+    private void startBootReprogramming(final int startId) {
+        if (bootWorker == null) {
+            bootWorker = new HandlerThread("AdhanBootReprogram", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+            bootWorker.start();
+            bootHandler = new Handler(bootWorker.getLooper());
+        }
+        bootHandler.post(() -> {
+            try {
+                reprogramAlarmsAfterBoot();
+            } catch (Exception e) {
+                errorLog(TAG, "❌ Boot Reprog: Erreur inattendue: " + e.getMessage(), e);
+            } finally {
+                stopSelf(startId);
+            }
+        });
+    }
+
+    /** Paramètres et horaires calculés une fois pour toutes les étapes du boot. */
+    private static final class BootPlan {
+        String day;
+        String language;
+        String adhanSound;
+        boolean remindersEnabled;
+        int reminderOffset;
+        SettingsStore.Snapshot settings;
+        Calendar now;
+        Calendar tomorrow;
+        PrayerTimes prayerTimesToday;
+        PrayerTimes prayerTimesTomorrow;
+        Date[] todayTimes;
+        Date[] tomorrowTimes;
+        // Prochain adhan (programmé en premier) : index de prière, et s'il est demain
+        int nextIndex = -1;
+        boolean nextIsTomorrow;
+    }
+
+    private static final String[] BOOT_PRAYERS = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
+
+    /**
+     * Reprogrammation après redémarrage, par étapes de priorité décroissante : le prochain
+     * adhan d'abord (il ne doit jamais attendre le reste), puis le reste d'aujourd'hui,
+     * puis demain, puis le widget. Chaque étape est chronométrée et son avancement persisté
+     * (BootReprogramProgress) pour reprendre là où on en était si le processus est tué.
+     */
     private void reprogramAlarmsAfterBoot() {
         debugLog(TAG, "====> REPROGRAMMATION APRÈS REDÉMARRAGE <====");
         Context context = this;
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
 
+        BootPlan plan = buildBootPlan(context);
+        if (plan == null) {
+            return;
+        }
+
+        long bootId = BootReprogramProgress.currentBootId(context);
+        int stage = BootReprogramProgress.nextStage(context, bootId, plan.day);
+        if (stage > BootReprogramProgress.STAGE_NEXT_ADHAN) {
+            infoLog(TAG, "Boot Reprog: reprise à l'étape {} ({})", BootReprogramProgress.stageName(stage), plan.day);
+        }
+
+        for (; stage < BootReprogramProgress.STAGE_COUNT; stage++) {
+            long startedAt = SystemClock.elapsedRealtime();
+            runBootStage(context, plan, stage);
+            long durationMs = SystemClock.elapsedRealtime() - startedAt;
+            BootReprogramProgress.markDone(context, bootId, plan.day, stage, durationMs);
+            TraceRecorder.record(TraceRecorder.SUB_ALARMS, TraceRecorder.EV_BOOT_STAGE_DONE, stage, durationMs);
+            infoLog(TAG, "Boot Reprog: étape {} terminée en {} ms", BootReprogramProgress.stageName(stage),
+                    durationMs);
+        }
+        // Plan complet : la prochaine reprogrammation (maintenance, même jour) refait tout
+        BootReprogramProgress.clear(context);
+
+        debugLog(TAG, "====> REPROGRAMMATION APRÈS REDÉMARRAGE TERMINÉE <====");
+    }
+
+    /** Lit les paramètres et calcule les horaires d'aujourd'hui et demain (null si rien à faire). */
+    @Nullable
+    private BootPlan buildBootPlan(Context context) {
         // 1. LECTURE DES PARAMÈTRES
-        SharedPreferences adhanPrefs = getSharedPreferences("adhan_prefs", MODE_PRIVATE);
-        SharedPreferences settingsPrefs = getSharedPreferences("prayer_times_settings", MODE_PRIVATE);
+        SettingsStore.Snapshot settings = SettingsStore.get(context);
 
-        String language = settingsPrefs.getString("current_language", "en");
+        String language = settings.language;
         debugLog(TAG, "Boot Reprog: Langue: " + language);
 
         // Paramètres de localisation
-        String locationMode = settingsPrefs.getString("location_mode", "auto");
+        String locationMode = settings.locationMode;
         double latitude, longitude;
         if ("manual".equals(locationMode)) {
-            latitude = settingsPrefs.getFloat("manual_latitude", 0f);
-            longitude = settingsPrefs.getFloat("manual_longitude", 0f);
+            latitude = settings.manualLatitude;
+            longitude = settings.manualLongitude;
             debugLog(TAG, "Boot Reprog: Mode manuel, Lat: " + latitude + ", Lon: " + longitude);
         } else { // Mode "auto"
-            latitude = settingsPrefs.getFloat("auto_latitude", 0f);
-            longitude = settingsPrefs.getFloat("auto_longitude", 0f);
+            latitude = settings.autoLatitude;
+            longitude = settings.autoLongitude;
             debugLog(TAG, "Boot Reprog: Mode auto, Lat: " + latitude + ", Lon: " + longitude);
         }
 
         if (latitude == 0.0 && longitude == 0.0) {
             errorLog(TAG, "Boot Reprog: Coordonnées (0.0, 0.0) détectées. Reprogrammation annulée.");
-            return;
+            return null;
         }
 
-        // 🔧 CORRECTION : Lire depuis les bons SharedPreferences avec les bonnes clés
-        String calcMethodName = settingsPrefs.getString("calc_method", "MuslimWorldLeague");
-        String adhanSound = adhanPrefs.getString("ADHAN_SOUND", "misharyrachid");
+        // 🔧 CORRECTION : Paramètres lus depuis le snapshot SettingsStore (mêmes clés)
+        String calcMethodName = settings.calcMethod;
+        String adhanSound = settings.adhanSound;
 
         errorLog(TAG,
                 "🔧 Boot Reprog: Paramètres chargés - CalcMethod: " + calcMethodName + ", AdhanSound: " + adhanSound);
 
         // Paramètres généraux de notification
-        boolean notificationsEnabled = settingsPrefs.getBoolean("notifications_enabled", true);
-        if (!notificationsEnabled) {
+        if (!settings.notificationsEnabled) {
             debugLog(TAG, "Boot Reprog: Notifications désactivées globalement. Arrêt.");
-            return;
+            return null;
         }
 
-        // Paramètres des rappels
-        boolean remindersEnabled = settingsPrefs.getBoolean("reminders_enabled", true);
-        int reminderOffset = settingsPrefs.getInt("reminder_offset", 10);
-
-        // Paramètres des Dhikrs
-        boolean enabledAfterSalah = settingsPrefs.getBoolean("enabled_after_salah", true);
-        int delayAfterSalah = 5;
-        boolean enabledMorningDhikr = settingsPrefs.getBoolean("enabled_morning_dhikr", true);
-        int delayMorningDhikr = settingsPrefs.getInt("delay_morning_dhikr", 30);
-        boolean enabledEveningDhikr = settingsPrefs.getBoolean("enabled_evening_dhikr", true);
-        int delayEveningDhikr = settingsPrefs.getInt("delay_evening_dhikr", 30);
-        boolean enabledSelectedDua = settingsPrefs.getBoolean("enabled_selected_dua", false);
-        int delaySelectedDua = settingsPrefs.getInt("delay_selected_dua", 30);
+        BootPlan plan = new BootPlan();
+        plan.settings = settings;
+        plan.language = language;
+        plan.adhanSound = adhanSound;
+        plan.remindersEnabled = settings.remindersEnabled;
+        plan.reminderOffset = settings.reminderOffset;
 
         // 2. CALCUL DES HEURES POUR AUJOURD'HUI ET DEMAIN
         CalculationParameters calcParams = getCalculationParameters(calcMethodName);
         Coordinates coordinates = new Coordinates(latitude, longitude);
-        Calendar now = Calendar.getInstance();
+        plan.now = Calendar.getInstance();
+        plan.day = new java.text.SimpleDateFormat("yyyyMMdd", java.util.Locale.US).format(plan.now.getTime());
 
         // Horaires d'aujourd'hui
-        DateComponents todayDate = DateComponents.from(now.getTime());
-        PrayerTimes prayerTimesToday = new PrayerTimes(coordinates, todayDate, calcParams);
+        plan.prayerTimesToday = new PrayerTimes(coordinates, DateComponents.from(plan.now.getTime()), calcParams);
 
         // Horaires de demain
-        Calendar tomorrow = Calendar.getInstance();
-        tomorrow.add(Calendar.DATE, 1);
-        DateComponents tomorrowDate = DateComponents.from(tomorrow.getTime());
-        PrayerTimes prayerTimesTomorrow = new PrayerTimes(coordinates, tomorrowDate, calcParams);
-
-        debugLog(TAG,
-                "Boot Reprog: Horaires aujourd'hui: F:" + prayerTimesToday.fajr + ", D:" + prayerTimesToday.dhuhr +
-                        ", A:" + prayerTimesToday.asr + ", M:" + prayerTimesToday.maghrib + ", I:"
-                        + prayerTimesToday.isha);
-        debugLog(TAG,
-                "Boot Reprog: Horaires demain: F:" + prayerTimesTomorrow.fajr + ", D:" + prayerTimesTomorrow.dhuhr +
-                        ", A:" + prayerTimesTomorrow.asr + ", M:" + prayerTimesTomorrow.maghrib + ", I:"
-                        + prayerTimesTomorrow.isha);
-
-        // 3. REPROGRAMMATION INTELLIGENTE : aujourd'hui + demain selon l'heure actuelle
+        plan.tomorrow = Calendar.getInstance();
+        plan.tomorrow.add(Calendar.DATE, 1);
+        plan.prayerTimesTomorrow = new PrayerTimes(coordinates, DateComponents.from(plan.tomorrow.getTime()),
+                calcParams);
+
+        PrayerTimes today = plan.prayerTimesToday;
+        PrayerTimes tomorrow = plan.prayerTimesTomorrow;
+        plan.todayTimes = new Date[] { today.fajr, today.dhuhr, today.asr, today.maghrib, today.isha };
+        plan.tomorrowTimes = new Date[] { tomorrow.fajr, tomorrow.dhuhr, tomorrow.asr, tomorrow.maghrib,
+                tomorrow.isha };
+
+        debugLog(TAG, "Boot Reprog: Horaires aujourd'hui: F:" + today.fajr + ", D:" + today.dhuhr + ", A:"
+                + today.asr + ", M:" + today.maghrib + ", I:" + today.isha);
+        debugLog(TAG, "Boot Reprog: Horaires demain: F:" + tomorrow.fajr + ", D:" + tomorrow.dhuhr + ", A:"
+                + tomorrow.asr + ", M:" + tomorrow.maghrib + ", I:" + tomorrow.isha);
+
+        // Prochain adhan : première prière future d'aujourd'hui, sinon Fajr de demain
         long currentTimeMillis = System.currentTimeMillis();
-
-        // Programme les prières d'aujourd'hui qui ne sont pas encore passées
-        String[] prayers = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
-        Date[] todayTimes = { prayerTimesToday.fajr, prayerTimesToday.dhuhr, prayerTimesToday.asr,
-                prayerTimesToday.maghrib, prayerTimesToday.isha };
-        Date[] tomorrowTimes = { prayerTimesTomorrow.fajr, prayerTimesTomorrow.dhuhr, prayerTimesTomorrow.asr,
-                prayerTimesTomorrow.maghrib, prayerTimesTomorrow.isha };
-
-        debugLog(TAG, "Boot Reprog: Reprogrammation des Adhans...");
-        debugLog(TAG, "🕐 Heure actuelle: " + new Date(currentTimeMillis));
-
-        // Adhans pour aujourd'hui (prières futures uniquement)
-        for (int i = 0; i < prayers.length; i++) {
-            if (todayTimes[i].getTime() > currentTimeMillis) {
-                debugLog(TAG, "🔵 Aujourd'hui " + prayers[i] + " programmé: " + todayTimes[i] + " (dans " +
-                        ((todayTimes[i].getTime() - currentTimeMillis) / 60000) + " min)");
-                scheduleAdhanAlarmInternalWithSuffix(context, alarmManager, prayers[i], todayTimes[i].getTime(),
-                        adhanSound,
-                        language, "_today");
-            } else {
-                debugLog(TAG, "🔴 Aujourd'hui " + prayers[i] + " PASSÉ: " + todayTimes[i] + " (il y a " +
-                        ((currentTimeMillis - todayTimes[i].getTime()) / 60000) + " min)");
+        for (int i = 0; i < BOOT_PRAYERS.length; i++) {
+            if (plan.todayTimes[i].getTime() > currentTimeMillis) {
+                plan.nextIndex = i;
+                break;
             }
         }
-
-        // Adhans pour demain (toutes les prières)
-        debugLog(TAG, "🔵 DEMAIN - Programmation de toutes les prières:");
-        for (int i = 0; i < prayers.length; i++) {
-            debugLog(TAG, "🔵 Demain " + prayers[i] + " programmé: " + tomorrowTimes[i] + " (dans " +
-                    ((tomorrowTimes[i].getTime() - currentTimeMillis) / 3600000) + " heures)");
-            scheduleAdhanAlarmInternalWithSuffix(context, alarmManager, prayers[i], tomorrowTimes[i].getTime(),
-                    adhanSound,
-                    language, "_tomorrow");
+        if (plan.nextIndex < 0) {
+            plan.nextIndex = 0;
+            plan.nextIsTomorrow = true;
         }
+        return plan;
+    }
 
-        // 4. REPROGRAMMATION DES RAPPELS
-        if (remindersEnabled) {
-            debugLog(TAG, "Boot Reprog: Reprogrammation des Rappels...");
-
-            // Rappels pour aujourd'hui (prières futures uniquement)
-            for (int i = 0; i < prayers.length; i++) {
-                if (todayTimes[i].getTime() > currentTimeMillis) {
-                    scheduleReminderInternal(context, alarmManager, prayers[i], todayTimes[i].getTime(), reminderOffset,
-                            language);
-                }
-            }
-
-            // Rappels pour demain (toutes les prières)
-            for (int i = 0; i < prayers.length; i++) {
-                scheduleReminderInternal(context, alarmManager, prayers[i], tomorrowTimes[i].getTime(), reminderOffset,
-                        language);
+    private void runBootStage(Context context, BootPlan plan, int stage) {
+        long currentTimeMillis = System.currentTimeMillis();
+        // Un lot par étape, validé avant que l'étape soit marquée faite
+        AlarmHorizon.Batch batch = new AlarmHorizon.Batch();
+        switch (stage) {
+            case BootReprogramProgress.STAGE_NEXT_ADHAN: {
+                Date[] times = plan.nextIsTomorrow ? plan.tomorrowTimes : plan.todayTimes;
+                debugLog(TAG, "🔵 Prochain adhan " + BOOT_PRAYERS[plan.nextIndex] + " programmé en priorité: "
+                        + times[plan.nextIndex]);
+                scheduleAdhanAlarmInternalWithSuffix(context, batch, BOOT_PRAYERS[plan.nextIndex],
+                        times[plan.nextIndex].getTime(), plan.adhanSound, plan.language,
+                        plan.nextIsTomorrow ? "_tomorrow" : "_today");
+                break;
             }
-        }
-
-        // 5. REPROGRAMMATION DES DHIKRS
-        debugLog(TAG, "Boot Reprog: Reprogrammation des Dhikrs...");
-
-        // Dhikrs pour aujourd'hui (prières futures uniquement)
-        for (int i = 0; i < prayers.length; i++) {
-            if (todayTimes[i].getTime() > currentTimeMillis) {
-                long prayerTimestamp = todayTimes[i].getTime();
-
-                if (enabledAfterSalah) {
-                    scheduleDhikrInternal(context, alarmManager, "afterSalah", prayers[i], prayerTimestamp,
-                            delayAfterSalah, language);
-                }
-                if (enabledMorningDhikr && "Fajr".equals(prayers[i])) {
-                    scheduleDhikrInternal(context, alarmManager, "dhikrMorning", prayers[i], prayerTimestamp,
-                            delayMorningDhikr, language);
+            case BootReprogramProgress.STAGE_TODAY:
+                // Adhans pour aujourd'hui (prières futures uniquement, hors prochain adhan déjà fait)
+                for (int i = 0; i < BOOT_PRAYERS.length; i++) {
+                    if (plan.todayTimes[i].getTime() <= currentTimeMillis) {
+                        debugLog(TAG, "🔴 Aujourd'hui " + BOOT_PRAYERS[i] + " PASSÉ: " + plan.todayTimes[i]);
+                    } else if (plan.nextIsTomorrow || i != plan.nextIndex) {
+                        scheduleAdhanAlarmInternalWithSuffix(context, batch, BOOT_PRAYERS[i],
+                                plan.todayTimes[i].getTime(), plan.adhanSound, plan.language, "_today");
+                    }
                 }
-                if (enabledEveningDhikr && "Maghrib".equals(prayers[i])) {
-                    scheduleDhikrInternal(context, alarmManager, "eveningDhikr", prayers[i], prayerTimestamp,
-                            delayEveningDhikr, language);
+                scheduleBootRemindersAndDhikrs(context, batch, plan, plan.todayTimes, currentTimeMillis);
+                break;
+            case BootReprogramProgress.STAGE_LATER:
+                // Adhans pour demain (toutes les prières)
+                for (int i = 0; i < BOOT_PRAYERS.length; i++) {
+                    if (!plan.nextIsTomorrow || i != plan.nextIndex) {
+                        scheduleAdhanAlarmInternalWithSuffix(context, batch, BOOT_PRAYERS[i],
+                                plan.tomorrowTimes[i].getTime(), plan.adhanSound, plan.language, "_tomorrow");
+                    }
                 }
-                if (enabledSelectedDua
-                        && ("Dhuhr".equals(prayers[i]) || "Asr".equals(prayers[i]) || "Isha".equals(prayers[i]))) {
-                    scheduleDhikrInternal(context, alarmManager, "selectedDua", prayers[i], prayerTimestamp,
-                            delaySelectedDua, language);
+                scheduleBootRemindersAndDhikrs(context, batch, plan, plan.tomorrowTimes, 0);
+                break;
+            case BootReprogramProgress.STAGE_WIDGET:
+                // 📱 SAUVEGARDER LES HORAIRES POUR LE WIDGET (demain si Isha est passé)
+                if (plan.now.getTime().after(plan.prayerTimesToday.isha)) {
+                    savePrayerTimesForWidget(context, plan.prayerTimesTomorrow, plan.tomorrow);
+                    errorLog(TAG, "📱 [BOOT] Horaires de DEMAIN sauvegardés pour le widget");
+                } else {
+                    savePrayerTimesForWidget(context, plan.prayerTimesToday, plan.now);
+                    errorLog(TAG, "📱 [BOOT] Horaires d'AUJOURD'HUI sauvegardés pour le widget");
                 }
-            }
+                break;
+            default:
+                break;
         }
+        batch.commit(context);
+    }
 
-        // Dhikrs pour demain (toutes les prières)
-        for (int i = 0; i < prayers.length; i++) {
-            long prayerTimestamp = tomorrowTimes[i].getTime();
+    /** Rappels et dhikrs d'une journée, pour les prières postérieures à notBeforeMillis. */
+    private void scheduleBootRemindersAndDhikrs(Context context, AlarmHorizon.Batch batch, BootPlan plan,
+            Date[] times, long notBeforeMillis) {
+        SettingsStore.Snapshot settings = plan.settings;
+        for (int i = 0; i < BOOT_PRAYERS.length; i++) {
+            long prayerTimestamp = times[i].getTime();
+            if (prayerTimestamp <= notBeforeMillis) {
+                continue;
+            }
+            String prayer = BOOT_PRAYERS[i];
 
-            if (enabledAfterSalah) {
-                scheduleDhikrInternal(context, alarmManager, "afterSalah", prayers[i], prayerTimestamp, delayAfterSalah,
-                        language);
+            if (plan.remindersEnabled) {
+                scheduleReminderInternal(context, batch, prayer, prayerTimestamp, plan.reminderOffset,
+                        plan.language);
             }
-            if (enabledMorningDhikr && "Fajr".equals(prayers[i])) {
-                scheduleDhikrInternal(context, alarmManager, "dhikrMorning", prayers[i], prayerTimestamp,
-                        delayMorningDhikr, language);
+            if (settings.enabledAfterSalah) {
+                scheduleDhikrInternal(context, batch, "afterSalah", prayer, prayerTimestamp, 5,
+                        plan.language);
             }
-            if (enabledEveningDhikr && "Maghrib".equals(prayers[i])) {
-                scheduleDhikrInternal(context, alarmManager, "eveningDhikr", prayers[i], prayerTimestamp,
-                        delayEveningDhikr, language);
+            if (settings.enabledMorningDhikr && "Fajr".equals(prayer)) {
+                scheduleDhikrInternal(context, batch, "dhikrMorning", prayer, prayerTimestamp,
+                        settings.delayMorningDhikr, plan.language);
             }
-            if (enabledSelectedDua
-                    && ("Dhuhr".equals(prayers[i]) || "Asr".equals(prayers[i]) || "Isha".equals(prayers[i]))) {
-                scheduleDhikrInternal(context, alarmManager, "selectedDua", prayers[i], prayerTimestamp,
-                        delaySelectedDua, language);
+            if (settings.enabledEveningDhikr && "Maghrib".equals(prayer)) {
+                scheduleDhikrInternal(context, batch, "eveningDhikr", prayer, prayerTimestamp,
+                        settings.delayEveningDhikr, plan.language);
+            }
+            if (settings.enabledSelectedDua
+                    && ("Dhuhr".equals(prayer) || "Asr".equals(prayer) || "Isha".equals(prayer))) {
+                scheduleDhikrInternal(context, batch, "selectedDua", prayer, prayerTimestamp,
+                        settings.delaySelectedDua, plan.language);
             }
         }
-
-        // 📱 SAUVEGARDER LES HORAIRES POUR LE WIDGET
-        // Déterminer si on doit afficher aujourd'hui ou demain
-        if (now.getTime().after(prayerTimesToday.isha)) {
-            // Après Isha : sauvegarder les horaires de demain
-            savePrayerTimesForWidget(context, prayerTimesTomorrow, tomorrow);
-            errorLog(TAG, "📱 [BOOT] Horaires de DEMAIN sauvegardés pour le widget");
-        } else {
-            // Avant Isha : sauvegarder les horaires d'aujourd'hui
-            savePrayerTimesForWidget(context, prayerTimesToday, now);
-            errorLog(TAG, "📱 [BOOT] Horaires d'AUJOURD'HUI sauvegardés pour le widget");
-        }
-
-        debugLog(TAG, "====> REPROGRAMMATION APRÈS REDÉMARRAGE TERMINÉE <====");
     }
 
     private void cancelAllAdhanAlarmsOnly(Context context, AlarmManager alarmManager) {
@@ -1683,58 +1747,28 @@ public class AdhanService extends Service {
                 }
             }
         }
+        AdhanPrewarm.cancelAll(context, alarmManager);
+        cancelCount += AlarmHorizon.cancelKind(context, alarmManager, AlarmHorizon.KIND_ADHAN);
         debugLog(TAG, "Réprogram: " + cancelCount + " alarmes Adhan annulées.");
     }
 
     private CalculationParameters getCalculationParameters(String methodName) {
-        CalculationParameters params;
-        if (methodName == null)
-            methodName = "MuslimWorldLeague"; // Default
-        switch (methodName) {
-            case "Egyptian":
-                params = CalculationMethod.EGYPTIAN.getParameters();
-                break;
-            case "Karachi":
-                params = CalculationMethod.KARACHI.getParameters();
-                break;
-            case "UmmAlQura":
-                // 🕌 Umm Al-Qura modifié pour utiliser 15° pour Fajr
-                params = CalculationMethod.UMM_AL_QURA.getParameters();
-                params.fajrAngle = 15.0; // Modifié selon recommandation mosquée
-                break;
-            case "NorthAmerica":
-                params = CalculationMethod.NORTH_AMERICA.getParameters();
-                break;
-            case "Kuwait":
-                params = CalculationMethod.KUWAIT.getParameters();
-                break;
-            case "Qatar":
-                params = CalculationMethod.QATAR.getParameters();
-                break;
-            case "Singapore":
-                params = CalculationMethod.SINGAPORE.getParameters();
-                break;
-            case "Tehran":
-                warningLog(TAG,
-                        "Méthode 'Tehran' sélectionnée, utilisation fallback MUSLIM_WORLD_LEAGUE car la constante exacte n'est pas trouvée.");
-                params = CalculationMethod.MUSLIM_WORLD_LEAGUE.getParameters(); // Fallback temporaire
-                break;
-            case "MuslimWorldLeague":
-            default:
-                params = CalculationMethod.MUSLIM_WORLD_LEAGUE.getParameters();
-                break;
+        if (PrayerCalculator.isFallbackMethod(methodName)) {
+            warningLog(TAG, "Méthode '" + methodName
+                    + "' sans équivalent, utilisation fallback MUSLIM_WORLD_LEAGUE.");
         }
         // Madhab (pour Asr) - pourrait être un paramètre utilisateur aussi
         // params.madhab = Madhab.HANAFI; // ou Madhab.STANDARD (Shafi, Maliki, Hanbali)
-        return params;
+        return PrayerCalculator.parametersFor(methodName);
     }
 
-    private void scheduleAdhanAlarmInternal(Context context, AlarmManager alarmManager, String prayerName,
+    private void scheduleAdhanAlarmInternal(Context context, AlarmHorizon.Batch batch, String prayerName,
             long triggerAtMillis, String adhanSound, String language) {
         Intent intent = new Intent(context, AdhanReceiver.class);
         intent.setAction("com.drogbinho.prayertimesapp2.ACTION_ADHAN_ALARM");
         intent.putExtra("ADHAN_SOUND", adhanSound);
         intent.putExtra("PRAYER_LABEL", prayerName);
+        intent.putExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT, triggerAtMillis);
         // Utilise les mêmes clés que le JavaScript pour la cohérence
         intent.putExtra("NOTIF_TITLE",
                 getLocalizedTextFromJson(context, "adhan_notification_title", language, "🕌 Adhan"));
@@ -1750,27 +1784,26 @@ public class AdhanService extends Service {
         String dayString = dayFormat.format(new Date(triggerAtMillis));
         int requestCode = (prayerName + "_" + dayString).hashCode();
 
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, requestCode, intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
         try {
-            alarmManager.setAlarmClock(new AlarmManager.AlarmClockInfo(triggerAtMillis, null), pendingIntent);
-
-            // 🔥 DEBUG CRITIQUE : Log avec tous les détails pour diagnostiquer
-            long delayMinutes = (triggerAtMillis - System.currentTimeMillis()) / 60000;
-            errorLog(TAG, "🔥 ADHAN PROGRAMMÉ - " + prayerName +
-                    " | Timestamp: " + triggerAtMillis +
-                    " | Heure: " + new Date(triggerAtMillis) +
-                    " | Dans: " + delayMinutes + " min" +
-                    " | RequestCode: " + requestCode +
-                    " | Jour: " + dayString);
-
-            debugLog(TAG, "Réprogram: Adhan programmé pour " + prayerName + " à " + new Date(triggerAtMillis));
+            // Armé (avec son pré-chauffage) quand il entre dans l'horizon des prochaines alarmes
+            batch.add(AlarmHorizon.KIND_ADHAN, triggerAtMillis, requestCode, intent);
+
+            // 🔥 DEBUG : détails pour diagnostiquer (aucun formatage si le niveau est désactivé)
+            if (isDebugEnabled(TAG)) {
+                long delayMinutes = (triggerAtMillis - System.currentTimeMillis()) / 60000;
+                debugLog(TAG, "🔥 ADHAN PROGRAMMÉ - " + prayerName +
+                        " | Timestamp: " + triggerAtMillis +
+                        " | Heure: " + new Date(triggerAtMillis) +
+                        " | Dans: " + delayMinutes + " min" +
+                        " | RequestCode: " + requestCode +
+                        " | Jour: " + dayString);
+            }
         } catch (Exception e) {
             errorLog(TAG, "Réprogram: Erreur Adhan " + prayerName + ": " + e.getMessage());
         }
     }
 
-    private void scheduleReminderInternal(Context context, AlarmManager alarmManager, String prayerName,
+    private void scheduleReminderInternal(Context context, AlarmHorizon.Batch batch, String prayerName,
             long prayerTimestamp, int offsetMinutes, String language) {
         long triggerAtMillis = prayerTimestamp - (offsetMinutes * 60 * 1000L);
         if (triggerAtMillis <= System.currentTimeMillis()) {
@@ -1791,10 +1824,8 @@ public class AdhanService extends Service {
 
         // Même schéma que AdhanModule.schedulePrayerReminders (JS) : écrase les doublons et permet à cancelAllPrayerReminders de tout annuler
         int requestCode = ("reminder_" + prayerName + "_" + triggerAtMillis).hashCode();
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, requestCode, intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
         try {
-            alarmManager.setAlarmClock(new AlarmManager.AlarmClockInfo(triggerAtMillis, null), pendingIntent);
+            batch.add(AlarmHorizon.KIND_REMINDER, triggerAtMillis, requestCode, intent);
             NotificationAlarmRegistry.appendReminder(context, prayerName, triggerAtMillis);
             debugLog(TAG, "Réprogram: Rappel programmé pour " + prayerName + " à " + new Date(triggerAtMillis));
         } catch (Exception e) {
@@ -1802,7 +1833,7 @@ public class AdhanService extends Service {
         }
     }
 
-    private void scheduleDhikrInternal(Context context, AlarmManager alarmManager, String dhikrType, String prayerName,
+    private void scheduleDhikrInternal(Context context, AlarmHorizon.Batch batch, String dhikrType, String prayerName,
             long prayerTimestamp, int delayMinutes, String language) {
         DhikrContent dhikrContent = getRandomDhikrContent(context, dhikrType, language);
 
@@ -1838,10 +1869,8 @@ public class AdhanService extends Service {
 
         // Même schéma que AdhanModule.scheduleDhikrNotifications (JS)
         int requestCode = (dhikrType + "_" + prayerName + "_" + triggerMillis).hashCode();
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, requestCode, intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
         try {
-            alarmManager.setAlarmClock(new AlarmManager.AlarmClockInfo(triggerMillis, null), pendingIntent);
+            batch.add(AlarmHorizon.KIND_DHIKR, triggerMillis, requestCode, intent);
             NotificationAlarmRegistry.appendDhikr(context, dhikrType, prayerName, triggerMillis);
             debugLog(TAG,
                     "✅ Dhikr reprogrammé: " + dhikrType + " pour " + prayerName + " à " + new Date(triggerMillis));
@@ -1854,19 +1883,7 @@ public class AdhanService extends Service {
      * Code langue de base (ex. fr depuis fr-FR) pour correspondre aux assets locales_xx.json.
      */
     private String normalizeLanguageForLocaleAssets(String language) {
-        if (language == null || language.isEmpty()) {
-            return "en";
-        }
-        String base = language.trim().toLowerCase(Locale.ROOT);
-        int sep = base.indexOf('-');
-        if (sep > 0) {
-            base = base.substring(0, sep);
-        }
-        sep = base.indexOf('_');
-        if (sep > 0) {
-            base = base.substring(0, sep);
-        }
-        return base.isEmpty() ? "en" : base;
+        return LocaleJson.normalizeLanguage(language);
     }
 
     private String getLocalizedTextFromJson(Context context, String key, String language, String fallback) {
@@ -1891,10 +1908,7 @@ public class AdhanService extends Service {
     private String loadJSONFromAsset(Context context, String fileName) {
         String json;
         try (InputStream is = context.getAssets().open(fileName)) {
-            int size = is.available();
-            byte[] buffer = new byte[size];
-            is.read(buffer);
-            json = new String(buffer, StandardCharsets.UTF_8);
+            json = LocaleJson.readUtf8(is);
         } catch (IOException ex) {
             errorLog(TAG, "Erreur lecture JSON depuis assets: " + fileName, ex);
             return null;
@@ -2106,12 +2120,13 @@ public class AdhanService extends Service {
         return localizedName;
     }
 
-    private void scheduleAdhanAlarmInternalWithSuffix(Context context, AlarmManager alarmManager, String prayerName,
+    private void scheduleAdhanAlarmInternalWithSuffix(Context context, AlarmHorizon.Batch batch, String prayerName,
             long triggerAtMillis, String adhanSound, String language, String suffix) {
         Intent intent = new Intent(context, AdhanReceiver.class);
         intent.setAction("com.drogbinho.prayertimesapp2.ACTION_ADHAN_ALARM");
         intent.putExtra("ADHAN_SOUND", adhanSound);
         intent.putExtra("PRAYER_LABEL", prayerName); // Sans suffixe pour les logs
+        intent.putExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT, triggerAtMillis);
         // Utilise les mêmes clés que le JavaScript pour la cohérence
         intent.putExtra("NOTIF_TITLE",
                 getLocalizedTextFromJson(context, "adhan_notification_title", language, "🕌 Adhan"));
@@ -2126,10 +2141,9 @@ public class AdhanService extends Service {
         String dayString = dayFormat.format(new Date(triggerAtMillis));
         int requestCode = (prayerName + "_" + dayString).hashCode();
 
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, requestCode, intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
         try {
-            alarmManager.setAlarmClock(new AlarmManager.AlarmClockInfo(triggerAtMillis, null), pendingIntent);
+            // Armé (avec son pré-chauffage) quand il entre dans l'horizon des prochaines alarmes
+            batch.add(AlarmHorizon.KIND_ADHAN, triggerAtMillis, requestCode, intent);
             debugLog(TAG,
                     "✅ Boot Reprog: Adhan programmé pour " + prayerName + suffix + " à " + new Date(triggerAtMillis) +
                             " (requestCode: " + requestCode + ", jour: " + dayString + ")");
@@ -2143,33 +2157,30 @@ public class AdhanService extends Service {
      */
     private void savePrayerTimesForWidget(Context context, PrayerTimes prayerTimes, Calendar date) {
         try {
-            SharedPreferences prefs = context.getSharedPreferences("prayer_times_settings", MODE_PRIVATE);
-
             // Format HH:mm pour le widget
             java.text.SimpleDateFormat timeFormat = new java.text.SimpleDateFormat("HH:mm",
                     java.util.Locale.getDefault());
 
-            // Créer le JSON des horaires
-            org.json.JSONObject jsonTimes = new org.json.JSONObject();
-            jsonTimes.put("Fajr", timeFormat.format(prayerTimes.fajr));
-            jsonTimes.put("Sunrise", timeFormat.format(prayerTimes.sunrise));
-            jsonTimes.put("Dhuhr", timeFormat.format(prayerTimes.dhuhr));
-            jsonTimes.put("Asr", timeFormat.format(prayerTimes.asr));
-            jsonTimes.put("Maghrib", timeFormat.format(prayerTimes.maghrib));
-            jsonTimes.put("Isha", timeFormat.format(prayerTimes.isha));
+            // Horaires du jour (ordre conservé pour le JSON persisté)
+            java.util.Map<String, String> times = new java.util.LinkedHashMap<>();
+            times.put("Fajr", timeFormat.format(prayerTimes.fajr));
+            times.put("Sunrise", timeFormat.format(prayerTimes.sunrise));
+            times.put("Dhuhr", timeFormat.format(prayerTimes.dhuhr));
+            times.put("Asr", timeFormat.format(prayerTimes.asr));
+            times.put("Maghrib", timeFormat.format(prayerTimes.maghrib));
+            times.put("Isha", timeFormat.format(prayerTimes.isha));
 
             // Sauvegarder la date pour laquelle ces horaires sont valides
             java.text.SimpleDateFormat dateFormat = new java.text.SimpleDateFormat("yyyy-MM-dd",
                     java.util.Locale.getDefault());
             String dateString = dateFormat.format(date.getTime());
 
-            prefs.edit()
-                    .putString("today_prayer_times", jsonTimes.toString())
-                    .putString("widget_last_date", dateString)
-                    .apply();
+            // Écrit tout de suite : le service peut s'arrêter (et le process avec) juste après
+            SettingsStore.updateNow(context, editor -> editor
+                    .setTodayPrayerTimes(times, dateString)
+                    .putRaw(SettingsStore.PREFS_SETTINGS, "widget_last_date", dateString));
 
-            errorLog(TAG, "📱 Horaires sauvegardés pour le widget - Date: " + dateString + ", Horaires: "
-                    + jsonTimes.toString());
+            errorLog(TAG, "📱 Horaires sauvegardés pour le widget - Date: " + dateString + ", Horaires: " + times);
 
         } catch (Exception e) {
             errorLog(TAG, "❌ Erreur sauvegarde horaires widget: " + e.getMessage(), e);
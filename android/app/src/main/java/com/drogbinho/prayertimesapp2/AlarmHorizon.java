@@ -0,0 +1,343 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Horizon glissant des alarmes adhan / rappel / dhikr : toutes les alarmes futures sont
+ * gardées dans une file locale triée par heure, et seules les {@link #HORIZON_SIZE} plus
+ * proches sont réellement enregistrées dans AlarmManager (setAlarmClock). Chaque
+ * déclenchement (receivers) réarme le lot suivant.
+ *
+ * Les PendingIntent armés gardent le requestCode et l'Intent d'origine : les annulations
+ * existantes (par requestCode / registre) restent valables pour les alarmes déjà armées.
+ */
+public final class AlarmHorizon {
+
+    private static final String TAG = "AlarmHorizon";
+    private static final String PREFS = "alarm_horizon";
+    private static final String KEY_QUEUE = "queue_v1";
+
+    /** Nombre d'alarmes réellement enregistrées dans AlarmManager. */
+    static final int HORIZON_SIZE = 4;
+
+    public static final int KIND_ADHAN = 0;
+    public static final int KIND_REMINDER = 1;
+    public static final int KIND_DHIKR = 2;
+
+    private static final Object LOCK = new Object();
+
+    private static final class Entry {
+        final int kind;
+        final long triggerAt;
+        final int requestCode;
+        final String intentUri;
+        boolean armed;
+
+        Entry(int kind, long triggerAt, int requestCode, String intentUri, boolean armed) {
+            this.kind = kind;
+            this.triggerAt = triggerAt;
+            this.requestCode = requestCode;
+            this.intentUri = intentUri;
+            this.armed = armed;
+        }
+    }
+
+    // File triée par heure de déclenchement, chargée à la demande (null = pas encore lue)
+    private static List<Entry> queue;
+
+    private AlarmHorizon() {}
+
+    /**
+     * Lot d'alarmes ajoutées d'un coup (ex. payload JS) : une seule passe de réarmement et
+     * une seule écriture, quel que soit le nombre d'alarmes.
+     */
+    public static final class Batch {
+        private final List<Entry> added = new ArrayList<>();
+
+        /**
+         * Ajoute (ou remplace, même type + requestCode) une alarme future. L'Intent doit viser
+         * un BroadcastReceiver ; seuls action, composant et extras simples sont conservés.
+         */
+        public Batch add(int kind, long triggerAtMillis, int requestCode, Intent intent) {
+            if (triggerAtMillis <= System.currentTimeMillis()) {
+                debugLog(TAG, "Alarme ignorée (dans le passé): requestCode {}", requestCode);
+                return this;
+            }
+            added.add(new Entry(kind, triggerAtMillis, requestCode, intent.toUri(Intent.URI_INTENT_SCHEME), false));
+            return this;
+        }
+
+        public void commit(Context context) {
+            if (added.isEmpty()) {
+                return;
+            }
+            synchronized (LOCK) {
+                List<Entry> entries = load(context);
+                AlarmManager alarmManager = alarmManager(context);
+                for (Entry entry : added) {
+                    insertLocked(context, alarmManager, entries, entry);
+                }
+                rearmLocked(context, alarmManager, entries);
+                save(context, entries);
+            }
+            added.clear();
+        }
+    }
+
+    /** Ajout d'une seule alarme (voir {@link Batch#add}). */
+    public static void enqueue(Context context, int kind, long triggerAtMillis, int requestCode, Intent intent) {
+        new Batch().add(kind, triggerAtMillis, requestCode, intent).commit(context);
+    }
+
+    private static void insertLocked(Context context, AlarmManager alarmManager, List<Entry> entries, Entry entry) {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+            Entry e = it.next();
+            if (e.kind == entry.kind && e.requestCode == entry.requestCode) {
+                if (e.armed && e.triggerAt != entry.triggerAt) {
+                    disarm(context, alarmManager, e);
+                }
+                it.remove();
+            }
+        }
+        int index = 0;
+        while (index < entries.size() && entries.get(index).triggerAt <= entry.triggerAt) {
+            index++;
+        }
+        entries.add(index, entry);
+    }
+
+    /** Appelé par les receivers à chaque déclenchement : purge le passé et réarme le lot suivant. */
+    public static void onFired(Context context) {
+        synchronized (LOCK) {
+            List<Entry> entries = load(context);
+            rearmLocked(context, alarmManager(context), entries);
+            save(context, entries);
+        }
+        // Téléphone déjà réveillé : les tâches périodiques dans leur fenêtre en profitent
+        WakeupCoordinator.onExternalWake(context);
+    }
+
+    /** Après redémarrage, AlarmManager est vide : tout ce qui était armé doit l'être à nouveau. */
+    public static void onBoot(Context context) {
+        synchronized (LOCK) {
+            List<Entry> entries = load(context);
+            for (Entry e : entries) {
+                e.armed = false;
+            }
+            rearmLocked(context, alarmManager(context), entries);
+            save(context, entries);
+        }
+    }
+
+    /** Retire de la file toutes les alarmes d'un type (annule celles déjà armées). */
+    public static int cancelKind(Context context, AlarmManager alarmManager, int kind) {
+        int removed = 0;
+        synchronized (LOCK) {
+            List<Entry> entries = load(context);
+            for (Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+                Entry e = it.next();
+                if (e.kind == kind) {
+                    if (e.armed) {
+                        disarm(context, alarmManager, e);
+                    }
+                    it.remove();
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                // Les alarmes des autres types remontent dans l'horizon
+                rearmLocked(context, alarmManager, entries);
+                save(context, entries);
+            }
+        }
+        debugLog(TAG, "{} alarme(s) retirée(s) de l'horizon (type {})", removed, kind);
+        return removed;
+    }
+
+    /** Heure de la dernière alarme en file (0 si vide). */
+    public static long latestTrigger(Context context) {
+        synchronized (LOCK) {
+            List<Entry> entries = load(context);
+            return entries.isEmpty() ? 0 : entries.get(entries.size() - 1).triggerAt;
+        }
+    }
+
+    /**
+     * Décale les alarmes dont la prière a bougé de plus de {@code toleranceMs} (changement de
+     * position / méthode) ; les autres ne sont ni annulées ni réarmées. Même requestCode :
+     * les annulations par registre restent valables. Renvoie le nombre d'alarmes décalées.
+     */
+    public static int retime(Context context, PrayerShift shift, long toleranceMs) {
+        int moved = 0;
+        synchronized (LOCK) {
+            List<Entry> entries = load(context);
+            AlarmManager alarmManager = alarmManager(context);
+            List<Entry> retimed = new ArrayList<>();
+            for (Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+                Entry e = it.next();
+                try {
+                    Intent intent = Intent.parseUri(e.intentUri, Intent.URI_INTENT_SCHEME);
+                    long delta = shift.deltaMillis(intent.getStringExtra("PRAYER_LABEL"), e.triggerAt);
+                    if (Math.abs(delta) <= toleranceMs) {
+                        continue;
+                    }
+                    if (e.armed) {
+                        disarm(context, alarmManager, e);
+                    }
+                    long triggerAt = e.triggerAt + delta;
+                    if (intent.hasExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT)) {
+                        intent.putExtra(AdhanPrewarm.EXTRA_SCHEDULED_AT, triggerAt);
+                    }
+                    it.remove();
+                    retimed.add(new Entry(e.kind, triggerAt, e.requestCode,
+                            intent.toUri(Intent.URI_INTENT_SCHEME), false));
+                } catch (Exception ex) {
+                    warnLog(TAG, "Alarme non décalée (requestCode {}): {}", e.requestCode, ex.getMessage());
+                }
+            }
+            if (!retimed.isEmpty()) {
+                for (Entry entry : retimed) {
+                    insertLocked(context, alarmManager, entries, entry);
+                }
+                rearmLocked(context, alarmManager, entries);
+                save(context, entries);
+                moved = retimed.size();
+            }
+        }
+        debugLog(TAG, "{} alarme(s) décalée(s) après changement d'horaires", moved);
+        return moved;
+    }
+
+    @VisibleForTesting
+    static void resetForTests() {
+        synchronized (LOCK) {
+            queue = null;
+        }
+    }
+
+    private static void rearmLocked(Context context, AlarmManager alarmManager, List<Entry> entries) {
+        long now = System.currentTimeMillis();
+        // Passé : déclenché (ou en cours de livraison), on l'oublie sans l'annuler
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+            if (it.next().triggerAt <= now) {
+                it.remove();
+            }
+        }
+        if (alarmManager == null) {
+            return;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            boolean inHorizon = i < HORIZON_SIZE;
+            if (inHorizon && !e.armed) {
+                e.armed = arm(context, alarmManager, e);
+            } else if (!inHorizon && e.armed) {
+                disarm(context, alarmManager, e);
+                e.armed = false;
+            }
+        }
+    }
+
+    private static boolean arm(Context context, AlarmManager alarmManager, Entry e) {
+        try {
+            Intent intent = Intent.parseUri(e.intentUri, Intent.URI_INTENT_SCHEME);
+            PendingIntent pendingIntent = PendingIntent.getBroadcast(context, e.requestCode, intent,
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+            alarmManager.setAlarmClock(new AlarmManager.AlarmClockInfo(e.triggerAt, null), pendingIntent);
+            if (e.kind == KIND_ADHAN) {
+                AdhanPrewarm.schedule(context, alarmManager, intent.getStringExtra("PRAYER_LABEL"), e.triggerAt,
+                        intent.getStringExtra("ADHAN_SOUND"));
+            }
+            debugLog(TAG, "Alarme armée: type {} à {}", e.kind, e.triggerAt);
+            return true;
+        } catch (Exception ex) {
+            errorLog(TAG, "❌ Armement impossible (requestCode " + e.requestCode + "): " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private static void disarm(Context context, AlarmManager alarmManager, Entry e) {
+        if (alarmManager == null) {
+            return;
+        }
+        try {
+            Intent intent = Intent.parseUri(e.intentUri, Intent.URI_INTENT_SCHEME);
+            PendingIntent pendingIntent = PendingIntent.getBroadcast(context, e.requestCode, intent,
+                    PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+            if (pendingIntent != null) {
+                alarmManager.cancel(pendingIntent);
+                pendingIntent.cancel();
+            }
+            if (e.kind == KIND_ADHAN) {
+                AdhanPrewarm.cancel(context, alarmManager, intent.getStringExtra("PRAYER_LABEL"), e.triggerAt);
+            }
+        } catch (Exception ex) {
+            warnLog(TAG, "Désarmement impossible (requestCode {}): {}", e.requestCode, ex.getMessage());
+        }
+    }
+
+    private static List<Entry> load(Context context) {
+        if (queue != null) {
+            return queue;
+        }
+        List<Entry> entries = new ArrayList<>();
+        String raw = prefs(context).getString(KEY_QUEUE, null);
+        if (raw != null) {
+            try {
+                JSONArray arr = new JSONArray(raw);
+                for (int i = 0; i < arr.length(); i++) {
+                    JSONObject o = arr.getJSONObject(i);
+                    entries.add(new Entry(o.getInt("k"), o.getLong("t"), o.getInt("rc"), o.getString("u"),
+                            o.optBoolean("a", false)));
+                }
+            } catch (Exception e) {
+                errorLog(TAG, "❌ File d'alarmes illisible, réinitialisée: " + e.getMessage());
+                entries.clear();
+            }
+        }
+        queue = entries;
+        return entries;
+    }
+
+    private static void save(Context context, List<Entry> entries) {
+        JSONArray arr = new JSONArray();
+        try {
+            for (Entry e : entries) {
+                JSONObject o = new JSONObject();
+                o.put("k", e.kind);
+                o.put("t", e.triggerAt);
+                o.put("rc", e.requestCode);
+                o.put("u", e.intentUri);
+                o.put("a", e.armed);
+                arr.put(o);
+            }
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Sérialisation de la file impossible: " + e.getMessage());
+            return;
+        }
+        prefs(context).edit().putString(KEY_QUEUE, arr.toString()).apply();
+    }
+
+    private static AlarmManager alarmManager(Context context) {
+        return (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
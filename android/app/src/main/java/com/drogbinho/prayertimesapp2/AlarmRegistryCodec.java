@@ -0,0 +1,111 @@
+package com.drogbinho.prayertimesapp2;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format JSON du registre d'alarmes ({@link NotificationAlarmRegistry}) sans dépendance
+ * Android : ajout d'une entrée et plan d'annulation (requestCodes des PendingIntent).
+ *
+ * Rappels : [{"p":"Fajr","t":1700000000000}, …]
+ * Dhikr :   [{"type":"afterSalah","p":"Fajr","t":1700000000000}, …]
+ */
+public final class AlarmRegistryCodec {
+
+    /** Entrée dhikr à annuler : les extras TYPE / PRAYER_LABEL font partie de l'Intent. */
+    public static final class DhikrAlarm {
+        public final String type;
+        public final String prayer;
+        public final int requestCode;
+
+        DhikrAlarm(String type, String prayer, int requestCode) {
+            this.type = type;
+            this.prayer = prayer;
+            this.requestCode = requestCode;
+        }
+    }
+
+    private AlarmRegistryCodec() {}
+
+    /**
+     * Ajoute un rappel. L'entrée est concaténée au tableau existant sans le reparser :
+     * le coût ne dépend plus du nombre d'alarmes déjà enregistrées (hors copie de la chaîne).
+     */
+    public static String appendReminder(String raw, String prayer, long triggerAtMillis) {
+        StringBuilder entry = new StringBuilder(48);
+        entry.append("{\"p\":").append(JSONObject.quote(prayer))
+                .append(",\"t\":").append(triggerAtMillis).append('}');
+        return appendEntry(raw, entry);
+    }
+
+    public static String appendDhikr(String raw, String type, String prayer, long triggerAtMillis) {
+        StringBuilder entry = new StringBuilder(72);
+        entry.append("{\"type\":").append(JSONObject.quote(type))
+                .append(",\"p\":").append(JSONObject.quote(prayer))
+                .append(",\"t\":").append(triggerAtMillis).append('}');
+        return appendEntry(raw, entry);
+    }
+
+    /** requestCodes des rappels enregistrés (même formule que lors de la programmation). */
+    public static int[] reminderRequestCodes(String raw) throws JSONException {
+        JSONArray arr = new JSONArray(raw);
+        int[] codes = new int[arr.length()];
+        for (int i = 0; i < codes.length; i++) {
+            JSONObject o = arr.getJSONObject(i);
+            codes[i] = reminderRequestCode(o.getString("p"), o.getLong("t"));
+        }
+        return codes;
+    }
+
+    public static List<DhikrAlarm> dhikrAlarms(String raw) throws JSONException {
+        JSONArray arr = new JSONArray(raw);
+        List<DhikrAlarm> alarms = new ArrayList<>(arr.length());
+        for (int i = 0; i < arr.length(); i++) {
+            JSONObject o = arr.getJSONObject(i);
+            String type = o.getString("type");
+            String prayer = o.getString("p");
+            alarms.add(new DhikrAlarm(type, prayer, dhikrRequestCode(type, prayer, o.getLong("t"))));
+        }
+        return alarms;
+    }
+
+    public static int reminderRequestCode(String prayer, long triggerAtMillis) {
+        return ("reminder_" + prayer + "_" + triggerAtMillis).hashCode();
+    }
+
+    public static int dhikrRequestCode(String type, String prayer, long triggerAtMillis) {
+        return (type + "_" + prayer + "_" + triggerAtMillis).hashCode();
+    }
+
+    /** Vide, absent ou illisible → nouveau tableau (comme le JSONArray("[]") d'origine). */
+    private static String appendEntry(String raw, CharSequence entry) {
+        int end = raw != null ? lastNonWhitespace(raw) : -1;
+        if (end < 1 || raw.charAt(end) != ']' || raw.charAt(0) != '[') {
+            return "[" + entry + "]";
+        }
+        int prev = end - 1;
+        while (prev > 0 && Character.isWhitespace(raw.charAt(prev))) {
+            prev--;
+        }
+        boolean empty = prev == 0;
+        StringBuilder out = new StringBuilder(end + entry.length() + 2);
+        out.append(raw, 0, end);
+        if (!empty) {
+            out.append(',');
+        }
+        out.append(entry).append(']');
+        return out.toString();
+    }
+
+    private static int lastNonWhitespace(String s) {
+        int i = s.length() - 1;
+        while (i >= 0 && Character.isWhitespace(s.charAt(i))) {
+            i--;
+        }
+        return i;
+    }
+}
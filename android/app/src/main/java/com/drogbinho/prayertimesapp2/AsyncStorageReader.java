@@ -0,0 +1,165 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.File;
+import java.util.HashMap;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Lecture native de l'AsyncStorage JS (table catalystLocalStorage) : une seule connexion
+ * en lecture seule gardée ouverte, requête compilée une fois et cache mémoire invalidé
+ * quand la base change sur disque ou sur signal explicite.
+ */
+public final class AsyncStorageReader {
+
+    private static final String TAG = "AsyncStorageReader";
+    // RKStorage = nom utilisé par @react-native-async-storage, AsyncStorage.db = ancien nom
+    private static final String[] DB_NAMES = { "RKStorage", "AsyncStorage.db" };
+    private static final String TABLE = "catalystLocalStorage";
+
+    public static final String KEY_PREMIUM_USER = "@prayer_app_premium_user";
+    public static final String KEY_DOWNLOADED_CONTENT = "downloaded_premium_content";
+
+    // Valeur absente mise en cache (évite de rechercher à nouveau une clé manquante)
+    private static final String MISSING = new String("\u0000missing");
+    private static final Object LOCK = new Object();
+
+    private static SQLiteDatabase db;
+    private static SQLiteStatement getStatement;
+    private static File dbFile;
+    private static long dbStamp;
+    private static final HashMap<String, String> CACHE = new HashMap<>();
+
+    private AsyncStorageReader() {}
+
+    /** Valeur d'une clé, ou null si absente / base introuvable. */
+    public static String get(Context context, String key) {
+        synchronized (LOCK) {
+            if (!ensureOpenLocked(context)) {
+                return null;
+            }
+            String cached = CACHE.get(key);
+            if (cached != null) {
+                return cached == MISSING ? null : cached;
+            }
+            String value;
+            try {
+                getStatement.bindString(1, key);
+                value = getStatement.simpleQueryForString();
+            } catch (SQLiteDoneException e) {
+                value = null;
+            } catch (Exception e) {
+                warnLog(TAG, "Lecture {} échouée: {}", key, e.getMessage());
+                closeLocked();
+                return null;
+            } finally {
+                if (getStatement != null) {
+                    getStatement.clearBindings();
+                }
+            }
+            CACHE.put(key, value != null ? value : MISSING);
+            return value;
+        }
+    }
+
+    /**
+     * Statut premium stocké par l'app (@prayer_app_premium_user.isPremium),
+     * null si la clé est absente ou illisible.
+     */
+    public static Boolean readPremiumFlag(Context context) {
+        String json = get(context, KEY_PREMIUM_USER);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return new org.json.JSONObject(json).optBoolean("isPremium", false);
+        } catch (org.json.JSONException e) {
+            warnLog(TAG, "JSON premium illisible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** Vide le cache (appelé quand JS signale une écriture). La connexion reste ouverte. */
+    public static void invalidate() {
+        synchronized (LOCK) {
+            CACHE.clear();
+        }
+    }
+
+    public static void close() {
+        synchronized (LOCK) {
+            closeLocked();
+        }
+    }
+
+    /**
+     * Ouvre la connexion au premier appel ; vide le cache si la base ou son journal WAL
+     * ont changé depuis la dernière lecture (un stat, pas d'ouverture de fichier).
+     */
+    private static boolean ensureOpenLocked(Context context) {
+        if (db == null || !db.isOpen()) {
+            File file = findDbFile(context);
+            if (file == null) {
+                return false;
+            }
+            try {
+                db = SQLiteDatabase.openDatabase(file.getAbsolutePath(), null, SQLiteDatabase.OPEN_READONLY);
+                getStatement = db.compileStatement("SELECT value FROM " + TABLE + " WHERE key = ?");
+            } catch (Exception e) {
+                warnLog(TAG, "Ouverture AsyncStorage impossible: {}", e.getMessage());
+                closeLocked();
+                return false;
+            }
+            dbFile = file;
+            dbStamp = stamp(file);
+            CACHE.clear();
+            debugLog(TAG, "Connexion AsyncStorage ouverte: {}", file.getName());
+            return true;
+        }
+
+        long current = stamp(dbFile);
+        if (current != dbStamp) {
+            dbStamp = current;
+            CACHE.clear();
+        }
+        return true;
+    }
+
+    private static File findDbFile(Context context) {
+        for (String name : DB_NAMES) {
+            File file = context.getDatabasePath(name);
+            if (file.exists()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    private static long stamp(File file) {
+        File wal = new File(file.getPath() + "-wal");
+        return file.lastModified() * 31 + file.length() + wal.lastModified() * 17 + wal.length();
+    }
+
+    private static void closeLocked() {
+        if (getStatement != null) {
+            try {
+                getStatement.close();
+            } catch (Exception ignored) {
+            }
+            getStatement = null;
+        }
+        if (db != null) {
+            try {
+                db.close();
+            } catch (Exception ignored) {
+            }
+            db = null;
+        }
+        CACHE.clear();
+    }
+}
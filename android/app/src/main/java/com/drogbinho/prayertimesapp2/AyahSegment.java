@@ -0,0 +1,98 @@
+package com.drogbinho.prayertimesapp2;
+
+/**
+ * État d'une lecture par segment d'ayahs (plage fromAyah..toAyah, répétée) dans
+ * QuranAudioService : bornes en ms, répétitions restantes, et décision de mise en file de
+ * la sourate suivante.
+ *
+ * Tant qu'un segment est armé, aucune sourate n'est mise en file : quand la plage finit
+ * sur la dernière ayah, sa fin est la fin du fichier et le moteur enchaînerait sur la
+ * sourate suivante avant que le repère de fin ne se déclenche (ni pause, ni répétition).
+ *
+ * Sans dépendance Android (testé sur la JVM) ; accès depuis le thread principal uniquement.
+ */
+final class AyahSegment {
+
+    /** Résultat de {@link #onEnd} : rien d'armé, rejouer depuis {@link #startMs}, segment fini. */
+    static final int NONE = 0;
+    static final int REPEAT = 1;
+    static final int FINISHED = 2;
+
+    private int surah;
+    private int fromAyah;
+    private int toAyah;
+    private int startMs = -1;
+    private int endMs = -1;
+    private int repeatsLeft;
+
+    void arm(int surah, int fromAyah, int toAyah, int startMs, int endMs, int repeat) {
+        this.surah = surah;
+        this.fromAyah = fromAyah;
+        this.toAyah = toAyah;
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.repeatsLeft = Math.max(1, repeat) - 1;
+    }
+
+    boolean isActive() {
+        return endMs >= 0;
+    }
+
+    /**
+     * Fin de plage atteinte (repère du moteur ou fin de fichier). Consomme une répétition
+     * ({@link #REPEAT}) ou désarme le segment ({@link #FINISHED}) ; surah / fromAyah /
+     * toAyah restent lisibles pour l'événement de fin.
+     */
+    int onEnd() {
+        if (!isActive()) {
+            return NONE;
+        }
+        if (repeatsLeft > 0) {
+            repeatsLeft--;
+            return REPEAT;
+        }
+        clear();
+        return FINISHED;
+    }
+
+    void clear() {
+        startMs = -1;
+        endMs = -1;
+        repeatsLeft = 0;
+    }
+
+    /**
+     * Sourate à mettre en file après {@code current} (1..114), -1 si aucune : pas
+     * d'auto-avancement, fin du Coran sans boucle, ou segment armé.
+     */
+    int nextSurahToQueue(int current, boolean autoAdvance, boolean loop) {
+        if (!autoAdvance || current < 1 || isActive()) {
+            return -1;
+        }
+        return current < 114 ? current + 1 : (loop ? 1 : -1);
+    }
+
+    int surah() {
+        return surah;
+    }
+
+    int fromAyah() {
+        return fromAyah;
+    }
+
+    int toAyah() {
+        return toAyah;
+    }
+
+    int startMs() {
+        return startMs;
+    }
+
+    int endMs() {
+        return endMs;
+    }
+
+    int repeatsLeft() {
+        return repeatsLeft;
+    }
+}
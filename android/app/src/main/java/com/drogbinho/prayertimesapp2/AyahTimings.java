@@ -0,0 +1,180 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Index des temps d'ayah d'un récitateur, lu en mémoire mappée (rien n'est copié sur le
+ * tas : un index complet fait ~25 Ko pour les 6236 ayahs).
+ *
+ * Format (entiers 32 bits big-endian) :
+ * <pre>
+ *   "AYTM", version, nombre de sourates (114)
+ *   base[115]          : début des bornes de la sourate s dans bounds = base[s - 1]
+ *   bounds[base[114]]  : pour chaque sourate, début de chaque ayah puis fin de la dernière (ms)
+ * </pre>
+ * Une sourate sans temps a 0 bornes. Accès direct pour (sourate, ayah) → temps,
+ * recherche dichotomique pour position → ayah : O(log n), sans parcours.
+ *
+ * Sans dépendance Android (testé sur la JVM) ; écrit via fichier temporaire + rename.
+ */
+public final class AyahTimings {
+
+    public static final int SURAH_COUNT = 114;
+
+    private static final int MAGIC = 0x4159544D; // "AYTM"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 3 + SURAH_COUNT + 1;
+
+    private final IntBuffer data;
+
+    private AyahTimings(IntBuffer data) {
+        this.data = data;
+    }
+
+    /** Mappe et valide l'en-tête ; le contenu n'est lu qu'à la demande. */
+    public static AyahTimings open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_INTS * 4L || size % 4 != 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Taille invalide: " + size);
+            }
+            // Le mapping reste valide après fermeture du canal
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            IntBuffer data = mapped.order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+            if (data.get(0) != MAGIC || data.get(1) != VERSION || data.get(2) != SURAH_COUNT) {
+                throw new IOException("Format inconnu: " + file.getName());
+            }
+            if (data.get(3) != 0 || HEADER_INTS + data.get(3 + SURAH_COUNT) != data.limit()) {
+                throw new IOException("Table tronquée: " + file.getName());
+            }
+            return new AyahTimings(data);
+        }
+    }
+
+    /** Nombre d'ayahs minutées de la sourate (0 si aucune). */
+    public int ayahCount(int surah) {
+        if (surah < 1 || surah > SURAH_COUNT) {
+            return 0;
+        }
+        int count = base(surah) - base(surah - 1);
+        return count > 0 ? count - 1 : 0;
+    }
+
+    public boolean has(int surah, int ayah) {
+        return ayah >= 1 && ayah <= ayahCount(surah);
+    }
+
+    /** Début de l'ayah (ms depuis le début du fichier de la sourate). */
+    public int startMs(int surah, int ayah) {
+        checkAyah(surah, ayah);
+        return bound(base(surah - 1) + ayah - 1);
+    }
+
+    /** Fin de l'ayah : début de la suivante, ou fin de la récitation pour la dernière. */
+    public int endMs(int surah, int ayah) {
+        checkAyah(surah, ayah);
+        return bound(base(surah - 1) + ayah);
+    }
+
+    /**
+     * Ayah en cours à cette position (1-based) : la dernière qui commence au plus tard à
+     * positionMs. 0 si la sourate n'a pas de temps ou avant la première ayah.
+     */
+    public int ayahAt(int surah, int positionMs) {
+        int count = ayahCount(surah);
+        if (count == 0) {
+            return 0;
+        }
+        int first = base(surah - 1);
+        int low = 0;
+        int high = count - 1;
+        if (positionMs < bound(first)) {
+            return 0;
+        }
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (bound(first + mid) <= positionMs) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * Écrit un index : bounds[s - 1] = débuts des ayahs de la sourate s puis fin de la
+     * dernière (ms, croissants), ou null / vide si la sourate n'est pas minutée.
+     */
+    public static void write(File file, int[][] bounds) throws IOException {
+        if (bounds.length != SURAH_COUNT) {
+            throw new IllegalArgumentException("Attendu " + SURAH_COUNT + " sourates, reçu " + bounds.length);
+        }
+        for (int s = 0; s < SURAH_COUNT; s++) {
+            int[] surah = bounds[s];
+            if (surah == null || surah.length == 0) {
+                continue;
+            }
+            if (surah.length < 2) {
+                throw new IllegalArgumentException("Sourate " + (s + 1) + " : fin de la dernière ayah manquante");
+            }
+            for (int i = 0; i < surah.length; i++) {
+                if (surah[i] < 0 || (i > 0 && surah[i] < surah[i - 1])) {
+                    throw new IllegalArgumentException("Sourate " + (s + 1) + " : temps non croissants");
+                }
+            }
+        }
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Création impossible: " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(SURAH_COUNT);
+            int total = 0;
+            out.writeInt(0);
+            for (int[] surah : bounds) {
+                total += surah != null ? surah.length : 0;
+                out.writeInt(total);
+            }
+            for (int[] surah : bounds) {
+                if (surah != null) {
+                    for (int ms : surah) {
+                        out.writeInt(ms);
+                    }
+                }
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Écriture impossible: " + file);
+        }
+    }
+
+    private void checkAyah(int surah, int ayah) {
+        if (!has(surah, ayah)) {
+            throw new IllegalArgumentException("Ayah sans temps: " + surah + ":" + ayah);
+        }
+    }
+
+    private int base(int surahIndex) {
+        return data.get(3 + surahIndex);
+    }
+
+    private int bound(int index) {
+        return data.get(HEADER_INTS + index);
+    }
+}
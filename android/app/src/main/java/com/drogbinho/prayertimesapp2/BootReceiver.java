@@ -14,6 +14,9 @@ public class BootReceiver extends BroadcastReceiver {
     public void onReceive(Context context, Intent intent) {
         debugLog("BootReceiver", "BOOT_COMPLETED reçu, programmation différée des alarmes adhan...");
 
+        // AlarmManager a été vidé : réarme tout de suite les prochaines alarmes de l'horizon
+        AlarmHorizon.onBoot(context);
+
         // Android 15+ : Ne pas lancer directement un service de premier plan depuis
         // BOOT_COMPLETED
         // Au lieu de cela, programmer une alarme différée qui reprogrammera les
@@ -44,24 +47,10 @@ public class BootReceiver extends BroadcastReceiver {
             debugLog("BootReceiver", "Alarme de reprogrammation différée programmée pour dans 30 secondes");
 
             // 🔄 REDÉMARRER AUSSI LA MAINTENANCE QUOTIDIENNE après le boot
-            // (dans 45 secondes pour que la reprogrammation principale soit terminée)
-            long maintenanceTriggerTime = System.currentTimeMillis() + 45000; // 45 secondes
-
-            Intent maintenanceIntent = new Intent(context, MaintenanceReceiver.class);
-            maintenanceIntent.setAction("com.drogbinho.prayertimesapp2.ACTION_DAILY_MAINTENANCE");
-
-            PendingIntent maintenancePendingIntent = PendingIntent.getBroadcast(
-                    context,
-                    1002, // requestCode unique pour maintenance boot
-                    maintenanceIntent,
-                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, maintenanceTriggerTime,
-                        maintenancePendingIntent);
-            } else {
-                alarmManager.setExact(AlarmManager.RTC_WAKEUP, maintenanceTriggerTime, maintenancePendingIntent);
-            }
+            // (dans 45 secondes pour que la reprogrammation principale soit terminée), via la
+            // chaîne de réveil commune qui réarme aussi les autres tâches périodiques
+            WakeupCoordinator.runOnceAt(context, WakeupCoordinator.TASK_DAILY_MAINTENANCE,
+                    System.currentTimeMillis() + 45000);
 
             debugLog("BootReceiver", "Maintenance quotidienne redémarrée après boot (dans 45 secondes)");
         } else {
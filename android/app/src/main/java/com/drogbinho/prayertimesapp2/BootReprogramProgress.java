@@ -0,0 +1,102 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.provider.Settings;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Avancement de la reprogrammation après redémarrage, étape par étape. Persisté (commit
+ * synchrone) à la fin de chaque étape : si le processus est tué en cours de route, la
+ * relance reprend à l'étape suivante au lieu de tout recommencer.
+ *
+ * Un avancement n'est valable que pour le même démarrage du téléphone et le même jour
+ * (après minuit les horaires changent, on repart de zéro). Il est effacé une fois toutes
+ * les étapes faites : une reprogrammation suivante (maintenance, réglages) repart de zéro.
+ */
+public final class BootReprogramProgress {
+
+    private static final String TAG = "BootReprogram";
+    private static final String PREFS = "boot_reprogram_state";
+    private static final String KEY_BOOT_ID = "boot_id";
+    private static final String KEY_DAY = "day";
+    private static final String KEY_NEXT_STAGE = "next_stage";
+    private static final String KEY_STAGE_MS_PREFIX = "stage_ms_";
+
+    // Étapes, dans l'ordre de priorité
+    public static final int STAGE_NEXT_ADHAN = 0; // le prochain adhan, seul
+    public static final int STAGE_TODAY = 1; // adhans, rappels et dhikrs restants d'aujourd'hui
+    public static final int STAGE_LATER = 2; // demain
+    public static final int STAGE_WIDGET = 3; // horaires du widget
+    public static final int STAGE_COUNT = 4;
+    private static final String[] STAGE_NAMES = { "next_adhan", "today", "later", "widget" };
+
+    private static final Object LOCK = new Object();
+
+    private BootReprogramProgress() {}
+
+    public static String stageName(int stage) {
+        return stage >= 0 && stage < STAGE_NAMES.length ? STAGE_NAMES[stage] : String.valueOf(stage);
+    }
+
+    /**
+     * Identifiant du démarrage courant : compteur système si disponible, sinon l'heure du
+     * boot arrondie à la minute.
+     */
+    public static long currentBootId(Context context) {
+        int bootCount = Settings.Global.getInt(context.getContentResolver(), Settings.Global.BOOT_COUNT, -1);
+        if (bootCount >= 0) {
+            return bootCount;
+        }
+        return -((System.currentTimeMillis() - SystemClock.elapsedRealtime()) / 60000L);
+    }
+
+    /** Première étape restant à faire pour ce démarrage et ce jour (0 si rien n'est enregistré). */
+    public static int nextStage(Context context, long bootId, String day) {
+        synchronized (LOCK) {
+            SharedPreferences prefs = prefs(context);
+            if (prefs.getLong(KEY_BOOT_ID, Long.MIN_VALUE) != bootId || !day.equals(prefs.getString(KEY_DAY, null))) {
+                return STAGE_NEXT_ADHAN;
+            }
+            return Math.max(STAGE_NEXT_ADHAN, Math.min(STAGE_COUNT, prefs.getInt(KEY_NEXT_STAGE, STAGE_NEXT_ADHAN)));
+        }
+    }
+
+    /** Enregistre la fin d'une étape et sa durée (ms). */
+    public static void markDone(Context context, long bootId, String day, int stage, long durationMs) {
+        synchronized (LOCK) {
+            boolean saved = prefs(context).edit()
+                    .putLong(KEY_BOOT_ID, bootId)
+                    .putString(KEY_DAY, day)
+                    .putInt(KEY_NEXT_STAGE, stage + 1)
+                    .putLong(KEY_STAGE_MS_PREFIX + stageName(stage), durationMs)
+                    .commit();
+            if (!saved) {
+                warningLog(TAG, "Avancement non sauvegardé après l'étape " + stageName(stage));
+            }
+        }
+    }
+
+    /**
+     * Plan terminé : oublie l'avancement (les durées d'étapes restent pour le diagnostic),
+     * sinon toute reprogrammation du même démarrage et du même jour serait ignorée.
+     */
+    public static void clear(Context context) {
+        synchronized (LOCK) {
+            boolean saved = prefs(context).edit()
+                    .remove(KEY_BOOT_ID)
+                    .remove(KEY_DAY)
+                    .remove(KEY_NEXT_STAGE)
+                    .commit();
+            if (!saved) {
+                warningLog(TAG, "Avancement non effacé après la dernière étape");
+            }
+        }
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,620 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Téléchargement en masse des récitations (ex. les 114 sourates d'un récitateur), sans
+ * DownloadManager, via le client OkHttp partagé (RecitationHttp) : file de tâches persistée,
+ * N téléchargements en parallèle, reprise HTTP Range sur les fichiers partiels, nouvelles
+ * tentatives espacées (délai doublé à chaque échec), vérification SHA-256 optionnelle et
+ * renommage atomique dans la disposition lue par QuranAudioService :
+ * quran/&lt;récitateur&gt;/NNN_Nom (NNN).mp3.
+ *
+ * Sans dépendance Android (testable contre un serveur HTTP local avec un OkHttpClient
+ * simple). La file est réécrite (fichier temporaire + rename) à chaque changement d'état ;
+ * au redémarrage, les tâches en cours repartent de leur fichier .part.
+ */
+public final class BulkDownloadEngine {
+
+    public static final int PRIORITY_NORMAL = 0;
+    /** Sourate demandée par l'utilisateur : passe devant la file. */
+    public static final int PRIORITY_USER = 10;
+    /** Préchargement prédictif : ne passe qu'après tout le reste. */
+    public static final int PRIORITY_PREFETCH = -10;
+
+    static final int MAX_ATTEMPTS = 3;
+    // Délai avant la 2e tentative, doublé ensuite (plafonné)
+    static final long RETRY_BASE_DELAY_MS = 2_000;
+    private static final long RETRY_MAX_DELAY_MS = 60_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_STEP_BYTES = 256 * 1024;
+    static final String PART_SUFFIX = ".part";
+
+    public interface Listener {
+        void onProgress(Job job, long bytesDownloaded, long totalBytes);
+
+        void onCompleted(Job job, File file);
+
+        void onFailed(Job job, String error);
+
+        /** Plus rien en file ni en cours. */
+        void onIdle();
+    }
+
+    public static final class Job {
+        public final String reciter;
+        public final int surah;
+        public final String url;
+        /** SHA-256 hexadécimal attendu, null = pas de vérification. */
+        public final String sha256;
+        int priority;
+        int attempts;
+        final long sequence;
+        /** Pas relancée avant cet instant (ms) après un échec ; non persisté. */
+        long notBefore;
+
+        Job(String reciter, int surah, String url, String sha256, int priority, int attempts, long sequence) {
+            this.reciter = reciter;
+            this.surah = surah;
+            this.url = url;
+            this.sha256 = sha256;
+            this.priority = priority;
+            this.attempts = attempts;
+            this.sequence = sequence;
+        }
+
+        public String key() {
+            return keyOf(reciter, surah);
+        }
+
+        public int priority() {
+            return priority;
+        }
+    }
+
+    private final File quranRoot;
+    private final File stateFile;
+    private final Listener listener;
+    private final OkHttpClient client;
+    private final ExecutorService workers;
+    // Relance de pump() quand la prochaine tentative différée arrive à échéance
+    private final ScheduledExecutorService retryTimer;
+    private final Object lock = new Object();
+
+    // Priorité décroissante, puis ordre d'arrivée
+    private final PriorityQueue<Job> queue = new PriorityQueue<>((a, b) -> a.priority != b.priority
+            ? Integer.compare(b.priority, a.priority) : Long.compare(a.sequence, b.sequence));
+    private final Map<String, Job> running = new LinkedHashMap<>();
+    // Tâches en cours à interrompre, et ce qu'il faut faire du .part
+    private static final int STOP_DELETE = 0; // annulation
+    private static final int STOP_REQUEUE = 1; // arrêt du moteur : reprise au prochain démarrage
+    private static final int STOP_KEEP = 2; // pause : .part conservé, tâche retirée
+    private final Map<String, Integer> cancelled = new LinkedHashMap<>();
+    private int concurrency;
+    private long nextSequence;
+    private boolean started;
+    private long retryBaseDelayMs = RETRY_BASE_DELAY_MS;
+    private long pumpScheduledAt = Long.MAX_VALUE;
+
+    public BulkDownloadEngine(File quranRoot, File stateFile, int concurrency, Listener listener) {
+        this(quranRoot, stateFile, concurrency, listener, new OkHttpClient());
+    }
+
+    /** {@code client} porte les en-têtes communs (User-Agent, token) et le pool de connexions. */
+    public BulkDownloadEngine(File quranRoot, File stateFile, int concurrency, Listener listener,
+            OkHttpClient client) {
+        this.quranRoot = quranRoot;
+        this.client = client;
+        this.stateFile = stateFile;
+        this.concurrency = Math.max(1, concurrency);
+        this.listener = listener;
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "BulkDownload");
+            t.setDaemon(true);
+            return t;
+        });
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "BulkDownloadRetry");
+            t.setDaemon(true);
+            return t;
+        });
+        loadState();
+    }
+
+    void setRetryBaseDelayMsForTests(long delayMs) {
+        synchronized (lock) {
+            retryBaseDelayMs = delayMs;
+        }
+    }
+
+    public void setConcurrency(int concurrency) {
+        synchronized (lock) {
+            this.concurrency = Math.max(1, concurrency);
+        }
+        pump();
+    }
+
+    /** Lance les tâches en attente (y compris celles restaurées depuis la file persistée). */
+    public void start() {
+        synchronized (lock) {
+            started = true;
+        }
+        pump();
+    }
+
+    /**
+     * Ajoute une sourate (remplace une tâche en attente de même clé). Ignorée si l'URL est
+     * invalide, si le fichier final existe déjà ou si elle est en cours.
+     */
+    public boolean enqueue(String reciter, int surah, String url, String sha256, int priority) {
+        if (url == null || HttpUrl.parse(url) == null) {
+            return false; // persistée, elle échouerait à chaque démarrage
+        }
+        if (targetFile(reciter, surah).exists()) {
+            return false;
+        }
+        synchronized (lock) {
+            String key = keyOf(reciter, surah);
+            if (running.containsKey(key)) {
+                return false;
+            }
+            removeQueuedLocked(key);
+            queue.add(new Job(reciter, surah, url, sha256, priority, 0, nextSequence++));
+            cancelled.remove(key);
+            saveStateLocked();
+        }
+        pump();
+        return true;
+    }
+
+    /** La sourate touchée par l'utilisateur passe en tête de file. */
+    public boolean prioritize(String reciter, int surah) {
+        synchronized (lock) {
+            Job job = removeQueuedLocked(keyOf(reciter, surah));
+            if (job == null) {
+                return false;
+            }
+            job.priority = PRIORITY_USER;
+            job.notBefore = 0; // demandée explicitement : pas d'attente de nouvelle tentative
+            queue.add(job);
+            saveStateLocked();
+        }
+        pump();
+        return true;
+    }
+
+    /** Retire toutes les tâches d'un récitateur (null = toutes) ; les fichiers .part sont supprimés. */
+    public int cancel(String reciter) {
+        int count = 0;
+        List<Job> removed = new ArrayList<>();
+        synchronized (lock) {
+            for (Job job : new ArrayList<>(queue)) {
+                if (reciter == null || reciter.equals(job.reciter)) {
+                    queue.remove(job);
+                    removed.add(job);
+                }
+            }
+            for (Job job : running.values()) {
+                if (reciter == null || reciter.equals(job.reciter)) {
+                    cancelled.put(job.key(), STOP_DELETE);
+                    count++;
+                }
+            }
+            saveStateLocked();
+        }
+        for (Job job : removed) {
+            deleteQuietly(partFile(job.reciter, job.surah));
+        }
+        return count + removed.size();
+    }
+
+    /**
+     * Retire une tâche sans supprimer son .part (reprise Range si elle est remise en file).
+     * Renvoie false si elle n'était ni en file ni en cours.
+     */
+    public boolean pause(String reciter, int surah) {
+        String key = keyOf(reciter, surah);
+        synchronized (lock) {
+            if (running.containsKey(key)) {
+                cancelled.put(key, STOP_KEEP);
+            } else if (removeQueuedLocked(key) == null) {
+                return false;
+            }
+            saveStateLocked();
+        }
+        return true;
+    }
+
+    /** Copie de la file : tâches en cours d'abord, puis en attente dans l'ordre de passage. */
+    public List<Job> snapshot() {
+        synchronized (lock) {
+            List<Job> out = new ArrayList<>(running.values());
+            PriorityQueue<Job> copy = new PriorityQueue<>(queue);
+            while (!copy.isEmpty()) {
+                out.add(copy.poll());
+            }
+            return out;
+        }
+    }
+
+    public boolean isRunning(String reciter, int surah) {
+        synchronized (lock) {
+            return running.containsKey(keyOf(reciter, surah));
+        }
+    }
+
+    public void shutdown() {
+        synchronized (lock) {
+            started = false;
+            for (Job job : running.values()) {
+                cancelled.put(job.key(), STOP_REQUEUE);
+            }
+        }
+        workers.shutdown();
+        retryTimer.shutdownNow();
+    }
+
+    /** Fichier final lu par QuranAudioService. */
+    public File targetFile(String reciter, int surah) {
+        return new File(new File(quranRoot, reciterDirName(reciter)), fileNameFor(surah));
+    }
+
+    File partFile(String reciter, int surah) {
+        File target = targetFile(reciter, surah);
+        return new File(target.getParentFile(), target.getName() + PART_SUFFIX);
+    }
+
+    /**
+     * Même nom que QuranAudioService.isSurahDownloaded : "NNN_" + libellé de navigation
+     * sans apostrophes ni tirets, ex. "018_AlKahf (018).mp3".
+     */
+    public static String fileNameFor(int surah) {
+        String name = SurahCatalog.displayNameOf(surah);
+        if (name == null) {
+            throw new IllegalArgumentException("Sourate hors 1..114: " + surah);
+        }
+        String number = surah < 10 ? "00" + surah : surah < 100 ? "0" + surah : String.valueOf(surah);
+        return number + "_" + name.replace("'", "").replace("-", "") + ".mp3";
+    }
+
+    public static String reciterDirName(String reciter) {
+        return reciter.replace(" ", "_");
+    }
+
+    static String keyOf(String reciter, int surah) {
+        return reciter + "#" + surah;
+    }
+
+    private void pump() {
+        List<Job> toStart = new ArrayList<>();
+        boolean idle = false;
+        synchronized (lock) {
+            if (!started) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            long nextRetry = Long.MAX_VALUE;
+            List<Job> waiting = new ArrayList<>();
+            while (running.size() < concurrency && !queue.isEmpty()) {
+                Job job = queue.poll();
+                if (job.notBefore > now) {
+                    waiting.add(job); // échec récent : laisse passer la suite de la file
+                    nextRetry = Math.min(nextRetry, job.notBefore);
+                    continue;
+                }
+                running.put(job.key(), job);
+                toStart.add(job);
+            }
+            queue.addAll(waiting);
+            if (nextRetry < pumpScheduledAt) {
+                pumpScheduledAt = nextRetry;
+                retryTimer.schedule(this::scheduledPump, nextRetry - now, TimeUnit.MILLISECONDS);
+            }
+            idle = running.isEmpty() && queue.isEmpty();
+        }
+        for (Job job : toStart) {
+            workers.execute(() -> runJob(job));
+        }
+        if (idle && toStart.isEmpty()) {
+            listener.onIdle();
+        }
+    }
+
+    private void scheduledPump() {
+        synchronized (lock) {
+            pumpScheduledAt = Long.MAX_VALUE;
+        }
+        pump();
+    }
+
+    /** Attente avant la tentative suivante : base, 2 × base, 4 × base… plafonnée. */
+    static long retryDelayMs(long baseDelayMs, int failedAttempts) {
+        int doublings = Math.min(Math.max(failedAttempts - 1, 0), 16);
+        return Math.min(baseDelayMs << doublings, RETRY_MAX_DELAY_MS);
+    }
+
+    private void runJob(Job job) {
+        String error = null;
+        File result = null;
+        boolean fatal = false;
+        try {
+            result = download(job);
+        } catch (IOException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } catch (RuntimeException e) {
+            // Tâche inexploitable (URL invalide d'une file persistée…) : échec définitif
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            fatal = true;
+        }
+
+        boolean retry = false;
+        boolean wasCancelled;
+        synchronized (lock) {
+            running.remove(job.key());
+            Integer stop = cancelled.remove(job.key());
+            wasCancelled = stop != null;
+            if (stop != null && stop == STOP_DELETE) {
+                deleteQuietly(partFile(job.reciter, job.surah));
+            } else if (stop != null && stop == STOP_REQUEUE) {
+                queue.add(job); // arrêt du moteur : reste en file pour le prochain démarrage
+            } else if (stop == null && result == null) {
+                job.attempts++;
+                if (!fatal && job.attempts < MAX_ATTEMPTS) {
+                    job.notBefore = System.currentTimeMillis() + retryDelayMs(retryBaseDelayMs, job.attempts);
+                    queue.add(job);
+                    retry = true;
+                }
+            }
+            saveStateLocked();
+        }
+
+        if (!wasCancelled) {
+            if (result != null) {
+                listener.onCompleted(job, result);
+            } else if (!retry) {
+                listener.onFailed(job, error);
+            }
+        }
+        pump();
+    }
+
+    /** Télécharge (ou reprend) la tâche ; null si annulée en cours de route. */
+    private File download(Job job) throws IOException {
+        File target = targetFile(job.reciter, job.surah);
+        File part = partFile(job.reciter, job.surah);
+        File dir = target.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Dossier impossible à créer: " + dir);
+        }
+
+        long offset = part.exists() ? part.length() : 0;
+        Request.Builder request = new Request.Builder().url(job.url);
+        if (offset > 0) {
+            request.header("Range", "bytes=" + offset + "-");
+        }
+
+        try (Response response = client.newCall(request.build()).execute()) {
+            int code = response.code();
+            ResponseBody body = response.body();
+            boolean append;
+            long total;
+            if (code == 206 && offset > 0) {
+                if (startFromContentRange(response.header("Content-Range")) != offset) {
+                    // Plage servie ≠ plage demandée : le .part ne peut pas être complété
+                    response.close();
+                    deleteQuietly(part);
+                    return download(job);
+                }
+                append = true;
+                total = totalFromContentRange(response.header("Content-Range"),
+                        body != null && body.contentLength() >= 0 ? offset + body.contentLength() : -1);
+            } else if (code == 416 && offset > 0) {
+                // Plage refusée : le .part est déjà complet (ou corrompu, la vérification tranchera)
+                return finish(job, part, target);
+            } else if (code == 200) {
+                append = false; // serveur sans Range : on repart de zéro
+                offset = 0;
+                total = body != null ? body.contentLength() : -1;
+            } else {
+                throw new IOException("HTTP " + code);
+            }
+            if (body == null) {
+                throw new IOException("Réponse vide");
+            }
+
+            long downloaded = offset;
+            long lastReported = downloaded;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = body.byteStream();
+                    OutputStream out = new FileOutputStream(part, append)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (isCancelled(job)) {
+                        return null;
+                    }
+                    out.write(buffer, 0, read);
+                    downloaded += read;
+                    if (downloaded - lastReported >= PROGRESS_STEP_BYTES) {
+                        lastReported = downloaded;
+                        listener.onProgress(job, downloaded, total);
+                    }
+                }
+            }
+            if (total > 0 && downloaded != total) {
+                throw new IOException("Taille inattendue: " + downloaded + "/" + total);
+            }
+            listener.onProgress(job, downloaded, total > 0 ? total : downloaded);
+            return finish(job, part, target);
+        }
+    }
+
+    /** Vérifie le .part puis le renomme atomiquement vers le fichier final. */
+    private File finish(Job job, File part, File target) throws IOException {
+        if (job.sha256 != null && !job.sha256.isEmpty()) {
+            String actual = sha256Of(part);
+            if (!actual.equalsIgnoreCase(job.sha256)) {
+                deleteQuietly(part); // contenu faux : la prochaine tentative repart de zéro
+                throw new IOException("Somme de contrôle invalide pour " + target.getName());
+            }
+        }
+        if (!part.renameTo(target)) {
+            throw new IOException("Renommage impossible: " + part + " → " + target);
+        }
+        return target;
+    }
+
+    private boolean isCancelled(Job job) {
+        synchronized (lock) {
+            return cancelled.containsKey(job.key());
+        }
+    }
+
+    private Job removeQueuedLocked(String key) {
+        for (Job job : queue) {
+            if (job.key().equals(key)) {
+                queue.remove(job);
+                return job;
+            }
+        }
+        return null;
+    }
+
+    /** Premier octet servi ("bytes 100-999/1000" → 100), -1 si absent ou illisible. */
+    static long startFromContentRange(String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            return -1;
+        }
+        int dash = contentRange.indexOf('-', 6);
+        if (dash < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(6, dash).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static long totalFromContentRange(String contentRange, long fallback) {
+        // "bytes 100-999/1000"
+        if (contentRange != null) {
+            int slash = contentRange.lastIndexOf('/');
+            if (slash >= 0 && slash + 1 < contentRange.length() && contentRange.charAt(slash + 1) != '*') {
+                try {
+                    return Long.parseLong(contentRange.substring(slash + 1).trim());
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return fallback;
+    }
+
+    static String sha256Of(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    // Persistance : une tâche par ligne, champs séparés par des tabulations
+    // priorité, tentatives, récitateur, sourate, url, sha256 ("-" si absent)
+
+    private void saveStateLocked() {
+        List<Job> jobs = new ArrayList<>(running.values());
+        jobs.addAll(queue);
+        File tmp = new File(stateFile.getPath() + ".tmp");
+        File parent = stateFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            parent.mkdirs();
+        }
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            for (Job job : jobs) {
+                Integer stop = cancelled.get(job.key());
+                if (stop != null && stop != STOP_REQUEUE) {
+                    continue;
+                }
+                writer.write(job.priority + "\t" + job.attempts + "\t" + job.reciter + "\t" + job.surah + "\t"
+                        + job.url + "\t" + (job.sha256 != null ? job.sha256 : "-"));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            return; // l'ancienne file reste en place
+        }
+        //noinspection ResultOfMethodCallIgnored
+        tmp.renameTo(stateFile);
+    }
+
+    private void loadState() {
+        if (!stateFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(stateFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                if (f.length != 6) {
+                    continue;
+                }
+                try {
+                    String sha = "-".equals(f[5]) ? null : f[5];
+                    int surah = Integer.parseInt(f[3]);
+                    if (!targetFile(f[2], surah).exists()) {
+                        queue.add(new Job(f[2], surah, f[4], sha, Integer.parseInt(f[0]),
+                                Integer.parseInt(f[1]), nextSequence++));
+                    }
+                } catch (RuntimeException ignored) {
+                    // ligne invalide : ignorée
+                }
+            }
+        } catch (IOException ignored) {
+            // file illisible : on repart d'une file vide
+        }
+    }
+}
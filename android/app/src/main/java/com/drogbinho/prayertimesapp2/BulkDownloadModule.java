@@ -0,0 +1,200 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import java.io.File;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Accès JS au téléchargement en masse des récitations ({@link BulkDownloadEngine}).
+ * Le moteur est partagé par process : la file persistée reprend après la première frame
+ * (ou au premier appel JS), pas pendant la création du contexte React.
+ *
+ * Événements : bulkDownloadProgress, bulkDownloadCompleted, bulkDownloadFailed, bulkDownloadIdle.
+ */
+public class BulkDownloadModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "BulkDownloadModule";
+    private static final int DEFAULT_CONCURRENCY = 3;
+
+    private static BulkDownloadEngine engine;
+    private static volatile ReactApplicationContext eventContext;
+
+    // Lecture de la file persistée et démarrage du moteur
+    private final ModuleInit.Task init;
+
+    public BulkDownloadModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        eventContext = reactContext;
+        init = ModuleInit.defer(TAG, PerfMetrics.G_INIT_BULK_DOWNLOAD_MS, () -> engine(reactContext).start());
+    }
+
+    @Override
+    public String getName() {
+        return "BulkDownloadModule";
+    }
+
+    private BulkDownloadEngine startedEngine() {
+        init.ensure();
+        return engine(getReactApplicationContext());
+    }
+
+    static synchronized BulkDownloadEngine engine(Context context) {
+        if (engine == null) {
+            Context app = context.getApplicationContext();
+            engine = new BulkDownloadEngine(new File(app.getFilesDir(), "quran"),
+                    new File(app.getFilesDir(), "bulk_downloads/queue.tsv"), DEFAULT_CONCURRENCY, new EventListener(app),
+                    RecitationHttp.client(app));
+        }
+        return engine;
+    }
+
+    /**
+     * Ajoute des sourates d'un récitateur : items = [{ surah, url, sha256? }]. Renvoie le
+     * nombre réellement ajouté (les fichiers déjà présents sont ignorés).
+     */
+    @ReactMethod
+    public void enqueueReciter(String reciter, ReadableArray items, Promise promise) {
+        try {
+            BulkDownloadEngine e = startedEngine();
+            int added = 0;
+            for (int i = 0; i < items.size(); i++) {
+                ReadableMap item = items.getMap(i);
+                if (item == null || !item.hasKey("surah") || !item.hasKey("url")) {
+                    continue;
+                }
+                String sha256 = item.hasKey("sha256") && !item.isNull("sha256") ? item.getString("sha256") : null;
+                if (e.enqueue(reciter, item.getInt("surah"), item.getString("url"), sha256,
+                        BulkDownloadEngine.PRIORITY_NORMAL)) {
+                    added++;
+                }
+            }
+            debugLog(TAG, "📥 {} sourate(s) ajoutée(s) pour {}", added, reciter);
+            promise.resolve(added);
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur ajout file: " + e.getMessage());
+            promise.reject("BULK_ENQUEUE_ERROR", e.getMessage());
+        }
+    }
+
+    /** Sourate demandée par l'utilisateur : passe en tête de file (ou y entre directement). */
+    @ReactMethod
+    public void prioritize(String reciter, int surah, String url, Promise promise) {
+        try {
+            BulkDownloadEngine e = startedEngine();
+            boolean queued = e.prioritize(reciter, surah)
+                    || (url != null && e.enqueue(reciter, surah, url, null, BulkDownloadEngine.PRIORITY_USER));
+            promise.resolve(queued);
+        } catch (Exception e) {
+            promise.reject("BULK_PRIORITIZE_ERROR", e.getMessage());
+        }
+    }
+
+    /** Annule les téléchargements d'un récitateur (null = tous). */
+    @ReactMethod
+    public void cancel(String reciter, Promise promise) {
+        try {
+            promise.resolve(startedEngine().cancel(reciter));
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur annulation: " + e.getMessage());
+            promise.reject("BULK_CANCEL_ERROR", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void setConcurrency(int concurrency, Promise promise) {
+        try {
+            startedEngine().setConcurrency(concurrency);
+            promise.resolve(null);
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur réglage parallélisme: " + e.getMessage());
+            promise.reject("BULK_CONCURRENCY_ERROR", e.getMessage());
+        }
+    }
+
+    /** File actuelle : [{ reciter, surah, priority, running }], tâches en cours d'abord. */
+    @ReactMethod
+    public void getQueue(Promise promise) {
+        try {
+            BulkDownloadEngine e = startedEngine();
+            WritableArray result = Arguments.createArray();
+            for (BulkDownloadEngine.Job job : e.snapshot()) {
+                WritableMap map = Arguments.createMap();
+                map.putString("reciter", job.reciter);
+                map.putInt("surah", job.surah);
+                map.putInt("priority", job.priority());
+                map.putBoolean("running", e.isRunning(job.reciter, job.surah));
+                result.pushMap(map);
+            }
+            promise.resolve(result);
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur lecture file: " + e.getMessage());
+            promise.reject("BULK_QUEUE_ERROR", e.getMessage());
+        }
+    }
+
+    private static final class EventListener implements BulkDownloadEngine.Listener {
+        private final Context appContext;
+
+        EventListener(Context appContext) {
+            this.appContext = appContext;
+        }
+
+        @Override
+        public void onProgress(BulkDownloadEngine.Job job, long bytesDownloaded, long totalBytes) {
+            WritableMap params = jobParams(job);
+            params.putDouble("bytesDownloaded", bytesDownloaded);
+            params.putDouble("totalBytes", totalBytes);
+            params.putDouble("progress", totalBytes > 0 ? (double) bytesDownloaded / totalBytes : 0);
+            emit("bulkDownloadProgress", params);
+        }
+
+        @Override
+        public void onCompleted(BulkDownloadEngine.Job job, File file) {
+            StorageBudgetModule.onFileAdded(appContext, file); // indexé, puis éviction LRU si besoin
+            Mp3SeekIndexer.enqueue(file);
+            WritableMap params = jobParams(job);
+            params.putString("localUri", file.getAbsolutePath());
+            emit("bulkDownloadCompleted", params);
+        }
+
+        @Override
+        public void onFailed(BulkDownloadEngine.Job job, String error) {
+            warnLog(TAG, "Échec {}: {}", job.key(), error);
+            WritableMap params = jobParams(job);
+            params.putString("error", error);
+            emit("bulkDownloadFailed", params);
+        }
+
+        @Override
+        public void onIdle() {
+            emit("bulkDownloadIdle", Arguments.createMap());
+        }
+
+        private static WritableMap jobParams(BulkDownloadEngine.Job job) {
+            WritableMap params = Arguments.createMap();
+            params.putString("reciter", job.reciter);
+            params.putInt("surah", job.surah);
+            return params;
+        }
+
+        private static void emit(String eventName, WritableMap params) {
+            ReactApplicationContext context = eventContext;
+            if (context == null || !context.hasActiveReactInstance()) {
+                return; // JS absent : la file continue, l'état sera relu via getQueue
+            }
+            context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(eventName, params);
+        }
+    }
+}
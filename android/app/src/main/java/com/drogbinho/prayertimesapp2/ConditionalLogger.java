@@ -3,12 +3,22 @@ package com.drogbinho.prayertimesapp2;
 import android.util.Log;
 import com.facebook.react.BuildConfig;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Système de logging conditionnel pour Android
  * - En mode DEBUG (development) : logs visibles normalement
  * - En mode RELEASE (production) : logs complètement désactivés
  * 
  * Même principe que notre logger TypeScript
+ *
+ * Niveaux par tag modifiables à l'exécution (setTagLevel) et variantes paramétrées
+ * ("position: {}") : le niveau est vérifié AVANT toute construction de chaîne, donc
+ * aucun formatage sur les chemins chauds quand le log est désactivé. Les surcharges
+ * long / double évitent aussi l'autoboxing des arguments primitifs à l'appel.
+ *
+ * Les erreurs restent émises par défaut (niveau ERROR actif en debug comme en release),
+ * mais un niveau par tag les coupe aussi : setTagLevel(tag, parseLevel("none")).
  */
 public class ConditionalLogger {
 
@@ -16,12 +26,75 @@ public class ConditionalLogger {
     private static final boolean ENABLE_DEBUG_LOGS = BuildConfig.DEBUG;
     private static final String LOG_PREFIX = "[MyAdhan]";
 
+    // Niveau par défaut : DEBUG en développement, seulement les erreurs en production
+    private static final int DEFAULT_LEVEL = ENABLE_DEBUG_LOGS ? Log.DEBUG : Log.ERROR;
+    private static final ConcurrentHashMap<String, Integer> TAG_LEVELS = new ConcurrentHashMap<>();
+    private static volatile boolean hasTagLevels = false;
+
+    /**
+     * Vérifie si un niveau est actif pour ce tag (sans allocation).
+     */
+    public static boolean isLoggable(String tag, int level) {
+        if (!hasTagLevels) {
+            return level >= DEFAULT_LEVEL;
+        }
+        Integer tagLevel = TAG_LEVELS.get(tag);
+        return level >= (tagLevel != null ? tagLevel : DEFAULT_LEVEL);
+    }
+
+    /**
+     * Raccourci pour protéger un bloc de logs coûteux : if (isDebugEnabled(TAG)) {...}
+     */
+    public static boolean isDebugEnabled(String tag) {
+        return isLoggable(tag, Log.DEBUG);
+    }
+
+    /**
+     * Niveau minimal pour un tag (valeurs android.util.Log), ex. pour activer
+     * temporairement les traces d'AdhanService en production.
+     */
+    public static void setTagLevel(String tag, int level) {
+        TAG_LEVELS.put(tag, level);
+        hasTagLevels = true;
+    }
+
+    public static void clearTagLevels() {
+        TAG_LEVELS.clear();
+        hasTagLevels = false;
+    }
+
+    /**
+     * "debug" / "info" / "warn" / "error" / "none" → niveau android.util.Log
+     */
+    public static int parseLevel(String level) {
+        if (level == null) {
+            return DEFAULT_LEVEL;
+        }
+        switch (level.toLowerCase(java.util.Locale.ROOT)) {
+            case "verbose":
+                return Log.VERBOSE;
+            case "debug":
+                return Log.DEBUG;
+            case "info":
+                return Log.INFO;
+            case "warn":
+            case "warning":
+                return Log.WARN;
+            case "error":
+                return Log.ERROR;
+            case "none":
+                return Log.ASSERT + 1;
+            default:
+                return DEFAULT_LEVEL;
+        }
+    }
+
     /**
      * Log de debugging (équivalent console.log)
      * Désactivé automatiquement en production
      */
     public static void debugLog(String tag, String message) {
-        if (ENABLE_DEBUG_LOGS) {
+        if (isLoggable(tag, Log.DEBUG)) {
             Log.d(tag, LOG_PREFIX + " " + message);
         }
     }
@@ -31,7 +104,7 @@ public class ConditionalLogger {
      * Désactivé automatiquement en production
      */
     public static void infoLog(String tag, String message) {
-        if (ENABLE_DEBUG_LOGS) {
+        if (isLoggable(tag, Log.INFO)) {
             Log.i(tag, LOG_PREFIX + " " + message);
         }
     }
@@ -41,25 +114,29 @@ public class ConditionalLogger {
      * Désactivé automatiquement en production
      */
     public static void warnLog(String tag, String message) {
-        if (ENABLE_DEBUG_LOGS) {
+        if (isLoggable(tag, Log.WARN)) {
             Log.w(tag, LOG_PREFIX + " " + message);
         }
     }
 
     /**
      * Log d'erreur (pour les vraies erreurs)
-     * TOUJOURS activé même en production (pour crash reports)
+     * Activé même en production (pour crash reports), sauf tag réglé à "none"
      */
     public static void errorLog(String tag, String message) {
-        Log.e(tag, LOG_PREFIX + " " + message);
+        if (isLoggable(tag, Log.ERROR)) {
+            Log.e(tag, LOG_PREFIX + " " + message);
+        }
     }
 
     /**
      * Log d'erreur avec exception
-     * TOUJOURS activé même en production (pour crash reports)
+     * Activé même en production (pour crash reports), sauf tag réglé à "none"
      */
     public static void errorLog(String tag, String message, Throwable throwable) {
-        Log.e(tag, LOG_PREFIX + " " + message, throwable);
+        if (isLoggable(tag, Log.ERROR)) {
+            Log.e(tag, LOG_PREFIX + " " + message, throwable);
+        }
     }
 
     /**
@@ -67,7 +144,7 @@ public class ConditionalLogger {
      * Désactivé automatiquement en production
      */
     public static void notificationDebugLog(String tag, String message) {
-        if (ENABLE_DEBUG_LOGS) {
+        if (isLoggable(tag, Log.DEBUG)) {
             Log.d(tag, LOG_PREFIX + " [NOTIFICATIONS] " + message);
         }
     }
@@ -77,7 +154,7 @@ public class ConditionalLogger {
      * Désactivé automatiquement en production
      */
     public static void notificationDebugLog(String tag, String message, Throwable throwable) {
-        if (ENABLE_DEBUG_LOGS) {
+        if (isLoggable(tag, Log.DEBUG)) {
             Log.d(tag, LOG_PREFIX + " [NOTIFICATIONS] " + message, throwable);
         }
     }
@@ -94,11 +171,97 @@ public class ConditionalLogger {
      * Désactivé automatiquement en production
      */
     public static void widgetDebugLog(String tag, String message) {
-        if (ENABLE_DEBUG_LOGS) {
+        if (isLoggable(tag, Log.DEBUG)) {
             Log.d(tag, LOG_PREFIX + " [WIDGET] " + message);
         }
     }
 
+    // ============ VARIANTES PARAMÉTRÉES ("{}" remplacés par les arguments) ============
+    // Arités fixes (pas de varargs) et surcharges long / double : rien n'est alloué si le
+    // niveau est désactivé (les int passent par long, les float par double).
+
+    public static void debugLog(String tag, String format, Object arg1) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, LOG_PREFIX + " " + format(format, arg1, null, null));
+        }
+    }
+
+    public static void debugLog(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, LOG_PREFIX + " " + format(format, arg1, arg2, null));
+        }
+    }
+
+    public static void debugLog(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, LOG_PREFIX + " " + format(format, arg1, arg2, arg3));
+        }
+    }
+
+    public static void debugLog(String tag, String format, long arg1) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, LOG_PREFIX + " " + format(format, arg1, null, null));
+        }
+    }
+
+    public static void debugLog(String tag, String format, long arg1, long arg2) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, LOG_PREFIX + " " + format(format, arg1, arg2, null));
+        }
+    }
+
+    public static void debugLog(String tag, String format, double arg1) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, LOG_PREFIX + " " + format(format, arg1, null, null));
+        }
+    }
+
+    public static void debugLog(String tag, String format, double arg1, double arg2) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, LOG_PREFIX + " " + format(format, arg1, arg2, null));
+        }
+    }
+
+    public static void infoLog(String tag, String format, Object arg1) {
+        if (isLoggable(tag, Log.INFO)) {
+            Log.i(tag, LOG_PREFIX + " " + format(format, arg1, null, null));
+        }
+    }
+
+    public static void infoLog(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(tag, Log.INFO)) {
+            Log.i(tag, LOG_PREFIX + " " + format(format, arg1, arg2, null));
+        }
+    }
+
+    public static void warnLog(String tag, String format, Object arg1) {
+        if (isLoggable(tag, Log.WARN)) {
+            Log.w(tag, LOG_PREFIX + " " + format(format, arg1, null, null));
+        }
+    }
+
+    public static void warnLog(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(tag, Log.WARN)) {
+            Log.w(tag, LOG_PREFIX + " " + format(format, arg1, arg2, null));
+        }
+    }
+
+    private static String format(String format, Object arg1, Object arg2, Object arg3) {
+        StringBuilder sb = new StringBuilder(format.length() + 32);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while ((placeholder = format.indexOf("{}", start)) >= 0) {
+            sb.append(format, start, placeholder);
+            Object arg = argIndex == 0 ? arg1 : argIndex == 1 ? arg2 : argIndex == 2 ? arg3 : "{}";
+            sb.append(arg);
+            argIndex++;
+            start = placeholder + 2;
+        }
+        sb.append(format, start, format.length());
+        return sb.toString();
+    }
+
     /**
      * System.out.println conditionnel
      * Désactivé automatiquement en production
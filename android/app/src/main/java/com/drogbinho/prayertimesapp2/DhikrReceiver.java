@@ -11,6 +11,9 @@ import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
 public class DhikrReceiver extends BroadcastReceiver {
         @Override
         public void onReceive(Context context, Intent intent) {
+                // Réarme les prochaines alarmes de l'horizon avant tout retour anticipé
+                AlarmHorizon.onFired(context);
+
                 try {
                         notificationDebugLog("DhikrReceiver", "🔔 Dhikr reçu!");
 
@@ -20,31 +20,52 @@ import android.net.Uri;
 import android.os.Environment;
 import android.util.Log;
 
+import org.json.JSONObject;
+
 import java.io.File;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class DownloadModule extends ReactContextBaseJavaModule {
     private static final String TAG = "DownloadModule";
     private static final String PREFS_NAME = "DownloadModulePrefs";
     private static final String KEY_ACTIVE_DOWNLOADS = "active_downloads";
+    private static final long POLL_INTERVAL_MS = 2000;
+    /** Pas de progression minimal entre deux événements pour un même téléchargement */
+    private static final double MIN_PROGRESS_STEP = 0.01;
+    /** Lissage du débit (moyenne mobile exponentielle) */
+    private static final double RATE_SMOOTHING = 0.3;
     
     private DownloadManager downloadManager;
-    private Map<Long, DownloadInfo> activeDownloads;
-    private ScheduledExecutorService progressExecutor;
-    private BroadcastReceiver downloadReceiver;
+    // Index par downloadId (DownloadManager) et par contentId (JS) : recherches O(1)
+    private final Map<Long, DownloadInfo> activeDownloads = new ConcurrentHashMap<>();
+    private final Map<String, DownloadInfo> downloadsByContentId = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService progressExecutor;
+    // Un seul poller pour tous les téléchargements, arrêté quand plus rien n'est actif
+    private ScheduledFuture<?> progressTask;
+    private volatile BroadcastReceiver downloadReceiver;
     private SharedPreferences sharedPreferences;
+    // Receiver, restauration et nettoyage DownloadManager : hors création du contexte React
+    private final ModuleInit.Task init;
 
     public DownloadModule(ReactApplicationContext reactContext) {
         super(reactContext);
         downloadManager = (DownloadManager) reactContext.getSystemService(Context.DOWNLOAD_SERVICE);
-        activeDownloads = new HashMap<>();
+        init = ModuleInit.defer(TAG, PerfMetrics.G_INIT_DOWNLOAD_MS, this::initializeDeferred);
+    }
+
+    private void initializeDeferred() {
         progressExecutor = Executors.newScheduledThreadPool(1);
-        sharedPreferences = reactContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        
+        sharedPreferences = getReactApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
         setupDownloadReceiver();
         restoreActiveDownloads();
         Log.d(TAG, "🚀 DownloadModule initialisé");
@@ -63,10 +84,24 @@ public class DownloadModule extends ReactContextBaseJavaModule {
             
             // Nettoyer les téléchargements terminés d'abord
             clearCompletedDownloads();
-            
-            // Pour l'instant, on va simplement nettoyer les anciens téléchargements
-            // et vérifier s'il y en a qui sont encore en cours
-            // TODO: Implémenter le parsing JSON pour restaurer les téléchargements actifs
+
+            // Reprendre le suivi de ceux que DownloadManager connaît encore
+            JSONObject saved = new JSONObject(activeDownloadsJson);
+            Iterator<String> keys = saved.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                JSONObject entry = saved.getJSONObject(key);
+                long downloadId = Long.parseLong(key);
+                DownloadInfo info = new DownloadInfo(entry.getString("contentId"),
+                    entry.optString("fileName"), entry.optString("title"), downloadId);
+                activeDownloads.put(downloadId, info);
+                downloadsByContentId.put(info.contentId, info);
+            }
+            if (!activeDownloads.isEmpty()) {
+                // Le premier tick retire ceux que DownloadManager ne connaît plus
+                Log.d(TAG, "📋 " + activeDownloads.size() + " téléchargement(s) restauré(s)");
+                ensureProgressPolling();
+            }
             
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur restauration téléchargements", e);
@@ -102,20 +137,15 @@ public class DownloadModule extends ReactContextBaseJavaModule {
     // 🚀 NOUVEAU : Sauvegarder les téléchargements actifs
     private void saveActiveDownloads() {
         try {
-            // Créer un JSON simple pour stocker les téléchargements actifs
-            StringBuilder json = new StringBuilder("{");
-            boolean first = true;
-            
+            // JSON { downloadId: { contentId, fileName, title } } relu par restoreActiveDownloads
+            JSONObject json = new JSONObject();
             for (Map.Entry<Long, DownloadInfo> entry : activeDownloads.entrySet()) {
-                if (!first) json.append(",");
-                json.append("\"").append(entry.getKey()).append("\":{");
-                json.append("\"contentId\":\"").append(entry.getValue().contentId).append("\",");
-                json.append("\"fileName\":\"").append(entry.getValue().fileName).append("\",");
-                json.append("\"title\":\"").append(entry.getValue().title).append("\"");
-                json.append("}");
-                first = false;
+                JSONObject item = new JSONObject();
+                item.put("contentId", entry.getValue().contentId);
+                item.put("fileName", entry.getValue().fileName);
+                item.put("title", entry.getValue().title);
+                json.put(String.valueOf(entry.getKey()), item);
             }
-            json.append("}");
             
             sharedPreferences.edit()
                 .putString(KEY_ACTIVE_DOWNLOADS, json.toString())
@@ -129,14 +159,20 @@ public class DownloadModule extends ReactContextBaseJavaModule {
     }
 
     // 🚀 NOUVEAU : Supprimer un téléchargement de la sauvegarde
-    private void removeFromSavedDownloads(long downloadId) {
+    // Renvoie l'entrée retirée, null si elle l'avait déjà été (fin déjà traitée)
+    private DownloadInfo removeFromSavedDownloads(long downloadId) {
+        DownloadInfo info = activeDownloads.remove(downloadId);
+        if (info == null) {
+            return null;
+        }
+        downloadsByContentId.remove(info.contentId, info);
         try {
-            activeDownloads.remove(downloadId);
             saveActiveDownloads();
             Log.d(TAG, "🗑️ Téléchargement supprimé de la sauvegarde: " + downloadId);
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur suppression sauvegarde", e);
         }
+        return info;
     }
 
     private void setupDownloadReceiver() {
@@ -163,6 +199,7 @@ public class DownloadModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void startDownload(ReadableMap downloadInfo, Promise promise) {
+        init.ensure();
         try {
             String url = downloadInfo.getString("url");
             String fileName = downloadInfo.getString("fileName");
@@ -170,12 +207,10 @@ public class DownloadModule extends ReactContextBaseJavaModule {
             String title = downloadInfo.getString("title");
 
             // Vérifier si le téléchargement existe déjà
-            for (DownloadInfo info : activeDownloads.values()) {
-                if (info.contentId.equals(contentId)) {
-                    Log.d(TAG, "⚠️ Téléchargement déjà en cours: " + contentId);
-                    promise.reject("ALREADY_DOWNLOADING", "Téléchargement déjà en cours");
-                    return;
-                }
+            if (downloadsByContentId.containsKey(contentId)) {
+                Log.d(TAG, "⚠️ Téléchargement déjà en cours: " + contentId);
+                promise.reject("ALREADY_DOWNLOADING", "Téléchargement déjà en cours");
+                return;
             }
 
             // Créer le dossier de destination
@@ -215,12 +250,13 @@ public class DownloadModule extends ReactContextBaseJavaModule {
             // Stocker les informations du téléchargement
             DownloadInfo info = new DownloadInfo(contentId, fileName, title, downloadId);
             activeDownloads.put(downloadId, info);
+            downloadsByContentId.put(contentId, info);
             
             // 🚀 NOUVEAU : Sauvegarder immédiatement
             saveActiveDownloads();
 
-            // Démarrer le suivi de progression
-            startProgressTracking(downloadId);
+            // Démarrer le suivi de progression (poller commun)
+            ensureProgressPolling();
 
             // Envoyer l'événement de début
             sendDownloadEvent("downloadStarted", contentId, 0, null);
@@ -236,15 +272,11 @@ public class DownloadModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void cancelDownload(String contentId, Promise promise) {
+        init.ensure();
         try {
             // Trouver le downloadId correspondant
-            Long downloadId = null;
-            for (Map.Entry<Long, DownloadInfo> entry : activeDownloads.entrySet()) {
-                if (entry.getValue().contentId.equals(contentId)) {
-                    downloadId = entry.getKey();
-                    break;
-                }
-            }
+            DownloadInfo active = downloadsByContentId.get(contentId);
+            Long downloadId = active != null ? active.downloadId : null;
 
             if (downloadId != null) {
                 downloadManager.remove(downloadId);
@@ -266,15 +298,11 @@ public class DownloadModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void getDownloadStatus(String contentId, Promise promise) {
+        init.ensure();
         try {
             // Trouver le downloadId correspondant
-            Long downloadId = null;
-            for (Map.Entry<Long, DownloadInfo> entry : activeDownloads.entrySet()) {
-                if (entry.getValue().contentId.equals(contentId)) {
-                    downloadId = entry.getKey();
-                    break;
-                }
-            }
+            DownloadInfo active = downloadsByContentId.get(contentId);
+            Long downloadId = active != null ? active.downloadId : null;
 
             if (downloadId != null) {
                 DownloadManager.Query query = new DownloadManager.Query();
@@ -311,100 +339,171 @@ public class DownloadModule extends ReactContextBaseJavaModule {
         }
     }
 
-    private void startProgressTracking(long downloadId) {
-        progressExecutor.scheduleAtFixedRate(() -> {
-            try {
-                DownloadManager.Query query = new DownloadManager.Query();
-                query.setFilterById(downloadId);
-                Cursor cursor = downloadManager.query(query);
+    /** Démarre le poller commun s'il ne tourne pas déjà. */
+    private synchronized void ensureProgressPolling() {
+        if (progressTask == null || progressTask.isDone()) {
+            progressTask = progressExecutor.scheduleWithFixedDelay(
+                this::pollProgress, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
 
-                if (cursor.moveToFirst()) {
-                    int status = cursor.getInt(cursor.getColumnIndex(DownloadManager.COLUMN_STATUS));
-                    long bytesDownloaded = cursor.getLong(cursor.getColumnIndex(DownloadManager.COLUMN_BYTES_DOWNLOADED_SO_FAR));
-                    long totalBytes = cursor.getLong(cursor.getColumnIndex(DownloadManager.COLUMN_TOTAL_SIZE_BYTES));
-                    
-                    cursor.close();
+    private synchronized void stopProgressPollingIfIdle() {
+        if (activeDownloads.isEmpty() && progressTask != null) {
+            progressTask.cancel(false);
+            progressTask = null;
+            Log.d(TAG, "⏹️ Plus aucun téléchargement actif, suivi arrêté");
+        }
+    }
 
-                    DownloadInfo info = activeDownloads.get(downloadId);
-                    if (info != null) {
-                        double progress = totalBytes > 0 ? (double) bytesDownloaded / totalBytes : 0;
-                        
-                        // 🚀 OPTIMISATION : Envoyer la progression seulement si elle a changé significativement
-                        // ou si c'est la première fois
-                        if (info.lastProgress == null || Math.abs(progress - info.lastProgress) >= 0.01) {
-                            sendDownloadEvent("downloadProgress", info.contentId, progress, null);
-                            info.lastProgress = progress;
+    /**
+     * Un tick : une seule requête DownloadManager pour tous les téléchargements actifs,
+     * au plus un événement de progression (conflaté) par téléchargement.
+     */
+    private void pollProgress() {
+        try {
+            if (activeDownloads.isEmpty()) {
+                stopProgressPollingIfIdle();
+                return;
+            }
+            long[] ids = new long[activeDownloads.size()];
+            int n = 0;
+            for (Long id : activeDownloads.keySet()) {
+                if (n == ids.length) {
+                    break;
+                }
+                ids[n++] = id;
+            }
+            if (n < ids.length) {
+                ids = Arrays.copyOf(ids, n);
+            }
+
+            Set<Long> seen = new HashSet<>();
+            long now = System.nanoTime();
+            DownloadManager.Query query = new DownloadManager.Query();
+            query.setFilterById(ids);
+            try (Cursor cursor = downloadManager.query(query)) {
+                if (cursor != null && cursor.moveToFirst()) {
+                    int idColumn = cursor.getColumnIndex(DownloadManager.COLUMN_ID);
+                    int statusColumn = cursor.getColumnIndex(DownloadManager.COLUMN_STATUS);
+                    int bytesColumn = cursor.getColumnIndex(DownloadManager.COLUMN_BYTES_DOWNLOADED_SO_FAR);
+                    int totalColumn = cursor.getColumnIndex(DownloadManager.COLUMN_TOTAL_SIZE_BYTES);
+                    int uriColumn = cursor.getColumnIndex(DownloadManager.COLUMN_LOCAL_URI);
+                    do {
+                        long downloadId = cursor.getLong(idColumn);
+                        seen.add(downloadId);
+                        DownloadInfo info = activeDownloads.get(downloadId);
+                        if (info == null) {
+                            continue;
                         }
+                        int status = cursor.getInt(statusColumn);
+                        long bytesDownloaded = cursor.getLong(bytesColumn);
+                        long totalBytes = cursor.getLong(totalColumn);
 
                         // 🚀 NOUVEAU : Vérifier si le téléchargement est terminé
                         if (status == DownloadManager.STATUS_SUCCESSFUL) {
-                            // Récupérer le chemin du fichier téléchargé
-                            String localUri = getDownloadedFilePath(downloadId);
-                            sendDownloadEvent("downloadCompleted", info.contentId, 1.0, localUri);
-                            Log.d(TAG, "✅ Téléchargement terminé: " + info.contentId + " -> " + localUri);
-                            removeFromSavedDownloads(downloadId);
+                            finishDownload(downloadId, true, cursor.getString(uriColumn), totalBytes);
                         } else if (status == DownloadManager.STATUS_FAILED) {
-                            sendDownloadEvent("downloadFailed", info.contentId, 0, null);
-                            Log.e(TAG, "❌ Téléchargement échoué: " + info.contentId);
-                            removeFromSavedDownloads(downloadId);
+                            finishDownload(downloadId, false, null, totalBytes);
+                        } else {
+                            updateProgress(info, bytesDownloaded, totalBytes, now);
                         }
-                    }
-                } else {
-                    cursor.close();
-                    // Téléchargement terminé ou supprimé
-                    removeFromSavedDownloads(downloadId);
+                    } while (cursor.moveToNext());
+                }
+            }
+
+            // Absents de DownloadManager : supprimés entre-temps
+            for (long id : ids) {
+                if (!seen.contains(id)) {
+                    removeFromSavedDownloads(id);
                 }
-            } catch (Exception e) {
-                Log.e(TAG, "❌ Erreur suivi progression", e);
             }
-        }, 0, 2, TimeUnit.SECONDS); // 🚀 OPTIMISATION : Vérifier toutes les 2 secondes au lieu d'1
+            stopProgressPollingIfIdle();
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Erreur suivi progression", e);
+        }
     }
 
-    // 🚀 NOUVEAU : Récupérer le chemin du fichier téléchargé
-    private String getDownloadedFilePath(long downloadId) {
-        try {
-            DownloadManager.Query query = new DownloadManager.Query();
-            query.setFilterById(downloadId);
-            Cursor cursor = downloadManager.query(query);
+    private void updateProgress(DownloadInfo info, long bytesDownloaded, long totalBytes, long nowNanos) {
+        // Débit lissé et temps restant estimé
+        if (info.lastSampleNanos != 0 && bytesDownloaded >= info.lastSampleBytes) {
+            double seconds = (nowNanos - info.lastSampleNanos) / 1e9;
+            if (seconds > 0) {
+                double instant = (bytesDownloaded - info.lastSampleBytes) / seconds;
+                info.bytesPerSecond = info.bytesPerSecond <= 0 ? instant
+                        : info.bytesPerSecond + RATE_SMOOTHING * (instant - info.bytesPerSecond);
+            }
+        }
+        info.lastSampleNanos = nowNanos;
+        info.lastSampleBytes = bytesDownloaded;
+
+        double progress = totalBytes > 0 ? (double) bytesDownloaded / totalBytes : 0;
+        // 🚀 OPTIMISATION : Envoyer la progression seulement si elle a changé significativement
+        // ou si c'est la première fois
+        if (info.lastProgress != null && Math.abs(progress - info.lastProgress) < MIN_PROGRESS_STEP) {
+            return;
+        }
+        info.lastProgress = progress;
 
-            if (cursor.moveToFirst()) {
-                String localUri = cursor.getString(cursor.getColumnIndex(DownloadManager.COLUMN_LOCAL_URI));
-                cursor.close();
-                return localUri;
+        WritableMap params = Arguments.createMap();
+        params.putString("contentId", info.contentId);
+        params.putDouble("progress", progress);
+        params.putDouble("bytesDownloaded", bytesDownloaded);
+        params.putDouble("totalBytes", totalBytes);
+        params.putDouble("bytesPerSecond", Math.round(info.bytesPerSecond));
+        if (totalBytes > 0 && info.bytesPerSecond > 0) {
+            params.putDouble("etaSeconds", Math.ceil((totalBytes - bytesDownloaded) / info.bytesPerSecond));
+        } else {
+            params.putDouble("etaSeconds", -1);
+        }
+        emit("downloadProgress", params);
+    }
+
+    /** Fin d'un téléchargement (poller ou broadcast) : traitée une seule fois. */
+    private void finishDownload(long downloadId, boolean success, String localUri, long totalBytes) {
+        DownloadInfo info = removeFromSavedDownloads(downloadId);
+        if (info == null) {
+            return;
+        }
+        if (success) {
+            recordThroughput(info, totalBytes);
+            if (localUri != null && localUri.startsWith("file:")) {
+                Mp3SeekIndexer.enqueue(new File(Uri.parse(localUri).getPath()));
             }
-            cursor.close();
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Erreur récupération chemin fichier", e);
+            sendDownloadEvent("downloadCompleted", info.contentId, 1.0, localUri);
+            Log.d(TAG, "✅ Téléchargement terminé: " + info.contentId + " -> " + localUri);
+        } else {
+            sendDownloadEvent("downloadFailed", info.contentId, 0, null);
+            Log.e(TAG, "❌ Téléchargement échoué: " + info.contentId);
         }
-        return null;
     }
 
     private void handleDownloadComplete(long downloadId) {
-        DownloadInfo info = activeDownloads.get(downloadId);
-        if (info != null) {
-            DownloadManager.Query query = new DownloadManager.Query();
-            query.setFilterById(downloadId);
-            Cursor cursor = downloadManager.query(query);
-
-            if (cursor.moveToFirst()) {
+        if (!activeDownloads.containsKey(downloadId)) {
+            return;
+        }
+        DownloadManager.Query query = new DownloadManager.Query();
+        query.setFilterById(downloadId);
+        try (Cursor cursor = downloadManager.query(query)) {
+            if (cursor != null && cursor.moveToFirst()) {
                 int status = cursor.getInt(cursor.getColumnIndex(DownloadManager.COLUMN_STATUS));
                 String localUri = cursor.getString(cursor.getColumnIndex(DownloadManager.COLUMN_LOCAL_URI));
-                
-                cursor.close();
-
-                if (status == DownloadManager.STATUS_SUCCESSFUL) {
-                    // Envoyer l'événement de succès
-                    sendDownloadEvent("downloadCompleted", info.contentId, 1.0, localUri);
-                    Log.d(TAG, "✅ Téléchargement terminé: " + info.contentId);
-                } else {
-                    // Envoyer l'événement d'échec
-                    sendDownloadEvent("downloadFailed", info.contentId, 0, null);
-                    Log.e(TAG, "❌ Téléchargement échoué: " + info.contentId);
-                }
+                long totalBytes = cursor.getLong(cursor.getColumnIndex(DownloadManager.COLUMN_TOTAL_SIZE_BYTES));
+                finishDownload(downloadId, status == DownloadManager.STATUS_SUCCESSFUL, localUri, totalBytes);
+            } else {
+                removeFromSavedDownloads(downloadId);
             }
+        }
+        stopProgressPollingIfIdle();
+    }
 
-            removeFromSavedDownloads(downloadId);
+    // 📊 Débit moyen (démarrage → fin) pour PerfMetrics
+    private void recordThroughput(DownloadInfo info, long totalBytes) {
+        if (totalBytes <= 0) {
+            return;
         }
+        long elapsedMs = Math.max(1, (System.nanoTime() - info.startedAtNanos) / 1_000_000L);
+        PerfMetrics.add(PerfMetrics.C_DOWNLOAD_BYTES, totalBytes);
+        PerfMetrics.record(PerfMetrics.H_DOWNLOAD_THROUGHPUT_KBPS, totalBytes * 1000L / 1024L / elapsedMs);
     }
 
     private void sendDownloadEvent(String eventName, String contentId, double progress, String localUri) {
@@ -414,7 +513,10 @@ public class DownloadModule extends ReactContextBaseJavaModule {
         if (localUri != null) {
             params.putString("localUri", localUri);
         }
+        emit(eventName, params);
+    }
 
+    private void emit(String eventName, WritableMap params) {
         getReactApplicationContext()
             .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
             .emit(eventName, params);
@@ -423,7 +525,8 @@ public class DownloadModule extends ReactContextBaseJavaModule {
     @Override
     public void onCatalystInstanceDestroy() {
         super.onCatalystInstanceDestroy();
-        
+        init.cancel(); // détruit avant la première frame : plus d'initialisation différée
+
         if (downloadReceiver != null) {
             getReactApplicationContext().unregisterReceiver(downloadReceiver);
         }
@@ -438,6 +541,7 @@ public class DownloadModule extends ReactContextBaseJavaModule {
     // 🚀 NOUVEAU : Récupérer tous les téléchargements actifs
     @ReactMethod
     public void getActiveDownloads(Promise promise) {
+        init.ensure();
         try {
             WritableMap result = Arguments.createMap();
             WritableMap downloads = Arguments.createMap();
@@ -467,15 +571,9 @@ public class DownloadModule extends ReactContextBaseJavaModule {
     // 🚀 NOUVEAU : Vérifier si un téléchargement est actif
     @ReactMethod
     public void isDownloadActive(String contentId, Promise promise) {
+        init.ensure();
         try {
-            boolean isActive = false;
-            for (DownloadInfo info : activeDownloads.values()) {
-                if (info.contentId.equals(contentId)) {
-                    isActive = true;
-                    break;
-                }
-            }
-            promise.resolve(isActive);
+            promise.resolve(downloadsByContentId.containsKey(contentId));
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur vérification téléchargement actif", e);
             promise.reject("CHECK_ERROR", e.getMessage());
@@ -488,6 +586,11 @@ public class DownloadModule extends ReactContextBaseJavaModule {
         String title;
         long downloadId;
         Double lastProgress;
+        long startedAtNanos;
+        // Dernier échantillon du poller, pour le débit
+        long lastSampleNanos;
+        long lastSampleBytes;
+        double bytesPerSecond;
 
         DownloadInfo(String contentId, String fileName, String title, long downloadId) {
             this.contentId = contentId;
@@ -495,6 +598,7 @@ public class DownloadModule extends ReactContextBaseJavaModule {
             this.title = title;
             this.downloadId = downloadId;
             this.lastProgress = null;
+            this.startedAtNanos = System.nanoTime();
         }
     }
 } 
\ No newline at end of file
@@ -19,6 +19,8 @@ public class DownloadPackage implements ReactPackage {
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
         List<NativeModule> modules = new ArrayList<>();
         modules.add(new DownloadModule(reactContext));
+        modules.add(new BulkDownloadModule(reactContext));
+        modules.add(new StorageBudgetModule(reactContext));
         return modules;
     }
 } 
\ No newline at end of file
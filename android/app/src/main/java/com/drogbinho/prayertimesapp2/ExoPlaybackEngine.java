@@ -0,0 +1,408 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.AudioAttributes;
+import androidx.media3.common.C;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.common.Player;
+import androidx.media3.common.Timeline;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DefaultDataSource;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+import androidx.media3.exoplayer.DefaultLoadControl;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.PlayerMessage;
+import androidx.media3.exoplayer.source.MediaSource;
+import androidx.media3.exoplayer.source.ProgressiveMediaSource;
+import androidx.media3.extractor.DefaultExtractorsFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * {@link PlaybackEngine} sur ExoPlayer (media3), piloté sur le thread principal.
+ *
+ * - Sources : fichiers locaux lus directement, URL via le client partagé
+ *   {@link RecitationHttp} derrière un cache disque LRU (une sourate réécoutée ou un
+ *   aller-retour dans la jauge ne refait pas de requête).
+ * - Seek MP3 : fichiers téléchargés via leur {@link Mp3SeekIndex} (saut direct à la trame,
+ *   position exacte) ; flux et fichiers pas encore indexés via les en-têtes Xing/VBRI, sinon
+ *   seek à débit constant au lieu d'une lecture séquentielle jusqu'à la cible.
+ * - Tampon réglé pour de la récitation (faible débit) : démarrage après 1,5 s, jusqu'à
+ *   2 min d'avance pour absorber les coupures réseau.
+ */
+@OptIn(markerClass = UnstableApi.class)
+final class ExoPlaybackEngine implements PlaybackEngine {
+    private static final String TAG = "ExoPlaybackEngine";
+
+    private static final int MIN_BUFFER_MS = 30_000;
+    private static final int MAX_BUFFER_MS = 120_000;
+    private static final int BUFFER_FOR_PLAYBACK_MS = 1_500;
+    private static final int BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS = 3_000;
+
+    private static final long STREAM_CACHE_BYTES = 100L * 1024 * 1024;
+
+    private static final Object LOCK = new Object();
+    private static SimpleCache streamCache;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ExoPlayer player;
+    private final ProgressiveMediaSource.Factory mediaSources;
+    private final ProgressiveMediaSource.Factory localSources;
+    private Listener listener;
+    private PlayerMessage segmentEnd;
+
+    // État lu sur le thread du lecteur, pour les getters appelés depuis d'autres threads
+    private volatile long positionMs;
+    private volatile long positionReadAt;
+    private volatile long durationMs = -1;
+    private volatile boolean playing;
+
+    private boolean awaitingPrepared;
+    private boolean seeking;
+
+    /** Pile de lecture par défaut : fichiers locaux + HTTP partagé avec cache disque. */
+    static DataSource.Factory cachingDataSourceFactory(Context context) {
+        Context app = context.getApplicationContext();
+        CacheDataSource.Factory cached = new CacheDataSource.Factory()
+                .setCache(streamCache(app))
+                .setUpstreamDataSourceFactory(new OkHttpDataSource.Factory(RecitationHttp.client(app)))
+                .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+        return new DefaultDataSource.Factory(app, cached);
+    }
+
+    private static SimpleCache streamCache(Context app) {
+        synchronized (LOCK) {
+            if (streamCache == null) {
+                // cacheDir : le système peut le vider, les téléchargements restent dans filesDir
+                streamCache = new SimpleCache(new File(app.getCacheDir(), "quran_stream_cache"),
+                        new LeastRecentlyUsedCacheEvictor(STREAM_CACHE_BYTES),
+                        new StandaloneDatabaseProvider(app));
+            }
+            return streamCache;
+        }
+    }
+
+    ExoPlaybackEngine(Context context, DataSource.Factory dataSourceFactory) {
+        DefaultLoadControl loadControl = new DefaultLoadControl.Builder()
+                .setBufferDurationsMs(MIN_BUFFER_MS, MAX_BUFFER_MS, BUFFER_FOR_PLAYBACK_MS,
+                        BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS)
+                .setPrioritizeTimeOverSizeThresholds(true)
+                .build();
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(C.USAGE_MEDIA)
+                .setContentType(C.AUDIO_CONTENT_TYPE_MUSIC)
+                .build();
+        // Focus audio géré par QuranAudioService (reprise conditionnelle, Adhan)
+        player = new ExoPlayer.Builder(context.getApplicationContext())
+                .setLooper(Looper.getMainLooper())
+                .setLoadControl(loadControl)
+                .setAudioAttributes(attributes, false)
+                .build();
+        mediaSources = new ProgressiveMediaSource.Factory(dataSourceFactory,
+                new DefaultExtractorsFactory().setConstantBitrateSeekingEnabled(true));
+        localSources = new ProgressiveMediaSource.Factory(dataSourceFactory, IndexedMp3Extractor.factory(
+                new DefaultExtractorsFactory().setConstantBitrateSeekingEnabled(true)));
+        player.addListener(new PlayerListener());
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setSource(String pathOrUrl) {
+        List<String> single = new ArrayList<>(1);
+        single.add(pathOrUrl);
+        setPlaylist(single, 0);
+    }
+
+    @Override
+    public void setPlaylist(List<String> pathsOrUrls, int startIndex) {
+        final List<MediaSource> sources = new ArrayList<>(pathsOrUrls.size());
+        for (String item : pathsOrUrls) {
+            sources.add(mediaSourceFor(item));
+        }
+        run(() -> {
+            awaitingPrepared = false;
+            seeking = false;
+            durationMs = -1;
+            cancelSegmentEnd();
+            // Nouvelle liste à l'arrêt : la lecture démarre sur play() uniquement
+            player.setPlayWhenReady(false);
+            player.setMediaSources(sources, startIndex, 0);
+            snapshot();
+        });
+    }
+
+    @Override
+    public void setNext(String pathOrUrl) {
+        final MediaSource next = pathOrUrl != null ? mediaSourceFor(pathOrUrl) : null;
+        run(() -> {
+            int following = player.getCurrentMediaItemIndex() + 1;
+            if (following < player.getMediaItemCount()) {
+                player.removeMediaItems(following, player.getMediaItemCount());
+            }
+            if (next != null) {
+                player.addMediaSource(next);
+            }
+        });
+    }
+
+    @Override
+    public void prepare() {
+        run(() -> {
+            awaitingPrepared = true;
+            player.prepare();
+        });
+    }
+
+    @Override
+    public void play() {
+        playing = true;
+        run(() -> {
+            if (player.getPlaybackState() == Player.STATE_IDLE) {
+                player.prepare(); // après stop() ou une erreur
+            } else if (player.getPlaybackState() == Player.STATE_ENDED) {
+                player.seekTo(0);
+            }
+            player.play();
+        });
+    }
+
+    @Override
+    public void pause() {
+        snapshotPositionNow();
+        playing = false;
+        run(player::pause);
+    }
+
+    @Override
+    public void stop() {
+        playing = false;
+        run(() -> {
+            player.setPlayWhenReady(false);
+            player.stop();
+            snapshot();
+        });
+    }
+
+    @Override
+    public void release() {
+        playing = false;
+        listener = null;
+        run(player::release);
+    }
+
+    @Override
+    public void seekTo(long target) {
+        positionMs = Math.max(0, target);
+        positionReadAt = SystemClock.elapsedRealtime();
+        run(() -> {
+            seeking = true;
+            player.seekTo(Math.max(0, target));
+        });
+    }
+
+    @Override
+    public void setSegmentEnd(long positionMs) {
+        run(() -> {
+            cancelSegmentEnd();
+            if (positionMs < 0 || player.getMediaItemCount() == 0) {
+                return;
+            }
+            // Message livré par la boucle de lecture à la position exacte, sans sondage
+            segmentEnd = player.createMessage((type, payload) -> {
+                        Listener l = listener;
+                        if (l != null) {
+                            l.onSegmentEnd();
+                        }
+                    })
+                    .setLooper(handler.getLooper())
+                    .setPosition(player.getCurrentMediaItemIndex(), positionMs)
+                    .setDeleteAfterDelivery(false)
+                    .send();
+        });
+    }
+
+    private void cancelSegmentEnd() {
+        if (segmentEnd != null) {
+            segmentEnd.cancel();
+            segmentEnd = null;
+        }
+    }
+
+    @Override
+    public long getPosition() {
+        if (onPlayerThread()) {
+            snapshot();
+            return positionMs;
+        }
+        long position = positionMs;
+        if (playing && !seeking) {
+            position += SystemClock.elapsedRealtime() - positionReadAt;
+        }
+        long duration = durationMs;
+        return duration > 0 ? Math.min(position, duration) : position;
+    }
+
+    @Override
+    public long getDuration() {
+        if (onPlayerThread()) {
+            snapshot();
+        }
+        return durationMs;
+    }
+
+    @Override
+    public boolean isPlaying() {
+        if (onPlayerThread()) {
+            snapshot();
+        }
+        return playing;
+    }
+
+    private MediaSource mediaSourceFor(String pathOrUrl) {
+        if (pathOrUrl.startsWith("http")) {
+            return mediaSources.createMediaSource(MediaItem.fromUri(Uri.parse(pathOrUrl)));
+        }
+        return localSources.createMediaSource(MediaItem.fromUri(Uri.fromFile(new File(pathOrUrl))));
+    }
+
+    private boolean onPlayerThread() {
+        return Looper.myLooper() == handler.getLooper();
+    }
+
+    /** ExoPlayer n'accepte que son thread : exécution directe si on y est, sinon dans l'ordre d'appel. */
+    private void run(Runnable command) {
+        if (onPlayerThread()) {
+            command.run();
+        } else {
+            handler.post(command);
+        }
+    }
+
+    private void snapshot() {
+        positionMs = player.getCurrentPosition();
+        positionReadAt = SystemClock.elapsedRealtime();
+        long duration = player.getDuration();
+        durationMs = duration == C.TIME_UNSET ? -1 : duration;
+        playing = player.getPlayWhenReady() && player.getPlaybackState() != Player.STATE_ENDED;
+    }
+
+    private void snapshotPositionNow() {
+        if (onPlayerThread()) {
+            snapshot();
+        } else if (playing && !seeking) {
+            positionMs += SystemClock.elapsedRealtime() - positionReadAt;
+            positionReadAt = SystemClock.elapsedRealtime();
+        }
+    }
+
+    private final class PlayerListener implements Player.Listener {
+        private int lastState = Player.STATE_IDLE;
+
+        @Override
+        public void onPlaybackStateChanged(int state) {
+            int previous = lastState;
+            lastState = state;
+            snapshot();
+            Listener l = listener;
+            if (state == Player.STATE_READY) {
+                if (awaitingPrepared) {
+                    awaitingPrepared = false;
+                    if (l != null) {
+                        l.onPrepared();
+                    }
+                }
+                if (seeking) {
+                    seeking = false;
+                    if (l != null) {
+                        l.onSeekComplete(positionMs);
+                    }
+                }
+            } else if (state == Player.STATE_BUFFERING) {
+                if (previous == Player.STATE_READY && !seeking && player.getPlayWhenReady() && l != null) {
+                    l.onRebuffer();
+                }
+            } else if (state == Player.STATE_ENDED) {
+                playing = false;
+                if (l != null) {
+                    l.onCompletion();
+                }
+            }
+        }
+
+        @Override
+        public void onPositionDiscontinuity(Player.PositionInfo oldPosition, Player.PositionInfo newPosition,
+                int reason) {
+            snapshot();
+            // Seek dans la partie déjà tamponnée : pas de passage par BUFFERING
+            if (reason == Player.DISCONTINUITY_REASON_SEEK && seeking
+                    && player.getPlaybackState() == Player.STATE_READY) {
+                handler.post(() -> {
+                    if (seeking && player.getPlaybackState() == Player.STATE_READY) {
+                        seeking = false;
+                        snapshot();
+                        Listener l = listener;
+                        if (l != null) {
+                            l.onSeekComplete(positionMs);
+                        }
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onIsPlayingChanged(boolean isPlaying) {
+            snapshot();
+        }
+
+        @Override
+        public void onMediaItemTransition(MediaItem mediaItem, int reason) {
+            snapshot();
+            if (reason == Player.MEDIA_ITEM_TRANSITION_REASON_AUTO && listener != null) {
+                listener.onTrackChanged(player.getCurrentMediaItemIndex());
+            }
+        }
+
+        @Override
+        public void onTimelineChanged(Timeline timeline, int reason) {
+            long before = durationMs;
+            snapshot();
+            if (durationMs > 0 && durationMs != before && listener != null) {
+                listener.onDurationChanged(durationMs);
+            }
+        }
+
+        @Override
+        public void onPlayerError(PlaybackException error) {
+            playing = false;
+            awaitingPrepared = false;
+            seeking = false;
+            // 2xxx = entrée/sortie (réseau, fichier), 3xxx = format / parsing
+            boolean sourceError = error.errorCode >= 2000 && error.errorCode < 4000;
+            errorLog(TAG, "❌ Erreur lecture " + error.getErrorCodeName() + ": " + error.getMessage());
+            Listener l = listener;
+            if (l != null) {
+                l.onError(error.getErrorCodeName(), sourceError);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.net.Uri;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.MimeTypes;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.extractor.Extractor;
+import androidx.media3.extractor.ExtractorInput;
+import androidx.media3.extractor.ExtractorOutput;
+import androidx.media3.extractor.ExtractorsFactory;
+import androidx.media3.extractor.PositionHolder;
+import androidx.media3.extractor.SeekMap;
+import androidx.media3.extractor.SeekPoint;
+import androidx.media3.extractor.TrackOutput;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Extracteur MP3 pour les fichiers locaux qui ont un {@link Mp3SeekIndex} : chaque trame
+ * est un échantillon horodaté par son numéro (exact, même en VBR) et le seek saute
+ * directement à la trame indexée précédant la cible. ExoPlayer décode ensuite au plus
+ * {@link Mp3SeekIndex#FRAMES_PER_ENTRY} trames jusqu'à la position exacte.
+ */
+@OptIn(markerClass = UnstableApi.class)
+final class IndexedMp3Extractor implements Extractor {
+
+    // Trame couche III la plus longue : 144 * 320 kbit/s / 32 kHz + remplissage
+    private static final int MAX_FRAME_BYTES = 1441;
+
+    private final Mp3SeekIndex index;
+    private final byte[] scratch = new byte[4];
+    private TrackOutput track;
+
+    private long frame;
+    private long nextFramePosition;
+    private int sampleSize;
+    private int sampleBytesRemaining;
+    private long sampleTimeUs;
+
+    /**
+     * Fichiers .mp3 locaux indexés : cet extracteur ; sinon (pas encore d'index, URL)
+     * l'extracteur de repli, et l'index est construit en arrière-plan pour la suite.
+     */
+    static ExtractorsFactory factory(ExtractorsFactory fallback) {
+        return new ExtractorsFactory() {
+            @Override
+            public Extractor[] createExtractors() {
+                return fallback.createExtractors();
+            }
+
+            @Override
+            public Extractor[] createExtractors(Uri uri, Map<String, List<String>> responseHeaders) {
+                String path = uri.getPath();
+                if ("file".equals(uri.getScheme()) && path != null && path.toLowerCase(Locale.ROOT).endsWith(".mp3")) {
+                    // Appelé sur le thread de chargement : lecture de l'index hors thread principal
+                    File file = new File(path);
+                    Mp3SeekIndex index = Mp3SeekIndex.load(file);
+                    if (index != null) {
+                        return new Extractor[] { new IndexedMp3Extractor(index) };
+                    }
+                    Mp3SeekIndexer.enqueue(file);
+                }
+                return fallback.createExtractors(uri, responseHeaders);
+            }
+        };
+    }
+
+    IndexedMp3Extractor(Mp3SeekIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public boolean sniff(ExtractorInput input) {
+        return true; // index valide pour ce fichier (taille + date vérifiées)
+    }
+
+    @Override
+    public void init(ExtractorOutput output) {
+        track = output.track(0, C.TRACK_TYPE_AUDIO);
+        track.format(new Format.Builder()
+                .setSampleMimeType(MimeTypes.AUDIO_MPEG)
+                .setMaxInputSize(MAX_FRAME_BYTES)
+                .setChannelCount(index.channels)
+                .setSampleRate(index.sampleRate)
+                .setEncoderDelay(index.encoderDelay)
+                .setEncoderPadding(index.encoderPadding)
+                .build());
+        output.endTracks();
+        output.seekMap(new IndexSeekMap());
+        seek(0, 0);
+    }
+
+    @Override
+    public int read(ExtractorInput input, PositionHolder seekPosition) throws IOException {
+        if (sampleBytesRemaining == 0) {
+            if (frame >= index.frameCount || nextFramePosition >= index.dataEnd) {
+                return RESULT_END_OF_INPUT;
+            }
+            if (input.getPosition() != nextFramePosition) {
+                seekPosition.position = nextFramePosition; // tag ID3 de début, trame Xing
+                return RESULT_SEEK;
+            }
+            if (!input.peekFully(scratch, 0, 4, true)) {
+                return RESULT_END_OF_INPUT;
+            }
+            input.resetPeekPosition();
+            int header = (scratch[0] & 0xFF) << 24 | (scratch[1] & 0xFF) << 16 | (scratch[2] & 0xFF) << 8
+                    | (scratch[3] & 0xFF);
+            sampleSize = Mp3SeekIndex.frameLength(header);
+            if (sampleSize <= 0) {
+                return RESULT_END_OF_INPUT;
+            }
+            sampleBytesRemaining = sampleSize;
+            sampleTimeUs = index.timeUsOfFrame(frame);
+        }
+        int read = track.sampleData(input, sampleBytesRemaining, true);
+        if (read == C.RESULT_END_OF_INPUT) {
+            return RESULT_END_OF_INPUT;
+        }
+        sampleBytesRemaining -= read;
+        if (sampleBytesRemaining > 0) {
+            return RESULT_CONTINUE;
+        }
+        track.sampleMetadata(sampleTimeUs, C.BUFFER_FLAG_KEY_FRAME, sampleSize, 0, null);
+        frame++;
+        nextFramePosition += sampleSize;
+        return RESULT_CONTINUE;
+    }
+
+    @Override
+    public void seek(long position, long timeUs) {
+        int entry = position == 0 ? 0 : index.entryForPosition(position);
+        frame = (long) entry * Mp3SeekIndex.FRAMES_PER_ENTRY;
+        nextFramePosition = index.offsetOfEntry(entry);
+        sampleBytesRemaining = 0;
+    }
+
+    @Override
+    public void release() {
+    }
+
+    private final class IndexSeekMap implements SeekMap {
+        @Override
+        public boolean isSeekable() {
+            return true;
+        }
+
+        @Override
+        public long getDurationUs() {
+            return index.durationUs();
+        }
+
+        @Override
+        public SeekPoints getSeekPoints(long timeUs) {
+            int entry = index.entryForTimeUs(timeUs);
+            SeekPoint point = new SeekPoint(index.timeUsOfEntry(entry), index.offsetOfEntry(entry));
+            if (point.timeUs >= timeUs || entry + 1 >= index.entryCount()) {
+                return new SeekPoints(point);
+            }
+            return new SeekPoints(point,
+                    new SeekPoint(index.timeUsOfEntry(entry + 1), index.offsetOfEntry(entry + 1)));
+        }
+    }
+}
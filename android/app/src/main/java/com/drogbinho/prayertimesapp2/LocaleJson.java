@@ -0,0 +1,97 @@
+package com.drogbinho.prayertimesapp2;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lecture des assets locales_xx.json et dhikr.xx.json sans dépendance Android : le
+ * chargement (AssetManager) reste chez l'appelant, le parsing est ici pour pouvoir être
+ * mis en cache et mesuré sur JVM.
+ */
+public final class LocaleJson {
+
+    /** Entrée d'un fichier dhikr.xx.json (seuls les champs affichés par le widget). */
+    public static final class Dua {
+        public final String title;
+        public final String arabic;
+        public final String translation;
+
+        Dua(String title, String arabic, String translation) {
+            this.title = title;
+            this.arabic = arabic;
+            this.translation = translation;
+        }
+    }
+
+    private LocaleJson() {}
+
+    /** Lit tout le flux en UTF-8 (contrairement à available(), ne tronque pas les gros fichiers). */
+    public static String readUtf8(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        byte[] buffer = new byte[8 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** Clés de premier niveau à valeur texte → map immuable. */
+    public static Map<String, String> parseStrings(String json) throws JSONException {
+        JSONObject obj = new JSONObject(json);
+        Map<String, String> strings = new HashMap<>(obj.length() * 2);
+        Iterator<String> keys = obj.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = obj.opt(key);
+            if (value instanceof String) {
+                strings.put(key, (String) value);
+            }
+        }
+        return Collections.unmodifiableMap(strings);
+    }
+
+    /** Duas valides (title, arabic et translation présents), dans l'ordre du fichier. */
+    public static List<Dua> parseDuas(String json) throws JSONException {
+        JSONArray arr = new JSONArray(json);
+        List<Dua> duas = new ArrayList<>(arr.length());
+        for (int i = 0; i < arr.length(); i++) {
+            JSONObject dua = arr.optJSONObject(i);
+            if (dua == null || !dua.has("title") || !dua.has("arabic") || !dua.has("translation")) {
+                continue;
+            }
+            duas.add(new Dua(dua.getString("title"), dua.getString("arabic"), dua.getString("translation")));
+        }
+        return Collections.unmodifiableList(duas);
+    }
+
+    /** Code langue de base (ex. fr depuis fr-FR / fr_FR), "en" par défaut. */
+    public static String normalizeLanguage(String language) {
+        if (language == null || language.isEmpty()) {
+            return "en";
+        }
+        String base = language.trim().toLowerCase(Locale.ROOT);
+        int sep = base.indexOf('-');
+        if (sep > 0) {
+            base = base.substring(0, sep);
+        }
+        sep = base.indexOf('_');
+        if (sep > 0) {
+            base = base.substring(0, sep);
+        }
+        return base.isEmpty() ? "en" : base;
+    }
+}
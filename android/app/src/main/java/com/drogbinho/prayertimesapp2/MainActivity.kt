@@ -39,6 +39,9 @@ class MainActivity : ReactActivity() {
     // react-native-screens : ne pas restaurer les fragments Android (crash au relancement)
     // https://github.com/software-mansion/react-native-screens/issues/17#issuecomment-424704067
     super.onCreate(null)
+
+    // Initialisations différées des modules natifs : après la première frame
+    ModuleInit.watchFirstFrame(this)
     
     // NOUVEAU : Enregistrer le BroadcastReceiver global pour les événements audio
     registerAudioEventReceiver()
@@ -38,6 +38,8 @@ class MainApplication : Application(), ReactApplication {
                 packages.add(QuranAudioServicePackage()) //
                 packages.add(QuranSyncPackage()) //
                 packages.add(RotationCompassPackage())
+                packages.add(TracePackage())
+                packages.add(PerfMetricsPackage())
             return packages
           }
 
@@ -0,0 +1,172 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Initialisation différée des modules natifs : les constructeurs (appelés pendant la
+ * création du contexte React, avant la première frame) ne font plus que des affectations.
+ * Le travail lourd (receivers, requêtes DownloadManager, fichiers) s'exécute à la première
+ * utilisation du module ({@link Task#ensure}) ou, au plus tard, sur un thread de fond quand
+ * la première frame est dessinée et que le thread principal est au repos. Sans activité
+ * (contexte React démarré par un service), délai de secours de {@link #FALLBACK_DELAY_MS}.
+ *
+ * Chaque initialisation est chronométrée : jauge par module et histogramme commun dans
+ * {@link PerfMetrics}.
+ */
+final class ModuleInit {
+    private static final String TAG = "ModuleInit";
+    private static final long FALLBACK_DELAY_MS = 5_000;
+    private static final Object LOCK = new Object();
+
+    private static final List<Task> pending = new ArrayList<>();
+    private static boolean firstFrameDrawn;
+    private static boolean fallbackScheduled;
+    private static ExecutorService executor;
+
+    private ModuleInit() {}
+
+    /** Initialisation exécutée une seule fois, par le premier appelant (méthode JS ou tâche de fond). */
+    static final class Task {
+        private final String module;
+        private final int gauge;
+        private final Runnable work;
+        private volatile boolean done;
+
+        private Task(String module, int gauge, Runnable work) {
+            this.module = module;
+            this.gauge = gauge;
+            this.work = work;
+        }
+
+        /** Bloque l'appelant le temps de l'initialisation si elle est en cours ailleurs. */
+        void ensure() {
+            if (done) {
+                return;
+            }
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                long started = System.nanoTime();
+                try {
+                    work.run();
+                } catch (RuntimeException e) {
+                    errorLog(TAG, "❌ Initialisation " + module + ": " + e.getMessage());
+                } finally {
+                    done = true;
+                    long elapsedMs = (System.nanoTime() - started) / 1_000_000L;
+                    PerfMetrics.set(gauge, elapsedMs);
+                    PerfMetrics.record(PerfMetrics.H_MODULE_INIT_MS, elapsedMs);
+                    debugLog(TAG, "⏱️ {} initialisé en {} ms", module, elapsedMs);
+                }
+            }
+        }
+
+        /**
+         * Contexte React détruit : l'initialisation ne s'exécutera plus (receivers sur un
+         * contexte mort, executors jamais arrêtés). Attend la fin d'une initialisation en
+         * cours ; à appeler avant de défaire ce qu'elle a installé.
+         */
+        void cancel() {
+            synchronized (LOCK) {
+                pending.remove(this);
+            }
+            synchronized (this) {
+                done = true;
+            }
+        }
+    }
+
+    /**
+     * Enregistre l'initialisation d'un module. gauge : jauge {@link PerfMetrics} qui reçoit
+     * sa durée (ms).
+     */
+    static Task defer(String module, int gauge, Runnable work) {
+        Task task = new Task(module, gauge, work);
+        boolean runNow;
+        synchronized (LOCK) {
+            runNow = firstFrameDrawn;
+            if (!runNow) {
+                pending.add(task);
+                scheduleFallbackLocked();
+            }
+        }
+        if (runNow) {
+            executor().execute(task::ensure); // contexte React recréé après le démarrage
+        }
+        return task;
+    }
+
+    /** À appeler dans Activity.onCreate : signale la première frame dessinée puis le premier repos. */
+    static void watchFirstFrame(Activity activity) {
+        final View decor = activity.getWindow().getDecorView();
+        final Handler main = new Handler(Looper.getMainLooper());
+        decor.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            private boolean seen;
+
+            @Override
+            public void onDraw() {
+                if (seen) {
+                    return;
+                }
+                seen = true;
+                // Retrait impossible pendant onDraw ; reprise quand le thread principal est libre
+                main.post(() -> {
+                    decor.getViewTreeObserver().removeOnDrawListener(this);
+                    Looper.myQueue().addIdleHandler(() -> {
+                        onFirstFrame();
+                        return false;
+                    });
+                });
+            }
+        });
+    }
+
+    static void onFirstFrame() {
+        List<Task> ready;
+        synchronized (LOCK) {
+            if (firstFrameDrawn) {
+                return;
+            }
+            firstFrameDrawn = true;
+            ready = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (Task task : ready) {
+            executor().execute(task::ensure);
+        }
+    }
+
+    private static void scheduleFallbackLocked() {
+        if (fallbackScheduled) {
+            return;
+        }
+        fallbackScheduled = true;
+        new Handler(Looper.getMainLooper()).postDelayed(ModuleInit::onFirstFrame, FALLBACK_DELAY_MS);
+    }
+
+    private static ExecutorService executor() {
+        synchronized (LOCK) {
+            if (executor == null) {
+                executor = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "ModuleInit");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                });
+            }
+            return executor;
+        }
+    }
+}
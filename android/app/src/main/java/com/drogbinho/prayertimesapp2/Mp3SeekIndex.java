@@ -0,0 +1,431 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Table temps → octet des trames d'un MP3 local (couche III, CBR ou VBR), construite en
+ * un seul parcours des en-têtes de trame et stockée à côté du fichier
+ * ({@code <fichier>.seekidx}). Une entrée toutes les {@link #FRAMES_PER_ENTRY} trames
+ * (~0,2 s à 44,1 kHz) : ~140 Ko pour une sourate de deux heures. Un seek se résout en
+ * O(1) (division) vers la trame indexée qui précède la cible, dont l'horodatage est exact.
+ *
+ * L'index garde la taille et la date de modification du MP3 : un fichier remplacé ou
+ * retouché rend l'index caduc ({@link #load} renvoie null et le supprime). Il garde aussi
+ * le délai et le remplissage de l'encodeur (extension LAME de la trame Xing/Info) pour une
+ * lecture sans silence parasite en début et en fin de sourate.
+ *
+ * Sans dépendance Android (testé sur la JVM) ; écrit via fichier temporaire + rename.
+ */
+public final class Mp3SeekIndex {
+
+    public static final String SUFFIX = ".seekidx";
+    static final int FRAMES_PER_ENTRY = 8;
+
+    private static final int MAGIC = 0x4D534958; // "MSIX"
+    private static final int VERSION = 2;
+    // Recherche de la première trame après les tags (ID3v2 mal déclaré, octets parasites)
+    private static final int MAX_SYNC_SEARCH = 128 * 1024;
+    private static final int NOT_INFO_FRAME = -1;
+
+    private static final int[] BITRATES_V1 = {
+            0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320 };
+    private static final int[] BITRATES_V2 = {
+            0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160 };
+    private static final int[] SAMPLE_RATES_V1 = { 44100, 48000, 32000 };
+
+    final int sampleRate;
+    final int channels;
+    final int samplesPerFrame;
+    final int frameCount;
+    /** Fin des données audio (début des tags de fin éventuels). */
+    final long dataEnd;
+    /** Échantillons à retirer en début / fin de flux (extension LAME), 0 si inconnus. */
+    final int encoderDelay;
+    final int encoderPadding;
+    private final long sourceLength;
+    private final long sourceModified;
+    private final int[] offsets;
+
+    private Mp3SeekIndex(int sampleRate, int channels, int samplesPerFrame, int frameCount, long dataEnd,
+            int encoderDelay, int encoderPadding, long sourceLength, long sourceModified, int[] offsets) {
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.samplesPerFrame = samplesPerFrame;
+        this.frameCount = frameCount;
+        this.dataEnd = dataEnd;
+        this.encoderDelay = encoderDelay;
+        this.encoderPadding = encoderPadding;
+        this.sourceLength = sourceLength;
+        this.sourceModified = sourceModified;
+        this.offsets = offsets;
+    }
+
+    public static File indexFileFor(File audioFile) {
+        return new File(audioFile.getPath() + SUFFIX);
+    }
+
+    public long durationUs() {
+        return timeUsOfFrame(frameCount);
+    }
+
+    public int entryCount() {
+        return offsets.length;
+    }
+
+    public long timeUsOfFrame(long frame) {
+        return frame * samplesPerFrame * 1_000_000L / sampleRate;
+    }
+
+    public long timeUsOfEntry(int entry) {
+        return timeUsOfFrame((long) entry * FRAMES_PER_ENTRY);
+    }
+
+    public long offsetOfEntry(int entry) {
+        return offsets[entry];
+    }
+
+    /** Entrée dont la trame commence au plus tard à timeUs. */
+    public int entryForTimeUs(long timeUs) {
+        if (timeUs <= 0) {
+            return 0;
+        }
+        // Dernière trame f avec timeUsOfFrame(f) <= timeUs (l'horodatage est arrondi par défaut)
+        long frame = ((timeUs + 1) * sampleRate - 1) / (samplesPerFrame * 1_000_000L);
+        return (int) Math.min(frame / FRAMES_PER_ENTRY, offsets.length - 1);
+    }
+
+    /** Entrée qui commence exactement à position, ou la dernière avant elle. */
+    public int entryForPosition(long position) {
+        int low = 0;
+        int high = offsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /** Index à jour pour ce fichier, ou null (absent, illisible ou caduc). */
+    public static Mp3SeekIndex load(File audioFile) {
+        File indexFile = indexFileFor(audioFile);
+        if (!indexFile.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("format inconnu");
+            }
+            long length = in.readLong();
+            long modified = in.readLong();
+            if (length != audioFile.length() || modified != audioFile.lastModified()) {
+                //noinspection ResultOfMethodCallIgnored
+                indexFile.delete();
+                return null;
+            }
+            int sampleRate = in.readInt();
+            int channels = in.readInt();
+            int samplesPerFrame = in.readInt();
+            int frameCount = in.readInt();
+            long dataEnd = in.readLong();
+            int encoderDelay = in.readInt();
+            int encoderPadding = in.readInt();
+            int[] offsets = new int[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readInt();
+            }
+            return new Mp3SeekIndex(sampleRate, channels, samplesPerFrame, frameCount, dataEnd, encoderDelay,
+                    encoderPadding, length, modified, offsets);
+        } catch (IOException | RuntimeException e) {
+            //noinspection ResultOfMethodCallIgnored
+            indexFile.delete();
+            return null;
+        }
+    }
+
+    /** Index existant s'il est à jour, sinon parcours du MP3 puis écriture. Null si pas un MP3. */
+    public static Mp3SeekIndex loadOrBuild(File audioFile) throws IOException {
+        Mp3SeekIndex index = load(audioFile);
+        if (index != null) {
+            return index;
+        }
+        index = build(audioFile);
+        if (index != null) {
+            index.save(audioFile);
+        }
+        return index;
+    }
+
+    void save(File audioFile) throws IOException {
+        File indexFile = indexFileFor(audioFile);
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeInt(sampleRate);
+            out.writeInt(channels);
+            out.writeInt(samplesPerFrame);
+            out.writeInt(frameCount);
+            out.writeLong(dataEnd);
+            out.writeInt(encoderDelay);
+            out.writeInt(encoderPadding);
+            out.writeInt(offsets.length);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+        }
+        if (!tmp.renameTo(indexFile)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Écriture impossible: " + indexFile);
+        }
+    }
+
+    /**
+     * Parcourt les en-têtes de trame du MP3 (les données audio sont sautées). Null si aucune
+     * trame MPEG couche III n'est trouvée ou si le fichier dépasse 2 Go.
+     */
+    static Mp3SeekIndex build(File audioFile) throws IOException {
+        long length = audioFile.length();
+        long modified = audioFile.lastModified();
+        if (length > Integer.MAX_VALUE) {
+            return null;
+        }
+        long first = findFirstFrame(audioFile, id3v2End(audioFile), length);
+        if (first < 0) {
+            return null;
+        }
+        try (Reader reader = new Reader(new BufferedInputStream(new FileInputStream(audioFile), 64 * 1024))) {
+            reader.skipTo(first);
+
+            int firstHeader = -1;
+            int gapless = 0;
+            int frames = 0;
+            int[] offsets = new int[64];
+            int entries = 0;
+            long position = first;
+            byte[] buffer = new byte[4];
+            while (position + 4 <= length && reader.read(buffer, 4) == 4) {
+                int h = (buffer[0] & 0xFF) << 24 | (buffer[1] & 0xFF) << 16 | (buffer[2] & 0xFF) << 8
+                        | (buffer[3] & 0xFF);
+                int frameLength = frameLength(h);
+                // Fin de l'audio : tag ID3v1/APE, octets de remplissage, changement de format
+                if (frameLength <= 0 || (firstHeader != -1 && !sameStream(firstHeader, h))
+                        || position + frameLength > length) {
+                    break; // ... ou dernière trame tronquée
+                }
+                if (firstHeader == -1) {
+                    firstHeader = h;
+                    // Trame Xing/Info/VBRI : métadonnées, pas d'audio
+                    int info = infoFrameGapless(audioFile, position, h, frameLength);
+                    if (info != NOT_INFO_FRAME) {
+                        gapless = info;
+                        position += frameLength;
+                        reader.skipTo(position);
+                        firstHeader = -1;
+                        continue;
+                    }
+                }
+                if (frames % FRAMES_PER_ENTRY == 0) {
+                    if (entries == offsets.length) {
+                        int[] grown = new int[offsets.length * 2];
+                        System.arraycopy(offsets, 0, grown, 0, entries);
+                        offsets = grown;
+                    }
+                    offsets[entries++] = (int) position;
+                }
+                frames++;
+                position += frameLength;
+                reader.skipTo(position);
+            }
+            if (frames == 0) {
+                return null;
+            }
+            int[] exact = new int[entries];
+            System.arraycopy(offsets, 0, exact, 0, entries);
+            return new Mp3SeekIndex(sampleRate(firstHeader), channels(firstHeader), samplesPerFrame(firstHeader),
+                    frames, Math.min(position, length), gapless >>> 12, gapless & 0xFFF, length, modified, exact);
+        }
+    }
+
+    /** Fin du tag ID3v2 de début de fichier ("ID3", version, drapeaux, taille "synchsafe"), 0 sans tag. */
+    private static long id3v2End(File audioFile) throws IOException {
+        byte[] header = new byte[10];
+        try (Reader reader = new Reader(new FileInputStream(audioFile))) {
+            if (reader.read(header, 10) != 10 || header[0] != 'I' || header[1] != 'D' || header[2] != '3') {
+                return 0;
+            }
+        }
+        int size = (header[6] & 0x7F) << 21 | (header[7] & 0x7F) << 14 | (header[8] & 0x7F) << 7
+                | (header[9] & 0x7F);
+        boolean footer = (header[5] & 0x10) != 0;
+        return 10L + size + (footer ? 10 : 0);
+    }
+
+    /** Première trame valide dont la suivante l'est aussi (évite les faux mots de synchro). */
+    private static long findFirstFrame(File audioFile, long from, long length) throws IOException {
+        try (Reader reader = new Reader(new BufferedInputStream(new FileInputStream(audioFile), 64 * 1024))) {
+            reader.skipTo(from);
+            byte[] window = new byte[MAX_SYNC_SEARCH + 4];
+            int filled = reader.read(window, window.length);
+            for (int i = 0; i + 4 <= filled; i++) {
+                int h = readInt(window, i);
+                int frameLength = frameLength(h);
+                if (frameLength <= 0) {
+                    continue;
+                }
+                long next = from + i + frameLength;
+                if (next + 4 > length) {
+                    return from + i; // fichier d'une seule trame
+                }
+                int nextHeader = i + frameLength + 4 <= filled
+                        ? readInt(window, i + frameLength)
+                        : readIntAt(audioFile, next);
+                if (frameLength(nextHeader) > 0 && sameStream(h, nextHeader)) {
+                    return from + i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Trame Xing/Info/VBRI ? {@link #NOT_INFO_FRAME} sinon. Pour Xing/Info avec extension
+     * LAME : délai (12 bits hauts) et remplissage (12 bits bas) de l'encodeur, 0 si absents.
+     */
+    private static int infoFrameGapless(File audioFile, long position, int h, int frameLength)
+            throws IOException {
+        byte[] frame = new byte[frameLength];
+        try (java.io.RandomAccessFile raf = new java.io.RandomAccessFile(audioFile, "r")) {
+            raf.seek(position);
+            raf.readFully(frame);
+        }
+        boolean mpeg1 = (h >>> 19 & 3) == 3;
+        boolean mono = (h >>> 6 & 3) == 3;
+        int xingOffset = 4 + (mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17));
+        int xing = xingOffset + 8 <= frameLength ? readInt(frame, xingOffset) : 0;
+        if (xing != 0x58696E67 /* Xing */ && xing != 0x496E666F /* Info */) {
+            return frameLength >= 40 && readInt(frame, 36) == 0x56425249 /* VBRI */ ? 0 : NOT_INFO_FRAME;
+        }
+        // Champs présents selon les drapeaux : trames, octets, table (100 octets), qualité
+        int flags = readInt(frame, xingOffset + 4);
+        int lame = xingOffset + 8 + ((flags & 1) != 0 ? 4 : 0) + ((flags & 2) != 0 ? 4 : 0)
+                + ((flags & 4) != 0 ? 100 : 0) + ((flags & 8) != 0 ? 4 : 0);
+        // Version d'encodeur (9), révision, passe-bas, crête (4), gains (2 × 2), drapeaux, débit ABR
+        int delayPadding = lame + 21;
+        if (delayPadding + 3 > frameLength) {
+            return 0;
+        }
+        return (frame[delayPadding] & 0xFF) << 16 | (frame[delayPadding + 1] & 0xFF) << 8
+                | (frame[delayPadding + 2] & 0xFF);
+    }
+
+    /** Longueur de la trame MPEG couche III décrite par cet en-tête, -1 si invalide. */
+    static int frameLength(int h) {
+        if ((h & 0xFFE00000) != 0xFFE00000) {
+            return -1;
+        }
+        int version = h >>> 19 & 3;
+        int layer = h >>> 17 & 3;
+        int bitrateIndex = h >>> 12 & 0xF;
+        int sampleRateIndex = h >>> 10 & 3;
+        if (version == 1 || layer != 1 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return -1;
+        }
+        int padding = h >>> 9 & 1;
+        boolean mpeg1 = version == 3;
+        int bitrate = (mpeg1 ? BITRATES_V1 : BITRATES_V2)[bitrateIndex] * 1000;
+        return (mpeg1 ? 144 : 72) * bitrate / sampleRate(h) + padding;
+    }
+
+    static int sampleRate(int h) {
+        int rate = SAMPLE_RATES_V1[h >>> 10 & 3];
+        int version = h >>> 19 & 3;
+        return version == 3 ? rate : version == 2 ? rate / 2 : rate / 4;
+    }
+
+    static int samplesPerFrame(int h) {
+        return (h >>> 19 & 3) == 3 ? 1152 : 576;
+    }
+
+    static int channels(int h) {
+        return (h >>> 6 & 3) == 3 ? 1 : 2;
+    }
+
+    /** Même version MPEG, couche et fréquence : le débit (VBR) et le remplissage peuvent varier. */
+    private static boolean sameStream(int a, int b) {
+        return (a & 0xFFFE0C00) == (b & 0xFFFE0C00);
+    }
+
+    private static int readInt(byte[] bytes, int i) {
+        return (bytes[i] & 0xFF) << 24 | (bytes[i + 1] & 0xFF) << 16 | (bytes[i + 2] & 0xFF) << 8
+                | (bytes[i + 3] & 0xFF);
+    }
+
+    private static int readIntAt(File file, long position) throws IOException {
+        try (java.io.RandomAccessFile raf = new java.io.RandomAccessFile(file, "r")) {
+            if (position + 4 > raf.length()) {
+                return 0;
+            }
+            raf.seek(position);
+            return raf.readInt();
+        }
+    }
+
+    /** Lecture séquentielle avec position connue (sauts sans relire les données audio). */
+    private static final class Reader implements AutoCloseable {
+        private final InputStream in;
+        private long position;
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        int read(byte[] buffer, int count) throws IOException {
+            int filled = 0;
+            int n;
+            while (filled < count && (n = in.read(buffer, filled, count - filled)) != -1) {
+                filled += n;
+            }
+            position += filled;
+            return filled;
+        }
+
+        void skipTo(long target) throws IOException {
+            if (target < position) {
+                throw new IOException("Retour arrière impossible: " + target);
+            }
+            while (position < target) {
+                long n = in.skip(target - position);
+                if (n <= 0) {
+                    if (in.read() == -1) {
+                        throw new EOFException();
+                    }
+                    n = 1;
+                }
+                position += n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
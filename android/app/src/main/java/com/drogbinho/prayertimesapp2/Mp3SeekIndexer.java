@@ -0,0 +1,59 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Construction en arrière-plan des {@link Mp3SeekIndex} : un seul thread de faible
+ * priorité, un fichier n'est parcouru qu'une fois (l'index persiste à côté du MP3).
+ * Alimenté à la fin d'un téléchargement et à la première lecture locale d'un fichier
+ * sans index.
+ */
+public final class Mp3SeekIndexer {
+    private static final String TAG = "Mp3SeekIndexer";
+    private static final Object LOCK = new Object();
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Mp3SeekIndexer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private static final Set<String> pending = new HashSet<>();
+
+    private Mp3SeekIndexer() {}
+
+    public static void enqueue(File audioFile) {
+        if (audioFile == null || !audioFile.getName().toLowerCase(Locale.ROOT).endsWith(".mp3")) {
+            return;
+        }
+        final String path = audioFile.getAbsolutePath();
+        synchronized (LOCK) {
+            if (!pending.add(path)) {
+                return;
+            }
+        }
+        EXECUTOR.execute(() -> {
+            try {
+                long started = System.nanoTime();
+                Mp3SeekIndex index = Mp3SeekIndex.loadOrBuild(new File(path));
+                if (index != null) {
+                    debugLog(TAG, "📇 Index seek {} : {} trames en {} ms", new File(path).getName(),
+                            index.frameCount, (System.nanoTime() - started) / 1_000_000);
+                }
+            } catch (Exception e) {
+                warnLog(TAG, "⚠️ Index seek impossible pour {}: {}", path, e.getMessage());
+            } finally {
+                synchronized (LOCK) {
+                    pending.remove(path);
+                }
+            }
+        });
+    }
+}
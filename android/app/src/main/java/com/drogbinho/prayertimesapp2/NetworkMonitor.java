@@ -0,0 +1,73 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * État réseau mis en cache : un seul NetworkCallback sur le réseau par défaut, enregistré
+ * au premier appel, au lieu d'interroger ConnectivityManager à chaque vérification.
+ */
+public final class NetworkMonitor {
+    private static final String TAG = "NetworkMonitor";
+    private static final Object LOCK = new Object();
+
+    private static boolean registered;
+    private static volatile boolean connected = true; // optimiste tant que rien n'est connu
+    private static volatile boolean unmetered;
+
+    private NetworkMonitor() {}
+
+    public static boolean isConnected(Context context) {
+        ensureRegistered(context);
+        return connected;
+    }
+
+    /** Wi-Fi / Ethernet (réseau non facturé). */
+    public static boolean isUnmetered(Context context) {
+        ensureRegistered(context);
+        return connected && unmetered;
+    }
+
+    private static void ensureRegistered(Context context) {
+        synchronized (LOCK) {
+            if (registered) {
+                return;
+            }
+            ConnectivityManager cm = (ConnectivityManager) context.getApplicationContext()
+                    .getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (cm == null) {
+                return;
+            }
+            try {
+                update(cm.getNetworkCapabilities(cm.getActiveNetwork()));
+                cm.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                    @Override
+                    public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                        update(capabilities);
+                    }
+
+                    @Override
+                    public void onLost(Network network) {
+                        connected = false;
+                        unmetered = false;
+                        debugLog(TAG, "📴 Réseau perdu");
+                    }
+                });
+                registered = true;
+            } catch (RuntimeException e) {
+                warnLog(TAG, "⚠️ Suivi réseau indisponible: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void update(NetworkCapabilities capabilities) {
+        connected = capabilities != null
+                && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+        unmetered = capabilities != null
+                && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+    }
+}
@@ -6,10 +6,10 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.json.JSONException;
 
+import java.util.List;
+
 import static com.drogbinho.prayertimesapp2.ConditionalLogger.errorLog;
 
 /**
@@ -27,38 +27,24 @@ public final class NotificationAlarmRegistry {
 
     public static void appendReminder(Context context, String prayer, long triggerAtMillis) {
         synchronized (LOCK) {
-            try {
-                SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
-                JSONArray arr = new JSONArray(prefs.getString(KEY_REMINDERS, "[]"));
-                JSONObject o = new JSONObject();
-                o.put("p", prayer);
-                o.put("t", triggerAtMillis);
-                arr.put(o);
-                prefs.edit().putString(KEY_REMINDERS, arr.toString()).apply();
-            } catch (JSONException e) {
-                errorLog("AdhanModule", "[Registry] appendReminder: " + e.getMessage());
-            }
+            SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+            String updated = AlarmRegistryCodec.appendReminder(
+                    prefs.getString(KEY_REMINDERS, "[]"), prayer, triggerAtMillis);
+            prefs.edit().putString(KEY_REMINDERS, updated).apply();
         }
     }
 
     public static void appendDhikr(Context context, String type, String prayer, long triggerMillis) {
         synchronized (LOCK) {
-            try {
-                SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
-                JSONArray arr = new JSONArray(prefs.getString(KEY_DHIKRS, "[]"));
-                JSONObject o = new JSONObject();
-                o.put("type", type);
-                o.put("p", prayer);
-                o.put("t", triggerMillis);
-                arr.put(o);
-                prefs.edit().putString(KEY_DHIKRS, arr.toString()).apply();
-            } catch (JSONException e) {
-                errorLog("AdhanModule", "[Registry] appendDhikr: " + e.getMessage());
-            }
+            SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+            String updated = AlarmRegistryCodec.appendDhikr(
+                    prefs.getString(KEY_DHIKRS, "[]"), type, prayer, triggerMillis);
+            prefs.edit().putString(KEY_DHIKRS, updated).apply();
         }
     }
 
     public static int cancelAllPrayerReminders(Context context, AlarmManager alarmManager) {
+        long startNanos = System.nanoTime();
         boolean[] hadRegistry = new boolean[1];
         int total;
         synchronized (LOCK) {
@@ -68,6 +54,7 @@ public final class NotificationAlarmRegistry {
                 total += cancelReminderLegacyCoarseGrid(context, alarmManager);
             }
         }
+        recordCancel(total, startNanos);
         return total;
     }
 
@@ -75,6 +62,7 @@ public final class NotificationAlarmRegistry {
         if (alarmManager == null) {
             return 0;
         }
+        long startNanos = System.nanoTime();
         boolean[] hadRegistry = new boolean[1];
         int total;
         synchronized (LOCK) {
@@ -83,9 +71,15 @@ public final class NotificationAlarmRegistry {
         if (!hadRegistry[0]) {
             total += cancelDhikrLegacyCoarseGrid(context, alarmManager);
         }
+        recordCancel(total, startNanos);
         return total;
     }
 
+    private static void recordCancel(int cancelled, long startNanos) {
+        PerfMetrics.add(PerfMetrics.C_ALARM_CANCELLED, cancelled);
+        PerfMetrics.recordSinceNanos(PerfMetrics.H_ALARM_CANCEL_MS, startNanos);
+    }
+
     private static int cancelRemindersFromRegistry(Context context, AlarmManager am, boolean[] hadRegistryOut) {
         SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
         String raw = prefs.getString(KEY_REMINDERS, null);
@@ -99,14 +93,10 @@ public final class NotificationAlarmRegistry {
         int n = 0;
         int entryCount = 0;
         try {
-            JSONArray arr = new JSONArray(raw);
-            entryCount = arr.length();
-            for (int i = 0; i < arr.length(); i++) {
-                JSONObject o = arr.getJSONObject(i);
-                String prayer = o.getString("p");
-                long t = o.getLong("t");
-                Intent intent = new Intent(context, PrayerReminderReceiver.class);
-                int rc = ("reminder_" + prayer + "_" + t).hashCode();
+            int[] requestCodes = AlarmRegistryCodec.reminderRequestCodes(raw);
+            entryCount = requestCodes.length;
+            Intent intent = new Intent(context, PrayerReminderReceiver.class);
+            for (int rc : requestCodes) {
                 PendingIntent pi = PendingIntent.getBroadcast(
                         context, rc, intent, PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
                 if (pi != null) {
@@ -118,6 +108,7 @@ public final class NotificationAlarmRegistry {
         } catch (JSONException e) {
             errorLog("AdhanModule", "[Registry] cancelReminders parse: " + e.getMessage());
         }
+        PerfMetrics.set(PerfMetrics.G_REMINDER_REGISTRY_ENTRIES, entryCount);
         prefs.edit().remove(KEY_REMINDERS).apply();
         if (hadRegistryOut != null && hadRegistryOut.length > 0) {
             hadRegistryOut[0] = entryCount > 0;
@@ -200,19 +191,14 @@ public final class NotificationAlarmRegistry {
         int n = 0;
         int entryCount = 0;
         try {
-            JSONArray arr = new JSONArray(raw);
-            entryCount = arr.length();
-            for (int i = 0; i < arr.length(); i++) {
-                JSONObject o = arr.getJSONObject(i);
-                String type = o.getString("type");
-                String prayer = o.getString("p");
-                long t = o.getLong("t");
+            List<AlarmRegistryCodec.DhikrAlarm> alarms = AlarmRegistryCodec.dhikrAlarms(raw);
+            entryCount = alarms.size();
+            for (AlarmRegistryCodec.DhikrAlarm alarm : alarms) {
                 Intent intent = new Intent(context, DhikrReceiver.class);
-                intent.putExtra("TYPE", type);
-                intent.putExtra("PRAYER_LABEL", prayer);
-                int rc = (type + "_" + prayer + "_" + t).hashCode();
+                intent.putExtra("TYPE", alarm.type);
+                intent.putExtra("PRAYER_LABEL", alarm.prayer);
                 PendingIntent pi = PendingIntent.getBroadcast(
-                        context, rc, intent, PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+                        context, alarm.requestCode, intent, PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
                 if (pi != null) {
                     am.cancel(pi);
                     pi.cancel();
@@ -222,6 +208,7 @@ public final class NotificationAlarmRegistry {
         } catch (JSONException e) {
             errorLog("AdhanModule", "[Registry] cancelDhikrs parse: " + e.getMessage());
         }
+        PerfMetrics.set(PerfMetrics.G_DHIKR_REGISTRY_ENTRIES, entryCount);
         prefs.edit().remove(KEY_DHIKRS).apply();
         if (hadRegistryOut != null && hadRegistryOut.length > 0) {
             hadRegistryOut[0] = entryCount > 0;
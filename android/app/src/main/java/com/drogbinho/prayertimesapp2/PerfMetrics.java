@@ -0,0 +1,229 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Métriques de performance natives, toujours actives : compteurs et histogrammes de latence
+ * à seaux fixes, sans verrou ni allocation côté producteurs (un incrément atomique par appel).
+ * Lues à la demande par {@link PerfMetricsModule} ; rien n'est persisté (remise à zéro au
+ * redémarrage du process).
+ *
+ * Histogrammes log2 : le seau 0 reçoit les valeurs <= 0, le seau i (1..) les valeurs dans
+ * [2^(i-1), 2^i), le dernier seau tout ce qui dépasse.
+ */
+public final class PerfMetrics {
+
+    // Compteurs (valeurs cumulées) et jauges (dernière valeur)
+    public static final int C_QURAN_REBUFFER = 0;
+    public static final int C_WIDGET_REFRESHES = 1;
+    public static final int C_WIDGET_UPDATES_SKIPPED = 2;
+    public static final int C_DOWNLOAD_BYTES = 3;
+    public static final int C_ALARM_CANCELLED = 4;
+    // Taille des registres NotificationAlarmRegistry lors de la dernière annulation
+    public static final int G_REMINDER_REGISTRY_ENTRIES = 5;
+    public static final int G_DHIKR_REGISTRY_ENTRIES = 6;
+    // Poignées de main TLS du client partagé RecitationHttp
+    public static final int C_TLS_HANDSHAKES = 7;
+    // Durée de l'initialisation différée de chaque module natif (ModuleInit)
+    public static final int G_INIT_DOWNLOAD_MS = 8;
+    public static final int G_INIT_BULK_DOWNLOAD_MS = 9;
+    public static final int G_INIT_QURAN_SYNC_MS = 10;
+    private static final String[] COUNTER_NAMES = {
+            "quran_rebuffer_count", "widget_refreshes", "widget_updates_skipped", "download_bytes",
+            "alarm_cancelled", "reminder_registry_entries", "dhikr_registry_entries", "tls_handshakes",
+            "init_download_module_ms", "init_bulk_download_module_ms", "init_quran_sync_module_ms" };
+
+    // Histogrammes
+    public static final int H_ADHAN_FIRE_LATENCY_MS = 0;
+    public static final int H_QURAN_LOAD_TO_PLAY_MS = 1;
+    public static final int H_QURAN_SEEK_MS = 2;
+    public static final int H_WIDGET_REFRESH_MS = 3;
+    public static final int H_DOWNLOAD_THROUGHPUT_KBPS = 4;
+    public static final int H_ALARM_CANCEL_MS = 5;
+    public static final int H_MODULE_INIT_MS = 6;
+    private static final String[] HISTOGRAM_NAMES = {
+            "adhan_fire_latency_ms", "quran_load_to_play_ms", "quran_seek_ms", "widget_refresh_ms",
+            "download_throughput_kbps", "alarm_cancel_ms", "module_init_ms" };
+
+    public static final int BUCKETS = 24; // dernier seau : >= 2^22 (~70 min en ms)
+    // Par histogramme : count, sum, max, puis BUCKETS seaux
+    private static final int HIST_HEADER = 3;
+    private static final int HIST_STRIDE = HIST_HEADER + BUCKETS;
+
+    private static final int PACK_MAGIC = 0x4D41504D; // "MAPM"
+    private static final int PACK_VERSION = 1;
+
+    private static final AtomicLongArray COUNTERS = new AtomicLongArray(COUNTER_NAMES.length);
+    private static final AtomicLongArray HISTOGRAMS = new AtomicLongArray(HISTOGRAM_NAMES.length * HIST_STRIDE);
+
+    private PerfMetrics() {}
+
+    public static void increment(int counter) {
+        COUNTERS.incrementAndGet(counter);
+    }
+
+    public static void add(int counter, long delta) {
+        COUNTERS.addAndGet(counter, delta);
+    }
+
+    /** Jauge : remplace la valeur au lieu de l'additionner. */
+    public static void set(int gauge, long value) {
+        COUNTERS.set(gauge, value);
+    }
+
+    /** Ajoute un échantillon à l'histogramme. */
+    public static void record(int histogram, long value) {
+        int base = histogram * HIST_STRIDE;
+        HISTOGRAMS.incrementAndGet(base);
+        HISTOGRAMS.addAndGet(base + 1, value);
+        long max;
+        while (value > (max = HISTOGRAMS.get(base + 2))) {
+            if (HISTOGRAMS.compareAndSet(base + 2, max, value)) {
+                break;
+            }
+        }
+        HISTOGRAMS.incrementAndGet(base + HIST_HEADER + bucketOf(value));
+    }
+
+    /** Durée écoulée depuis {@code startNanos} (System.nanoTime), en ms. */
+    public static void recordSinceNanos(int histogram, long startNanos) {
+        record(histogram, (System.nanoTime() - startNanos) / 1_000_000L);
+    }
+
+    static int bucketOf(long value) {
+        if (value <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /** Borne basse inclusive du seau (0 pour le seau des valeurs <= 0). */
+    public static long bucketLowerBound(int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    /**
+     * Copie des valeurs : d'abord les compteurs, puis HIST_STRIDE longs par histogramme.
+     * Chaque case est lue atomiquement ; un échantillon en cours d'ajout peut n'être compté
+     * que partiellement (count / sum / seau), ce qui est acceptable pour des métriques.
+     */
+    public static long[] snapshot() {
+        long[] out = new long[COUNTERS.length() + HISTOGRAMS.length()];
+        int o = 0;
+        for (int i = 0; i < COUNTERS.length(); i++) {
+            out[o++] = COUNTERS.get(i);
+        }
+        for (int i = 0; i < HISTOGRAMS.length(); i++) {
+            out[o++] = HISTOGRAMS.get(i);
+        }
+        return out;
+    }
+
+    public static void reset() {
+        for (int i = 0; i < COUNTERS.length(); i++) {
+            COUNTERS.set(i, 0);
+        }
+        for (int i = 0; i < HISTOGRAMS.length(); i++) {
+            HISTOGRAMS.set(i, 0);
+        }
+    }
+
+    public static int counterCount() {
+        return COUNTER_NAMES.length;
+    }
+
+    public static int histogramCount() {
+        return HISTOGRAM_NAMES.length;
+    }
+
+    public static String counterName(int counter) {
+        return COUNTER_NAMES[counter];
+    }
+
+    public static String histogramName(int histogram) {
+        return HISTOGRAM_NAMES[histogram];
+    }
+
+    /** Position du début de l'histogramme dans un {@link #snapshot()}. */
+    public static int histogramOffset(int histogram) {
+        return COUNTER_NAMES.length + histogram * HIST_STRIDE;
+    }
+
+    public static long histCount(long[] snapshot, int histogram) {
+        return snapshot[histogramOffset(histogram)];
+    }
+
+    public static long histSum(long[] snapshot, int histogram) {
+        return snapshot[histogramOffset(histogram) + 1];
+    }
+
+    public static long histMax(long[] snapshot, int histogram) {
+        return snapshot[histogramOffset(histogram) + 2];
+    }
+
+    public static long histBucket(long[] snapshot, int histogram, int bucket) {
+        return snapshot[histogramOffset(histogram) + HIST_HEADER + bucket];
+    }
+
+    /**
+     * Percentile approché (borne haute du seau atteint, plafonnée au max observé).
+     * 0 si l'histogramme est vide.
+     */
+    public static long percentile(long[] snapshot, int histogram, double p) {
+        long count = histCount(snapshot, histogram);
+        if (count <= 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * p));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histBucket(snapshot, histogram, b);
+            if (seen >= rank) {
+                long upper = b == 0 ? 0 : b == BUCKETS - 1 ? Long.MAX_VALUE : (1L << b) - 1;
+                return Math.min(upper, histMax(snapshot, histogram));
+            }
+        }
+        return histMax(snapshot, histogram);
+    }
+
+    /**
+     * Encodage compact d'un snapshot : magic "MAPM", version, nombre de compteurs, compteurs,
+     * nombre d'histogrammes, puis par histogramme count, sum, max, nombre de seaux utiles
+     * (zéros finaux omis) et seaux. Tous les entiers en varint LEB128 zigzag.
+     */
+    public static byte[] encode(long[] snapshot) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        writeVarint(out, PACK_MAGIC);
+        writeVarint(out, PACK_VERSION);
+        writeVarint(out, COUNTER_NAMES.length);
+        for (int i = 0; i < COUNTER_NAMES.length; i++) {
+            writeVarint(out, snapshot[i]);
+        }
+        writeVarint(out, HISTOGRAM_NAMES.length);
+        for (int h = 0; h < HISTOGRAM_NAMES.length; h++) {
+            int base = histogramOffset(h);
+            writeVarint(out, snapshot[base]);
+            writeVarint(out, snapshot[base + 1]);
+            writeVarint(out, snapshot[base + 2]);
+            int used = BUCKETS;
+            while (used > 0 && snapshot[base + HIST_HEADER + used - 1] == 0) {
+                used--;
+            }
+            writeVarint(out, used);
+            for (int b = 0; b < used; b++) {
+                writeVarint(out, snapshot[base + HIST_HEADER + b]);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        long v = (value << 1) ^ (value >> 63); // zigzag : petits négatifs sur peu d'octets
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+}
@@ -0,0 +1,77 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.util.Base64;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Accès JS aux métriques natives ({@link PerfMetrics}) : lecture et remise à zéro.
+ */
+public class PerfMetricsModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "PerfMetricsModule";
+
+    public PerfMetricsModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    public String getName() {
+        return "PerfMetricsModule";
+    }
+
+    /**
+     * { counters: { nom: valeur }, histograms: { nom: { count, sum, max, p50, p95, buckets } },
+     * packed: base64 de {@link PerfMetrics#encode} } — "packed" suffit pour un envoi/stockage,
+     * le reste est là pour l'affichage direct.
+     */
+    @ReactMethod
+    public void getSnapshot(Promise promise) {
+        try {
+            long[] snapshot = PerfMetrics.snapshot();
+            WritableMap counters = Arguments.createMap();
+            for (int c = 0; c < PerfMetrics.counterCount(); c++) {
+                counters.putDouble(PerfMetrics.counterName(c), snapshot[c]);
+            }
+
+            WritableMap histograms = Arguments.createMap();
+            for (int h = 0; h < PerfMetrics.histogramCount(); h++) {
+                WritableMap hist = Arguments.createMap();
+                hist.putDouble("count", PerfMetrics.histCount(snapshot, h));
+                hist.putDouble("sum", PerfMetrics.histSum(snapshot, h));
+                hist.putDouble("max", PerfMetrics.histMax(snapshot, h));
+                hist.putDouble("p50", PerfMetrics.percentile(snapshot, h, 0.50));
+                hist.putDouble("p95", PerfMetrics.percentile(snapshot, h, 0.95));
+                WritableArray buckets = Arguments.createArray();
+                for (int b = 0; b < PerfMetrics.BUCKETS; b++) {
+                    buckets.pushDouble(PerfMetrics.histBucket(snapshot, h, b));
+                }
+                hist.putArray("buckets", buckets);
+                histograms.putMap(PerfMetrics.histogramName(h), hist);
+            }
+
+            WritableMap result = Arguments.createMap();
+            result.putDouble("ts", System.currentTimeMillis());
+            result.putMap("counters", counters);
+            result.putMap("histograms", histograms);
+            result.putString("packed", Base64.encodeToString(PerfMetrics.encode(snapshot), Base64.NO_WRAP));
+            promise.resolve(result);
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur lecture métriques: " + e.getMessage());
+            promise.reject("PERF_METRICS_ERROR", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void reset() {
+        PerfMetrics.reset();
+        debugLog(TAG, "Métriques remises à zéro");
+    }
+}
@@ -0,0 +1,76 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.util.List;
+
+/**
+ * Moteur de lecture utilisé par QuranAudioService. Une source est un chemin de fichier
+ * local ou une URL http(s) ; le moteur choisit lui-même la pile de lecture adaptée.
+ *
+ * Les commandes peuvent être appelées depuis n'importe quel thread (module React Native,
+ * receivers) ; les callbacks du {@link Listener} arrivent sur le thread principal.
+ */
+interface PlaybackEngine {
+
+    interface Listener {
+        /** Première source prête à jouer après {@link #prepare()}. */
+        void onPrepared();
+
+        /** Fin de la dernière source de la liste. */
+        void onCompletion();
+
+        /** Passage automatique (sans coupure) à la source suivante de la liste. */
+        void onTrackChanged(int index);
+
+        /** Durée connue ou corrigée pour la source courante. */
+        void onDurationChanged(long durationMs);
+
+        /** Seek terminé : la lecture peut reprendre à positionMs. */
+        void onSeekComplete(long positionMs);
+
+        /** Position fixée par {@link #setSegmentEnd} atteinte (à chaque passage). */
+        void onSegmentEnd();
+
+        /** Le tampon s'est vidé pendant la lecture (hors seek). */
+        void onRebuffer();
+
+        /** sourceError = erreur réseau / fichier / format, sinon erreur du décodeur ou interne. */
+        void onError(String message, boolean sourceError);
+    }
+
+    void setListener(Listener listener);
+
+    /** Remplace la liste par une seule source. */
+    void setSource(String pathOrUrl);
+
+    /** Remplace la liste de lecture et se place au début de startIndex. */
+    void setPlaylist(List<String> pathsOrUrls, int startIndex);
+
+    /** Remplace ce qui suit la source courante (null = rien ensuite). */
+    void setNext(String pathOrUrl);
+
+    void prepare();
+
+    void play();
+
+    void pause();
+
+    /** Arrête la lecture et libère les tampons ; la liste est conservée. */
+    void stop();
+
+    void release();
+
+    void seekTo(long positionMs);
+
+    /**
+     * Signale {@link Listener#onSegmentEnd} quand la lecture de la source courante atteint
+     * positionMs, y compris après un seek en arrière. -1 = aucun ; effacé au changement de source.
+     */
+    void setSegmentEnd(long positionMs);
+
+    long getPosition();
+
+    /** Durée de la source courante, -1 si inconnue. */
+    long getDuration();
+
+    boolean isPlaying();
+}
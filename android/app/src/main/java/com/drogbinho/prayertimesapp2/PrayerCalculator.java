@@ -0,0 +1,226 @@
+package com.drogbinho.prayertimesapp2;
+
+import com.batoulapps.adhan.CalculationMethod;
+import com.batoulapps.adhan.CalculationParameters;
+import com.batoulapps.adhan.Coordinates;
+import com.batoulapps.adhan.PrayerTimes;
+import com.batoulapps.adhan.data.DateComponents;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Calcul des horaires sans dépendance Android (partagé par AdhanService, le widget et le
+ * module de benchmarks JVM).
+ */
+public final class PrayerCalculator {
+
+    public static final String DEFAULT_METHOD = "MuslimWorldLeague";
+    /** Ordre des prières pour la recherche de la prochaine (Sunrise exclu). */
+    static final String[] NEXT_PRAYER_ORDER = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
+
+    private PrayerCalculator() {}
+
+    /**
+     * Paramètres de calcul pour un nom de méthode JS. Tehran / Turkey / inconnue →
+     * MuslimWorldLeague (voir {@link #isFallbackMethod}).
+     */
+    public static CalculationParameters parametersFor(String methodName) {
+        if (methodName == null) {
+            methodName = DEFAULT_METHOD;
+        }
+        CalculationParameters params;
+        switch (methodName) {
+            case "Egyptian":
+                params = CalculationMethod.EGYPTIAN.getParameters();
+                break;
+            case "Karachi":
+                params = CalculationMethod.KARACHI.getParameters();
+                break;
+            case "UmmAlQura":
+                // 🕌 Umm Al-Qura modifié pour utiliser 15° pour Fajr
+                params = CalculationMethod.UMM_AL_QURA.getParameters();
+                params.fajrAngle = 15.0; // Modifié selon recommandation mosquée
+                break;
+            case "NorthAmerica":
+                params = CalculationMethod.NORTH_AMERICA.getParameters();
+                break;
+            case "Kuwait":
+                params = CalculationMethod.KUWAIT.getParameters();
+                break;
+            case "Qatar":
+                params = CalculationMethod.QATAR.getParameters();
+                break;
+            case "Singapore":
+                params = CalculationMethod.SINGAPORE.getParameters();
+                break;
+            case "MuslimWorldLeague":
+            default:
+                params = CalculationMethod.MUSLIM_WORLD_LEAGUE.getParameters();
+                break;
+        }
+        return params;
+    }
+
+    /** true si la méthode n'a pas d'équivalent dans la lib adhan et retombe sur MWL. */
+    public static boolean isFallbackMethod(String methodName) {
+        if (methodName == null) {
+            return false;
+        }
+        switch (methodName) {
+            case "Egyptian":
+            case "Karachi":
+            case "UmmAlQura":
+            case "NorthAmerica":
+            case "Kuwait":
+            case "Qatar":
+            case "Singapore":
+            case "MuslimWorldLeague":
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /** Horaires "HH:mm" (Fajr, Sunrise, Dhuhr, Asr, Maghrib, Isha) d'un jour donné. */
+    public static Map<String, String> computeDay(double latitude, double longitude, Date day,
+            String methodName, TimeZone timeZone) {
+        PrayerTimes times = new PrayerTimes(new Coordinates(latitude, longitude), DateComponents.from(day),
+                parametersFor(methodName));
+        Calendar cal = Calendar.getInstance(timeZone);
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("Fajr", formatTime(cal, times.fajr));
+        result.put("Sunrise", formatTime(cal, times.sunrise));
+        result.put("Dhuhr", formatTime(cal, times.dhuhr));
+        result.put("Asr", formatTime(cal, times.asr));
+        result.put("Maghrib", formatTime(cal, times.maghrib));
+        result.put("Isha", formatTime(cal, times.isha));
+        return result;
+    }
+
+    /** Nombre de valeurs par jour dans {@link #computeRange} (Fajr, Sunrise, Dhuhr, Asr, Maghrib, Isha). */
+    public static final int RANGE_STRIDE = 6;
+
+    /**
+     * Horaires de {@code days} jours consécutifs à partir de year-month-day (mois 1..12), à plat :
+     * RANGE_STRIDE valeurs par jour, en minutes depuis le minuit local du jour (peut dépasser
+     * 1440 ou être négatif aux hautes latitudes). Paramètres et coordonnées ne sont construits
+     * qu'une fois pour toute la plage.
+     */
+    public static short[] computeRange(double latitude, double longitude, String methodName,
+            int year, int month, int day, int days, TimeZone timeZone) {
+        Coordinates coordinates = new Coordinates(latitude, longitude);
+        CalculationParameters params = parametersFor(methodName);
+        short[] out = new short[days * RANGE_STRIDE];
+        Calendar cal = Calendar.getInstance(timeZone);
+        cal.clear();
+        cal.set(year, month - 1, day);
+        for (int d = 0; d < days; d++) {
+            long midnight = cal.getTimeInMillis();
+            PrayerTimes times = new PrayerTimes(coordinates, new DateComponents(cal.get(Calendar.YEAR),
+                    cal.get(Calendar.MONTH) + 1, cal.get(Calendar.DAY_OF_MONTH)), params);
+            int o = d * RANGE_STRIDE;
+            out[o] = minutesSince(midnight, times.fajr);
+            out[o + 1] = minutesSince(midnight, times.sunrise);
+            out[o + 2] = minutesSince(midnight, times.dhuhr);
+            out[o + 3] = minutesSince(midnight, times.asr);
+            out[o + 4] = minutesSince(midnight, times.maghrib);
+            out[o + 5] = minutesSince(midnight, times.isha);
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return out;
+    }
+
+    /** {@link #computeRange} en octets Int16 little-endian (lisibles par un Int16Array JS). */
+    public static byte[] packLittleEndian(short[] times) {
+        byte[] out = new byte[times.length * 2];
+        for (int i = 0; i < times.length; i++) {
+            out[2 * i] = (byte) times[i];
+            out[2 * i + 1] = (byte) (times[i] >> 8);
+        }
+        return out;
+    }
+
+    /**
+     * "yyyy-MM-dd" → { année, mois (1..12), jour }, null si le format ou la date est invalide
+     * (pas de report : "2026-02-30" est refusée, pas lue comme le 2 mars).
+     */
+    public static int[] parseDate(String date) {
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return null;
+        }
+        int year = parseDigits(date, 0, 4);
+        int month = parseDigits(date, 5, 7);
+        int day = parseDigits(date, 8, 10);
+        if (year < 1 || month < 1 || month > 12 || day < 1) {
+            return null;
+        }
+        Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        cal.clear();
+        cal.set(year, month - 1, 1);
+        if (day > cal.getActualMaximum(Calendar.DAY_OF_MONTH)) {
+            return null;
+        }
+        return new int[] { year, month, day };
+    }
+
+    private static short minutesSince(long midnightMillis, Date time) {
+        return (short) Math.floorDiv(time.getTime() - midnightMillis, 60_000L);
+    }
+
+    /**
+     * Prochaine prière après nowMinutes (minutes depuis minuit), ou Fajr si toutes sont
+     * passées / aucun horaire exploitable.
+     */
+    public static String nextPrayerName(Map<String, String> times, int nowMinutes) {
+        for (String prayer : NEXT_PRAYER_ORDER) {
+            int minutes = toMinutes(times.get(prayer));
+            if (minutes >= 0 && minutes > nowMinutes) {
+                return prayer;
+            }
+        }
+        return "Fajr";
+    }
+
+    /** "HH:MM" → minutes depuis minuit, -1 si absent ou invalide. Sans split ni regex. */
+    public static int toMinutes(String time) {
+        if (time == null) {
+            return -1;
+        }
+        int len = time.length();
+        int colon = time.indexOf(':');
+        if (colon <= 0 || colon > 2 || len < colon + 3) {
+            return -1;
+        }
+        int hours = parseDigits(time, 0, colon);
+        int minutes = parseDigits(time, colon + 1, colon + 3);
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        return hours * 60 + minutes;
+    }
+
+    private static int parseDigits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static String formatTime(Calendar cal, Date date) {
+        cal.setTime(date);
+        int hours = cal.get(Calendar.HOUR_OF_DAY);
+        int minutes = cal.get(Calendar.MINUTE);
+        char[] out = { (char) ('0' + hours / 10), (char) ('0' + hours % 10), ':',
+                (char) ('0' + minutes / 10), (char) ('0' + minutes % 10) };
+        return new String(out);
+    }
+}
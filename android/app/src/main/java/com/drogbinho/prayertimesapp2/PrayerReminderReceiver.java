@@ -10,6 +10,9 @@ import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
 public class PrayerReminderReceiver extends BroadcastReceiver {
         @Override
         public void onReceive(Context context, Intent intent) {
+                // Réarme les prochaines alarmes de l'horizon avant tout retour anticipé
+                AlarmHorizon.onFired(context);
+
                 try {
                         debugLog("PrayerReminderReceiver", "Rappel reçu, vérification des paramètres...");
 
@@ -0,0 +1,121 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Décalage des horaires entre deux jeux de paramètres (position et/ou méthode de calcul),
+ * jour par jour et prière par prière, en minutes. Sert à ne reprogrammer que les alarmes
+ * qui bougent vraiment lors d'un changement de position (GPS) ou de méthode.
+ */
+public final class PrayerShift {
+
+    /** En dessous, un déplacement est considéré comme du bruit GPS (aucun calcul, aucune écriture). */
+    public static final double MIN_MOVE_METERS = 250;
+    /** Décalage toléré (minutes) avant de déplacer une alarme déjà programmée. */
+    public static final int TOLERANCE_MINUTES = 1;
+
+    private static final String[] PRAYERS = { "Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha" };
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private final long startMidnight;
+    private final int days;
+    private final short[] before;
+    private final short[] after;
+    private final TimeZone timeZone;
+
+    private PrayerShift(long startMidnight, int days, short[] before, short[] after, TimeZone timeZone) {
+        this.startMidnight = startMidnight;
+        this.days = days;
+        this.before = before;
+        this.after = after;
+        this.timeZone = timeZone;
+    }
+
+    /** Horaires avant / après sur {@code days} jours à partir du jour de {@code fromMillis}. */
+    public static PrayerShift compute(double oldLat, double oldLon, String oldMethod,
+            double newLat, double newLon, String newMethod, long fromMillis, int days, TimeZone timeZone) {
+        Calendar cal = Calendar.getInstance(timeZone);
+        cal.setTimeInMillis(fromMillis);
+        int year = cal.get(Calendar.YEAR);
+        int month = cal.get(Calendar.MONTH) + 1;
+        int day = cal.get(Calendar.DAY_OF_MONTH);
+        short[] before = PrayerCalculator.computeRange(oldLat, oldLon, oldMethod, year, month, day, days, timeZone);
+        short[] after = PrayerCalculator.computeRange(newLat, newLon, newMethod, year, month, day, days, timeZone);
+        return new PrayerShift(midnightOf(cal, fromMillis), days, before, after, timeZone);
+    }
+
+    /**
+     * À partir d'horaires déjà calculés (RANGE_STRIDE valeurs par jour, voir
+     * {@link PrayerCalculator#computeRange}) ; utilisé par les tests.
+     */
+    static PrayerShift of(long fromMillis, int days, short[] before, short[] after, TimeZone timeZone) {
+        return new PrayerShift(midnightOf(Calendar.getInstance(timeZone), fromMillis), days, before, after,
+                timeZone);
+    }
+
+    /** Déplacement sous {@link #MIN_MOVE_METERS} : ignoré sans rien recalculer. */
+    public static boolean isGpsNoise(double oldLat, double oldLon, double newLat, double newLon) {
+        return distanceMeters(oldLat, oldLon, newLat, newLon) < MIN_MOVE_METERS;
+    }
+
+    /** Au moins une prière bouge de plus de {@link #TOLERANCE_MINUTES} : alarmes à décaler. */
+    public boolean movesAlarms() {
+        return maxShiftMinutes() > TOLERANCE_MINUTES;
+    }
+
+    /** Plus grand décalage absolu (minutes), toutes prières et tous jours confondus. */
+    public int maxShiftMinutes() {
+        int max = 0;
+        for (int i = 0; i < before.length; i++) {
+            max = Math.max(max, Math.abs(after[i] - before[i]));
+        }
+        return max;
+    }
+
+    /**
+     * Décalage (ms) à appliquer à une alarme liée à {@code prayerLabel} déclenchée à
+     * {@code triggerAtMillis} (adhan, rappel avant, dhikr après : même décalage que la prière).
+     * 0 pour une prière inconnue ; hors plage, le jour le plus proche est utilisé.
+     */
+    public long deltaMillis(String prayerLabel, long triggerAtMillis) {
+        int prayer = indexOf(prayerLabel);
+        if (prayer < 0) {
+            return 0;
+        }
+        Calendar cal = Calendar.getInstance(timeZone);
+        int dayIndex = (int) Math.round((midnightOf(cal, triggerAtMillis) - startMidnight) / (double) DAY_MS);
+        dayIndex = Math.max(0, Math.min(days - 1, dayIndex));
+        int i = dayIndex * PrayerCalculator.RANGE_STRIDE + prayer;
+        return (after[i] - before[i]) * 60_000L;
+    }
+
+    /** Distance (m) entre deux positions, approximation équirectangulaire (suffisante < 100 km). */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_METERS;
+    }
+
+    private static int indexOf(String prayerLabel) {
+        if (prayerLabel == null) {
+            return -1;
+        }
+        for (int i = 0; i < PRAYERS.length; i++) {
+            if (PRAYERS[i].equalsIgnoreCase(prayerLabel)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long midnightOf(Calendar cal, long millis) {
+        cal.setTimeInMillis(millis);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+}
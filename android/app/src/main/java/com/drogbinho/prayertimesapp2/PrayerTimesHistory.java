@@ -0,0 +1,235 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Historique borné des horaires du jour (remplace les clés prayer_times_backup_yyyy-MM-dd
+ * qui s'accumulaient dans prayer_times_settings).
+ *
+ * Fichier circulaire de taille fixe : un slot par jour (index = jour julien % CAPACITY),
+ * donc le jour J écrase automatiquement J - CAPACITY, sans pointeur de tête.
+ * Slot de 16 octets : date yyyyMMdd (int) + 6 horaires en minutes depuis minuit (short,
+ * -1 si absent).
+ */
+public final class PrayerTimesHistory {
+
+    private static final String TAG = "PrayerTimesHistory";
+    private static final String FILE_NAME = "prayer_times_history.bin";
+    private static final String LEGACY_PREFIX = "prayer_times_backup_";
+
+    private static final int MAGIC = 0x4D415048; // "MAPH"
+    private static final int VERSION = 1;
+    static final int CAPACITY = 30;
+    private static final int HEADER_SIZE = 8;
+    private static final int SLOT_SIZE = 16;
+
+    static final String[] PRAYERS = { "Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha" };
+
+    private static final Object LOCK = new Object();
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private PrayerTimesHistory() {}
+
+    /** Enregistre les horaires d'une date "yyyy-MM-dd" (écrase l'éventuelle entrée existante). */
+    public static void put(Context context, String dateKey, Map<String, String> times) {
+        int date = parseDateKey(dateKey);
+        if (date < 0) {
+            warnLog(TAG, "Date invalide ignorée: {}", dateKey);
+            return;
+        }
+        synchronized (LOCK) {
+            try (RandomAccessFile file = openLocked(context)) {
+                writeSlot(file, date, times);
+            } catch (IOException e) {
+                errorLog(TAG, "❌ Écriture historique échouée: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Horaires d'une date "yyyy-MM-dd", ou null si la date n'est plus (ou pas) dans l'historique. */
+    public static Map<String, String> get(Context context, String dateKey) {
+        int date = parseDateKey(dateKey);
+        if (date < 0) {
+            return null;
+        }
+        synchronized (LOCK) {
+            try (RandomAccessFile file = openLocked(context)) {
+                file.seek(slotOffset(date));
+                if (file.readInt() != date) {
+                    return null;
+                }
+                Map<String, String> times = new LinkedHashMap<>();
+                for (String prayer : PRAYERS) {
+                    int minutes = file.readShort();
+                    if (minutes >= 0) {
+                        times.put(prayer, String.format(Locale.ROOT, "%02d:%02d", minutes / 60, minutes % 60));
+                    }
+                }
+                return times;
+            } catch (IOException e) {
+                warnLog(TAG, "Lecture historique échouée: {}", e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    public static String todayKey() {
+        Calendar now = Calendar.getInstance();
+        return String.format(Locale.ROOT, "%04d-%02d-%02d",
+                now.get(Calendar.YEAR), now.get(Calendar.MONTH) + 1, now.get(Calendar.DAY_OF_MONTH));
+    }
+
+    // ============ FICHIER ============
+
+    /**
+     * Ouvre le fichier ; à la première ouverture (fichier absent ou format inconnu) il est
+     * initialisé et les anciennes clés prayer_times_backup_* sont importées puis supprimées.
+     * L'en-tête n'est écrit qu'après la purge persistée : un process tué avant relance la
+     * migration à l'ouverture suivante.
+     */
+    private static RandomAccessFile openLocked(Context context) throws IOException {
+        File path = new File(context.getFilesDir(), FILE_NAME);
+        boolean fresh = !path.exists() || path.length() != HEADER_SIZE + (long) CAPACITY * SLOT_SIZE;
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        if (!fresh) {
+            file.seek(0);
+            fresh = file.readInt() != MAGIC || file.readInt() != VERSION;
+        }
+        if (fresh) {
+            file.setLength(0);
+            file.writeInt(0);
+            file.writeInt(0);
+            byte[] empty = new byte[CAPACITY * SLOT_SIZE];
+            file.write(empty);
+            migrateLegacyBackups(context, file);
+            file.seek(0);
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+        }
+        return file;
+    }
+
+    private static void writeSlot(RandomAccessFile file, int date, Map<String, String> times) throws IOException {
+        file.seek(slotOffset(date));
+        file.writeInt(date);
+        for (String prayer : PRAYERS) {
+            file.writeShort(toMinutes(times.get(prayer)));
+        }
+    }
+
+    /** Import des N derniers jours depuis prayer_times_settings puis purge de toutes les clés. */
+    private static void migrateLegacyBackups(Context context, RandomAccessFile file) throws IOException {
+        SharedPreferences prefs = context.getSharedPreferences(SettingsStore.PREFS_SETTINGS, Context.MODE_PRIVATE);
+        Map<String, ?> all = prefs.getAll();
+        List<String> legacyKeys = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            if (entry.getKey().startsWith(LEGACY_PREFIX)) {
+                legacyKeys.add(entry.getKey());
+            }
+        }
+        if (legacyKeys.isEmpty()) {
+            return;
+        }
+
+        // Tri chronologique : en cas de collision de slot, le jour le plus récent l'emporte
+        Collections.sort(legacyKeys);
+        int imported = 0;
+        for (String key : legacyKeys) {
+            int date = parseDateKey(key.substring(LEGACY_PREFIX.length()));
+            Object json = all.get(key);
+            if (date < 0 || !(json instanceof String)) {
+                continue;
+            }
+            try {
+                JSONObject obj = new JSONObject((String) json);
+                Map<String, String> times = new LinkedHashMap<>();
+                for (String prayer : PRAYERS) {
+                    times.put(prayer, obj.optString(prayer, null));
+                }
+                writeSlot(file, date, times);
+                imported++;
+            } catch (org.json.JSONException e) {
+                warnLog(TAG, "Backup illisible ignoré: {}", key);
+            }
+        }
+
+        SettingsStore.update(context, editor -> {
+            for (String key : legacyKeys) {
+                editor.putRaw(SettingsStore.PREFS_SETTINGS, key, null);
+            }
+        });
+        SettingsStore.flush(); // purge sur disque avant que le fichier soit marqué initialisé
+        infoLog(TAG, "🧹 Migration historique: {} clés purgées, {} jours importés", legacyKeys.size(), imported);
+    }
+
+    private static long slotOffset(int date) {
+        return HEADER_SIZE + (long) (dayNumber(date) % CAPACITY) * SLOT_SIZE;
+    }
+
+    // ============ CONVERSIONS ============
+
+    /** "yyyy-MM-dd" → yyyyMMdd, -1 si invalide. */
+    static int parseDateKey(String dateKey) {
+        if (dateKey == null || dateKey.length() != 10 || dateKey.charAt(4) != '-' || dateKey.charAt(7) != '-') {
+            return -1;
+        }
+        try {
+            int year = Integer.parseInt(dateKey.substring(0, 4));
+            int month = Integer.parseInt(dateKey.substring(5, 7));
+            int day = Integer.parseInt(dateKey.substring(8, 10));
+            if (month < 1 || month > 12 || day < 1 || day > 31) {
+                return -1;
+            }
+            return year * 10000 + month * 100 + day;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Nombre de jours depuis l'epoch (UTC) pour une date yyyyMMdd. */
+    static int dayNumber(int date) {
+        Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"), Locale.ROOT);
+        cal.clear();
+        cal.set(date / 10000, (date / 100) % 100 - 1, date % 100);
+        return (int) (cal.getTimeInMillis() / MILLIS_PER_DAY);
+    }
+
+    /** "HH:MM" → minutes depuis minuit, -1 si absent ou invalide. */
+    static short toMinutes(String time) {
+        if (time == null) {
+            return -1;
+        }
+        String[] parts = time.trim().split(":");
+        if (parts.length < 2) {
+            return -1;
+        }
+        try {
+            int hours = Integer.parseInt(parts[0]);
+            int minutes = Integer.parseInt(parts[1]);
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+                return -1;
+            }
+            return (short) (hours * 60 + minutes);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
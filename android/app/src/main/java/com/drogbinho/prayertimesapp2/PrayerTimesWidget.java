@@ -1,6 +1,5 @@
 package com.drogbinho.prayertimesapp2;
 
-import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.appwidget.AppWidgetManager;
 import android.appwidget.AppWidgetProvider;
@@ -11,32 +10,35 @@ import android.content.SharedPreferences;
 import android.util.Log;
 import android.widget.RemoteViews;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import com.batoulapps.adhan.data.DateComponents;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
 
 public class PrayerTimesWidget extends AppWidgetProvider {
 
     private static final String TAG = "PrayerTimesWidget";
+
+    // Assets parsés une fois par langue (locales_xx.json / dhikr.xx.json)
+    private static final Map<String, Map<String, String>> TRANSLATIONS_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, List<LocaleJson.Dua>> DUAS_CACHE = new ConcurrentHashMap<>();
+
     private static final String ACTION_REFRESH_DUA = "com.drogbinho.prayertimesapp2.REFRESH_DUA";
     private static final String ACTION_REFRESH_PRAYER_TIMES = "com.drogbinho.prayertimesapp2.REFRESH_PRAYER_TIMES";
-    private static final String ACTION_MIDNIGHT_UPDATE = "com.drogbinho.prayertimesapp2.MIDNIGHT_UPDATE_WIDGET";
 
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
@@ -102,6 +104,7 @@ public class PrayerTimesWidget extends AppWidgetProvider {
                 widgetDebugLog(TAG, "✅ Widget mis à jour (changement détecté)");
             } else {
                 widgetDebugLog(TAG, "⏭️ Widget non mis à jour (pas de changement)");
+                PerfMetrics.increment(PerfMetrics.C_WIDGET_UPDATES_SKIPPED);
             }
         }
         // 🔧 CORRECTION BUG : Pas de mise à jour automatique à minuit
@@ -120,11 +123,13 @@ public class PrayerTimesWidget extends AppWidgetProvider {
     public void onDisabled(Context context) {
         // Called when the last widget is removed
         widgetDebugLog(TAG, "🗑️ Dernier widget supprimé");
-        // 🔧 Pas d'alarme à minuit : rien à annuler
+        // 🔧 Pas d'alarme à minuit ; le rafraîchissement périodique n'a plus lieu d'être
+        WakeupCoordinator.disable(context, WakeupCoordinator.TASK_WIDGET_REFRESH);
     }
 
     static void updateAppWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId) {
         widgetDebugLog(TAG, "🔄 Mise à jour du widget " + appWidgetId);
+        long startNanos = System.nanoTime();
 
         try {
             // Configuration ListView avec service scrollable
@@ -179,6 +184,9 @@ public class PrayerTimesWidget extends AppWidgetProvider {
 
         } catch (Exception e) {
             errorLog(TAG, "❌ Erreur mise à jour widget " + appWidgetId + ": " + e.getMessage(), e);
+        } finally {
+            PerfMetrics.increment(PerfMetrics.C_WIDGET_REFRESHES);
+            PerfMetrics.recordSinceNanos(PerfMetrics.H_WIDGET_REFRESH_MS, startNanos);
         }
     }
 
@@ -228,30 +236,13 @@ public class PrayerTimesWidget extends AppWidgetProvider {
      * Récupère la langue courante avec fallback
      */
     public static String getCurrentLanguage(Context context) {
-        widgetDebugLog(TAG, "🌍 DEBUG: Début récupération langue courante");
-
         try {
-            SharedPreferences prefs = context.getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
-
-            // Essayer plusieurs clés possibles
-            String[] possibleKeys = { "currentLanguage", "current_language", "language" };
-
-            for (String key : possibleKeys) {
-                String language = prefs.getString(key, null);
-                if (language != null && !language.isEmpty()) {
-                    widgetDebugLog(TAG, "✅ Langue trouvée avec clé '" + key + "': " + language);
-                    return language;
-                }
-                widgetDebugLog(TAG, "❌ Pas de langue pour clé: " + key);
+            // current_language, déjà en mémoire dans le snapshot SettingsStore (aucune lecture
+            // de prefs par traduction)
+            String language = SettingsStore.get(context).language;
+            if (language != null && !language.isEmpty()) {
+                return language;
             }
-
-            // Debug: afficher toutes les SharedPreferences
-            widgetDebugLog(TAG, "🔍 TOUTES les SharedPreferences:");
-            Map<String, ?> allPrefs = prefs.getAll();
-            for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-                widgetDebugLog(TAG, "  - " + entry.getKey() + " = " + entry.getValue());
-            }
-
         } catch (Exception e) {
             errorLog(TAG, "❌ Erreur récupération langue: " + e.getMessage(), e);
         }
@@ -260,6 +251,35 @@ public class PrayerTimesWidget extends AppWidgetProvider {
         return "en"; // English comme langue par défaut
     }
 
+    /**
+     * Traductions d'une langue, parsées une seule fois (les assets ne changent pas à
+     * l'exécution ; le widget en redemande plusieurs par mise à jour).
+     */
+    private static Map<String, String> loadTranslations(Context context, String language)
+            throws IOException, JSONException {
+        Map<String, String> translations = TRANSLATIONS_CACHE.get(language);
+        if (translations == null) {
+            try (InputStream in = context.getAssets().open("locales_" + language + ".json")) {
+                translations = LocaleJson.parseStrings(LocaleJson.readUtf8(in));
+            }
+            TRANSLATIONS_CACHE.put(language, translations);
+        }
+        return translations;
+    }
+
+    /** Duas d'une langue (dhikr.xx.json), parsées une seule fois. */
+    private static List<LocaleJson.Dua> loadDuas(Context context, String language)
+            throws IOException, JSONException {
+        List<LocaleJson.Dua> duas = DUAS_CACHE.get(language);
+        if (duas == null) {
+            try (InputStream in = context.getAssets().open("dhikr." + language + ".json")) {
+                duas = LocaleJson.parseDuas(LocaleJson.readUtf8(in));
+            }
+            DUAS_CACHE.put(language, duas);
+        }
+        return duas;
+    }
+
     /**
      * Récupère une traduction
      */
@@ -268,26 +288,13 @@ public class PrayerTimesWidget extends AppWidgetProvider {
         widgetDebugLog(TAG, "🌍 Tentative lecture locales_" + language + ".json pour clé: " + key);
 
         try {
-            String fileName = "locales_" + language + ".json";
-
-            InputStream inputStream = context.getAssets().open(fileName);
-            InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-
-            StringBuilder jsonBuilder = new StringBuilder();
-            char[] buffer = new char[1024];
-            int length;
-            while ((length = reader.read(buffer)) != -1) {
-                jsonBuilder.append(buffer, 0, length);
-            }
+            String translation = loadTranslations(context, language).get(key);
 
-            JSONObject translations = new JSONObject(jsonBuilder.toString());
-
-            if (translations.has(key)) {
-                String translation = translations.getString(key);
+            if (translation != null) {
                 widgetDebugLog(TAG, "✅ Traduction trouvée: " + key + " = " + translation);
                 return translation;
             } else {
-                widgetDebugLog(TAG, "⚠️ Clé '" + key + "' non trouvée dans " + fileName);
+                widgetDebugLog(TAG, "⚠️ Clé '" + key + "' non trouvée dans locales_" + language + ".json");
                 return key; // Fallback vers la clé
             }
 
@@ -308,33 +315,20 @@ public class PrayerTimesWidget extends AppWidgetProvider {
      * Le widget ne calcule plus les horaires, il les lit directement !
      */
     public static Map<String, String> getAllPrayerTimes(Context context) {
-        SharedPreferences prefs = context.getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
         Map<String, String> prayerTimes = new HashMap<>();
 
         try {
-            // Récupérer les horaires sauvegardés par AdhanService
-            String todayPrayerTimesJson = prefs.getString("today_prayer_times", null);
-            String savedDate = prefs.getString("widget_last_date", "");
-            
+            // Récupérer les horaires sauvegardés par AdhanService (déjà parsés dans le snapshot)
+            SettingsStore.Snapshot settings = SettingsStore.get(context);
+
             widgetDebugLog(TAG, "📱 [WIDGET] Lecture horaires sauvegardés par AdhanService");
-            widgetDebugLog(TAG, "📅 [WIDGET] Date sauvegardée: " + savedDate);
-            
-            if (todayPrayerTimesJson != null) {
-                try {
-                    JSONObject json = new JSONObject(todayPrayerTimesJson);
-                    Iterator<String> keys = json.keys();
-                    while (keys.hasNext()) {
-                        String key = keys.next();
-                        prayerTimes.put(key, json.getString(key));
-                    }
-                    widgetDebugLog(TAG, "✅ [WIDGET] Horaires chargés: " + todayPrayerTimesJson);
-                    for (Map.Entry<String, String> entry : prayerTimes.entrySet()) {
-                        widgetDebugLog(TAG, "🕐 [WIDGET] " + entry.getKey() + ": " + entry.getValue());
-                    }
-                    return prayerTimes;
-                } catch (Exception e) {
-                    errorLog(TAG, "❌ [WIDGET] Erreur parsing JSON: " + e.getMessage(), e);
+
+            if (!settings.todayPrayerTimes.isEmpty()) {
+                prayerTimes.putAll(settings.todayPrayerTimes);
+                if (isDebugEnabled(TAG)) {
+                    widgetDebugLog(TAG, "✅ [WIDGET] Horaires chargés: " + prayerTimes);
                 }
+                return prayerTimes;
             } else {
                 widgetDebugLog(TAG, "⚠️ [WIDGET] Aucun horaire sauvegardé trouvé");
                 widgetDebugLog(TAG, "💡 [WIDGET] Les horaires seront sauvegardés au prochain adhan");
@@ -357,23 +351,19 @@ public class PrayerTimesWidget extends AppWidgetProvider {
     private static Map<String, String> tryGetPrayerTimesFromMultipleSources(Context context, SharedPreferences prefs) {
         Map<String, String> prayerTimes = new HashMap<>();
 
-        // SOURCE 1: today_prayer_times (source principale)
+        // SOURCE 1: today_prayer_times (source principale, snapshot SettingsStore)
         try {
-            String todayPrayerTimesJson = prefs.getString("today_prayer_times", null);
+            Map<String, String> savedTimes = SettingsStore.get(context).todayPrayerTimes;
             widgetDebugLog(TAG,
-                    "🔍 Source 1 - today_prayer_times: " + (todayPrayerTimesJson != null ? "présentes" : "absentes"));
-
-            if (todayPrayerTimesJson != null && !todayPrayerTimesJson.trim().isEmpty()) {
-                JSONObject prayerTimesObj = new JSONObject(todayPrayerTimesJson);
+                    "🔍 Source 1 - today_prayer_times: " + (!savedTimes.isEmpty() ? "présentes" : "absentes"));
 
+            if (!savedTimes.isEmpty()) {
                 // Vérifier chaque prière
                 String[] prayers = { "Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha" };
                 for (String prayer : prayers) {
-                    if (prayerTimesObj.has(prayer)) {
-                        String timeStr = prayerTimesObj.getString(prayer);
-                        if (timeStr != null && !timeStr.trim().isEmpty() && isValidTimeFormat(timeStr)) {
-                            prayerTimes.put(prayer, timeStr);
-                        }
+                    String timeStr = savedTimes.get(prayer);
+                    if (timeStr != null && !timeStr.trim().isEmpty() && isValidTimeFormat(timeStr)) {
+                        prayerTimes.put(prayer, timeStr);
                     }
                 }
 
@@ -464,89 +454,26 @@ public class PrayerTimesWidget extends AppWidgetProvider {
             errorLog(TAG, "⚠️ Erreur source 3: " + e.getMessage(), e);
         }
 
-        // SOURCE 4: �� NOUVEAU - Horaires individuels de fallback (backup ultime)
+        // SOURCE 4: Historique borné (backup du jour dans prayer_times_history.bin)
         try {
-            widgetDebugLog(TAG, "🔍 Source 4 - horaires individuels de fallback");
-
-            String[] prayers = { "Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha" };
-            Map<String, String> individualTimes = new HashMap<>();
+            widgetDebugLog(TAG, "🔍 Source 4 - historique daté");
 
-            for (String prayer : prayers) {
-                String timeKey = "prayer_" + prayer.toLowerCase() + "_time";
-                if (prefs.contains(timeKey)) {
-                    String timeStr = prefs.getString(timeKey, null);
-                    if (timeStr != null && !timeStr.trim().isEmpty() && isValidTimeFormat(timeStr)) {
-                        individualTimes.put(prayer, timeStr);
-                        widgetDebugLog(TAG, "📋 " + prayer + " trouvé individuellement: " + timeStr);
-                    }
-                }
-            }
+            String currentDateKey = PrayerTimesHistory.todayKey();
+            Map<String, String> backupTimes = PrayerTimesHistory.get(context, currentDateKey);
 
-            if (individualTimes.size() >= 5) { // Au moins 5 prières (sans Sunrise)
+            if (backupTimes != null && backupTimes.size() >= 5) {
                 widgetDebugLog(TAG,
-                        "✅ Source 4 réussie - " + individualTimes.size() + " horaires individuels récupérés");
+                        "✅ Source 4 réussie - " + backupTimes.size() + " horaires de l'historique récupérés");
 
-                // Reconstituer et sauvegarder dans la source principale
-                try {
-                    JSONObject jsonToSave = new JSONObject();
-                    for (Map.Entry<String, String> entry : individualTimes.entrySet()) {
-                        jsonToSave.put(entry.getKey(), entry.getValue());
-                    }
-                    prefs.edit().putString("today_prayer_times", jsonToSave.toString()).apply();
-                    widgetDebugLog(TAG, "💾 Horaires individuels reconstitués et sauvegardés");
-                } catch (Exception e) {
-                    errorLog(TAG, "⚠️ Erreur reconstitution source 4: " + e.getMessage(), e);
-                }
+                // Restaurer dans la source principale
+                prefs.edit().putString("today_prayer_times", new JSONObject(backupTimes).toString()).apply();
 
-                return individualTimes;
+                return backupTimes;
             }
         } catch (Exception e) {
             errorLog(TAG, "⚠️ Erreur source 4: " + e.getMessage(), e);
         }
 
-        // SOURCE 5: 🆕 NOUVEAU - Backup avec date (tentative de récupération par date)
-        try {
-            widgetDebugLog(TAG, "🔍 Source 5 - backup avec date");
-
-            Calendar now = Calendar.getInstance();
-            String currentDateKey = String.format(Locale.getDefault(), "%04d-%02d-%02d",
-                    now.get(Calendar.YEAR),
-                    now.get(Calendar.MONTH) + 1,
-                    now.get(Calendar.DAY_OF_MONTH));
-
-            String backupKey = "prayer_times_backup_" + currentDateKey;
-            String backupJson = prefs.getString(backupKey, null);
-
-            if (backupJson != null && !backupJson.trim().isEmpty()) {
-                widgetDebugLog(TAG, "📋 Backup trouvé pour " + currentDateKey);
-
-                JSONObject backupObj = new JSONObject(backupJson);
-                Map<String, String> backupTimes = new HashMap<>();
-
-                String[] prayers = { "Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha" };
-                for (String prayer : prayers) {
-                    if (backupObj.has(prayer)) {
-                        String timeStr = backupObj.getString(prayer);
-                        if (timeStr != null && !timeStr.trim().isEmpty() && isValidTimeFormat(timeStr)) {
-                            backupTimes.put(prayer, timeStr);
-                        }
-                    }
-                }
-
-                if (backupTimes.size() >= 5) {
-                    widgetDebugLog(TAG,
-                            "✅ Source 5 réussie - " + backupTimes.size() + " horaires de backup récupérés");
-
-                    // Restaurer dans la source principale
-                    prefs.edit().putString("today_prayer_times", backupJson).apply();
-
-                    return backupTimes;
-                }
-            }
-        } catch (Exception e) {
-            errorLog(TAG, "⚠️ Erreur source 5: " + e.getMessage(), e);
-        }
-
         errorLog(TAG, "❌ Aucune source n'a pu fournir d'horaires valides");
         return new HashMap<>(); // Aucune source n'a fonctionné
     }
@@ -586,9 +513,8 @@ public class PrayerTimesWidget extends AppWidgetProvider {
             widgetDebugLog(TAG,
                     "🔄 Calcul horaires pour " + dayLabel + " - coordonnées: " + latitude + ", " + longitude);
 
-            // Obtenir la méthode de calcul depuis prayer_times_settings
-            SharedPreferences prefs = context.getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
-            String calcMethod = prefs.getString("calc_method", "MuslimWorldLeague");
+            // Obtenir la méthode de calcul depuis prayer_times_settings (snapshot SettingsStore)
+            String calcMethod = SettingsStore.get(context).calcMethod;
 
             // Logs détaillés pour diagnostiquer le problème
             widgetDebugLog(TAG,
@@ -618,53 +544,11 @@ public class PrayerTimesWidget extends AppWidgetProvider {
             
             DateComponents targetComponents = DateComponents.from(targetDay.getTime());
 
-            com.batoulapps.adhan.CalculationParameters params;
-            switch (calcMethod) {
-                case "MuslimWorldLeague":
-                    params = com.batoulapps.adhan.CalculationMethod.MUSLIM_WORLD_LEAGUE.getParameters();
-                    break;
-                case "Egyptian":
-                    params = com.batoulapps.adhan.CalculationMethod.EGYPTIAN.getParameters();
-                    break;
-                case "Karachi":
-                    params = com.batoulapps.adhan.CalculationMethod.KARACHI.getParameters();
-                    break;
-                case "UmmAlQura":
-                    // 🕌 Umm Al-Qura modifié pour utiliser 15° pour Fajr
-                    params = com.batoulapps.adhan.CalculationMethod.UMM_AL_QURA.getParameters();
-                    params.fajrAngle = 15.0; // Modifié selon recommandation mosquée
-                    widgetDebugLog(TAG, "📊 Utilisation de la méthode UMM_AL_QURA (Fajr: 15°)");
-                    break;
-                case "NorthAmerica":
-                    params = com.batoulapps.adhan.CalculationMethod.NORTH_AMERICA.getParameters();
-                    break;
-                case "Kuwait":
-                    params = com.batoulapps.adhan.CalculationMethod.KUWAIT.getParameters();
-                    break;
-                case "Qatar":
-                    params = com.batoulapps.adhan.CalculationMethod.QATAR.getParameters();
-                    break;
-                case "Singapore":
-                    params = com.batoulapps.adhan.CalculationMethod.SINGAPORE.getParameters();
-                    break;
-                case "Tehran":
-                    // Utiliser MUSLIM_WORLD_LEAGUE comme fallback pour Tehran
-                    widgetDebugLog(TAG,
-                            "Méthode 'Tehran' sélectionnée, utilisation de MUSLIM_WORLD_LEAGUE comme fallback");
-                    params = com.batoulapps.adhan.CalculationMethod.MUSLIM_WORLD_LEAGUE.getParameters();
-                    break;
-                case "Turkey":
-                    // Utiliser MUSLIM_WORLD_LEAGUE comme fallback pour Turkey
-                    widgetDebugLog(TAG,
-                            "Méthode 'Turkey' sélectionnée, utilisation de MUSLIM_WORLD_LEAGUE comme fallback");
-                    params = com.batoulapps.adhan.CalculationMethod.MUSLIM_WORLD_LEAGUE.getParameters();
-                    break;
-                default:
-                    widgetDebugLog(TAG,
-                            "Méthode non reconnue: " + calcMethod + ", utilisation de MUSLIM_WORLD_LEAGUE par défaut");
-                    params = com.batoulapps.adhan.CalculationMethod.MUSLIM_WORLD_LEAGUE.getParameters();
-                    break;
+            if (PrayerCalculator.isFallbackMethod(calcMethod)) {
+                widgetDebugLog(TAG,
+                        "Méthode '" + calcMethod + "' sans équivalent, utilisation de MUSLIM_WORLD_LEAGUE");
             }
+            com.batoulapps.adhan.CalculationParameters params = PrayerCalculator.parametersFor(calcMethod);
 
             com.batoulapps.adhan.PrayerTimes times = new com.batoulapps.adhan.PrayerTimes(coordinates, targetComponents,
                     params);
@@ -710,46 +594,11 @@ public class PrayerTimesWidget extends AppWidgetProvider {
             }
 
             Calendar now = Calendar.getInstance();
-            int currentHour = now.get(Calendar.HOUR_OF_DAY);
-            int currentMinute = now.get(Calendar.MINUTE);
-            int currentTimeInMinutes = currentHour * 60 + currentMinute;
-
-            widgetDebugLog(TAG,
-                    "🔍 Heure actuelle: " + String.format("%02d:%02d", currentHour, currentMinute) + " ("
-                            + currentTimeInMinutes + " min)");
-
-            String[] prayerOrder = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
-
-            for (String prayer : prayerOrder) {
-                String timeStr = prayerTimes.get(prayer);
-                if (timeStr != null) {
-                    try {
-                        String[] parts = timeStr.split(":");
-                        if (parts.length == 2) {
-                            int prayerHour = Integer.parseInt(parts[0]);
-                            int prayerMinute = Integer.parseInt(parts[1]);
-                            int prayerTimeInMinutes = prayerHour * 60 + prayerMinute;
-
-                            widgetDebugLog(TAG,
-                                    "🕐 " + prayer + ": " + timeStr + " (" + prayerTimeInMinutes + " min)");
-
-                            if (prayerTimeInMinutes > currentTimeInMinutes) {
-                                widgetDebugLog(TAG, "✅ Prochaine prière: " + prayer + " dans "
-                                        + (prayerTimeInMinutes - currentTimeInMinutes) + " minutes");
-                                return prayer;
-                            }
-                        }
-                    } catch (NumberFormatException e) {
-                        errorLog(TAG, "⚠️ Format d'heure invalide pour " + prayer + ": " + timeStr,
-                                e);
-                    }
-                }
-            }
+            int currentTimeInMinutes = now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE);
 
-            // Si toutes les prières sont passées, la prochaine est Fajr demain
-            widgetDebugLog(TAG,
-                    "�� Toutes les prières d'aujourd'hui sont passées - prochaine: Fajr demain");
-            return "Fajr";
+            String next = PrayerCalculator.nextPrayerName(prayerTimes, currentTimeInMinutes);
+            widgetDebugLog(TAG, "✅ Prochaine prière: " + next + " (maintenant " + currentTimeInMinutes + " min)");
+            return next;
 
         } catch (Exception e) {
             errorLog(TAG, "❌ Erreur calcul prochaine prière: " + e.getMessage(), e);
@@ -767,28 +616,18 @@ public class PrayerTimesWidget extends AppWidgetProvider {
         
         try {
             String fileName = "dhikr." + language + ".json";
-            InputStream inputStream = context.getAssets().open(fileName);
-            InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-            
-            StringBuilder jsonBuilder = new StringBuilder();
-            char[] buffer = new char[1024];
-            int length;
-            while ((length = reader.read(buffer)) != -1) {
-                jsonBuilder.append(buffer, 0, length);
-            }
-            
-            JSONArray duaArray = new JSONArray(jsonBuilder.toString());
+            List<LocaleJson.Dua> duaArray = loadDuas(context, language);
             widgetDebugLog(TAG, "✅ Fichier " + fileName + " chargé avec succès");
-            widgetDebugLog(TAG, "📊 Nombre total de duas: " + duaArray.length());
+            widgetDebugLog(TAG, "📊 Nombre total de duas: " + duaArray.size());
             
             // Vérifier quelques duas au hasard pour valider l'accessibilité
-            int[] testIndexes = {0, duaArray.length() / 2, duaArray.length() - 1};
+            int[] testIndexes = {0, duaArray.size() / 2, duaArray.size() - 1};
             for (int testIndex : testIndexes) {
                 try {
-                    JSONObject dua = duaArray.getJSONObject(testIndex);
-                    String title = dua.getString("title");
-                    String arabic = dua.getString("arabic");
-                    String translation = dua.getString("translation");
+                    LocaleJson.Dua dua = duaArray.get(testIndex);
+                    String title = dua.title;
+                    String arabic = dua.arabic;
+                    String translation = dua.translation;
                     
                     widgetDebugLog(TAG, "✅ Dua " + testIndex + " accessible: " + title.substring(0, Math.min(30, title.length())) + "...");
                     widgetDebugLog(TAG, "   📝 Arabe: " + arabic.length() + " chars, Traduction: " + translation.length() + " chars");
@@ -809,7 +648,7 @@ public class PrayerTimesWidget extends AppWidgetProvider {
                 int hour = 12; // Heure fixe pour le test
                 
                 long combinedSeed = (long) dayOfYear * 31 + year * 7 + month * 13 + dayOfMonth * 17 + hour * 23;
-                int seed = (int) (Math.abs(combinedSeed) % duaArray.length());
+                int seed = (int) (Math.abs(combinedSeed) % duaArray.size());
                 
                 String testDateStr = String.format("%04d-%02d-%02d", year, month, dayOfMonth);
                 widgetDebugLog(TAG, "   📅 " + testDateStr + " → Index: " + seed);
@@ -848,38 +687,22 @@ public class PrayerTimesWidget extends AppWidgetProvider {
                 "🤲 Récupération dua pour langue: " + language + " (forceRandom: " + forceRandom + ")");
 
         try {
-            // Lire le fichier dhikr (nom du fichier garde dhikr pour compatibilité)
-            String fileName = "dhikr." + language + ".json";
+            // Lire le fichier dhikr (nom du fichier garde dhikr pour compatibilité), parsé une fois
+            List<LocaleJson.Dua> duaArray = loadDuas(context, language);
 
-            InputStream inputStream = context.getAssets().open(fileName);
-            InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-
-            StringBuilder jsonBuilder = new StringBuilder();
-            char[] buffer = new char[1024];
-            int length;
-            while ((length = reader.read(buffer)) != -1) {
-                jsonBuilder.append(buffer, 0, length);
-            }
-
-            String jsonContent = jsonBuilder.toString();
-            widgetDebugLog(TAG,
-                    "📚 Fichier dua lu: " + fileName + " (" + jsonContent.length() + " chars)");
-
-            JSONArray duaArray = new JSONArray(jsonContent);
-
-            if (duaArray.length() == 0) {
+            if (duaArray.isEmpty()) {
                 widgetDebugLog(TAG, "⚠️ Aucun dua trouvé dans le fichier");
                 return "";
             }
 
-            widgetDebugLog(TAG, "📊 Nombre total de duas disponibles: " + duaArray.length());
+            widgetDebugLog(TAG, "📊 Nombre total de duas disponibles: " + duaArray.size());
 
             int seed;
             if (forceRandom) {
                 // Vraiment aléatoire pour le bouton actualiser
-                seed = (int) (Math.random() * duaArray.length());
+                seed = (int) (Math.random() * duaArray.size());
                 widgetDebugLog(TAG,
-                        "🎲 Index dua ALÉATOIRE: " + seed + " (sur " + duaArray.length() + " disponibles)");
+                        "🎲 Index dua ALÉATOIRE: " + seed + " (sur " + duaArray.size() + " disponibles)");
             } else {
                 // 🆕 AMÉLIORÉ: Sélection quotidienne plus aléatoire et équitable
                 Calendar today = Calendar.getInstance();
@@ -897,10 +720,10 @@ public class PrayerTimesWidget extends AppWidgetProvider {
                 long combinedSeed = (long) dayOfYear * 31 + year * 7 + month * 13 + dayOfMonth * 17 + hour * 23;
                 
                 // Utilise un modulo pour rester dans les limites du tableau
-                seed = (int) (Math.abs(combinedSeed) % duaArray.length());
+                seed = (int) (Math.abs(combinedSeed) % duaArray.size());
                 
                 widgetDebugLog(TAG,
-                        "🎲 Index dua quotidien AMÉLIORÉ: " + seed + " (sur " + duaArray.length() + " disponibles)");
+                        "🎲 Index dua quotidien AMÉLIORÉ: " + seed + " (sur " + duaArray.size() + " disponibles)");
                 widgetDebugLog(TAG,
                         "📅 Facteurs: jour=" + dayOfYear + ", année=" + year + ", mois=" + month + 
                         ", jourMois=" + dayOfMonth + ", heure=" + hour + ", seed=" + combinedSeed);
@@ -913,7 +736,7 @@ public class PrayerTimesWidget extends AppWidgetProvider {
                 
                 if (lastDuaIndex == seed && lastDuaDate.equals(currentDate)) {
                     // Même dua que hier, forcer une variation
-                    seed = (seed + 1) % duaArray.length();
+                    seed = (seed + 1) % duaArray.size();
                     widgetDebugLog(TAG, "🔄 Même dua que hier détecté, variation forcée vers index: " + seed);
                 }
                 
@@ -925,18 +748,18 @@ public class PrayerTimesWidget extends AppWidgetProvider {
             }
 
             // Vérification de sécurité pour l'index
-            if (seed < 0 || seed >= duaArray.length()) {
+            if (seed < 0 || seed >= duaArray.size()) {
                 widgetDebugLog(TAG, "⚠️ Index invalide " + seed + ", correction vers 0");
                 seed = 0;
             }
 
-            JSONObject dua = duaArray.getJSONObject(seed);
-            String title = dua.getString("title");
+            LocaleJson.Dua dua = duaArray.get(seed);
+            String title = dua.title;
 
             widgetDebugLog(TAG, "🤲 Dua sélectionnée: " + title + " (index: " + seed + ")");
 
-            String arabic = dua.getString("arabic");
-            String translation = dua.getString("translation");
+            String arabic = dua.arabic;
+            String translation = dua.translation;
 
             // Formatter pour le widget
             StringBuilder result = new StringBuilder();
@@ -975,21 +798,9 @@ public class PrayerTimesWidget extends AppWidgetProvider {
 
     private static String getDailyDhikr_fallback(Context context, String fallbackLang) {
         try {
-            String fileName = "dhikr." + fallbackLang + ".json";
-
-            InputStream inputStream = context.getAssets().open(fileName);
-            InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+            List<LocaleJson.Dua> dhikrArray = loadDuas(context, fallbackLang);
 
-            StringBuilder jsonBuilder = new StringBuilder();
-            char[] buffer = new char[1024];
-            int length;
-            while ((length = reader.read(buffer)) != -1) {
-                jsonBuilder.append(buffer, 0, length);
-            }
-
-            JSONArray dhikrArray = new JSONArray(jsonBuilder.toString());
-
-            if (dhikrArray.length() > 0) {
+            if (!dhikrArray.isEmpty()) {
                 // 🆕 AMÉLIORÉ: Utilise la même logique de sélection que la fonction principale
                 Calendar today = Calendar.getInstance();
                 int dayOfYear = today.get(Calendar.DAY_OF_YEAR);
@@ -1000,13 +811,13 @@ public class PrayerTimesWidget extends AppWidgetProvider {
                 
                 // Même formule améliorée pour la cohérence
                 long combinedSeed = (long) dayOfYear * 31 + year * 7 + month * 13 + dayOfMonth * 17 + hour * 23;
-                int seed = (int) (Math.abs(combinedSeed) % dhikrArray.length());
+                int seed = (int) (Math.abs(combinedSeed) % dhikrArray.size());
                 
-                widgetDebugLog(TAG, "🔄 Fallback dua sélectionné avec index: " + seed + " (sur " + dhikrArray.length() + ")");
+                widgetDebugLog(TAG, "🔄 Fallback dua sélectionné avec index: " + seed + " (sur " + dhikrArray.size() + ")");
 
-                JSONObject dhikr = dhikrArray.getJSONObject(seed);
-                String arabic = dhikr.getString("arabic");
-                String translation = dhikr.getString("translation");
+                LocaleJson.Dua dhikr = dhikrArray.get(seed);
+                String arabic = dhikr.arabic;
+                String translation = dhikr.translation;
 
                 // 🔧 CORRECTION : Appliquer la même logique que la fonction principale
                 if (fallbackLang.equals("ar")) {
@@ -1139,15 +950,14 @@ public class PrayerTimesWidget extends AppWidgetProvider {
     private static boolean isAfterIshaTime(Context context, SharedPreferences prefs) {
         try {
             // Récupérer les horaires d'aujourd'hui depuis le cache
-            String todayPrayerTimesJson = prefs.getString("today_prayer_times", null);
-            if (todayPrayerTimesJson == null) {
+            Map<String, String> savedTimes = SettingsStore.get(context).todayPrayerTimes;
+            if (savedTimes.isEmpty()) {
                 widgetDebugLog(TAG, "🌙 [ISHA CHECK] Pas d'horaires en cache, pas après Isha");
                 return false;
             }
 
-            // Parser le JSON pour extraire l'heure d'Isha
-            org.json.JSONObject json = new org.json.JSONObject(todayPrayerTimesJson);
-            String ishaTimeStr = json.optString("Isha", null);
+            // Heure d'Isha déjà extraite dans le snapshot
+            String ishaTimeStr = savedTimes.get("Isha");
             if (ishaTimeStr == null) {
                 widgetDebugLog(TAG, "🌙 [ISHA CHECK] Pas d'heure d'Isha dans le cache");
                 return false;
@@ -1186,72 +996,4 @@ public class PrayerTimesWidget extends AppWidgetProvider {
             return false;
         }
     }
-
-    /**
-     * 🌙 Planifier une alarme pour mettre à jour le widget à minuit chaque jour
-     */
-    private static void scheduleMidnightUpdate(Context context) {
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        if (alarmManager == null) {
-            errorLog(TAG, "❌ AlarmManager non disponible");
-            return;
-        }
-
-        // Créer l'intent pour l'alarme
-        Intent intent = new Intent(context, PrayerTimesWidget.class);
-        intent.setAction(ACTION_MIDNIGHT_UPDATE);
-        
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-            context,
-            0,
-            intent,
-            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-
-        // Calculer l'heure de la prochaine minuit
-        Calendar midnight = Calendar.getInstance();
-        midnight.set(Calendar.HOUR_OF_DAY, 0);
-        midnight.set(Calendar.MINUTE, 0);
-        midnight.set(Calendar.SECOND, 0);
-        midnight.set(Calendar.MILLISECOND, 0);
-        
-        // Si on est déjà passé minuit aujourd'hui, planifier pour demain
-        if (midnight.getTimeInMillis() <= System.currentTimeMillis()) {
-            midnight.add(Calendar.DAY_OF_MONTH, 1);
-        }
-
-        // Planifier l'alarme quotidienne
-        alarmManager.setRepeating(
-            AlarmManager.RTC_WAKEUP,
-            midnight.getTimeInMillis(),
-            AlarmManager.INTERVAL_DAY,
-            pendingIntent
-        );
-
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss", Locale.getDefault());
-        widgetDebugLog(TAG, "⏰ Alarme quotidienne planifiée pour: " + sdf.format(midnight.getTime()));
-    }
-
-    /**
-     * 🗑️ Annuler l'alarme quotidienne de mise à jour du widget
-     */
-    private static void cancelMidnightUpdate(Context context) {
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        if (alarmManager == null) {
-            return;
-        }
-
-        Intent intent = new Intent(context, PrayerTimesWidget.class);
-        intent.setAction(ACTION_MIDNIGHT_UPDATE);
-        
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-            context,
-            0,
-            intent,
-            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-
-        alarmManager.cancel(pendingIntent);
-        widgetDebugLog(TAG, "🗑️ Alarme quotidienne annulée");
-    }
 }
@@ -13,8 +13,6 @@ import android.media.AudioAttributes;
 import android.media.AudioFocusRequest;
 import android.media.AudioManager;
 import android.media.MediaMetadataRetriever;
-import android.media.MediaPlayer;
-import android.net.Uri;
 import android.os.Binder;
 import android.os.Build;
 import android.os.Handler;
@@ -38,11 +36,12 @@ import androidx.media.app.NotificationCompat.MediaStyle;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
 import android.content.SharedPreferences;
 import android.appwidget.AppWidgetManager;
 import android.content.ComponentName;
 
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
 public class QuranAudioService extends Service {
     private static final String TAG = "QuranAudioService";
 
@@ -58,12 +57,12 @@ public class QuranAudioService extends Service {
 
     // Méthodes statiques pour gérer le callback
     public static void setAudioProgressCallback(AudioProgressCallback callback) {
-        Log.d(TAG, "🔗 Enregistrement du callback React Native");
+        debugLog(TAG, "🔗 Enregistrement du callback React Native");
         audioProgressCallback = callback;
     }
 
     public static void removeAudioProgressCallback() {
-        Log.d(TAG, "🔗 Suppression du callback React Native");
+        debugLog(TAG, "🔗 Suppression du callback React Native");
         audioProgressCallback = null;
     }
 
@@ -95,6 +94,8 @@ public class QuranAudioService extends Service {
     private String currentAudioPath = "";
     private String currentSurah = "";
     private String currentReciter = "";
+    // 💾 Fichier local en lecture, protégé de l'éviction (StorageBudget)
+    private File inUseAudioFile;
     private boolean isPlaying = false;
     private int currentPosition = 0;
     private int totalDuration = 0;
@@ -103,13 +104,22 @@ public class QuranAudioService extends Service {
     private boolean isMediaReady = false;
     /** Lecture demandée avant la fin de prepareAsync() */
     private boolean pendingAutoPlayAfterPrepare = false;
+    /** System.nanoTime() du dernier chargement, 0 une fois la lecture démarrée (PerfMetrics) */
+    private long loadStartedNanos = 0;
+    /** System.nanoTime() du seek en cours (PerfMetrics) */
+    private long seekStartedNanos = 0;
     private int pendingSeekMs = -1;
+
+    // 📖 Lecture par segment d'ayahs (plage, répétition)
+    private final AyahSegment ayahSegment = new AyahSegment();
+    // Index des temps d'ayah du récitateur courant (mappé à la première utilisation)
+    private AyahTimings ayahTimings;
+    private String ayahTimingsReciter;
+    private long ayahTimingsStamp;
     private boolean isPremiumUser = false;
     // 🎯 NOUVEAU : Variable d'instance pour synchronisation widget
     private boolean wasPlayingBeforeNavigation = false;
 
-    // 🎯 SUPPRIMÉ: MediaSession3 et ExoPlayer (causaient double audio)
-
     // 🎯 MediaSessionCompat OBLIGATOIRE pour contrôles écran de verrouillage
     private MediaSessionCompat mediaSessionCompat;
 
@@ -143,25 +153,26 @@ public class QuranAudioService extends Service {
     private static final String KEY_LOOP_ENABLED = "loopEnabled";
 
     // Composants audio
-    private MediaPlayer mediaPlayer;
+    private PlaybackEngine playbackEngine;
+    /** Suite du chargement en cours, exécutée quand le moteur est prêt */
+    private Runnable onEnginePrepared;
+    /** Sourate en file derrière la courante (enchaînement sans coupure), -1 sinon */
+    private int queuedNextSurah = -1;
+    private String queuedNextSource;
     private AudioManager audioManager;
     private NotificationManager notificationManager;
     private AudioFocusRequest audioFocusRequest;
     private android.os.Handler progressHandler;
     private Runnable progressRunnable;
-    private Runnable seekResumeTimeoutRunnable;
-    private Runnable durationPollRunnable;
-    private int durationPollAttempts = 0;
-    private int seekGeneration = 0;
 
     // BroadcastReceiver pour les actions du widget
     private final BroadcastReceiver widgetActionReceiver = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
             String action = intent.getAction();
-            Log.d(TAG, "🎵 BroadcastReceiver reçoit action: " + action);
-            Log.d(TAG, "🎵 BroadcastReceiver - Intent complet: " + (intent != null ? intent.toString() : "NULL"));
-            Log.d(TAG, "🎵 BroadcastReceiver - Package: " + (intent != null ? intent.getPackage() : "NULL"));
+            debugLog(TAG, "🎵 BroadcastReceiver reçoit action: " + action);
+            debugLog(TAG, "🎵 BroadcastReceiver - Intent complet: " + (intent != null ? intent.toString() : "NULL"));
+            debugLog(TAG, "🎵 BroadcastReceiver - Package: " + (intent != null ? intent.getPackage() : "NULL"));
 
             if (action == null) {
                 Log.w(TAG, "⚠️ Action null reçue dans BroadcastReceiver");
@@ -170,33 +181,33 @@ public class QuranAudioService extends Service {
 
             switch (action) {
                 case ACTION_PLAY_PAUSE:
-                    Log.d(TAG, "🎵 BroadcastReceiver traite ACTION_PLAY_PAUSE");
+                    debugLog(TAG, "🎵 BroadcastReceiver traite ACTION_PLAY_PAUSE");
                     handlePlayPause();
                     break;
                 case ACTION_PREVIOUS:
-                    Log.d(TAG, "⏮️ BroadcastReceiver traite ACTION_PREVIOUS");
+                    debugLog(TAG, "⏮️ BroadcastReceiver traite ACTION_PREVIOUS");
                     handlePrevious();
                     break;
                 case ACTION_NEXT:
-                    Log.d(TAG, "⏭️ BroadcastReceiver traite ACTION_NEXT - DÉBUT");
-                    Log.d(TAG, "🔍 DIAGNOSTIC BroadcastReceiver - ACTION_NEXT reçue");
-                    Log.d(TAG, "🔍 - Intent reçu: " + (intent != null ? "OUI" : "NON"));
-                    Log.d(TAG, "🔍 - Package: " + (intent != null ? intent.getPackage() : "NULL"));
-                    Log.d(TAG, "🔍 - Action: " + (intent != null ? intent.getAction() : "NULL"));
+                    debugLog(TAG, "⏭️ BroadcastReceiver traite ACTION_NEXT - DÉBUT");
+                    debugLog(TAG, "🔍 DIAGNOSTIC BroadcastReceiver - ACTION_NEXT reçue");
+                    debugLog(TAG, "🔍 - Intent reçu: " + (intent != null ? "OUI" : "NON"));
+                    debugLog(TAG, "🔍 - Package: " + (intent != null ? intent.getPackage() : "NULL"));
+                    debugLog(TAG, "🔍 - Action: " + (intent != null ? intent.getAction() : "NULL"));
                     handleNext();
-                    Log.d(TAG, "⏭️ BroadcastReceiver traite ACTION_NEXT - FIN");
+                    debugLog(TAG, "⏭️ BroadcastReceiver traite ACTION_NEXT - FIN");
                     break;
                 case ACTION_SEEK:
                     int seekPosition = intent.getIntExtra("position", 0);
-                    Log.d(TAG, "🎯 BroadcastReceiver traite ACTION_SEEK: " + seekPosition);
+                    debugLog(TAG, "🎯 BroadcastReceiver traite ACTION_SEEK: " + seekPosition);
                     handleSeek(seekPosition);
                     break;
                 case ACTION_STOP:
-                    Log.d(TAG, "⏹️ BroadcastReceiver traite ACTION_STOP");
+                    debugLog(TAG, "⏹️ BroadcastReceiver traite ACTION_STOP");
                     handleStop();
                     break;
                 case ACTION_LOAD_AUDIO:
-                    Log.d(TAG, "🎵 BroadcastReceiver traite ACTION_LOAD_AUDIO");
+                    debugLog(TAG, "🎵 BroadcastReceiver traite ACTION_LOAD_AUDIO");
                     String audioPath = intent.getStringExtra("audioPath");
                     String surah = intent.getStringExtra("surah");
                     String reciter = intent.getStringExtra("reciter");
@@ -205,11 +216,11 @@ public class QuranAudioService extends Service {
                     }
                     break;
                 case ACTION_LOAD_SURAH_BY_NUMBER:
-                    Log.d(TAG, "🎵 BroadcastReceiver traite ACTION_LOAD_SURAH_BY_NUMBER");
+                    debugLog(TAG, "🎵 BroadcastReceiver traite ACTION_LOAD_SURAH_BY_NUMBER");
                     int surahNumber = intent.getIntExtra("surahNumber", -1);
                     boolean autoPlay = intent.getBooleanExtra("autoPlay", false);
                     if (surahNumber >= 1 && surahNumber <= 114) {
-                        Log.d(TAG, "🎵 Chargement sourate " + surahNumber + " (autoPlay: " + autoPlay + ")");
+                        debugLog(TAG, "🎵 Chargement sourate " + surahNumber + " (autoPlay: " + autoPlay + ")");
                         // 🎯 NOUVEAU : Sauvegarder wasPlayingBeforeNavigation depuis autoPlay
                         wasPlayingBeforeNavigation = autoPlay;
                         loadSurahByNumber(surahNumber);
@@ -218,19 +229,19 @@ public class QuranAudioService extends Service {
                     }
                     break;
                 case ACTION_TOGGLE_AUTO_ADVANCE:
-                    Log.d(TAG, "🎵 BroadcastReceiver traite ACTION_TOGGLE_AUTO_ADVANCE");
+                    debugLog(TAG, "🎵 BroadcastReceiver traite ACTION_TOGGLE_AUTO_ADVANCE");
                     handleToggleAutoAdvance();
                     break;
                 case ACTION_TOGGLE_LOOP:
-                    Log.d(TAG, "🎵 BroadcastReceiver traite ACTION_TOGGLE_LOOP");
+                    debugLog(TAG, "🎵 BroadcastReceiver traite ACTION_TOGGLE_LOOP");
                     handleToggleLoop();
                     break;
                 case ACTION_NEXT_RECITER:
-                    Log.d(TAG, "🎵 BroadcastReceiver traite ACTION_NEXT_RECITER");
+                    debugLog(TAG, "🎵 BroadcastReceiver traite ACTION_NEXT_RECITER");
                     switchToNextReciter();
                     break;
                 case ACTION_PREVIOUS_RECITER:
-                    Log.d(TAG, "🎵 BroadcastReceiver traite ACTION_PREVIOUS_RECITER");
+                    debugLog(TAG, "🎵 BroadcastReceiver traite ACTION_PREVIOUS_RECITER");
                     switchToPreviousReciter();
                     break;
                 default:
@@ -257,8 +268,8 @@ public class QuranAudioService extends Service {
     @Override
     public void onCreate() {
         super.onCreate();
-        Log.d(TAG, "🔥 VERSION_DEBUG_LOCK_SCREEN_2025 - QuranAudioService onCreate()");
-        Log.d(TAG, "🎵 Service audio Quran créé");
+        debugLog(TAG, "🔥 VERSION_DEBUG_LOCK_SCREEN_2025 - QuranAudioService onCreate()");
+        debugLog(TAG, "🎵 Service audio Quran créé");
 
         // Initialiser les composants
         initializeComponents();
@@ -273,14 +284,14 @@ public class QuranAudioService extends Service {
         // startForegroundService()
         // Android exige que startForeground() soit appelé dans les 5 secondes
         startForeground(NOTIFICATION_ID, createNotification());
-        Log.d(TAG, "🎵 Service démarré en mode foreground (requis par Android)");
+        debugLog(TAG, "🎵 Service démarré en mode foreground (requis par Android)");
 
         // Enregistrer le BroadcastReceiver pour les actions du widget
         // NOUVEAU : Enregistrer immédiatement dans onCreate() pour s'assurer qu'il est
         // disponible
         try {
             registerWidgetActionReceiver();
-            Log.d(TAG, "📡 BroadcastReceiver enregistré dans onCreate()");
+            debugLog(TAG, "📡 BroadcastReceiver enregistré dans onCreate()");
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur enregistrement BroadcastReceiver dans onCreate: " + e.getMessage());
         }
@@ -295,10 +306,10 @@ public class QuranAudioService extends Service {
             // doublons
             try {
                 unregisterReceiver(widgetActionReceiver);
-                Log.d(TAG, "📡 BroadcastReceiver désenregistré avant réenregistrement");
+                debugLog(TAG, "📡 BroadcastReceiver désenregistré avant réenregistrement");
             } catch (IllegalArgumentException e) {
                 // Le receiver n'était pas enregistré, c'est normal
-                Log.d(TAG, "📡 BroadcastReceiver n'était pas enregistré, enregistrement initial");
+                debugLog(TAG, "📡 BroadcastReceiver n'était pas enregistré, enregistrement initial");
             }
 
             IntentFilter filter = new IntentFilter();
@@ -321,7 +332,7 @@ public class QuranAudioService extends Service {
                 registerReceiver(widgetActionReceiver, filter);
             }
 
-            Log.d(TAG, "📡 BroadcastReceiver enregistré pour les actions du widget");
+            debugLog(TAG, "📡 BroadcastReceiver enregistré pour les actions du widget");
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur enregistrement BroadcastReceiver: " + e.getMessage());
         }
@@ -355,63 +366,63 @@ public class QuranAudioService extends Service {
         // Créer le canal de notification
         createNotificationChannel();
 
-        // Initialiser le MediaPlayer
-        initializeMediaPlayer();
+        // Initialiser le moteur de lecture
+        initializePlaybackEngine();
 
-        // 🎵 Initialiser MediaSession3 pour les contrôles d'écran de verrouillage
-        Log.d(TAG, "🔍 DEBUG - Démarrage initialisation MediaSession dans onCreate()");
+        // 🎵 Initialiser MediaSessionCompat pour les contrôles d'écran de verrouillage
+        debugLog(TAG, "🔍 DEBUG - Démarrage initialisation MediaSession dans onCreate()");
         initializeMediaSession();
-        Log.d(TAG, "🔍 DEBUG - Fin initialisation MediaSession dans onCreate()");
+        debugLog(TAG, "🔍 DEBUG - Fin initialisation MediaSession dans onCreate()");
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        Log.d(TAG, "🚨🚨🚨 NOUVELLE VERSION DEBUG 2025 - onStartCommand() 🚨🚨🚨");
-        Log.d(TAG, "🎵 Service audio Quran démarré - startId: " + startId);
-        Log.d(TAG, "🎵 Intent reçu: " + (intent != null ? "OUI" : "NON"));
-        Log.d(TAG, "🎵 Action: " + (intent != null && intent.getAction() != null ? intent.getAction() : "NULL"));
-        Log.d(TAG, "🎵 Flags: " + flags + ", startId: " + startId);
+        debugLog(TAG, "🚨🚨🚨 NOUVELLE VERSION DEBUG 2025 - onStartCommand() 🚨🚨🚨");
+        debugLog(TAG, "🎵 Service audio Quran démarré - startId: " + startId);
+        debugLog(TAG, "🎵 Intent reçu: " + (intent != null ? "OUI" : "NON"));
+        debugLog(TAG, "🎵 Action: " + (intent != null && intent.getAction() != null ? intent.getAction() : "NULL"));
+        debugLog(TAG, "🎵 Flags: " + flags + ", startId: " + startId);
 
         // Vérifier le statut premium
         checkPremiumStatus();
 
         // Le BroadcastReceiver est déjà enregistré dans onCreate()
-        Log.d(TAG, "📡 BroadcastReceiver déjà enregistré dans onCreate()");
+        debugLog(TAG, "📡 BroadcastReceiver déjà enregistré dans onCreate()");
 
         // Le service est déjà en foreground depuis onCreate()
         // Juste mettre à jour la notification si nécessaire
         updateNotification();
-        Log.d(TAG, "🎵 Notification mise à jour dans onStartCommand");
+        debugLog(TAG, "🎵 Notification mise à jour dans onStartCommand");
 
         // Traiter l'action si elle existe
         if (intent != null && intent.getAction() != null) {
             String action = intent.getAction();
-            Log.d(TAG, "🎵 Action reçue dans onStartCommand: " + action + " (startId: " + startId + ")");
+            debugLog(TAG, "🎵 Action reçue dans onStartCommand: " + action + " (startId: " + startId + ")");
 
             switch (action) {
                 case ACTION_PLAY_PAUSE:
-                    Log.d(TAG, "🎵 Traitement ACTION_PLAY_PAUSE - État actuel isPlaying: " + isPlaying);
+                    debugLog(TAG, "🎵 Traitement ACTION_PLAY_PAUSE - État actuel isPlaying: " + isPlaying);
                     handlePlayPause();
                     break;
                 case ACTION_PREVIOUS:
-                    Log.d(TAG, "🎵 Traitement ACTION_PREVIOUS");
+                    debugLog(TAG, "🎵 Traitement ACTION_PREVIOUS");
                     handlePrevious();
                     break;
                 case ACTION_NEXT:
-                    Log.d(TAG, "🎵 Traitement ACTION_NEXT");
+                    debugLog(TAG, "🎵 Traitement ACTION_NEXT");
                     handleNext();
                     break;
                 case ACTION_SEEK:
                     int seekPosition = intent.getIntExtra("position", 0);
-                    Log.d(TAG, "🎵 Traitement ACTION_SEEK: " + seekPosition);
+                    debugLog(TAG, "🎵 Traitement ACTION_SEEK: " + seekPosition);
                     handleSeek(seekPosition);
                     break;
                 case ACTION_STOP:
-                    Log.d(TAG, "🎵 Traitement ACTION_STOP");
+                    debugLog(TAG, "🎵 Traitement ACTION_STOP");
                     handleStop();
                     break;
                 case ACTION_LOAD_AUDIO:
-                    Log.d(TAG, "🎵 Traitement ACTION_LOAD_AUDIO");
+                    debugLog(TAG, "🎵 Traitement ACTION_LOAD_AUDIO");
                     String audioPath = intent.getStringExtra("audioPath");
                     String surah = intent.getStringExtra("surah");
                     String reciter = intent.getStringExtra("reciter");
@@ -420,11 +431,11 @@ public class QuranAudioService extends Service {
                     }
                     break;
                 case ACTION_LOAD_SURAH_BY_NUMBER:
-                    Log.d(TAG, "🎵 Traitement ACTION_LOAD_SURAH_BY_NUMBER");
+                    debugLog(TAG, "🎵 Traitement ACTION_LOAD_SURAH_BY_NUMBER");
                     int surahNumber = intent.getIntExtra("surahNumber", -1);
                     boolean autoPlay = intent.getBooleanExtra("autoPlay", false);
                     if (surahNumber >= 1 && surahNumber <= 114) {
-                        Log.d(TAG, "🎵 Chargement sourate " + surahNumber + " (autoPlay: " + autoPlay + ")");
+                        debugLog(TAG, "🎵 Chargement sourate " + surahNumber + " (autoPlay: " + autoPlay + ")");
                         // 🎯 NOUVEAU : Sauvegarder wasPlayingBeforeNavigation depuis autoPlay
                         this.wasPlayingBeforeNavigation = autoPlay;
                         loadSurahByNumber(surahNumber);
@@ -433,19 +444,19 @@ public class QuranAudioService extends Service {
                     }
                     break;
                 case ACTION_TOGGLE_AUTO_ADVANCE:
-                    Log.d(TAG, "�� Traitement ACTION_TOGGLE_AUTO_ADVANCE");
+                    debugLog(TAG, "�� Traitement ACTION_TOGGLE_AUTO_ADVANCE");
                     handleToggleAutoAdvance();
                     break;
                 case ACTION_TOGGLE_LOOP:
-                    Log.d(TAG, "�� Traitement ACTION_TOGGLE_LOOP");
+                    debugLog(TAG, "�� Traitement ACTION_TOGGLE_LOOP");
                     handleToggleLoop();
                     break;
                 case ACTION_NEXT_RECITER:
-                    Log.d(TAG, "�� Traitement ACTION_NEXT_RECITER");
+                    debugLog(TAG, "�� Traitement ACTION_NEXT_RECITER");
                     switchToNextReciter();
                     break;
                 case ACTION_PREVIOUS_RECITER:
-                    Log.d(TAG, "🎵 Traitement ACTION_PREVIOUS_RECITER");
+                    debugLog(TAG, "🎵 Traitement ACTION_PREVIOUS_RECITER");
                     switchToPreviousReciter();
                     break;
                 default:
@@ -461,7 +472,9 @@ public class QuranAudioService extends Service {
 
     @Override
     public void onDestroy() {
-        Log.d(TAG, "🎵 Service audio Quran détruit");
+        debugLog(TAG, "🎵 Service audio Quran détruit");
+
+        markLocalFileInUse(null);
 
         try {
             // Arrêter la lecture
@@ -470,7 +483,7 @@ public class QuranAudioService extends Service {
             // Désenregistrer le BroadcastReceiver
             if (widgetActionReceiver != null) {
                 unregisterReceiver(widgetActionReceiver);
-                Log.d(TAG, "📡 BroadcastReceiver désenregistré");
+                debugLog(TAG, "📡 BroadcastReceiver désenregistré");
             }
 
             // Arrêter le timer de progression
@@ -478,14 +491,12 @@ public class QuranAudioService extends Service {
                 progressHandler.removeCallbacks(progressRunnable);
             }
 
-            // Libérer le MediaPlayer
-            if (mediaPlayer != null) {
-                mediaPlayer.release();
-                mediaPlayer = null;
+            // Libérer le moteur de lecture
+            if (playbackEngine != null) {
+                playbackEngine.release();
+                playbackEngine = null;
             }
 
-            // 🎯 SUPPRIMÉ: Plus de MediaSession3/ExoPlayer à libérer
-
             // Abandonner le focus audio
             if (audioManager != null) {
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && audioFocusRequest != null) {
@@ -549,9 +560,9 @@ public class QuranAudioService extends Service {
 
             mediaSessionCompat.setPlaybackState(playbackState);
 
-            Log.d(TAG, "🎯 MediaSessionCompat métadonnées et état mis à jour !");
-            Log.d(TAG, "🎯 Titre: " + currentSurah + ", État: " + (isPlaying ? "PLAYING" : "PAUSED"));
-            Log.d(TAG, "🔍 DEBUG - Position: " + currentPosition + "ms, Durée: " + totalDuration + "ms");
+            debugLog(TAG, "🎯 MediaSessionCompat métadonnées et état mis à jour !");
+            debugLog(TAG, "🎯 Titre: {}, État: {}", currentSurah, isPlaying ? "PLAYING" : "PAUSED");
+            debugLog(TAG, "🔍 DEBUG - Position: {}ms, Durée: {}ms", currentPosition, totalDuration);
 
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur updateMediaSessionCompatMetadata: " + e.getMessage());
@@ -559,40 +570,31 @@ public class QuranAudioService extends Service {
     }
 
     /**
-     * Initialiser le MediaPlayer
+     * Initialiser le moteur de lecture (ExoPlayer : fichiers locaux, stream HTTP avec cache
+     * disque, enchaînement des sourates)
      */
-    private void initializeMediaPlayer() {
+    private void initializePlaybackEngine() {
         try {
-            // Libérer l'ancien MediaPlayer s'il existe
-            if (mediaPlayer != null) {
-                mediaPlayer.release();
+            if (playbackEngine != null) {
+                playbackEngine.release();
             }
 
-            mediaPlayer = new MediaPlayer();
-
-            // Configurer les attributs audio pour la lecture en arrière-plan
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                AudioAttributes audioAttributes = new AudioAttributes.Builder()
-                        .setUsage(AudioAttributes.USAGE_MEDIA)
-                        .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
-                        .build();
-                mediaPlayer.setAudioAttributes(audioAttributes);
-            }
+            playbackEngine = new ExoPlaybackEngine(this, ExoPlaybackEngine.cachingDataSourceFactory(this));
 
             // NOUVEAU : Définir les listeners par défaut
-            setDefaultMediaPlayerListeners();
+            setDefaultPlayerListeners();
 
-            Log.d(TAG, "✅ MediaPlayer initialisé avec succès");
+            debugLog(TAG, "✅ Moteur de lecture initialisé avec succès");
         } catch (Exception e) {
-            Log.e(TAG, "❌ Erreur initialisation MediaPlayer: " + e.getMessage());
+            Log.e(TAG, "❌ Erreur initialisation moteur de lecture: " + e.getMessage());
         }
     }
 
     /**
-     * 🎵 Initialiser MediaSession3 pour les contrôles d'écran de verrouillage
+     * 🎵 Initialiser MediaSessionCompat pour les contrôles d'écran de verrouillage
      */
     private void initializeMediaSession() {
-        Log.d(TAG, "🔥 VERSION_DEBUG - initializeMediaSession() appelée !");
+        debugLog(TAG, "🔥 VERSION_DEBUG - initializeMediaSession() appelée !");
         try {
             // 🎯 CRÉER MediaSessionCompat POUR ÉCRAN DE VERROUILLAGE
             mediaSessionCompat = new MediaSessionCompat(this, "QuranAudioService");
@@ -608,7 +610,7 @@ public class QuranAudioService extends Service {
             mediaSessionCompat.setCallback(new MediaSessionCompat.Callback() {
                 @Override
                 public void onPlay() {
-                    Log.d(TAG, "🎯 Écran verrouillage - PLAY pressé");
+                    debugLog(TAG, "🎯 Écran verrouillage - PLAY pressé");
                     if (!isPlaying) {
                         handlePlayPause();
                     }
@@ -616,7 +618,7 @@ public class QuranAudioService extends Service {
 
                 @Override
                 public void onPause() {
-                    Log.d(TAG, "🎯 Écran verrouillage - PAUSE pressé");
+                    debugLog(TAG, "🎯 Écran verrouillage - PAUSE pressé");
                     if (isPlaying) {
                         handlePlayPause();
                     }
@@ -624,97 +626,126 @@ public class QuranAudioService extends Service {
 
                 @Override
                 public void onSkipToNext() {
-                    Log.d(TAG, "🎯 Écran verrouillage - NEXT pressé");
+                    debugLog(TAG, "🎯 Écran verrouillage - NEXT pressé");
                     handleNext();
                     // 🎯 METTRE À JOUR immédiatement l'écran de verrouillage après navigation
                     new Handler(Looper.getMainLooper()).postDelayed(() -> {
                         updateMediaSessionCompatMetadata();
-                        Log.d(TAG, "🎯 Écran verrouillage - État mis à jour après NEXT");
+                        debugLog(TAG, "🎯 Écran verrouillage - État mis à jour après NEXT");
                     }, 500); // Délai pour laisser le temps au chargement
                 }
 
                 @Override
                 public void onSkipToPrevious() {
-                    Log.d(TAG, "🎯 Écran verrouillage - PREVIOUS pressé");
+                    debugLog(TAG, "🎯 Écran verrouillage - PREVIOUS pressé");
                     handlePrevious();
                     // 🎯 METTRE À JOUR immédiatement l'écran de verrouillage après navigation
                     new Handler(Looper.getMainLooper()).postDelayed(() -> {
                         updateMediaSessionCompatMetadata();
-                        Log.d(TAG, "🎯 Écran verrouillage - État mis à jour après PREVIOUS");
+                        debugLog(TAG, "🎯 Écran verrouillage - État mis à jour après PREVIOUS");
                     }, 500); // Délai pour laisser le temps au chargement
                 }
 
                 @Override
                 public void onSeekTo(long pos) {
-                    Log.d(TAG, "🎯 Écran verrouillage / notification - SEEK vers " + pos + "ms");
+                    debugLog(TAG, "🎯 Écran verrouillage / notification - SEEK vers " + pos + "ms");
                     handleSeek((int) pos);
                 }
 
             });
 
             mediaSessionCompat.setActive(true);
-            Log.d(TAG, "🎯 MediaSessionCompat créée et activée avec callbacks !");
-            Log.d(TAG, "🔍 DEBUG - Token de session: " + mediaSessionCompat.getSessionToken().toString());
+            debugLog(TAG, "🎯 MediaSessionCompat créée et activée avec callbacks !");
+            debugLog(TAG, "🔍 DEBUG - Token de session: " + mediaSessionCompat.getSessionToken().toString());
 
             // 🎯 METTRE À JOUR LES MÉTADONNÉES MediaSessionCompat
             updateMediaSessionCompatMetadata();
 
             // 🔍 DEBUG - Vérifier si la MediaSession est active
-            Log.d(TAG, "🔍 DEBUG - MediaSession active: " + mediaSessionCompat.isActive());
-
-            // 🎯 SUPPRIMÉ: ExoPlayer causait un double audio !
-            // MediaSessionCompat suffit pour l'écran de verrouillage
-            Log.d(TAG, "🎯 CENTRALISÉ: Utilisation de MediaSessionCompat UNIQUEMENT");
-
-            // 🎯 SUPPRIMÉ: Plus d'ExoPlayer listeners
+            debugLog(TAG, "🔍 DEBUG - MediaSession active: " + mediaSessionCompat.isActive());
 
-            Log.d(TAG, "🎯 CENTRALISÉ: MediaSessionCompat prêt pour contrôles écran de verrouillage");
+            // Seule session média du service : le moteur ExoPlayer (PlaybackEngine) n'en crée pas
+            debugLog(TAG, "🎯 CENTRALISÉ: MediaSessionCompat prêt pour contrôles écran de verrouillage");
 
         } catch (Exception e) {
-            Log.e(TAG, "❌ Erreur initialisation MediaSession3: " + e.getMessage(), e);
+            Log.e(TAG, "❌ Erreur initialisation MediaSessionCompat: " + e.getMessage(), e);
         }
     }
 
-    // 🎯 SUPPRIMÉ: updateMediaSessionMetadata() causait un double audio avec
-    // ExoPlayer
-    // MediaSessionCompat suffit pour l'écran de verrouillage
-
     /**
-     * Définir les listeners par défaut du MediaPlayer
+     * Définir les listeners par défaut du moteur de lecture
      */
-    private void setDefaultMediaPlayerListeners() {
-        mediaPlayer.setOnCompletionListener(mp -> {
-            Log.d(TAG, "🎵 Lecture terminée");
-            isPlaying = false;
-            currentPosition = 0;
+    private void setDefaultPlayerListeners() {
+        playbackEngine.setListener(new PlaybackEngine.Listener() {
+            @Override
+            public void onPrepared() {
+                debugLog(TAG, "🎵 Moteur de lecture prêt");
+                isMediaReady = true;
+                Runnable prepared = onEnginePrepared;
+                if (prepared != null) {
+                    prepared.run();
+                }
+                queueNextSurah();
+            }
 
-            // NOUVEAU : Envoyer un broadcast pour notifier React Native de la fin de la
-            // sourate
-            Intent completionIntent = new Intent("com.drogbinho.prayertimesapp2.REACT_NATIVE_EVENT");
-            completionIntent.putExtra("eventName", "QuranSurahCompleted");
-            completionIntent.putExtra("surah", currentSurah);
-            completionIntent.putExtra("reciter", currentReciter);
-            completionIntent.putExtra("autoAdvanceEnabled", autoAdvanceEnabled);
-            sendBroadcast(completionIntent);
-            Log.d(TAG, "📡 Broadcast QuranSurahCompleted envoyé à React Native");
-
-            // NOUVEAU : Auto-avancement vers la prochaine sourate (téléchargée OU
-            // streaming)
-            if (autoAdvanceEnabled) {
-                Log.d(TAG, "🔄 Auto-avancement activé, recherche de la prochaine sourate");
-                wasPlayingBeforeNavigation = true;
-                advanceToNextSurah();
-            } else {
-                broadcastAudioStateChanged();
+            @Override
+            public void onCompletion() {
+                debugLog(TAG, "🎵 Lecture terminée");
+                if (ayahSegment.isActive()) {
+                    // Dernière ayah de la plage = fin du fichier : le repère peut ne pas précéder la fin
+                    onAyahSegmentEnd();
+                    return;
+                }
+                isPlaying = false;
+                currentPosition = 0;
+
+                broadcastSurahCompleted();
+
+                // NOUVEAU : Auto-avancement vers la prochaine sourate (téléchargée OU
+                // streaming)
+                if (autoAdvanceEnabled) {
+                    debugLog(TAG, "🔄 Auto-avancement activé, recherche de la prochaine sourate");
+                    wasPlayingBeforeNavigation = true;
+                    advanceToNextSurah();
+                } else {
+                    broadcastAudioStateChanged();
+                }
+                updateNotification();
             }
-            updateNotification();
-        });
 
-        mediaPlayer.setOnErrorListener((mp, what, extra) -> {
-            Log.e(TAG, "❌ Erreur MediaPlayer: what=" + what + ", extra=" + extra);
+            @Override
+            public void onTrackChanged(int index) {
+                clearAyahSegment();
+                onQueuedSurahStarted();
+            }
+
+            @Override
+            public void onDurationChanged(long durationMs) {
+                updateDurationFromPlayer((int) durationMs);
+                QuranSeekDebug.log(QuranSeekDebug.DURATION_POLL_OK, durationMs, totalDuration);
+                broadcastAudioProgress();
+            }
 
-            // 🛠️ CORRECTION: Gestion améliorée des erreurs avec fallback intelligent
-            return handleMediaPlayerError(what, extra);
+            @Override
+            public void onSeekComplete(long positionMs) {
+                finishSeek((int) positionMs);
+            }
+
+            @Override
+            public void onSegmentEnd() {
+                onAyahSegmentEnd();
+            }
+
+            @Override
+            public void onRebuffer() {
+                PerfMetrics.increment(PerfMetrics.C_QURAN_REBUFFER);
+            }
+
+            @Override
+            public void onError(String message, boolean sourceError) {
+                Log.e(TAG, "❌ Erreur lecture: " + message);
+                handlePlaybackError(message, sourceError);
+            }
         });
 
         // Configurer la requête de focus audio pour Android 8+
@@ -728,25 +759,25 @@ public class QuranAudioService extends Service {
                     .setOnAudioFocusChangeListener(focusChange -> {
                         switch (focusChange) {
                             case AudioManager.AUDIOFOCUS_LOSS:
-                                Log.d(TAG, "🎵 Focus audio perdu - pause");
+                                debugLog(TAG, "🎵 Focus audio perdu - pause");
                                 // NOUVEAU : Mémoriser l'état avant la perte de focus
                                 wasPlayingBeforeFocusLoss = isPlaying;
                                 pauseAudio();
                                 break;
                             case AudioManager.AUDIOFOCUS_LOSS_TRANSIENT:
-                                Log.d(TAG, "🎵 Focus audio perdu temporairement - pause");
+                                debugLog(TAG, "🎵 Focus audio perdu temporairement - pause");
                                 // NOUVEAU : Mémoriser l'état avant la perte de focus
                                 wasPlayingBeforeFocusLoss = isPlaying;
                                 pauseAudio();
                                 break;
                             case AudioManager.AUDIOFOCUS_GAIN:
-                                Log.d(TAG, "🎵 Focus audio regagné - reprise conditionnelle");
+                                debugLog(TAG, "🎵 Focus audio regagné - reprise conditionnelle");
                                 // NOUVEAU : Ne relancer que si l'utilisateur était en train d'écouter
                                 if (wasPlayingBeforeFocusLoss) {
-                                    Log.d(TAG, "🎵 Relance automatique car l'utilisateur était en train d'écouter");
+                                    debugLog(TAG, "🎵 Relance automatique car l'utilisateur était en train d'écouter");
                                     playAudio();
                                 } else {
-                                    Log.d(TAG,
+                                    debugLog(TAG,
                                             "🎵 Pas de relance automatique car l'utilisateur n'était pas en train d'écouter");
                                 }
                                 break;
@@ -830,8 +861,8 @@ public class QuranAudioService extends Service {
             builder.setStyle(new MediaStyle()
                     .setMediaSession(mediaSessionCompat.getSessionToken())
                     .setShowActionsInCompactView(0, 1, 2));
-            Log.d(TAG, "🎯 MediaStyle ajouté avec token MediaSessionCompat !");
-            Log.d(TAG, "🔍 DEBUG - Notification avec MediaSession active - Token: "
+            debugLog(TAG, "🎯 MediaStyle ajouté avec token MediaSessionCompat !");
+            debugLog(TAG, "🔍 DEBUG - Notification avec MediaSession active - Token: "
                     + mediaSessionCompat.getSessionToken().toString());
         } else {
             Log.e(TAG, "❌ MediaSessionCompat null ou inactive - contrôles écran de verrouillage NON disponibles !");
@@ -849,10 +880,10 @@ public class QuranAudioService extends Service {
      */
     private void updateNotification() {
         if (notificationManager != null) {
-            Log.d(TAG, "🔍 DEBUG - Mise à jour de la notification");
+            debugLog(TAG, "🔍 DEBUG - Mise à jour de la notification");
             Notification notification = createNotification();
             notificationManager.notify(NOTIFICATION_ID, notification);
-            Log.d(TAG, "🔍 DEBUG - Notification mise à jour avec ID: " + NOTIFICATION_ID);
+            debugLog(TAG, "🔍 DEBUG - Notification mise à jour avec ID: " + NOTIFICATION_ID);
         } else {
             Log.e(TAG, "❌ NotificationManager null - impossible de mettre à jour la notification");
         }
@@ -863,9 +894,8 @@ public class QuranAudioService extends Service {
      */
     private void checkPremiumStatus() {
         try {
-            SharedPreferences prefs = getSharedPreferences("premium_prefs", MODE_PRIVATE);
-            isPremiumUser = prefs.getBoolean("is_premium_user", false);
-            Log.d(TAG, "👑 Statut premium vérifié: " + isPremiumUser);
+            isPremiumUser = SettingsStore.get(this).premiumUser;
+            debugLog(TAG, "👑 Statut premium vérifié: {}", isPremiumUser);
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur vérification statut premium: " + e.getMessage());
             isPremiumUser = false;
@@ -910,8 +940,8 @@ public class QuranAudioService extends Service {
             autoAdvanceEnabled = prefs.getBoolean(KEY_AUTO_ADVANCE, true);
             loopEnabled = prefs.getBoolean(KEY_LOOP_ENABLED, false);
 
-            Log.d(TAG, "🔄 État audio restauré: " + currentSurah + " - " + currentReciter);
-            Log.d(TAG, "🔄 Options restaurées - Auto-avancement: " + autoAdvanceEnabled + ", Boucle: " + loopEnabled);
+            debugLog(TAG, "🔄 État audio restauré: " + currentSurah + " - " + currentReciter);
+            debugLog(TAG, "🔄 Options restaurées - Auto-avancement: " + autoAdvanceEnabled + ", Boucle: " + loopEnabled);
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur restauration état audio: " + e.getMessage());
         }
@@ -929,13 +959,13 @@ public class QuranAudioService extends Service {
             // Vérifier l'état actuel du widget
             boolean widgetIsPlaying = QuranWidget.getWidgetPlayingState();
 
-            Log.d(TAG, "🎯 Analyse auto-start - serviceWasPlaying: " + serviceWasPlaying + ", widgetIsPlaying: "
+            debugLog(TAG, "🎯 Analyse auto-start - serviceWasPlaying: " + serviceWasPlaying + ", widgetIsPlaying: "
                     + widgetIsPlaying);
 
             // Si l'un des deux indique que l'audio était en cours, on continue
             boolean shouldStart = serviceWasPlaying || widgetIsPlaying;
 
-            Log.d(TAG, "🎯 Décision auto-start: " + shouldStart);
+            debugLog(TAG, "🎯 Décision auto-start: " + shouldStart);
             return shouldStart;
 
         } catch (Exception e) {
@@ -945,64 +975,44 @@ public class QuranAudioService extends Service {
     }
 
     /**
-     * 🛠️ NOUVEAU : Gestion intelligente des erreurs MediaPlayer avec fallback
+     * 🛠️ Erreur du moteur de lecture. ExoPlayer a déjà retenté les chargements réseau
+     * (avec délai) avant de remonter l'erreur : une erreur de source n'a droit qu'à un
+     * repli, les autres réinitialisent l'état.
      */
-    private boolean handleMediaPlayerError(int what, int extra) {
-        Log.e(TAG, "🛠️ Gestion erreur MediaPlayer - what: " + what + ", extra: " + extra);
-
-        // Gérer spécifiquement l'erreur de streaming progressif
-        if (what == -38) { // MEDIA_ERROR_NOT_VALID_FOR_PROGRESSIVE_PLAYBACK
-            Log.w(TAG, "⚠️ Erreur streaming progressif détectée");
-            return handleStreamingError();
-        }
-
-        // Gérer les erreurs de réseau ou de serveur
-        if (what == -1004 || what == -1007 || what == 1) { // MEDIA_ERROR_IO ou MEDIA_ERROR_MALFORMED
-            Log.w(TAG, "⚠️ Erreur réseau/format détectée");
-            return handleStreamingError();
+    private void handlePlaybackError(String message, boolean sourceError) {
+        if (sourceError && handleStreamingError()) {
+            return;
         }
 
-        // Gérer les erreurs génériques
-        Log.e(TAG, "❌ Erreur MediaPlayer non récupérable");
+        Log.e(TAG, "❌ Erreur de lecture non récupérable");
         resetPlayerState();
 
         // Envoyer événement d'erreur à React Native
-        broadcastError("MediaPlayer error: " + what + ", " + extra);
-
-        return true; // Erreur gérée
+        broadcastError("Playback error: " + message);
     }
 
     /**
-     * 🛠️ NOUVEAU : Gestion spécialisée des erreurs de streaming
+     * 🛠️ Repli unique pour le streaming : action=stream → action=download (fichier complet)
+     * à la même position, sans repasser par loadAudio (qui reviendrait à action=stream).
      */
     private boolean handleStreamingError() {
-        if (currentAudioPath == null || currentAudioPath.isEmpty()) {
-            Log.e(TAG, "❌ Pas d'URL de fallback disponible");
+        if (currentAudioPath == null || !currentAudioPath.startsWith("http")
+                || !currentAudioPath.contains("action=stream") || playbackEngine == null) {
             return false;
         }
 
-        // Tentative 1: Basculer action=stream → action=download
-        if (currentAudioPath.contains("action=stream")) {
-            String retryUrl = currentAudioPath.replace("action=stream", "action=download");
-            Log.d(TAG, "🔄 Retry #1 avec action=download");
-            loadAudio(retryUrl, currentSurah, currentReciter);
-            return true;
-        }
-
-        // Tentative 2: Basculer action=download → action=stream
-        if (currentAudioPath.contains("action=download")) {
-            String retryUrl = currentAudioPath.replace("action=download", "action=stream");
-            Log.d(TAG, "🔄 Retry #2 avec action=stream");
-            loadAudio(retryUrl, currentSurah, currentReciter);
-            return true;
-        }
-
-        // Tentative 3: Recharger l'URL originale avec un délai
-        Log.d(TAG, "🔄 Retry #3 après délai");
-        new android.os.Handler().postDelayed(() -> {
-            loadAudio(currentAudioPath, currentSurah, currentReciter);
-        }, 2000);
-
+        String retryUrl = currentAudioPath.replace("action=stream", "action=download");
+        debugLog(TAG, "🔄 Repli avec action=download");
+        pendingAutoPlayAfterPrepare = pendingAutoPlayAfterPrepare || isPlaying;
+        pendingSeekMs = currentPosition > 0 ? currentPosition : -1;
+        isPlaying = false;
+        isMediaReady = false;
+        queuedNextSurah = -1;
+        queuedNextSource = null;
+        currentAudioPath = retryUrl;
+        // La suite du chargement d'origine (onEnginePrepared) s'exécutera sur le repli
+        playbackEngine.setSource(retryUrl);
+        playbackEngine.prepare();
         return true;
     }
 
@@ -1017,6 +1027,19 @@ public class QuranAudioService extends Service {
         updateNotification();
     }
 
+    /**
+     * Notifier React Native de la fin de la sourate courante
+     */
+    private void broadcastSurahCompleted() {
+        Intent completionIntent = new Intent("com.drogbinho.prayertimesapp2.REACT_NATIVE_EVENT");
+        completionIntent.putExtra("eventName", "QuranSurahCompleted");
+        completionIntent.putExtra("surah", currentSurah);
+        completionIntent.putExtra("reciter", currentReciter);
+        completionIntent.putExtra("autoAdvanceEnabled", autoAdvanceEnabled);
+        sendBroadcast(completionIntent);
+        debugLog(TAG, "📡 Broadcast QuranSurahCompleted envoyé à React Native");
+    }
+
     /**
      * 🛠️ NOUVEAU : Diffuser une erreur vers React Native
      */
@@ -1032,15 +1055,15 @@ public class QuranAudioService extends Service {
      */
     private void broadcastAudioStateChanged() {
         try {
-            Log.d(TAG, "📡 Diffusion état audio - isPlaying: " + isPlaying + ", surah: " + currentSurah);
+            debugLog(TAG, "📡 Diffusion état audio - isPlaying: " + isPlaying + ", surah: " + currentSurah);
 
             // NOUVEAU : Callback direct vers React Native
             if (audioProgressCallback != null) {
-                Log.d(TAG, "🎯 Envoi callback état React Native - isPlaying: " + isPlaying + ", position: "
+                debugLog(TAG, "🎯 Envoi callback état React Native - isPlaying: " + isPlaying + ", position: "
                         + currentPosition + ", duration: " + totalDuration);
                 audioProgressCallback.onAudioStateChanged(isPlaying, currentSurah, currentReciter, currentPosition,
                         totalDuration);
-                Log.d(TAG, "✅ Callback état React Native envoyé");
+                debugLog(TAG, "✅ Callback état React Native envoyé");
             } else {
                 Log.w(TAG, "⚠️ Aucun callback état React Native enregistré");
             }
@@ -1068,15 +1091,15 @@ public class QuranAudioService extends Service {
             // 🎯 NOUVEAU : Ajouter les états des options de lecture
             intent.putExtra("autoAdvanceEnabled", autoAdvanceEnabled);
             intent.putExtra("loopEnabled", loopEnabled);
-            Log.d(TAG,
+            debugLog(TAG,
                     "🎯 Broadcast incluant options - Auto-advance: " + autoAdvanceEnabled + ", Loop: " + loopEnabled);
 
             // NOUVEAU : S'assurer que le broadcast est envoyé avec le bon package
             intent.setPackage(getPackageName());
-            Log.d(TAG, "📡 Envoi broadcast widget avec package: " + getPackageName());
+            debugLog(TAG, "📡 Envoi broadcast widget avec package: " + getPackageName());
 
             sendBroadcast(intent);
-            Log.d(TAG, "✅ Broadcast widget envoyé: " + intent.getAction());
+            debugLog(TAG, "✅ Broadcast widget envoyé: " + intent.getAction());
 
             // Mettre à jour le widget
             updateQuranWidget();
@@ -1087,13 +1110,30 @@ public class QuranAudioService extends Service {
 
     /** Remet position/durée à zéro avant un nouveau chargement (évite durée de la piste précédente). */
     private void clearPlaybackTimingBeforeLoad() {
+        loadStartedNanos = System.nanoTime();
         totalDuration = expectedDurationMs > 0 ? expectedDurationMs : 0;
         currentPosition = 0;
         isMediaReady = false;
         pendingSeekMs = -1;
+        clearAyahSegment(); // le repère du moteur disparaît avec l'ancienne source
+        queuedNextSurah = -1;
+        queuedNextSource = null;
         broadcastAudioProgress();
     }
 
+    /**
+     * Premier démarrage depuis le chargement : alimente l'histogramme chargement → lecture
+     * et l'historique d'écoute (préchargement prédictif).
+     */
+    private void recordLoadToPlay() {
+        if (loadStartedNanos != 0) {
+            PerfMetrics.recordSinceNanos(PerfMetrics.H_QURAN_LOAD_TO_PLAY_MS, loadStartedNanos);
+            loadStartedNanos = 0;
+            QuranPrefetchJobService.onPlaybackStarted(this, currentReciter, extractSurahNumber(currentSurah),
+                    autoAdvanceEnabled, loopEnabled);
+        }
+    }
+
     /** Lecture HTTP : action=stream (Range). MP3 encodés avec Xing requis pour le seek. */
     private String preferStreamPlaybackUrl(String audioPath) {
         if (audioPath == null || !audioPath.startsWith("http")) {
@@ -1109,13 +1149,7 @@ public class QuranAudioService extends Service {
         return url;
     }
 
-    private HashMap<String, String> httpHeadersForAudioUrl(String audioPath) {
-        HashMap<String, String> headers = new HashMap<>();
-        headers.put("User-Agent", "MyAdhan/1.0 (Android MediaPlayer)");
-        return headers;
-    }
-
-    /** Lit la durée réelle du fichier (local ou URL) si MediaPlayer renvoie 0. */
+    /** Lit la durée réelle du fichier (local ou URL) si le lecteur ne la connaît pas. */
     private int probeDurationMs(String audioPath) {
         if (audioPath == null || audioPath.isEmpty()) {
             return 0;
@@ -1123,7 +1157,8 @@ public class QuranAudioService extends Service {
         MediaMetadataRetriever retriever = new MediaMetadataRetriever();
         try {
             if (audioPath.startsWith("http")) {
-                retriever.setDataSource(audioPath, httpHeadersForAudioUrl(audioPath));
+                // Début du fichier partagé avec le lecteur : pas de nouvelle connexion
+                retriever.setDataSource(new RecitationDataSource(this, audioPath));
             } else {
                 String path = audioPath.startsWith("file://")
                         ? audioPath.replace("file://", "")
@@ -1183,7 +1218,7 @@ public class QuranAudioService extends Service {
                 if (defaultAppAlbumArt != raw) {
                     raw.recycle();
                 }
-                Log.d(TAG, "🖼️ Logo app charge pour pochette par defaut");
+                debugLog(TAG, "🖼️ Logo app charge pour pochette par defaut");
             }
         } catch (Exception e) {
             Log.w(TAG, "⚠️ Logo app indisponible: " + e.getMessage());
@@ -1229,7 +1264,8 @@ public class QuranAudioService extends Service {
         MediaMetadataRetriever retriever = new MediaMetadataRetriever();
         try {
             if (audioPath.startsWith("http")) {
-                retriever.setDataSource(audioPath, httpHeadersForAudioUrl(audioPath));
+                // Début du fichier partagé avec le lecteur : pas de nouvelle connexion
+                retriever.setDataSource(new RecitationDataSource(this, audioPath));
             } else {
                 String path = audioPath.startsWith("file://")
                         ? audioPath.replace("file://", "")
@@ -1280,9 +1316,9 @@ public class QuranAudioService extends Service {
                 clearAlbumArt();
                 currentAlbumArt = art;
                 if (currentAlbumArt != null) {
-                    Log.d(TAG, "🖼️ Pochette ID3 chargée pour écran verrouillage / notification");
+                    debugLog(TAG, "🖼️ Pochette ID3 chargée pour écran verrouillage / notification");
                 } else {
-                    Log.d(TAG, "🖼️ Aucune pochette ID3 dans ce fichier audio");
+                    debugLog(TAG, "🖼️ Aucune pochette ID3 dans ce fichier audio");
                 }
                 updateMediaSessionCompatMetadata();
                 updateNotification();
@@ -1290,18 +1326,14 @@ public class QuranAudioService extends Service {
         }).start();
     }
 
-    private void applyResolvedDuration(MediaPlayer mp) {
-        int fromPlayer = 0;
-        try {
-            if (mp != null) {
-                fromPlayer = mp.getDuration();
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "⚠️ getDuration: " + e.getMessage());
-        }
+    private void applyResolvedDuration() {
+        int fromPlayer = safePlayerDuration();
 
+        // Sonde seulement si le lecteur n'a pas de durée crédible (ni Xing/VBRI, ni débit constant)
         int fromProbe = 0;
-        if (currentAudioPath != null && !currentAudioPath.isEmpty()) {
+        boolean playerDurationSuspect = fromPlayer <= 0
+                || (expectedDurationMs > 0 && fromPlayer < expectedDurationMs * 0.25);
+        if (playerDurationSuspect && currentAudioPath != null && !currentAudioPath.isEmpty()) {
             fromProbe = probeDurationMs(currentAudioPath);
         }
 
@@ -1315,7 +1347,7 @@ public class QuranAudioService extends Service {
             if (resolved <= 0) {
                 resolved = expectedDurationMs;
             } else if (resolved < expectedDurationMs * 0.25) {
-                // MediaPlayer renvoie parfois ~27s sur un long MP3 VBR en stream
+                // Estimation à débit constant fausse sur un long MP3 VBR sans en-tête Xing
                 Log.w(TAG, "⏱️ Durée lecteur trop courte (" + resolved + "ms), catalogue: "
                         + expectedDurationMs + "ms");
                 resolved = expectedDurationMs;
@@ -1323,55 +1355,11 @@ public class QuranAudioService extends Service {
         }
         if (resolved > 0) {
             totalDuration = resolved;
-            Log.d(TAG, "⏱️ Durée audio résolue: " + totalDuration + "ms (player="
+            debugLog(TAG, "⏱️ Durée audio résolue: " + totalDuration + "ms (player="
                     + fromPlayer + ", probe=" + fromProbe + ", expected=" + expectedDurationMs + ")");
-            QuranSeekDebug.log(getApplicationContext(), "DURATION_RESOLVED",
-                    "total=" + totalDuration + " player=" + fromPlayer + " probe=" + fromProbe
-                            + " expected=" + expectedDurationMs + " surah=" + currentSurah);
-        }
-        if (safePlayerDuration() <= 0 && expectedDurationMs > 0) {
-            startDurationPoll();
+            QuranSeekDebug.log(QuranSeekDebug.DURATION_RESOLVED, totalDuration, expectedDurationMs);
         }
-    }
-
-    private void cancelDurationPoll() {
-        if (durationPollRunnable != null) {
-            progressHandler.removeCallbacks(durationPollRunnable);
-            durationPollRunnable = null;
-        }
-        durationPollAttempts = 0;
-    }
-
-    /** Attend que MediaPlayer connaisse la durée (indispensable pour le seek). */
-    private void startDurationPoll() {
-        cancelDurationPoll();
-        durationPollRunnable = new Runnable() {
-            @Override
-            public void run() {
-                if (mediaPlayer == null) {
-                    return;
-                }
-                int playerDur = safePlayerDuration();
-                if (playerDur > 0) {
-                    updateDurationFromPlayer(playerDur);
-                    QuranSeekDebug.log(getApplicationContext(), "DURATION_POLL_OK",
-                            "playerDur=" + playerDur + " total=" + totalDuration);
-                    broadcastAudioProgress();
-                    cancelDurationPoll();
-                    return;
-                }
-                durationPollAttempts++;
-                if (durationPollAttempts < 24) {
-                    progressHandler.postDelayed(this, 500);
-                } else {
-                    QuranSeekDebug.log(getApplicationContext(), "DURATION_POLL_GIVE_UP",
-                            "expected=" + expectedDurationMs + " probe="
-                                    + probeDurationMs(currentAudioPath));
-                    cancelDurationPoll();
-                }
-            }
-        };
-        progressHandler.postDelayed(durationPollRunnable, 300);
+        // Durée encore inconnue : PlaybackEngine.Listener.onDurationChanged la fournira
     }
 
     private void updateDurationFromPlayer(int reportedDuration) {
@@ -1397,18 +1385,18 @@ public class QuranAudioService extends Service {
      */
     private void broadcastAudioProgress() {
         try {
-            Log.d(TAG,
-                    "📡 Diffusion progression audio - position: " + currentPosition + ", duration: " + totalDuration);
+            debugLog(TAG, "📡 Diffusion progression audio - position: {}, duration: {}", currentPosition,
+                    totalDuration);
 
             // NOUVEAU : Callback direct vers React Native
             if (audioProgressCallback != null) {
-                Log.d(TAG, "🎯 Envoi callback direct React Native - position: " + currentPosition + ", duration: "
-                        + totalDuration);
+                debugLog(TAG, "🎯 Envoi callback direct React Native - position: {}, duration: {}", currentPosition,
+                        totalDuration);
                 audioProgressCallback.onAudioProgress(currentPosition, totalDuration, isPlaying, currentSurah,
                         currentReciter);
-                Log.d(TAG, "✅ Callback direct React Native envoyé");
+                debugLog(TAG, "✅ Callback direct React Native envoyé");
             } else {
-                Log.w(TAG, "⚠️ Aucun callback React Native enregistré");
+                warnLog(TAG, "⚠️ Aucun callback React Native enregistré");
             }
 
             // ANCIEN : Envoyer un Intent global pour React Native (backup)
@@ -1416,9 +1404,9 @@ public class QuranAudioService extends Service {
             reactNativeIntent.putExtra("eventName", "QuranAudioProgress");
             reactNativeIntent.putExtra("position", currentPosition);
             reactNativeIntent.putExtra("duration", totalDuration);
-            Log.d(TAG, "🔧 Envoi broadcast React Native - action: " + reactNativeIntent.getAction());
+            debugLog(TAG, "🔧 Envoi broadcast React Native - action: {}", reactNativeIntent.getAction());
             sendBroadcast(reactNativeIntent);
-            Log.d(TAG, "✅ Broadcast React Native envoyé");
+            debugLog(TAG, "✅ Broadcast React Native envoyé");
 
             // Garder l'ancien broadcast pour le widget
             Intent intent = new Intent(ACTION_AUDIO_PROGRESS);
@@ -1426,10 +1414,10 @@ public class QuranAudioService extends Service {
             intent.putExtra("duration", totalDuration);
             sendBroadcast(intent);
 
-            Log.d(TAG, "✅ Événement progression audio diffusé");
+            debugLog(TAG, "✅ Événement progression audio diffusé");
 
             // NOUVEAU : Mettre à jour directement l'état du widget
-            Log.d(TAG, "🚀 Mise à jour directe de l'état du widget après progression");
+            debugLog(TAG, "🚀 Mise à jour directe de l'état du widget après progression");
             QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
 
         } catch (Exception e) {
@@ -1444,7 +1432,7 @@ public class QuranAudioService extends Service {
     private void updateQuranWidget() {
         try {
             // NOUVEAU : Mettre à jour directement le widget avec le context du service
-            Log.d(TAG, "📱 Mise à jour directe du widget depuis le service");
+            debugLog(TAG, "📱 Mise à jour directe du widget depuis le service");
             QuranWidget.updateAllWidgets(this);
 
             // NOUVEAU : Forcer la mise à jour immédiate de tous les widgets
@@ -1453,13 +1441,13 @@ public class QuranAudioService extends Service {
                 ComponentName thisWidget = new ComponentName(this, QuranWidget.class);
                 int[] appWidgetIds = appWidgetManager.getAppWidgetIds(thisWidget);
 
-                Log.d(TAG, "🚀 Mise à jour forcée de " + appWidgetIds.length + " widgets depuis le service");
+                debugLog(TAG, "🚀 Mise à jour forcée de " + appWidgetIds.length + " widgets depuis le service");
 
                 for (int appWidgetId : appWidgetIds) {
                     QuranWidget.forceUpdateWidget(this, appWidgetId);
                 }
 
-                Log.d(TAG, "✅ Mise à jour forcée terminée depuis le service");
+                debugLog(TAG, "✅ Mise à jour forcée terminée depuis le service");
             } catch (Exception e) {
                 Log.e(TAG, "❌ Erreur mise à jour forcée depuis le service: " + e.getMessage());
             }
@@ -1473,7 +1461,7 @@ public class QuranAudioService extends Service {
      * Démarrer le timer de progression
      */
     private void startProgressTimer() {
-        Log.d(TAG, "⏱️ Démarrage timer de progression");
+        debugLog(TAG, "⏱️ Démarrage timer de progression");
         if (progressRunnable != null) {
             progressHandler.removeCallbacks(progressRunnable);
         }
@@ -1481,10 +1469,10 @@ public class QuranAudioService extends Service {
         progressRunnable = new Runnable() {
             @Override
             public void run() {
-                if (mediaPlayer != null && isPlaying) {
+                if (playbackEngine != null && isPlaying) {
                     try {
-                        currentPosition = mediaPlayer.getCurrentPosition();
-                        int reportedDuration = mediaPlayer.getDuration();
+                        currentPosition = (int) playbackEngine.getPosition();
+                        int reportedDuration = safePlayerDuration();
                         if (reportedDuration > 0) {
                             updateDurationFromPlayer(reportedDuration);
                         } else if (totalDuration <= 0 && currentAudioPath != null) {
@@ -1493,14 +1481,14 @@ public class QuranAudioService extends Service {
                                 totalDuration = probed;
                             }
                         }
-                        Log.d(TAG,
-                                "⏱️ Timer progression - position: " + currentPosition + ", duration: " + totalDuration);
+                        debugLog(TAG, "⏱️ Timer progression - position: {}, duration: {}", currentPosition,
+                                totalDuration);
                         broadcastAudioProgress();
                         updateMediaSessionCompatMetadata();
 
                         // NOUVEAU : Mettre à jour directement l'état du widget plus fréquemment
                         if (currentPosition % 5000 < 1000) { // Toutes les 5 secondes environ
-                            Log.d(TAG, "🚀 Mise à jour directe de l'état du widget depuis le timer");
+                            debugLog(TAG, "🚀 Mise à jour directe de l'état du widget depuis le timer");
                             QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition,
                                     totalDuration);
                         }
@@ -1511,11 +1499,11 @@ public class QuranAudioService extends Service {
                         Log.e(TAG, "❌ Erreur timer progression: " + e.getMessage());
                     }
                 } else {
-                    Log.d(TAG, "⏱️ Timer progression arrêté - mediaPlayer null: " + (mediaPlayer == null)
-                            + ", isPlaying: " + isPlaying);
+                    debugLog(TAG, "⏱️ Timer progression arrêté - moteur null: {}, isPlaying: {}",
+                            playbackEngine == null, isPlaying);
                     // 🎯 NOUVEAU : Vérifier si on devrait redémarrer le timer
-                    if (mediaPlayer != null && isPlaying) {
-                        Log.d(TAG, "🔄 Redémarrage automatique du timer - média en lecture");
+                    if (playbackEngine != null && isPlaying) {
+                        debugLog(TAG, "🔄 Redémarrage automatique du timer - média en lecture");
                         progressHandler.postDelayed(this, 1000);
                     }
                 }
@@ -1523,7 +1511,7 @@ public class QuranAudioService extends Service {
         };
 
         progressHandler.post(progressRunnable);
-        Log.d(TAG, "✅ Timer de progression démarré");
+        debugLog(TAG, "✅ Timer de progression démarré");
     }
 
     /**
@@ -1539,44 +1527,38 @@ public class QuranAudioService extends Service {
      * Gérer play/pause
      */
     private void handlePlayPause() {
-        Log.d(TAG, "🎵 handlePlayPause() - isPremiumUser: " + isPremiumUser + ", isPlaying: " + isPlaying
-                + ", mediaPlayer null: " + (mediaPlayer == null));
+        debugLog(TAG, "🎵 handlePlayPause() - isPremiumUser: " + isPremiumUser + ", isPlaying: " + isPlaying
+                + ", moteur null: " + (playbackEngine == null));
 
         if (!isPremiumUser) {
             Log.w(TAG, "⚠️ Utilisateur non premium");
             return;
         }
 
-        if (mediaPlayer == null) {
-            Log.w(TAG, "⚠️ MediaPlayer null, réinitialisation...");
-            initializeMediaPlayer();
+        if (playbackEngine == null) {
+            Log.w(TAG, "⚠️ Moteur de lecture null, réinitialisation...");
+            initializePlaybackEngine();
         }
 
         if (isPlaying) {
-            Log.d(TAG, "🎵 Pause audio");
+            debugLog(TAG, "🎵 Pause audio");
             pauseAudio();
 
-            // 🎯 SUPPRIMÉ: Synchronisation ExoPlayer (causait double audio)
-
             // 🎯 METTRE À JOUR MediaSessionCompat pour contrôles écran de verrouillage
             updateMediaSessionCompatMetadata();
 
-            // 🎯 SUPPRIMÉ: updateMediaSessionMetadata() (causait double audio)
-
             // Mettre à jour la notification avec le nouvel état
             updateNotification();
         } else {
-            Log.d(TAG, "🎵 Play audio");
+            debugLog(TAG, "🎵 Play audio");
             // Démarrer le service en mode foreground quand l'utilisateur premium commence à
             // jouer
             if (!isForegroundService()) {
                 startForeground(NOTIFICATION_ID, createNotification());
-                Log.d(TAG, "🎵 Service démarré en mode foreground pour lecture audio premium");
+                debugLog(TAG, "🎵 Service démarré en mode foreground pour lecture audio premium");
             }
             playAudio();
 
-            // 🎯 SUPPRIMÉ: Synchronisation ExoPlayer (causait double audio)
-
             // 🎯 METTRE À JOUR MediaSessionCompat pour contrôles écran de verrouillage
             updateMediaSessionCompatMetadata();
 
@@ -1585,18 +1567,18 @@ public class QuranAudioService extends Service {
         }
 
         // NOUVEAU : Diffuser l'état audio pour mettre à jour le widget
-        Log.d(TAG, "📡 Diffusion état audio après Play/Pause pour le widget");
+        debugLog(TAG, "📡 Diffusion état audio après Play/Pause pour le widget");
         broadcastAudioStateChanged();
 
         // NOUVEAU : Mettre à jour immédiatement le widget
-        Log.d(TAG, "🚀 Mise à jour immédiate du widget après Play/Pause");
+        debugLog(TAG, "🚀 Mise à jour immédiate du widget après Play/Pause");
         updateQuranWidget();
 
         // 🎯 NOUVEAU : S'assurer que le timer continue après Play/Pause depuis le
         // widget
         progressHandler.postDelayed(() -> {
-            if (isPlaying && mediaPlayer != null) {
-                Log.d(TAG, "🔄 Vérification et redémarrage timer après action widget");
+            if (isPlaying && playbackEngine != null) {
+                debugLog(TAG, "🔄 Vérification et redémarrage timer après action widget");
                 startProgressTimer();
             }
         }, 500);
@@ -1609,7 +1591,7 @@ public class QuranAudioService extends Service {
         if (!isPremiumUser)
             return;
 
-        Log.d(TAG, "⏮️ Précédent");
+        debugLog(TAG, "⏮️ Précédent");
 
         // Extraire le numéro de sourate actuel
         int currentSurahNumber = extractSurahNumber(currentSurah);
@@ -1617,9 +1599,9 @@ public class QuranAudioService extends Service {
         // Si on ne peut pas extraire le numéro, essayer de le déduire du nom
         if (currentSurahNumber <= 0) {
             Log.w(TAG, "⚠️ Impossible d'extraire le numéro de sourate actuel - currentSurah: '" + currentSurah + "'");
-            Log.d(TAG, "🔄 Tentative de déduction du numéro depuis le nom...");
+            debugLog(TAG, "🔄 Tentative de déduction du numéro depuis le nom...");
             currentSurahNumber = getSurahNumberByName(currentSurah);
-            Log.d(TAG, "🔄 Numéro déduit: " + currentSurahNumber);
+            debugLog(TAG, "🔄 Numéro déduit: " + currentSurahNumber);
         }
 
         if (currentSurahNumber <= 0) {
@@ -1630,13 +1612,13 @@ public class QuranAudioService extends Service {
         // MODIFIÉ : Permettre la navigation même sans sourates téléchargées (streaming)
         java.util.List<Integer> downloadedSurahs = getDownloadedSurahs(currentReciter);
         if (downloadedSurahs.isEmpty()) {
-            Log.d(TAG, "🌐 Aucune sourate téléchargée, navigation séquentielle activée");
+            debugLog(TAG, "🌐 Aucune sourate téléchargée, navigation séquentielle activée");
             int previousSurahNumber = currentSurahNumber - 1;
             if (previousSurahNumber >= 1) {
-                Log.d(TAG, "🔄 Navigation séquentielle vers sourate: " + previousSurahNumber);
+                debugLog(TAG, "🔄 Navigation séquentielle vers sourate: " + previousSurahNumber);
                 loadSurahByNumber(previousSurahNumber);
             } else {
-                Log.d(TAG, "⏹️ Première sourate atteinte (1)");
+                debugLog(TAG, "⏹️ Première sourate atteinte (1)");
             }
             return;
         }
@@ -1654,23 +1636,23 @@ public class QuranAudioService extends Service {
         // Si pas de sourate précédente et boucle activée, aller à la dernière
         if (previousSurahNumber == -1 && loopEnabled) {
             previousSurahNumber = downloadedSurahs.get(downloadedSurahs.size() - 1);
-            Log.d(TAG, "🔄 Boucle activée, retour à la dernière sourate: " + previousSurahNumber);
+            debugLog(TAG, "🔄 Boucle activée, retour à la dernière sourate: " + previousSurahNumber);
         }
 
         if (previousSurahNumber != -1) {
-            Log.d(TAG, "🔄 Navigation vers sourate précédente téléchargée: " + currentSurahNumber + " → "
+            debugLog(TAG, "🔄 Navigation vers sourate précédente téléchargée: " + currentSurahNumber + " → "
                     + previousSurahNumber);
             loadDownloadedSurahByNumber(previousSurahNumber);
 
             // 🎯 NOUVEAU : S'assurer que le timer continue après navigation précédente
             progressHandler.postDelayed(() -> {
-                if (isPlaying && mediaPlayer != null) {
+                if (isPlaying && playbackEngine != null) {
                     startProgressTimer();
-                    Log.d(TAG, "✅ Timer redémarré après navigation précédente");
+                    debugLog(TAG, "✅ Timer redémarré après navigation précédente");
                 }
             }, 1000);
         } else {
-            Log.d(TAG, "⏹️ Pas de sourate précédente téléchargée");
+            debugLog(TAG, "⏹️ Pas de sourate précédente téléchargée");
         }
     }
 
@@ -1678,35 +1660,35 @@ public class QuranAudioService extends Service {
      * Gérer suivant
      */
     private void handleNext() {
-        Log.d(TAG, "⏭️ handleNext() - DÉBUT");
-        Log.d(TAG, "⏭️ handleNext() - isPremiumUser: " + isPremiumUser);
+        debugLog(TAG, "⏭️ handleNext() - DÉBUT");
+        debugLog(TAG, "⏭️ handleNext() - isPremiumUser: " + isPremiumUser);
 
         // 🔍 DIAGNOSTIC DÉTAILLÉ
-        Log.d(TAG, "🔍 DIAGNOSTIC handleNext() Service - État complet:");
-        Log.d(TAG, "🔍 - isPremiumUser: " + isPremiumUser);
-        Log.d(TAG, "🔍 - currentSurah: '" + currentSurah + "'");
-        Log.d(TAG, "🔍 - currentReciter: '" + currentReciter + "'");
-        Log.d(TAG, "🔍 - currentAudioPath: '" + currentAudioPath + "'");
-        Log.d(TAG, "🔍 - isPlaying: " + isPlaying);
+        debugLog(TAG, "🔍 DIAGNOSTIC handleNext() Service - État complet:");
+        debugLog(TAG, "🔍 - isPremiumUser: " + isPremiumUser);
+        debugLog(TAG, "🔍 - currentSurah: '" + currentSurah + "'");
+        debugLog(TAG, "🔍 - currentReciter: '" + currentReciter + "'");
+        debugLog(TAG, "🔍 - currentAudioPath: '" + currentAudioPath + "'");
+        debugLog(TAG, "🔍 - isPlaying: " + isPlaying);
 
         if (!isPremiumUser) {
             Log.w(TAG, "⚠️ Utilisateur non premium, handleNext() ignoré - BLOCAGE 1");
             return;
         }
 
-        Log.d(TAG,
+        debugLog(TAG,
                 "⏭️ handleNext() - État actuel - isPlaying: " + isPlaying + ", currentSurah: '" + currentSurah + "'");
 
         // Extraire le numéro de sourate actuel
         int currentSurahNumber = extractSurahNumber(currentSurah);
-        Log.d(TAG, "⏭️ handleNext() - Numéro de sourate extrait: " + currentSurahNumber);
+        debugLog(TAG, "⏭️ handleNext() - Numéro de sourate extrait: " + currentSurahNumber);
 
         // Si on ne peut pas extraire le numéro, essayer de le déduire du nom
         if (currentSurahNumber <= 0) {
             Log.w(TAG, "⚠️ Impossible d'extraire le numéro de sourate actuel - currentSurah: '" + currentSurah + "'");
-            Log.d(TAG, "🔄 Tentative de déduction du numéro depuis le nom...");
+            debugLog(TAG, "🔄 Tentative de déduction du numéro depuis le nom...");
             currentSurahNumber = getSurahNumberByName(currentSurah);
-            Log.d(TAG, "🔄 Numéro déduit: " + currentSurahNumber);
+            debugLog(TAG, "🔄 Numéro déduit: " + currentSurahNumber);
         }
 
         if (currentSurahNumber <= 0) {
@@ -1717,18 +1699,18 @@ public class QuranAudioService extends Service {
 
         // MODIFIÉ : Permettre la navigation même sans sourates téléchargées (streaming)
         java.util.List<Integer> downloadedSurahs = getDownloadedSurahs(currentReciter);
-        Log.d(TAG, "🔍 - Sourates téléchargées: " + downloadedSurahs.size() + " sourates");
-        Log.d(TAG, "🔍 - Liste sourates: " + downloadedSurahs.toString());
+        debugLog(TAG, "🔍 - Sourates téléchargées: " + downloadedSurahs.size() + " sourates");
+        debugLog(TAG, "🔍 - Liste sourates: " + downloadedSurahs.toString());
 
         // Si pas de sourates téléchargées, utiliser la navigation séquentielle
         if (downloadedSurahs.isEmpty()) {
-            Log.d(TAG, "🌐 Aucune sourate téléchargée, navigation séquentielle activée");
+            debugLog(TAG, "🌐 Aucune sourate téléchargée, navigation séquentielle activée");
             int nextSurahNumber = currentSurahNumber + 1;
             if (nextSurahNumber <= 114) {
-                Log.d(TAG, "🔄 Navigation séquentielle vers sourate: " + nextSurahNumber);
+                debugLog(TAG, "🔄 Navigation séquentielle vers sourate: " + nextSurahNumber);
                 loadSurahByNumber(nextSurahNumber);
             } else {
-                Log.d(TAG, "⏹️ Dernière sourate atteinte (114)");
+                debugLog(TAG, "⏹️ Dernière sourate atteinte (114)");
             }
             return;
         }
@@ -1742,188 +1724,51 @@ public class QuranAudioService extends Service {
             }
         }
 
-        Log.d(TAG, "🔍 - Sourate actuelle: " + currentSurahNumber);
-        Log.d(TAG, "🔍 - Sourate suivante trouvée: " + nextSurahNumber);
+        debugLog(TAG, "🔍 - Sourate actuelle: " + currentSurahNumber);
+        debugLog(TAG, "🔍 - Sourate suivante trouvée: " + nextSurahNumber);
 
         // Si pas de sourate suivante et boucle activée, aller à la première
         if (nextSurahNumber == -1 && loopEnabled) {
             nextSurahNumber = downloadedSurahs.get(0);
-            Log.d(TAG, "🔄 Boucle activée, retour à la première sourate: " + nextSurahNumber);
+            debugLog(TAG, "🔄 Boucle activée, retour à la première sourate: " + nextSurahNumber);
         }
 
         if (nextSurahNumber != -1) {
-            Log.d(TAG,
+            debugLog(TAG,
                     "🔄 Navigation vers sourate suivante téléchargée: " + currentSurahNumber + " → " + nextSurahNumber);
-            Log.d(TAG, "⏭️ Appel de loadDownloadedSurahByNumber(" + nextSurahNumber + ")");
+            debugLog(TAG, "⏭️ Appel de loadDownloadedSurahByNumber(" + nextSurahNumber + ")");
             loadDownloadedSurahByNumber(nextSurahNumber);
         } else {
-            Log.d(TAG, "⏹️ Pas de sourate suivante téléchargée - BLOCAGE 4");
+            debugLog(TAG, "⏹️ Pas de sourate suivante téléchargée - BLOCAGE 4");
         }
 
         // 🎯 NOUVEAU : S'assurer que le timer continue après navigation suivante
-        if (isPlaying && mediaPlayer != null) {
-            Log.d(TAG, "🔄 Vérification timer après navigation suivante");
+        if (isPlaying && playbackEngine != null) {
+            debugLog(TAG, "🔄 Vérification timer après navigation suivante");
             progressHandler.postDelayed(() -> {
-                if (isPlaying && mediaPlayer != null) {
+                if (isPlaying && playbackEngine != null) {
                     startProgressTimer();
-                    Log.d(TAG, "✅ Timer redémarré après navigation suivante");
+                    debugLog(TAG, "✅ Timer redémarré après navigation suivante");
                 }
             }, 1000);
         }
 
-        Log.d(TAG, "⏭️ handleNext() - FIN");
+        debugLog(TAG, "⏭️ handleNext() - FIN");
     }
 
     /**
      * Extraire le numéro de sourate depuis le nom de la sourate
      */
     private int extractSurahNumber(String surahName) {
-        if (surahName == null || surahName.isEmpty()) {
-            return 0;
-        }
-
-        // Chercher le pattern "(001)", "(002)", etc.
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\((\\d{3})\\)");
-        java.util.regex.Matcher matcher = pattern.matcher(surahName);
-
-        if (matcher.find()) {
-            String numberStr = matcher.group(1);
-            return Integer.parseInt(numberStr);
-        }
-
-        // Fallback : chercher dans la liste des noms de sourates
-        return getSurahNumberByName(surahName);
+        // Motif "(001)" puis nom de la sourate (SurahCatalog)
+        return SurahCatalog.numberOf(surahName);
     }
 
     /**
      * Obtenir le numéro de sourate par son nom
      */
     private int getSurahNumberByName(String surahName) {
-        // Liste complète des 114 sourates
-        java.util.Map<String, Integer> surahNames = new java.util.HashMap<>();
-        surahNames.put("Al-Fatiha", 1);
-        surahNames.put("Al-Baqarah", 2);
-        surahNames.put("Aal-E-Imran", 3);
-        surahNames.put("An-Nisa", 4);
-        surahNames.put("Al-Maidah", 5);
-        surahNames.put("Al-An'am", 6);
-        surahNames.put("Al-A'raf", 7);
-        surahNames.put("Al-Anfal", 8);
-        surahNames.put("At-Tawbah", 9);
-        surahNames.put("Yunus", 10);
-        surahNames.put("Hud", 11);
-        surahNames.put("Yusuf", 12);
-        surahNames.put("Ar-Ra'd", 13);
-        surahNames.put("Ibrahim", 14);
-        surahNames.put("Al-Hijr", 15);
-        surahNames.put("An-Nahl", 16);
-        surahNames.put("Al-Isra", 17);
-        surahNames.put("Al-Kahf", 18);
-        surahNames.put("Maryam", 19);
-        surahNames.put("Ta-Ha", 20);
-        surahNames.put("Al-Anbiya", 21);
-        surahNames.put("Al-Hajj", 22);
-        surahNames.put("Al-Mu'minun", 23);
-        surahNames.put("An-Nur", 24);
-        surahNames.put("Al-Furqan", 25);
-        surahNames.put("Ash-Shu'ara", 26);
-        surahNames.put("An-Naml", 27);
-        surahNames.put("Al-Qasas", 28);
-        surahNames.put("Al-Ankabut", 29);
-        surahNames.put("Ar-Rum", 30);
-        surahNames.put("Luqman", 31);
-        surahNames.put("As-Sajdah", 32);
-        surahNames.put("Al-Ahzab", 33);
-        surahNames.put("Saba", 34);
-        surahNames.put("Fatir", 35);
-        surahNames.put("Ya-Sin", 36);
-        surahNames.put("As-Saffat", 37);
-        surahNames.put("Sad", 38);
-        surahNames.put("Az-Zumar", 39);
-        surahNames.put("Ghafir", 40);
-        surahNames.put("Fussilat", 41);
-        surahNames.put("Ash-Shura", 42);
-        surahNames.put("Az-Zukhruf", 43);
-        surahNames.put("Ad-Dukhan", 44);
-        surahNames.put("Al-Jathiyah", 45);
-        surahNames.put("Al-Ahqaf", 46);
-        surahNames.put("Muhammad", 47);
-        surahNames.put("Al-Fath", 48);
-        surahNames.put("Al-Hujurat", 49);
-        surahNames.put("Qaf", 50);
-        surahNames.put("Adh-Dhariyat", 51);
-        surahNames.put("At-Tur", 52);
-        surahNames.put("An-Najm", 53);
-        surahNames.put("Al-Qamar", 54);
-        surahNames.put("Ar-Rahman", 55);
-        surahNames.put("Al-Waqi'ah", 56);
-        surahNames.put("Al-Hadid", 57);
-        surahNames.put("Al-Mujadila", 58);
-        surahNames.put("Al-Hashr", 59);
-        surahNames.put("Al-Mumtahanah", 60);
-        surahNames.put("As-Saff", 61);
-        surahNames.put("Al-Jumu'ah", 62);
-        surahNames.put("Al-Munafiqun", 63);
-        surahNames.put("At-Taghabun", 64);
-        surahNames.put("At-Talaq", 65);
-        surahNames.put("At-Tahrim", 66);
-        surahNames.put("Al-Mulk", 67);
-        surahNames.put("Al-Qalam", 68);
-        surahNames.put("Al-Haqqah", 69);
-        surahNames.put("Al-Ma'arij", 70);
-        surahNames.put("Nuh", 71);
-        surahNames.put("Al-Jinn", 72);
-        surahNames.put("Al-Muzzammil", 73);
-        surahNames.put("Al-Muddaththir", 74);
-        surahNames.put("Al-Qiyamah", 75);
-        surahNames.put("Al-Insan", 76);
-        surahNames.put("Al-Mursalat", 77);
-        surahNames.put("An-Naba", 78);
-        surahNames.put("An-Nazi'at", 79);
-        surahNames.put("Abasa", 80);
-        surahNames.put("At-Takwir", 81);
-        surahNames.put("Al-Infitar", 82);
-        surahNames.put("Al-Mutaffifin", 83);
-        surahNames.put("Al-Inshiqaq", 84);
-        surahNames.put("Al-Buruj", 85);
-        surahNames.put("At-Tariq", 86);
-        surahNames.put("Al-A'la", 87);
-        surahNames.put("Al-Ghashiyah", 88);
-        surahNames.put("Al-Fajr", 89);
-        surahNames.put("Al-Balad", 90);
-        surahNames.put("Ash-Shams", 91);
-        surahNames.put("Al-Layl", 92);
-        surahNames.put("Ad-Duha", 93);
-        surahNames.put("Ash-Sharh", 94);
-        surahNames.put("At-Tin", 95);
-        surahNames.put("Al-Alaq", 96);
-        surahNames.put("Al-Qadr", 97);
-        surahNames.put("Al-Bayyinah", 98);
-        surahNames.put("Az-Zalzalah", 99);
-        surahNames.put("Al-Adiyat", 100);
-        surahNames.put("Al-Qari'ah", 101);
-        surahNames.put("At-Takathur", 102);
-        surahNames.put("Al-Asr", 103);
-        surahNames.put("Al-Humazah", 104);
-        surahNames.put("Al-Fil", 105);
-        surahNames.put("Quraysh", 106);
-        surahNames.put("Al-Ma'un", 107);
-        surahNames.put("Al-Kawthar", 108);
-        surahNames.put("Al-Kafirun", 109);
-        surahNames.put("An-Nasr", 110);
-        surahNames.put("Al-Masad", 111);
-        surahNames.put("Al-Ikhlas", 112);
-        surahNames.put("Al-Falaq", 113);
-        surahNames.put("An-Nas", 114);
-
-        // Chercher le nom de la sourate dans la map
-        for (java.util.Map.Entry<String, Integer> entry : surahNames.entrySet()) {
-            if (surahName.contains(entry.getKey())) {
-                return entry.getValue();
-            }
-        }
-
-        return 0;
+        return SurahCatalog.numberOf(surahName);
     }
 
     /**
@@ -1934,7 +1779,7 @@ public class QuranAudioService extends Service {
     }
 
     private void loadSurahByNumber(int surahNumber, boolean forceAutoPlay) {
-        Log.d(TAG, "🎵 loadSurahByNumber - DÉBUT - surahNumber: " + surahNumber
+        debugLog(TAG, "🎵 loadSurahByNumber - DÉBUT - surahNumber: " + surahNumber
                 + " forceAutoPlay=" + forceAutoPlay);
 
         if (surahNumber < 1 || surahNumber > 114) {
@@ -1949,80 +1794,60 @@ public class QuranAudioService extends Service {
             return;
         }
 
-        Log.d(TAG, "🎵 Chargement sourate " + surahNumber + ": " + surahName);
-        Log.d(TAG, "🎵 Récitateur actuel: " + currentReciter);
+        debugLog(TAG, "🎵 Chargement sourate " + surahNumber + ": " + surahName);
+        debugLog(TAG, "🎵 Récitateur actuel: " + currentReciter);
 
         // Conserver l'intention d'auto-play (fin de sourate) : isPlaying est déjà false
         this.wasPlayingBeforeNavigation = forceAutoPlay || isPlaying;
-        Log.d(TAG, "🎵 État de lecture avant navigation: " + this.wasPlayingBeforeNavigation);
+        debugLog(TAG, "🎵 État de lecture avant navigation: " + this.wasPlayingBeforeNavigation);
 
-        // Construire l'URL audio
-        String audioUrl = buildAudioUrl(surahNumber, surahName, currentReciter);
+        String audioUrl = surahSource(surahNumber);
         if (audioUrl == null) {
             Log.e(TAG, "❌ Impossible de construire l'URL audio");
             return;
         }
 
-        Log.d(TAG, "🎵 URL audio construite: " + audioUrl);
-        Log.d(TAG, "🎵 Appel de loadAudioWithAutoPlay avec wasPlayingBeforeNavigation: "
+        debugLog(TAG, "🎵 URL audio construite: " + audioUrl);
+        debugLog(TAG, "🎵 Appel de loadAudioWithAutoPlay avec wasPlayingBeforeNavigation: "
                 + this.wasPlayingBeforeNavigation);
 
         // CORRECTION : Construire le nom complet avec récitateur pour la cohérence
         String fullSurahName = surahName + " - " + currentReciter;
-        Log.d(TAG, "🎵 Nom complet sourate: " + fullSurahName);
+        debugLog(TAG, "🎵 Nom complet sourate: " + fullSurahName);
 
         // Charger l'audio avec auto-play si l'utilisateur était en train d'écouter
         loadAudioWithAutoPlay(audioUrl, fullSurahName, currentReciter, this.wasPlayingBeforeNavigation);
 
-        Log.d(TAG, "🎵 loadSurahByNumber - FIN");
+        debugLog(TAG, "🎵 loadSurahByNumber - FIN");
     }
 
     /**
-     * Obtenir le nom de la sourate à partir de son numéro
+     * Fichier local (téléchargé ou préchargé) en priorité, sinon URL de streaming
      */
-    private String getSurahNameFromNumber(int surahNumber) {
-        // Liste complète des 114 sourates
-        String[] surahNames = {
-                null, // Index 0 non utilisé
-                "Al-Fatiha", "Al-Baqarah", "Aal-E-Imran", "An-Nisa", "Al-Maidah",
-                "Al-An'am", "Al-A'raf", "Al-Anfal", "At-Tawbah", "Yunus",
-                "Hud", "Yusuf", "Ar-Ra'd", "Ibrahim", "Al-Hijr",
-                "An-Nahl", "Al-Isra", "Al-Kahf", "Maryam", "Ta-Ha",
-                "Al-Anbiya", "Al-Hajj", "Al-Mu'minun", "An-Nur", "Al-Furqan",
-                "Ash-Shu'ara", "An-Naml", "Al-Qasas", "Al-Ankabut", "Ar-Rum",
-                "Luqman", "As-Sajdah", "Al-Ahzab", "Saba", "Fatir",
-                "Ya-Sin", "As-Saffat", "Sad", "Az-Zumar", "Ghafir",
-                "Fussilat", "Ash-Shura", "Az-Zukhruf", "Ad-Dukhan", "Al-Jathiyah",
-                "Al-Ahqaf", "Muhammad", "Al-Fath", "Al-Hujurat", "Qaf",
-                "Adh-Dhariyat", "At-Tur", "An-Najm", "Al-Qamar", "Ar-Rahman",
-                "Al-Waqi'ah", "Al-Hadid", "Al-Mujadila", "Al-Hashr", "Al-Mumtahanah",
-                "As-Saff", "Al-Jumu'ah", "Al-Munafiqun", "At-Taghabun", "At-Talaq",
-                "At-Tahrim", "Al-Mulk", "Al-Qalam", "Al-Haqqah", "Al-Ma'arij",
-                "Nuh", "Al-Jinn", "Al-Muzzammil", "Al-Muddaththir", "Al-Qiyamah",
-                "Al-Insan", "Al-Mursalat", "An-Naba", "An-Nazi'at", "Abasa",
-                "At-Takwir", "Al-Infitar", "Al-Mutaffifin", "Al-Inshiqaq", "Al-Buruj",
-                "At-Tariq", "Al-A'la", "Al-Ghashiyah", "Al-Fajr", "Al-Balad",
-                "Ash-Shams", "Al-Layl", "Ad-Duha", "Ash-Sharh", "At-Tin",
-                "Al-Alaq", "Al-Qadr", "Al-Bayyinah", "Az-Zalzalah", "Al-Adiyat",
-                "Al-Qari'ah", "At-Takathur", "Al-Asr", "Al-Humazah", "Al-Fil",
-                "Quraysh", "Al-Ma'un", "Al-Kawthar", "Al-Kafirun", "An-Nasr",
-                "Al-Masad", "Al-Ikhlas", "Al-Falaq", "An-Nas"
-        };
-
-        if (surahNumber >= 1 && surahNumber <= 114) {
-            // CORRECTION : Retourner le nom avec le numéro entre parenthèses pour la
-            // navigation
-            return surahNames[surahNumber] + " (" + String.format("%03d", surahNumber) + ")";
+    private String surahSource(int surahNumber) {
+        File localFile = currentReciter != null && !currentReciter.isEmpty()
+                ? new File(getQuranDirectory() + "/" + BulkDownloadEngine.reciterDirName(currentReciter),
+                        BulkDownloadEngine.fileNameFor(surahNumber))
+                : null;
+        if (localFile != null && localFile.exists()) {
+            return localFile.getAbsolutePath();
         }
+        return buildAudioUrl(surahNumber, getSurahNameFromNumber(surahNumber), currentReciter);
+    }
 
-        return null;
+    /**
+     * Obtenir le nom de la sourate à partir de son numéro
+     */
+    private String getSurahNameFromNumber(int surahNumber) {
+        // Nom avec le numéro entre parenthèses pour la navigation
+        return SurahCatalog.displayNameOf(surahNumber);
     }
 
     /**
      * Construire l'URL audio pour une sourate
      */
     private String buildAudioUrl(int surahNumber, String surahName, String reciter) {
-        Log.d(TAG, "🔗 buildAudioUrl - DÉBUT - surahNumber: " + surahNumber + ", surahName: " + surahName
+        debugLog(TAG, "🔗 buildAudioUrl - DÉBUT - surahNumber: " + surahNumber + ", surahName: " + surahName
                 + ", reciter: " + reciter);
 
         if (surahName == null || reciter == null || reciter.isEmpty()) {
@@ -2032,55 +1857,28 @@ public class QuranAudioService extends Service {
             return null;
         }
 
-        try {
-            // Formater le numéro de sourate avec 3 chiffres
-            String formattedNumber = String.format("%03d", surahNumber);
-            Log.d(TAG, "🔗 Numéro formaté: " + formattedNumber);
-
-            // NOUVEAU : Nettoyer le nom de la sourate en retirant le numéro entre
-            // parenthèses
-            String cleanSurahName = surahName;
-            if (surahName.contains("(")) {
-                cleanSurahName = surahName.substring(0, surahName.indexOf("(")).trim();
-                Log.d(TAG, "🔗 Nom de sourate nettoyé: '" + cleanSurahName + "' (original: '" + surahName + "')");
-            }
+        String audioUrl = recitationUrl(reciter, surahNumber, "stream");
+        debugLog(TAG, "🔗 URL audio construite: " + audioUrl);
+        return audioUrl;
+    }
 
-            // Construire l'URL de base
-            String baseUrl = "https://myadhanapp.com/api/recitations.php";
+    /**
+     * URL de l'API des récitations pour une sourate : action "stream" (lecture) ou
+     * "download" (fichier complet). Sans token : RecitationHttp l'ajoute à chaque requête.
+     * Partagée avec le préchargement (QuranPrefetchJobService).
+     */
+    static String recitationUrl(String reciter, int surahNumber, String action) {
+        try {
             // CORRECTION CRITIQUE: Utiliser seulement le numéro formaté comme dans l'app
             // qui fonctionne
-            String surahParam = formattedNumber;
+            String surahParam = String.format("%03d", surahNumber);
             String encodedReciter = java.net.URLEncoder.encode(reciter, "UTF-8");
 
-            Log.d(TAG, "🔗 Paramètres URL:");
-            Log.d(TAG, "🔗 - baseUrl: " + baseUrl);
-            Log.d(TAG, "🔗 - cleanSurahName: " + cleanSurahName);
-            Log.d(TAG, "🔗 - surahParam: " + surahParam);
-            Log.d(TAG, "🔗 - encodedReciter: " + encodedReciter);
-
-            StringBuilder urlBuilder = new StringBuilder(baseUrl);
-            urlBuilder.append("?action=stream");
+            StringBuilder urlBuilder = new StringBuilder("https://myadhanapp.com/api/recitations.php");
+            urlBuilder.append("?action=").append(action);
             urlBuilder.append("&reciter=").append(encodedReciter);
             urlBuilder.append("&surah=").append(surahParam);
-
-            // AJOUT CRUCIAL: Récupérer le token depuis les SharedPreferences
-            try {
-                android.content.SharedPreferences prefs = getSharedPreferences("premium_prefs", MODE_PRIVATE);
-                String userToken = prefs.getString("user_token", "");
-                if (!userToken.isEmpty()) {
-                    urlBuilder.append("&token=").append(userToken);
-                    Log.d(TAG, "🔗 Token ajouté à l'URL");
-                } else {
-                    Log.w(TAG, "⚠️ Aucun token utilisateur trouvé");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "❌ Erreur récupération token: " + e.getMessage());
-            }
-
-            String audioUrl = urlBuilder.toString();
-
-            Log.d(TAG, "🔗 URL audio construite: " + audioUrl);
-            return audioUrl;
+            return urlBuilder.toString();
         } catch (java.io.UnsupportedEncodingException e) {
             Log.e(TAG, "❌ Erreur encodage URL: " + e.getMessage());
             return null;
@@ -2091,234 +1889,216 @@ public class QuranAudioService extends Service {
      * Gérer le seek
      */
     public void handleSeek(int position) {
-        if (!isPremiumUser || mediaPlayer == null) {
-            QuranSeekDebug.log(getApplicationContext(), "SEEK_REJECTED",
-                    "premium=" + isPremiumUser + " player=" + (mediaPlayer != null));
+        if (!isPremiumUser || playbackEngine == null) {
+            QuranSeekDebug.log(QuranSeekDebug.SEEK_REJECTED, isPremiumUser ? 1 : 0, playbackEngine != null ? 1 : 0);
             return;
         }
         if (!isMediaReady) {
-            Log.d(TAG, "🎯 Seek en attente (MediaPlayer pas prêt): " + position);
+            debugLog(TAG, "🎯 Seek en attente (lecteur pas prêt): " + position);
             pendingSeekMs = position;
-            QuranSeekDebug.log(getApplicationContext(), "SEEK_PENDING",
-                    "targetMs=" + position + " surah=" + currentSurah);
+            QuranSeekDebug.log(QuranSeekDebug.SEEK_PENDING, position, 0);
             return;
         }
-        QuranSeekDebug.log(getApplicationContext(), "SEEK_REQUEST",
-                "targetMs=" + position + " pos=" + currentPosition + " dur=" + totalDuration
-                        + " playing=" + isPlaying + " path=" + shortenPath(currentAudioPath));
-        performSeek(position, 0);
+        QuranSeekDebug.log(QuranSeekDebug.SEEK_REQUEST, position, currentPosition);
+        performSeek(position);
     }
 
-    private static String shortenPath(String path) {
-        if (path == null) {
-            return "null";
-        }
-        if (path.length() <= 120) {
-            return path;
+    /**
+     * 📖 Joue les ayahs fromAyah..toAyah de la sourate, repeat fois d'affilée, puis met en
+     * pause. La fin est un repère posé dans le moteur (pas de sondage de la position) ;
+     * chaque répétition est un seul seek vers le début de la plage.
+     * Renvoie false sans temps d'ayah pour ce récitateur ou cette plage.
+     */
+    public boolean playAyahRange(int surah, int fromAyah, int toAyah, int repeat) {
+        AyahTimings timings = ayahTimings();
+        if (!isPremiumUser || timings == null || toAyah < fromAyah || !timings.has(surah, fromAyah)
+                || !timings.has(surah, toAyah)) {
+            return false;
         }
-        return path.substring(0, 60) + "…" + path.substring(path.length() - 40);
-    }
+        int startMs = timings.startMs(surah, fromAyah);
+        int endMs = timings.endMs(surah, toAyah);
+        startAtAyah(surah, startMs);
 
-    private void cancelSeekResumeTimeout() {
-        if (seekResumeTimeoutRunnable != null) {
-            progressHandler.removeCallbacks(seekResumeTimeoutRunnable);
-            seekResumeTimeoutRunnable = null;
-        }
+        ayahSegment.arm(surah, fromAyah, toAyah, startMs, endMs, repeat);
+        playbackEngine.setSegmentEnd(endMs);
+        queueNextSurah(); // retire la sourate suivante de la file tant que le segment est armé
+        debugLog(TAG, "📖 Segment {}:{}-{} ({}-{} ms) x{}", surah, fromAyah, toAyah, startMs, endMs,
+                ayahSegment.repeatsLeft() + 1);
+        return true;
     }
 
-    /** Si OnSeekComplete ne vient pas (sourates courtes / stream), évite de rester bloqué en pause. */
-    private void scheduleSeekResumeFallback(final boolean wasPlaying) {
-        cancelSeekResumeTimeout();
-        if (!wasPlaying) {
-            return;
+    /** 📖 Place la lecture au début de l'ayah (lecture libre ensuite). */
+    public boolean jumpToAyah(int surah, int ayah) {
+        AyahTimings timings = ayahTimings();
+        if (!isPremiumUser || timings == null || !timings.has(surah, ayah)) {
+            return false;
         }
-        seekResumeTimeoutRunnable = () -> {
-            seekResumeTimeoutRunnable = null;
-            if (mediaPlayer == null) {
-                return;
-            }
-            try {
-                if (!mediaPlayer.isPlaying()) {
-                    mediaPlayer.start();
-                    isPlaying = true;
-                    currentPosition = mediaPlayer.getCurrentPosition();
-                    Log.w(TAG, "⏩ Reprise forcée après seek (timeout)");
-                    QuranSeekDebug.log(getApplicationContext(), "SEEK_TIMEOUT_RESUME",
-                            "pos=" + currentPosition + " dur=" + totalDuration);
-                    broadcastAudioProgress();
-                    QuranWidget.updatePlaybackState(
-                            getApplicationContext(), isPlaying, currentPosition, totalDuration);
-                    updateMediaSessionCompatMetadata();
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "❌ Reprise forcée seek: " + e.getMessage());
-            }
-        };
-        progressHandler.postDelayed(seekResumeTimeoutRunnable, 1200);
+        startAtAyah(surah, timings.startMs(surah, ayah));
+        queueNextSurah(); // lecture libre : l'enchaînement reprend
+        return true;
     }
 
-    private void performSeek(final int targetMs, final int attempt) {
-        if (mediaPlayer == null) {
-            return;
+    /** 📖 Ayah en cours dans la sourate chargée, 0 si inconnue (pas de temps, avant la première). */
+    public int getCurrentAyah() {
+        AyahTimings timings = ayahTimings();
+        int surah = extractSurahNumber(currentSurah);
+        if (timings == null || surah < 1) {
+            return 0;
         }
+        int position = playbackEngine != null && isMediaReady ? (int) playbackEngine.getPosition() : currentPosition;
+        return timings.ayahAt(surah, position);
+    }
 
-        int clamped = targetMs;
-        if (totalDuration > 0 && clamped > totalDuration) {
-            clamped = totalDuration;
+    private void startAtAyah(int surah, int startMs) {
+        clearAyahSegment();
+        if (playbackEngine == null) {
+            initializePlaybackEngine();
         }
-        if (clamped < 0) {
-            clamped = 0;
+        if (surah == extractSurahNumber(currentSurah)) {
+            handleSeek(startMs); // différé si la sourate est encore en préparation
+            playAudio();
+        } else {
+            loadSurahByNumber(surah, true);
+            pendingSeekMs = startMs; // appliqué par onEnginePrepared
         }
+    }
 
-        final int seekTarget = clamped;
-        final boolean wasPlaying = isPlaying;
-
-        Log.d(TAG, "🎯 Seek vers: " + seekTarget + "ms (tentative " + (attempt + 1) + ")");
-        QuranSeekDebug.log(getApplicationContext(), "SEEK_START",
-                "target=" + seekTarget + " attempt=" + (attempt + 1) + " wasPlaying=" + wasPlaying
-                        + " playerDur=" + safePlayerDuration());
+    private void onAyahSegmentEnd() {
+        switch (ayahSegment.onEnd()) {
+            case AyahSegment.REPEAT:
+                // Le repère du moteur reste armé : il se redéclenche au prochain passage.
+                // Même en fin de fichier, le lecteur reprend seul après le seek.
+                performSeek(ayahSegment.startMs());
+                break;
+            case AyahSegment.FINISHED:
+                if (playbackEngine != null) {
+                    playbackEngine.setSegmentEnd(-1);
+                }
+                pauseAudio();
+                queueNextSurah(); // segment fini : l'enchaînement reprend à la prochaine lecture
+                broadcastAyahSegmentCompleted(ayahSegment.surah(), ayahSegment.fromAyah(), ayahSegment.toAyah());
+                break;
+            default:
+                break;
+        }
+    }
 
-        cancelSeekResumeTimeout();
-        final int gen = ++seekGeneration;
+    private void clearAyahSegment() {
+        ayahSegment.clear();
+    }
 
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                mediaPlayer.seekTo((long) seekTarget, MediaPlayer.SEEK_CLOSEST);
-            } else {
-                mediaPlayer.seekTo(seekTarget);
-            }
+    private void broadcastAyahSegmentCompleted(int surah, int fromAyah, int toAyah) {
+        Intent intent = new Intent("com.drogbinho.prayertimesapp2.REACT_NATIVE_EVENT");
+        intent.putExtra("eventName", "QuranAyahSegmentCompleted");
+        intent.putExtra("surahNumber", surah);
+        intent.putExtra("fromAyah", fromAyah);
+        intent.putExtra("toAyah", toAyah);
+        intent.putExtra("reciter", currentReciter);
+        sendBroadcast(intent);
+    }
 
-            scheduleSeekResumeFallback(wasPlaying);
-            scheduleSeekVerification(gen, seekTarget, wasPlaying, attempt);
+    /** Fichier des temps d'ayah d'un récitateur (voir {@link AyahTimings}). */
+    static File ayahTimingsFile(Context context, String reciter) {
+        return new File(context.getFilesDir(),
+                "ayah_timings/" + BulkDownloadEngine.reciterDirName(reciter) + ".bin");
+    }
 
-            final int finalAttempt = attempt;
-            mediaPlayer.setOnSeekCompleteListener(mp -> {
-                cancelSeekResumeTimeout();
-                finishSeekFromListener(mp, seekTarget, wasPlaying, finalAttempt, gen);
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Erreur seek: " + e.getMessage());
-            QuranSeekDebug.log(getApplicationContext(), "SEEK_ERROR", e.getMessage());
-            cancelSeekResumeTimeout();
-            if (wasPlaying) {
-                try {
-                    mediaPlayer.start();
-                    isPlaying = true;
-                } catch (Exception ignored) {
-                }
+    /** Index du récitateur courant, remappé seulement si le fichier a changé. Null si absent. */
+    private synchronized AyahTimings ayahTimings() {
+        if (currentReciter == null || currentReciter.isEmpty()) {
+            return null;
+        }
+        File file = ayahTimingsFile(this, currentReciter);
+        long stamp = file.lastModified(); // 0 si absent
+        if (currentReciter.equals(ayahTimingsReciter) && stamp == ayahTimingsStamp) {
+            return ayahTimings;
+        }
+        AyahTimings timings = null;
+        if (stamp != 0) {
+            try {
+                timings = AyahTimings.open(file);
+            } catch (IOException e) {
+                warnLog(TAG, "⚠️ Temps d'ayah illisibles pour {}: {}", currentReciter, e.getMessage());
             }
         }
+        ayahTimings = timings;
+        ayahTimingsReciter = currentReciter;
+        ayahTimingsStamp = stamp;
+        return timings;
     }
 
-    private void finishSeekFromListener(MediaPlayer mp, int seekTarget, boolean wasPlaying, int attempt,
-            int gen) {
-        if (gen != seekGeneration) {
-            return;
+    private static String shortenPath(String path) {
+        if (path == null) {
+            return "null";
         }
-        int actual = mp.getCurrentPosition();
-        boolean seekLanded = Math.abs(actual - seekTarget) <= 5000;
-        boolean nowPlaying = false;
-        try {
-            nowPlaying = mp.isPlaying();
-        } catch (Exception ignored) {
+        if (path.length() <= 120) {
+            return path;
         }
+        return path.substring(0, 60) + "…" + path.substring(path.length() - 40);
+    }
 
-        QuranSeekDebug.log(getApplicationContext(), "SEEK_COMPLETE",
-                "target=" + seekTarget + " actual=" + actual + " landed=" + seekLanded
-                        + " playing=" + nowPlaying + " playerDur=" + safePlayerDuration()
-                        + " attempt=" + (attempt + 1));
-
-        if (!seekLanded && attempt < 1 && safePlayerDuration() <= 0) {
-            mp.setOnSeekCompleteListener(null);
-            progressHandler.postDelayed(() -> performSeek(seekTarget, attempt + 1), 200);
+    /**
+     * Seek en un seul saut : ExoPlayer se place exactement sur la cible (index de trames
+     * {@link Mp3SeekIndex} pour les fichiers téléchargés, sinon table Xing/VBRI ou débit
+     * constant, Range HTTP pour le stream) et reprend seul la lecture en cours.
+     * La fin du seek arrive par {@link PlaybackEngine.Listener#onSeekComplete}.
+     */
+    private void performSeek(final int targetMs) {
+        if (playbackEngine == null) {
             return;
         }
 
-        if (!seekLanded && attempt < 1) {
-            mp.setOnSeekCompleteListener(null);
-            progressHandler.postDelayed(() -> performSeek(seekTarget, attempt + 1), 200);
-            return;
+        int seekTarget = targetMs;
+        if (totalDuration > 0 && seekTarget > totalDuration) {
+            seekTarget = totalDuration;
         }
-
-        currentPosition = actual;
-        if (wasPlaying && !mp.isPlaying()) {
-            try {
-                mp.start();
-                isPlaying = true;
-            } catch (Exception e) {
-                QuranSeekDebug.log(getApplicationContext(), "SEEK_RESUME_FAIL", e.getMessage());
-            }
+        if (seekTarget < 0) {
+            seekTarget = 0;
         }
+
+        debugLog(TAG, "🎯 Seek vers: " + seekTarget + "ms");
+        seekStartedNanos = System.nanoTime();
+        QuranSeekDebug.log(QuranSeekDebug.SEEK_START, seekTarget, 1);
+
+        playbackEngine.seekTo(seekTarget);
+
+        // La jauge suit immédiatement, sans attendre le tampon
+        currentPosition = seekTarget;
         broadcastAudioProgress();
         QuranWidget.updatePlaybackState(
                 getApplicationContext(), isPlaying, currentPosition, totalDuration);
         updateMediaSessionCompatMetadata();
-        mp.setOnSeekCompleteListener(null);
     }
 
-    /** Ne dépend pas uniquement de OnSeekComplete (souvent absent si playerDur=-1). */
-    private void scheduleSeekVerification(final int gen, final int seekTarget, final boolean wasPlaying,
-            final int attempt) {
-        progressHandler.postDelayed(() -> {
-            if (gen != seekGeneration || mediaPlayer == null) {
-                return;
-            }
-            try {
-                int actual = mediaPlayer.getCurrentPosition();
-                int playerDur = safePlayerDuration();
-                boolean landed = Math.abs(actual - seekTarget) <= 5000;
-                boolean playing = mediaPlayer.isPlaying();
-
-                QuranSeekDebug.log(getApplicationContext(), "SEEK_POLL",
-                        "target=" + seekTarget + " actual=" + actual + " landed=" + landed
-                                + " playing=" + playing + " playerDur=" + playerDur);
-
-                if (wasPlaying && !playing) {
-                    mediaPlayer.start();
-                    isPlaying = true;
-                    playing = true;
-                }
-
-                if (landed) {
-                    currentPosition = actual;
-                    broadcastAudioProgress();
-                    QuranWidget.updatePlaybackState(
-                            getApplicationContext(), isPlaying, currentPosition, totalDuration);
-                    updateMediaSessionCompatMetadata();
-                    return;
-                }
-
-                if (attempt < 2) {
-                    scheduleSeekVerification(gen, seekTarget, wasPlaying, attempt + 1);
-                } else {
-                    currentPosition = actual;
-                    broadcastAudioProgress();
-                }
-            } catch (Exception e) {
-                QuranSeekDebug.log(getApplicationContext(), "SEEK_POLL_ERR", e.getMessage());
-            }
-        }, 350L * (attempt + 1));
+    private void finishSeek(int actual) {
+        QuranSeekDebug.log(QuranSeekDebug.SEEK_COMPLETE, currentPosition, actual);
+        currentPosition = actual;
+        if (seekStartedNanos != 0) {
+            PerfMetrics.recordSinceNanos(PerfMetrics.H_QURAN_SEEK_MS, seekStartedNanos);
+            seekStartedNanos = 0;
+        }
+        broadcastAudioProgress();
+        QuranWidget.updatePlaybackState(
+                getApplicationContext(), isPlaying, currentPosition, totalDuration);
+        updateMediaSessionCompatMetadata();
     }
 
     private int safePlayerDuration() {
-        try {
-            return mediaPlayer != null ? mediaPlayer.getDuration() : -1;
-        } catch (Exception e) {
-            return -1;
-        }
+        long duration = playbackEngine != null ? playbackEngine.getDuration() : -1;
+        return duration > 0 ? (int) Math.min(duration, Integer.MAX_VALUE) : -1;
     }
 
     /**
      * Gérer l'arrêt
      */
     private void handleStop() {
-        Log.d(TAG, "⏹️ Arrêt");
+        debugLog(TAG, "⏹️ Arrêt");
         stopAudio();
 
         // Arrêter le service en mode foreground si il était actif
         if (isForegroundService()) {
             stopForeground(true);
-            Log.d(TAG, "🎵 Service arrêté du mode foreground");
+            debugLog(TAG, "🎵 Service arrêté du mode foreground");
         }
 
         stopSelf();
@@ -2334,7 +2114,7 @@ public class QuranAudioService extends Service {
         boolean newState = !autoAdvanceEnabled;
         setAutoAdvanceEnabled(newState);
 
-        Log.d(TAG, "🎵 Auto-avancement " + (newState ? "activé" : "désactivé"));
+        debugLog(TAG, "🎵 Auto-avancement " + (newState ? "activé" : "désactivé"));
 
         // Diffuser l'état pour mettre à jour le widget
         broadcastAudioStateChanged();
@@ -2354,7 +2134,7 @@ public class QuranAudioService extends Service {
         boolean newState = !loopEnabled;
         setLoopEnabled(newState);
 
-        Log.d(TAG, "🎵 Boucle " + (newState ? "activée" : "désactivée"));
+        debugLog(TAG, "🎵 Boucle " + (newState ? "activée" : "désactivée"));
 
         // Diffuser l'état pour mettre à jour le widget
         broadcastAudioStateChanged();
@@ -2368,26 +2148,26 @@ public class QuranAudioService extends Service {
      * Lancer la lecture audio
      */
     public void playAudio() {
-        Log.d(TAG, "🎵 playAudio() appelé - isPremiumUser: " + isPremiumUser + ", mediaPlayer null: "
-                + (mediaPlayer == null) + ", isMediaReady: " + isMediaReady);
+        debugLog(TAG, "🎵 playAudio() appelé - isPremiumUser: " + isPremiumUser + ", moteur null: "
+                + (playbackEngine == null) + ", isMediaReady: " + isMediaReady);
 
         if (!isPremiumUser) {
             Log.w(TAG, "⚠️ Utilisateur non premium, lecture ignorée");
             return;
         }
 
-        if (mediaPlayer == null) {
-            Log.w(TAG, "⚠️ MediaPlayer null, réinitialisation...");
-            initializeMediaPlayer();
+        if (playbackEngine == null) {
+            Log.w(TAG, "⚠️ Moteur de lecture null, réinitialisation...");
+            initializePlaybackEngine();
         }
 
         if (!isMediaReady) {
-            Log.d(TAG, "⏳ MediaPlayer pas encore prêt — lecture mise en file d'attente");
+            debugLog(TAG, "⏳ Lecteur pas encore prêt — lecture mise en file d'attente");
             pendingAutoPlayAfterPrepare = true;
             return;
         }
 
-        if (mediaPlayer != null && !isPlaying) {
+        if (playbackEngine != null && !isPlaying) {
             startPlayback();
         }
     }
@@ -2397,16 +2177,15 @@ public class QuranAudioService extends Service {
      */
     private void startPlayback() {
         try {
-            Log.d(TAG, "🎵 startPlayback() - MediaPlayer null: " + (mediaPlayer == null));
+            debugLog(TAG, "🎵 startPlayback() - moteur null: " + (playbackEngine == null));
 
-            if (mediaPlayer == null) {
-                Log.e(TAG, "❌ MediaPlayer null, impossible de démarrer la lecture");
+            if (playbackEngine == null) {
+                Log.e(TAG, "❌ Moteur de lecture null, impossible de démarrer la lecture");
                 return;
             }
 
-            // NOUVEAU : Vérifier si le MediaPlayer est prêt
-            if (!mediaPlayer.isPlaying()) {
-                Log.d(TAG, "🎵 MediaPlayer prêt, demande du focus audio...");
+            if (!playbackEngine.isPlaying()) {
+                debugLog(TAG, "🎵 Lecteur prêt, demande du focus audio...");
 
                 // Demander le focus audio avec la nouvelle API
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && audioFocusRequest != null) {
@@ -2415,7 +2194,7 @@ public class QuranAudioService extends Service {
                         Log.w(TAG, "⚠️ Focus audio refusé");
                         return;
                     }
-                    Log.d(TAG, "✅ Focus audio accordé (nouvelle API)");
+                    debugLog(TAG, "✅ Focus audio accordé (nouvelle API)");
                 } else {
                     // Ancienne API pour Android < 8
                     int result = audioManager.requestAudioFocus(
@@ -2426,34 +2205,25 @@ public class QuranAudioService extends Service {
                         Log.w(TAG, "⚠️ Focus audio refusé (ancienne API)");
                         return;
                     }
-                    Log.d(TAG, "✅ Focus audio accordé (ancienne API)");
-                }
-
-                // NOUVEAU : Attendre un peu que le MediaPlayer soit complètement prêt
-                try {
-                    Thread.sleep(100); // Attendre 100ms
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                    debugLog(TAG, "✅ Focus audio accordé (ancienne API)");
                 }
 
                 // Démarrer la lecture
-                Log.d(TAG, "🎵 Démarrage de la lecture...");
-                mediaPlayer.start();
+                debugLog(TAG, "🎵 Démarrage de la lecture...");
+                playbackEngine.play();
                 isPlaying = true;
+                recordLoadToPlay();
 
-                // 🎯 CORRECTION: Obtenir la position actuelle du MediaPlayer (au lieu de forcer
+                // 🎯 CORRECTION: Obtenir la position actuelle du lecteur (au lieu de forcer
                 // à 0)
-                currentPosition = mediaPlayer.getCurrentPosition();
-                int reportedDuration = mediaPlayer.getDuration();
+                currentPosition = (int) playbackEngine.getPosition();
+                int reportedDuration = safePlayerDuration();
                 if (reportedDuration > 0) {
                     updateDurationFromPlayer(reportedDuration);
                 } else if (totalDuration <= 0 && expectedDurationMs > 0) {
                     totalDuration = expectedDurationMs;
                 }
-                if (safePlayerDuration() <= 0) {
-                    startDurationPoll();
-                }
-                Log.d(TAG, "🎯 Position actuelle récupérée: " + currentPosition + "ms, durée: "
+                debugLog(TAG, "🎯 Position actuelle récupérée: " + currentPosition + "ms, durée: "
                         + totalDuration + "ms");
 
                 // NOUVEAU : Réinitialiser la variable de focus car l'utilisateur a cliqué
@@ -2466,24 +2236,24 @@ public class QuranAudioService extends Service {
                 // Démarrer le timer de progression
                 startProgressTimer();
 
-                Log.d(TAG, "▶️ Lecture audio démarrée avec succès");
+                debugLog(TAG, "▶️ Lecture audio démarrée avec succès");
 
                 // Diffuser l'état
                 broadcastAudioStateChanged();
                 updateNotification();
 
                 // NOUVEAU : Mettre à jour directement l'état du widget
-                Log.d(TAG, "🚀 Mise à jour directe de l'état du widget après démarrage lecture");
+                debugLog(TAG, "🚀 Mise à jour directe de l'état du widget après démarrage lecture");
                 QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
 
                 // 🎯 METTRE À JOUR MediaSessionCompat pour écran de verrouillage avec la bonne
                 // position
-                Log.d(TAG, "🎯 Mise à jour métadonnées écran de verrouillage après PLAY - Position: " + currentPosition
+                debugLog(TAG, "🎯 Mise à jour métadonnées écran de verrouillage après PLAY - Position: " + currentPosition
                         + "ms");
                 updateMediaSessionCompatMetadata();
 
             } else {
-                Log.d(TAG, "🎵 MediaPlayer déjà en lecture");
+                debugLog(TAG, "🎵 Lecteur déjà en lecture");
             }
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur démarrage lecture: " + e.getMessage());
@@ -2496,15 +2266,15 @@ public class QuranAudioService extends Service {
      * Mettre en pause l'audio
      */
     public void pauseAudio() {
-        if (mediaPlayer == null || !isPlaying)
+        if (playbackEngine == null || !isPlaying)
             return;
 
         try {
             // 🎯 SAUVEGARDER la position AVANT de faire pause
-            currentPosition = mediaPlayer.getCurrentPosition();
-            Log.d(TAG, "🎯 Position sauvegardée avant pause: " + currentPosition + "ms");
+            currentPosition = (int) playbackEngine.getPosition();
+            debugLog(TAG, "🎯 Position sauvegardée avant pause: " + currentPosition + "ms");
 
-            mediaPlayer.pause();
+            playbackEngine.pause();
             isPlaying = false;
 
             // NOUVEAU : Réinitialiser la variable de focus car l'utilisateur a cliqué
@@ -2517,19 +2287,19 @@ public class QuranAudioService extends Service {
             // Arrêter le timer de progression
             stopProgressTimer();
 
-            Log.d(TAG, "🚨🚨🚨 VERSION_DEBUG_LOCK_SCREEN_2025 - pauseAudio() NOUVELLE VERSION 🚨🚨🚨");
-            Log.d(TAG, "🚨🚨🚨 NOUVELLE VERSION CONFIRMÉE 2025 🚨🚨🚨 Audio mis en pause");
+            debugLog(TAG, "🚨🚨🚨 VERSION_DEBUG_LOCK_SCREEN_2025 - pauseAudio() NOUVELLE VERSION 🚨🚨🚨");
+            debugLog(TAG, "🚨🚨🚨 NOUVELLE VERSION CONFIRMÉE 2025 🚨🚨🚨 Audio mis en pause");
 
             // Diffuser l'état
             broadcastAudioStateChanged();
             updateNotification();
 
             // NOUVEAU : Mettre à jour directement l'état du widget
-            Log.d(TAG, "🚀 Mise à jour directe de l'état du widget après pause");
+            debugLog(TAG, "🚀 Mise à jour directe de l'état du widget après pause");
             QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
 
             // 🎯 METTRE À JOUR MediaSessionCompat pour écran de verrouillage
-            Log.d(TAG, "🎯 Mise à jour métadonnées écran de verrouillage après PAUSE");
+            debugLog(TAG, "🎯 Mise à jour métadonnées écran de verrouillage après PAUSE");
             updateMediaSessionCompatMetadata();
 
         } catch (Exception e) {
@@ -2542,10 +2312,8 @@ public class QuranAudioService extends Service {
      */
     public void stopAudio() {
         try {
-            if (mediaPlayer != null) {
-                if (mediaPlayer.isPlaying()) {
-                    mediaPlayer.stop();
-                }
+            if (playbackEngine != null) {
+                playbackEngine.stop();
             }
 
             isPlaying = false;
@@ -2561,12 +2329,12 @@ public class QuranAudioService extends Service {
             // Arrêter le timer de progression
             stopProgressTimer();
 
-            Log.d(TAG, "⏹️ Audio arrêté");
+            debugLog(TAG, "⏹️ Audio arrêté");
 
             // Arrêter le service en mode foreground si il n'y a plus de lecture active
             if (isForegroundService() && !isPlaying && currentAudioPath.isEmpty()) {
                 stopForeground(true);
-                Log.d(TAG, "🎵 Service arrêté du mode foreground (plus de lecture active)");
+                debugLog(TAG, "🎵 Service arrêté du mode foreground (plus de lecture active)");
             }
 
             // Diffuser l'état
@@ -2574,7 +2342,7 @@ public class QuranAudioService extends Service {
             updateNotification();
 
             // NOUVEAU : Mettre à jour directement l'état du widget
-            Log.d(TAG, "🚀 Mise à jour directe de l'état du widget après arrêt");
+            debugLog(TAG, "🚀 Mise à jour directe de l'état du widget après arrêt");
             QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
 
         } catch (Exception e) {
@@ -2597,7 +2365,7 @@ public class QuranAudioService extends Service {
             boolean autoPlay) {
         pendingAutoPlayAfterPrepare = autoPlay;
         expectedDurationMs = expectedDuration > 0 ? expectedDuration : 0;
-        Log.d(TAG, "🎵 Chargement audio: " + surah + " - " + reciter + " - " + audioPath
+        debugLog(TAG, "🎵 Chargement audio: " + surah + " - " + reciter + " - " + audioPath
                 + " (durée attendue=" + expectedDurationMs + "ms, autoPlay=" + autoPlay + ")");
 
         clearAlbumArt();
@@ -2610,36 +2378,23 @@ public class QuranAudioService extends Service {
         // Le service est déjà en mode foreground depuis onCreate()
         // Juste mettre à jour la notification
         updateNotification();
-        Log.d(TAG, "🎵 Notification mise à jour pour chargement audio premium");
+        debugLog(TAG, "🎵 Notification mise à jour pour chargement audio premium");
 
         // Vérifier si le service Adhan est actif et attendre
         waitForAdhanServiceToFinish();
 
-        if (mediaPlayer == null) {
-            Log.w(TAG, "⚠️ MediaPlayer null, réinitialisation...");
-            initializeMediaPlayer();
+        if (playbackEngine == null) {
+            Log.w(TAG, "⚠️ Moteur de lecture null, réinitialisation...");
+            initializePlaybackEngine();
         }
 
         try {
-            // Arrêter la lecture actuelle
+            // Arrêter la lecture actuelle (la nouvelle source remplacera la liste du moteur)
             if (isPlaying) {
-                try {
-                    mediaPlayer.stop();
-                } catch (Exception e) {
-                    Log.w(TAG, "⚠️ Erreur arrêt MediaPlayer: " + e.getMessage());
-                }
+                playbackEngine.stop();
                 isPlaying = false;
             }
 
-            // Réinitialiser le MediaPlayer proprement
-            try {
-                mediaPlayer.reset();
-            } catch (Exception e) {
-                Log.w(TAG, "⚠️ Erreur reset MediaPlayer: " + e.getMessage());
-                // Réinitialiser complètement le MediaPlayer
-                initializeMediaPlayer();
-            }
-
             clearPlaybackTimingBeforeLoad();
 
             // Charger le nouveau fichier
@@ -2650,85 +2405,58 @@ public class QuranAudioService extends Service {
                 }
 
                 String playbackUrl = preferStreamPlaybackUrl(audioPath);
-                Log.d(TAG, "🎵 Chargement HTTP (stream/Range): " + playbackUrl);
-                QuranSeekDebug.log(getApplicationContext(), "LOAD_HTTP",
-                        shortenPath(playbackUrl) + " expected=" + expectedDurationMs);
-
-                try {
-                    Uri audioUri = Uri.parse(playbackUrl);
-                    mediaPlayer.setDataSource(getApplicationContext(), audioUri,
-                            httpHeadersForAudioUrl(playbackUrl));
+                debugLog(TAG, "🎵 Chargement HTTP (stream/Range): " + playbackUrl);
+                QuranSeekDebug.log(QuranSeekDebug.LOAD_HTTP, expectedDurationMs, 0);
 
-                } catch (Exception e) {
-                    Log.e(TAG, "❌ Erreur chargement stream: " + e.getMessage());
-
-                    try {
-                        String downloadUrl = playbackUrl.contains("action=stream")
-                                ? playbackUrl.replace("action=stream", "action=download")
-                                : playbackUrl;
-                        Log.d(TAG, "🔄 Fallback download: " + downloadUrl);
-                        Uri audioUri = Uri.parse(downloadUrl);
-                        mediaPlayer.setDataSource(getApplicationContext(), audioUri,
-                                httpHeadersForAudioUrl(downloadUrl));
-                        playbackUrl = downloadUrl;
-                    } catch (Exception fallbackError) {
-                        Log.e(TAG, "❌ Erreur fallback download: " + fallbackError.getMessage());
-                        handleStreamingError(audioPath, surah, reciter);
-                        return;
-                    }
-                }
+                // Erreurs de source (réseau, format) : repli action=download via handlePlaybackError
+                playbackEngine.setSource(playbackUrl);
                 audioPath = playbackUrl;
             } else {
                 // Fichier local
                 File audioFile = new File(audioPath);
                 if (audioFile.exists()) {
-                    Log.d(TAG, "🎵 Chargement fichier local: " + audioFile.getAbsolutePath());
-                    mediaPlayer.setDataSource(audioFile.getAbsolutePath());
+                    debugLog(TAG, "🎵 Chargement fichier local: " + audioFile.getAbsolutePath());
+                    playbackEngine.setSource(audioFile.getAbsolutePath());
+                    markLocalFileInUse(audioFile);
                 } else {
                     Log.e(TAG, "❌ Fichier audio introuvable: " + audioPath);
                     return;
                 }
             }
 
-            // Préparer le MediaPlayer de manière asynchrone
-            mediaPlayer.prepareAsync();
-
-            // NOUVEAU : Définir le OnPreparedListener par défaut
-            mediaPlayer.setOnPreparedListener(mp -> {
-                Log.d(TAG, "🎵 MediaPlayer prêt");
-                isMediaReady = true;
-                applyResolvedDuration(mp);
+            // NOUVEAU : Suite du chargement quand le moteur est prêt
+            onEnginePrepared = () -> {
+                applyResolvedDuration();
                 currentPosition = 0;
                 if (pendingSeekMs >= 0) {
                     int seek = pendingSeekMs;
                     pendingSeekMs = -1;
-                    performSeek(seek, 0);
+                    performSeek(seek);
                 }
-                Log.d(TAG, "🎵 Durée totale: " + totalDuration + "ms");
+                debugLog(TAG, "🎵 Durée totale: " + totalDuration + "ms");
 
                 if (pendingAutoPlayAfterPrepare) {
                     pendingAutoPlayAfterPrepare = false;
-                    Log.d(TAG, "🎵 Démarrage automatique après prepareAsync");
+                    debugLog(TAG, "🎵 Démarrage automatique après préparation");
                     startPlayback();
                 }
 
                 // NOUVEAU : Logs de debug pour vérifier l'envoi des événements
-                Log.d(TAG, "🔍 Envoi événements après préparation - durée: " + totalDuration + "ms");
+                debugLog(TAG, "🔍 Envoi événements après préparation - durée: " + totalDuration + "ms");
                 broadcastAudioStateChanged();
-                Log.d(TAG, "✅ Événement état audio envoyé");
+                debugLog(TAG, "✅ Événement état audio envoyé");
                 broadcastAudioProgress();
-                Log.d(TAG, "✅ Événement progression audio envoyé");
+                debugLog(TAG, "✅ Événement progression audio envoyé");
 
-                if (safePlayerDuration() <= 0) {
-                    startDurationPoll();
-                }
-
-                Log.d(TAG,
+                debugLog(TAG,
                         "🔍 Vérification - totalDuration: " + totalDuration + ", currentPosition: " + currentPosition);
                 if (currentAlbumArt == null && currentAudioPath != null) {
                     loadAlbumArtAsync(currentAudioPath);
                 }
-            });
+            };
+
+            // Préparer la source de manière asynchrone
+            playbackEngine.prepare();
 
             // Mettre à jour les variables d'état
             currentAudioPath = audioPath;
@@ -2742,19 +2470,17 @@ public class QuranAudioService extends Service {
             // Sauvegarder l'état
             saveAudioState();
 
-            // 🎯 SUPPRIMÉ: updateMediaSessionMetadata() (causait double audio)
-
             // 🎯 METTRE À JOUR MediaSessionCompat pour contrôles écran de verrouillage
             updateMediaSessionCompatMetadata();
 
-            Log.d(TAG, "✅ Audio chargé avec succès: " + surah + " - " + reciter);
+            debugLog(TAG, "✅ Audio chargé avec succès: " + surah + " - " + reciter);
 
             // Diffuser l'état
             broadcastAudioStateChanged();
             updateNotification();
 
             // NOUVEAU : Mettre à jour directement l'état du widget
-            Log.d(TAG, "🚀 Mise à jour directe de l'état du widget après chargement audio");
+            debugLog(TAG, "🚀 Mise à jour directe de l'état du widget après chargement audio");
             QuranWidget.updateCurrentAudio(this, surah, reciter, audioPath);
             QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
 
@@ -2768,16 +2494,16 @@ public class QuranAudioService extends Service {
      */
     private void loadAudioWithAutoPlay(String audioPath, String surah, String reciter,
             boolean wasPlayingBeforeNavigation) {
-        Log.d(TAG, "🎵 loadAudioWithAutoPlay - DÉBUT");
-        Log.d(TAG, "🎵 loadAudioWithAutoPlay - audioPath: " + audioPath);
-        Log.d(TAG, "🎵 loadAudioWithAutoPlay - surah: " + surah);
-        Log.d(TAG, "🎵 loadAudioWithAutoPlay - reciter: " + reciter);
-        Log.d(TAG, "🎵 loadAudioWithAutoPlay - wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
-        Log.d(TAG, "🎵 loadAudioWithAutoPlay - isPremiumUser: " + isPremiumUser);
+        debugLog(TAG, "🎵 loadAudioWithAutoPlay - DÉBUT");
+        debugLog(TAG, "🎵 loadAudioWithAutoPlay - audioPath: " + audioPath);
+        debugLog(TAG, "🎵 loadAudioWithAutoPlay - surah: " + surah);
+        debugLog(TAG, "🎵 loadAudioWithAutoPlay - reciter: " + reciter);
+        debugLog(TAG, "🎵 loadAudioWithAutoPlay - wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
+        debugLog(TAG, "🎵 loadAudioWithAutoPlay - isPremiumUser: " + isPremiumUser);
 
         this.wasPlayingBeforeNavigation = wasPlayingBeforeNavigation;
 
-        Log.d(TAG, "🎵 Chargement audio avec auto-play: " + surah + " - " + reciter + " - " + audioPath);
+        debugLog(TAG, "🎵 Chargement audio avec auto-play: " + surah + " - " + reciter + " - " + audioPath);
 
         if (!isPremiumUser) {
             Log.w(TAG, "⚠️ Utilisateur non premium, chargement ignoré");
@@ -2789,36 +2515,23 @@ public class QuranAudioService extends Service {
         // Le service est déjà en mode foreground depuis onCreate()
         // Juste mettre à jour la notification
         updateNotification();
-        Log.d(TAG, "🎵 Notification mise à jour pour chargement audio premium");
+        debugLog(TAG, "🎵 Notification mise à jour pour chargement audio premium");
 
         // Vérifier si le service Adhan est actif et attendre
         waitForAdhanServiceToFinish();
 
-        if (mediaPlayer == null) {
-            Log.w(TAG, "⚠️ MediaPlayer null, réinitialisation...");
-            initializeMediaPlayer();
+        if (playbackEngine == null) {
+            Log.w(TAG, "⚠️ Moteur de lecture null, réinitialisation...");
+            initializePlaybackEngine();
         }
 
         try {
-            // Arrêter la lecture actuelle
+            // Arrêter la lecture actuelle (la nouvelle source remplacera la liste du moteur)
             if (isPlaying) {
-                try {
-                    mediaPlayer.stop();
-                } catch (Exception e) {
-                    Log.w(TAG, "⚠️ Erreur arrêt MediaPlayer: " + e.getMessage());
-                }
+                playbackEngine.stop();
                 isPlaying = false;
             }
 
-            // Réinitialiser le MediaPlayer proprement
-            try {
-                mediaPlayer.reset();
-            } catch (Exception e) {
-                Log.w(TAG, "⚠️ Erreur reset MediaPlayer: " + e.getMessage());
-                // Réinitialiser complètement le MediaPlayer
-                initializeMediaPlayer();
-            }
-
             clearPlaybackTimingBeforeLoad();
 
             // Charger le nouveau fichier
@@ -2829,69 +2542,41 @@ public class QuranAudioService extends Service {
                 }
 
                 String playbackUrl = preferStreamPlaybackUrl(audioPath);
-                Log.d(TAG, "🎵 Chargement HTTP (stream/Range): " + playbackUrl);
-                QuranSeekDebug.log(getApplicationContext(), "LOAD_HTTP",
-                        shortenPath(playbackUrl) + " expected=" + expectedDurationMs);
-
-                try {
-                    Uri audioUri = Uri.parse(playbackUrl);
-                    mediaPlayer.setDataSource(getApplicationContext(), audioUri,
-                            httpHeadersForAudioUrl(playbackUrl));
+                debugLog(TAG, "🎵 Chargement HTTP (stream/Range): " + playbackUrl);
+                QuranSeekDebug.log(QuranSeekDebug.LOAD_HTTP, expectedDurationMs, 0);
 
-                } catch (Exception e) {
-                    Log.e(TAG, "❌ Erreur chargement stream: " + e.getMessage());
-
-                    try {
-                        String downloadUrl = playbackUrl.contains("action=stream")
-                                ? playbackUrl.replace("action=stream", "action=download")
-                                : playbackUrl;
-                        Log.d(TAG, "🔄 Fallback download: " + downloadUrl);
-                        Uri audioUri = Uri.parse(downloadUrl);
-                        mediaPlayer.setDataSource(getApplicationContext(), audioUri,
-                                httpHeadersForAudioUrl(downloadUrl));
-                        playbackUrl = downloadUrl;
-                    } catch (Exception fallbackError) {
-                        Log.e(TAG, "❌ Erreur fallback download: " + fallbackError.getMessage());
-                        handleStreamingError(audioPath, surah, reciter);
-                        return;
-                    }
-                }
+                // Erreurs de source (réseau, format) : repli action=download via handlePlaybackError
+                playbackEngine.setSource(playbackUrl);
                 audioPath = playbackUrl;
             } else {
                 // Fichier local
                 File audioFile = new File(audioPath);
                 if (audioFile.exists()) {
-                    Log.d(TAG, "🎵 Chargement fichier local: " + audioFile.getAbsolutePath());
-                    mediaPlayer.setDataSource(audioFile.getAbsolutePath());
+                    debugLog(TAG, "🎵 Chargement fichier local: " + audioFile.getAbsolutePath());
+                    playbackEngine.setSource(audioFile.getAbsolutePath());
+                    markLocalFileInUse(audioFile);
                 } else {
                     Log.e(TAG, "❌ Fichier audio introuvable: " + audioPath);
                     return;
                 }
             }
 
-            // Préparer le MediaPlayer de manière asynchrone
-            mediaPlayer.prepareAsync();
-
             // Mettre à jour les variables d'état
             currentAudioPath = audioPath;
             currentSurah = surah;
             currentReciter = reciter;
-            isPlaying = false; // Définir à false pour laisser le MediaPlayer gérer le démarrage
+            isPlaying = false; // Définir à false pour laisser le moteur gérer le démarrage
             currentPosition = 0;
 
             loadAlbumArtAsync(audioPath);
 
-            // 🎯 SUPPRIMÉ: updateMediaSessionMetadata() (causait double audio)
-
             // Sauvegarder l'état
             saveAudioState();
 
-            // NOUVEAU : Définir le MediaPlayer.OnPreparedListener pour gérer le démarrage
-            // après chargement
-            mediaPlayer.setOnPreparedListener(mp -> {
-                Log.d(TAG, "🎵 MediaPlayer prêt, démarrage automatique...");
-                isMediaReady = true;
-                applyResolvedDuration(mp);
+            // NOUVEAU : Suite du chargement quand le moteur est prêt (démarrage automatique)
+            onEnginePrepared = () -> {
+                debugLog(TAG, "🎵 Lecteur prêt, démarrage automatique...");
+                applyResolvedDuration();
                 if (currentAlbumArt == null && currentAudioPath != null) {
                     loadAlbumArtAsync(currentAudioPath);
                 }
@@ -2899,17 +2584,18 @@ public class QuranAudioService extends Service {
                 if (pendingSeekMs >= 0) {
                     int seek = pendingSeekMs;
                     pendingSeekMs = -1;
-                    performSeek(seek, 0);
+                    performSeek(seek);
                 }
-                Log.d(TAG, "🎵 Durée totale: " + totalDuration + "ms");
-                Log.d(TAG, "🎵 wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
+                debugLog(TAG, "🎵 Durée totale: " + totalDuration + "ms");
+                debugLog(TAG, "🎵 wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
 
                 if (shouldAutoStartAfterNavigation()) {
-                    Log.d(TAG, "🎵 Démarrage automatique car l'utilisateur était en train d'écouter");
+                    debugLog(TAG, "🎵 Démarrage automatique car l'utilisateur était en train d'écouter");
                     try {
-                        mp.start();
+                        playbackEngine.play();
                         isPlaying = true;
-                        Log.d(TAG, "🎵 Lecture démarrée automatiquement");
+                        recordLoadToPlay();
+                        debugLog(TAG, "🎵 Lecture démarrée automatiquement");
 
                         // Démarrer le timer de progression
                         startProgressTimer();
@@ -2927,7 +2613,7 @@ public class QuranAudioService extends Service {
                         Log.e(TAG, "❌ Erreur démarrage automatique: " + e.getMessage());
                     }
                 } else {
-                    Log.d(TAG, "🎵 Pas de démarrage automatique car l'utilisateur n'était pas en train d'écouter");
+                    debugLog(TAG, "🎵 Pas de démarrage automatique car l'utilisateur n'était pas en train d'écouter");
                     isPlaying = false;
 
                     // 🎯 NOUVEAU : Synchroniser immédiatement avec le widget
@@ -2941,24 +2627,27 @@ public class QuranAudioService extends Service {
                 }
 
                 // NOUVEAU : Logs de debug pour vérifier l'envoi des événements
-                Log.d(TAG, "🔍 Envoi événements après préparation - durée: " + totalDuration + "ms");
+                debugLog(TAG, "🔍 Envoi événements après préparation - durée: " + totalDuration + "ms");
                 broadcastAudioStateChanged();
-                Log.d(TAG, "✅ Événements envoyés après préparation");
-            });
+                debugLog(TAG, "✅ Événements envoyés après préparation");
+            };
+
+            // Préparer la source de manière asynchrone
+            playbackEngine.prepare();
 
-            Log.d(TAG, "✅ Audio chargé avec succès: " + surah + " - " + reciter);
+            debugLog(TAG, "✅ Audio chargé avec succès: " + surah + " - " + reciter);
 
             // Diffuser l'état
             broadcastAudioStateChanged();
             updateNotification();
 
             // NOUVEAU : Mettre à jour directement l'état du widget
-            Log.d(TAG, "🚀 Mise à jour directe de l'état du widget après chargement audio");
+            debugLog(TAG, "🚀 Mise à jour directe de l'état du widget après chargement audio");
             QuranWidget.updateCurrentAudio(this, surah, reciter, audioPath);
             QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
 
             // 🎯 METTRE À JOUR MediaSessionCompat pour écran de verrouillage
-            Log.d(TAG, "🎯 Mise à jour métadonnées écran de verrouillage après chargement audio");
+            debugLog(TAG, "🎯 Mise à jour métadonnées écran de verrouillage après chargement audio");
             updateMediaSessionCompatMetadata();
 
         } catch (Exception e) {
@@ -2974,7 +2663,7 @@ public class QuranAudioService extends Service {
             android.app.ActivityManager am = (android.app.ActivityManager) getSystemService(Context.ACTIVITY_SERVICE);
             for (android.app.ActivityManager.RunningServiceInfo service : am.getRunningServices(Integer.MAX_VALUE)) {
                 if (service.service.getClassName().contains("AdhanService")) {
-                    Log.d(TAG, "⏳ Service Adhan actif, attente...");
+                    debugLog(TAG, "⏳ Service Adhan actif, attente...");
                     try {
                         Thread.sleep(1000); // Attendre 1 seconde
                     } catch (InterruptedException e) {
@@ -2989,35 +2678,10 @@ public class QuranAudioService extends Service {
     }
 
     /**
-     * Vérifier la disponibilité réseau
+     * Vérifier la disponibilité réseau (état mis en cache par NetworkMonitor)
      */
     private boolean isNetworkAvailable() {
-        try {
-            android.net.ConnectivityManager cm = (android.net.ConnectivityManager) getSystemService(
-                    Context.CONNECTIVITY_SERVICE);
-            android.net.NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
-            return activeNetwork != null && activeNetwork.isConnectedOrConnecting();
-        } catch (Exception e) {
-            Log.w(TAG, "⚠️ Erreur vérification réseau: " + e.getMessage());
-            return true; // Supposer que le réseau est disponible en cas d'erreur
-        }
-    }
-
-    /**
-     * Gérer les erreurs de streaming
-     */
-    private void handleStreamingError(String audioPath, String surah, String reciter) {
-        Log.e(TAG, "❌ Erreur streaming pour: " + surah + " - " + reciter);
-        Log.e(TAG, "❌ URL qui a échoué: " + audioPath);
-
-        // Vérifier la connectivité réseau
-        if (!isNetworkAvailable()) {
-            Log.e(TAG, "❌ Pas de connexion réseau disponible");
-        } else {
-            Log.e(TAG, "❌ Connexion réseau disponible mais streaming échoué");
-        }
-
-        // TODO: Implémenter la logique de fallback ou de retry
+        return NetworkMonitor.isConnected(this);
     }
 
     /**
@@ -3032,7 +2696,7 @@ public class QuranAudioService extends Service {
             java.io.File reciterFolder = new java.io.File(reciterDir);
 
             if (!reciterFolder.exists() || !reciterFolder.isDirectory()) {
-                Log.d(TAG, "📁 Dossier récitateur non trouvé: " + reciterDir);
+                debugLog(TAG, "📁 Dossier récitateur non trouvé: " + reciterDir);
                 return downloadedSurahs;
             }
 
@@ -3056,7 +2720,7 @@ public class QuranAudioService extends Service {
 
             // Trier la liste
             java.util.Collections.sort(downloadedSurahs);
-            Log.d(TAG, "📖 Sourates téléchargées pour " + reciter + ": " + downloadedSurahs.size() + " sourates");
+            debugLog(TAG, "📖 Sourates téléchargées pour " + reciter + ": " + downloadedSurahs.size() + " sourates");
 
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur scan sourates téléchargées: " + e.getMessage());
@@ -3072,6 +2736,26 @@ public class QuranAudioService extends Service {
         return getFilesDir().getAbsolutePath() + "/quran";
     }
 
+    /**
+     * 💾 Protège le fichier local en lecture de l'éviction et met à jour sa date d'écoute
+     * (LRU) ; libère le précédent. null = plus aucun fichier protégé.
+     */
+    private void markLocalFileInUse(File audioFile) {
+        try {
+            StorageBudget budget = StorageBudgetModule.budget(this);
+            if (inUseAudioFile != null) {
+                budget.releaseInUse(inUseAudioFile);
+            }
+            inUseAudioFile = audioFile;
+            if (audioFile != null) {
+                budget.acquireInUse(audioFile);
+                budget.recordPlayed(audioFile);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "⚠️ Budget stockage indisponible: " + e.getMessage());
+        }
+    }
+
     /**
      * NOUVEAU : Avancer vers la prochaine sourate (téléchargée OU streaming)
      */
@@ -3088,7 +2772,7 @@ public class QuranAudioService extends Service {
             return;
         }
 
-        Log.d(TAG, "🔄 Auto-avancement depuis sourate " + currentSurahNumber);
+        debugLog(TAG, "🔄 Auto-avancement depuis sourate " + currentSurahNumber);
 
         // Calcul de la prochaine sourate (simple : +1)
         int nextSurahNumber = currentSurahNumber + 1;
@@ -3097,14 +2781,14 @@ public class QuranAudioService extends Service {
         if (nextSurahNumber > 114) {
             if (loopEnabled) {
                 nextSurahNumber = 1; // Retour à la première sourate
-                Log.d(TAG, "🔄 Boucle activée, retour à la sourate 1");
+                debugLog(TAG, "🔄 Boucle activée, retour à la sourate 1");
             } else {
-                Log.d(TAG, "⏹️ Fin du Coran atteinte, arrêt de l'auto-avancement");
+                debugLog(TAG, "⏹️ Fin du Coran atteinte, arrêt de l'auto-avancement");
                 return;
             }
         }
 
-        Log.d(TAG, "⏭️ Auto-avancement vers sourate " + nextSurahNumber);
+        debugLog(TAG, "⏭️ Auto-avancement vers sourate " + nextSurahNumber);
 
         // 🎯 STRATÉGIE INTELLIGENTE : Priorité aux sourates téléchargées, sinon
         // streaming
@@ -3112,13 +2796,13 @@ public class QuranAudioService extends Service {
         boolean isNextSurahDownloaded = downloadedSurahs.contains(nextSurahNumber);
 
         if (isNextSurahDownloaded) {
-            Log.d(TAG, "✅ Sourate " + nextSurahNumber + " est téléchargée, lecture locale");
+            debugLog(TAG, "✅ Sourate " + nextSurahNumber + " est téléchargée, lecture locale");
         } else {
-            Log.d(TAG, "🌐 Sourate " + nextSurahNumber + " non téléchargée, streaming");
+            debugLog(TAG, "🌐 Sourate " + nextSurahNumber + " non téléchargée, streaming");
         }
 
         wasPlayingBeforeNavigation = true;
-        Log.d(TAG, "🎯 Auto-avancement - wasPlayingBeforeNavigation=true pour l'auto-play");
+        debugLog(TAG, "🎯 Auto-avancement - wasPlayingBeforeNavigation=true pour l'auto-play");
 
         // Charger la prochaine sourate (téléchargée ou streaming)
         loadSurahByNumber(nextSurahNumber, true);
@@ -3127,10 +2811,71 @@ public class QuranAudioService extends Service {
         // Délai pour laisser le temps à l'audio de se charger et de démarrer
         new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
             updateMediaSessionCompatMetadata();
-            Log.d(TAG, "🎯 Écran verrouillage mis à jour après auto-avancement");
+            debugLog(TAG, "🎯 Écran verrouillage mis à jour après auto-avancement");
         }, 1000); // 1 seconde de délai
     }
 
+    /**
+     * 🎵 Met la sourate suivante en file dans le moteur quand l'auto-avancement est actif :
+     * elle est tamponnée avant la fin de la courante et enchaînée sans nouveau chargement.
+     * Rien n'est mis en file pendant un segment d'ayahs (voir {@link AyahSegment}).
+     * À rappeler quand l'auto-avancement, la boucle ou le segment changent.
+     */
+    private void queueNextSurah() {
+        if (playbackEngine == null || !isMediaReady) {
+            return;
+        }
+        int next = ayahSegment.nextSurahToQueue(extractSurahNumber(currentSurah), autoAdvanceEnabled,
+                loopEnabled);
+        if (next == queuedNextSurah) {
+            return;
+        }
+        String source = next > 0 ? surahSource(next) : null;
+        queuedNextSurah = source != null ? next : -1;
+        queuedNextSource = source;
+        playbackEngine.setNext(source);
+        debugLog(TAG, "🎵 Sourate suivante en file: {}", queuedNextSurah);
+    }
+
+    /**
+     * 🎵 Le moteur est passé seul à la sourate mise en file : même effet qu'une fin de
+     * sourate suivie d'un chargement, sans coupure audio.
+     */
+    private void onQueuedSurahStarted() {
+        int surahNumber = queuedNextSurah;
+        String source = queuedNextSource;
+        queuedNextSurah = -1;
+        queuedNextSource = null;
+        if (surahNumber <= 0 || source == null) {
+            return;
+        }
+        debugLog(TAG, "⏭️ Enchaînement sans coupure vers sourate " + surahNumber);
+        broadcastSurahCompleted();
+
+        currentSurah = getSurahNameFromNumber(surahNumber) + " - " + currentReciter;
+        currentAudioPath = source;
+        currentPosition = 0;
+        expectedDurationMs = 0;
+        totalDuration = Math.max(safePlayerDuration(), 0);
+        if (!source.startsWith("http")) {
+            markLocalFileInUse(new File(source));
+        }
+        QuranPrefetchJobService.onPlaybackStarted(this, currentReciter, surahNumber,
+                autoAdvanceEnabled, loopEnabled);
+
+        clearAlbumArt();
+        loadAlbumArtAsync(source);
+        saveAudioState();
+        broadcastAudioStateChanged();
+        broadcastAudioProgress();
+        QuranWidget.updateCurrentAudio(this, currentSurah, currentReciter, currentAudioPath);
+        QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
+        updateMediaSessionCompatMetadata();
+        updateNotification();
+
+        queueNextSurah();
+    }
+
     /**
      * NOUVEAU : Vérifier si une sourate est téléchargée
      */
@@ -3146,7 +2891,7 @@ public class QuranAudioService extends Service {
 
             java.io.File file = new java.io.File(filePath);
             boolean exists = file.exists();
-            Log.d(TAG, "🔍 Vérification sourate téléchargée: " + filePath + " -> " + exists);
+            debugLog(TAG, "🔍 Vérification sourate téléchargée: " + filePath + " -> " + exists);
             return exists;
 
         } catch (Exception e) {
@@ -3159,7 +2904,7 @@ public class QuranAudioService extends Service {
      * NOUVEAU : Charger une sourate téléchargée par numéro
      */
     private void loadDownloadedSurahByNumber(int surahNumber) {
-        Log.d(TAG, "🎵 loadDownloadedSurahByNumber - DÉBUT - surahNumber: " + surahNumber);
+        debugLog(TAG, "🎵 loadDownloadedSurahByNumber - DÉBUT - surahNumber: " + surahNumber);
 
         if (surahNumber < 1 || surahNumber > 114) {
             Log.e(TAG, "❌ Numéro de sourate invalide: " + surahNumber);
@@ -3184,28 +2929,28 @@ public class QuranAudioService extends Service {
             return;
         }
 
-        Log.d(TAG, "🎵 Chargement sourate téléchargée " + surahNumber + ": " + surahName);
+        debugLog(TAG, "🎵 Chargement sourate téléchargée " + surahNumber + ": " + surahName);
 
         // Construire le chemin du fichier local
         String formattedNumber = String.format("%03d", surahNumber);
         String fileName = formattedNumber + "_" + surahName.replace("'", "").replace("-", "") + ".mp3";
         String localPath = getQuranDirectory() + "/" + currentReciter.replace(" ", "_") + "/" + fileName;
 
-        Log.d(TAG, "🎵 Chemin fichier local: " + localPath);
+        debugLog(TAG, "🎵 Chemin fichier local: " + localPath);
 
         // Sauvegarder l'état de lecture AVANT de faire quoi que ce soit d'autre
         this.wasPlayingBeforeNavigation = isPlaying;
-        Log.d(TAG, "🎵 État de lecture avant navigation: " + this.wasPlayingBeforeNavigation);
+        debugLog(TAG, "🎵 État de lecture avant navigation: " + this.wasPlayingBeforeNavigation);
 
         // CORRECTION : Construire le nom complet avec récitateur pour la cohérence
         String fullSurahName = surahName + " - " + currentReciter;
-        Log.d(TAG, "🎵 Nom complet sourate téléchargée: " + fullSurahName);
+        debugLog(TAG, "🎵 Nom complet sourate téléchargée: " + fullSurahName);
 
         // Charger l'audio local avec auto-play si l'utilisateur était en train
         // d'écouter
         loadLocalAudioWithAutoPlay(localPath, fullSurahName, currentReciter, this.wasPlayingBeforeNavigation);
 
-        Log.d(TAG, "🎵 loadDownloadedSurahByNumber - FIN");
+        debugLog(TAG, "🎵 loadDownloadedSurahByNumber - FIN");
     }
 
     /**
@@ -3213,11 +2958,11 @@ public class QuranAudioService extends Service {
      */
     private void loadLocalAudioWithAutoPlay(String localPath, String surah, String reciter,
             boolean wasPlayingBeforeNavigation) {
-        Log.d(TAG, "🎵 loadLocalAudioWithAutoPlay - DÉBUT");
-        Log.d(TAG, "🎵 loadLocalAudioWithAutoPlay - localPath: " + localPath);
-        Log.d(TAG, "🎵 loadLocalAudioWithAutoPlay - surah: " + surah);
-        Log.d(TAG, "🎵 loadLocalAudioWithAutoPlay - reciter: " + reciter);
-        Log.d(TAG, "🎵 loadLocalAudioWithAutoPlay - wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
+        debugLog(TAG, "🎵 loadLocalAudioWithAutoPlay - DÉBUT");
+        debugLog(TAG, "🎵 loadLocalAudioWithAutoPlay - localPath: " + localPath);
+        debugLog(TAG, "🎵 loadLocalAudioWithAutoPlay - surah: " + surah);
+        debugLog(TAG, "🎵 loadLocalAudioWithAutoPlay - reciter: " + reciter);
+        debugLog(TAG, "🎵 loadLocalAudioWithAutoPlay - wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
 
         if (!isPremiumUser) {
             Log.w(TAG, "⚠️ Utilisateur non premium, chargement ignoré");
@@ -3227,33 +2972,21 @@ public class QuranAudioService extends Service {
         // Démarrer le service en mode foreground pour l'utilisateur premium
         if (!isForegroundService()) {
             startForeground(NOTIFICATION_ID, createNotification());
-            Log.d(TAG, "🎵 Service démarré en mode foreground pour chargement audio premium");
+            debugLog(TAG, "🎵 Service démarré en mode foreground pour chargement audio premium");
         }
 
-        if (mediaPlayer == null) {
-            Log.w(TAG, "⚠️ MediaPlayer null, réinitialisation...");
-            initializeMediaPlayer();
+        if (playbackEngine == null) {
+            Log.w(TAG, "⚠️ Moteur de lecture null, réinitialisation...");
+            initializePlaybackEngine();
         }
 
         try {
-            // Arrêter la lecture actuelle
+            // Arrêter la lecture actuelle (la nouvelle source remplacera la liste du moteur)
             if (isPlaying) {
-                try {
-                    mediaPlayer.stop();
-                } catch (Exception e) {
-                    Log.w(TAG, "⚠️ Erreur arrêt MediaPlayer: " + e.getMessage());
-                }
+                playbackEngine.stop();
                 isPlaying = false;
             }
 
-            // Réinitialiser le MediaPlayer proprement
-            try {
-                mediaPlayer.reset();
-            } catch (Exception e) {
-                Log.w(TAG, "⚠️ Erreur reset MediaPlayer: " + e.getMessage());
-                initializeMediaPlayer();
-            }
-
             clearPlaybackTimingBeforeLoad();
 
             // Charger le fichier local
@@ -3263,11 +2996,9 @@ public class QuranAudioService extends Service {
                 return;
             }
 
-            Log.d(TAG, "🎵 Chargement fichier local: " + audioFile.getAbsolutePath());
-            mediaPlayer.setDataSource(audioFile.getAbsolutePath());
-
-            // Préparer le MediaPlayer de manière asynchrone
-            mediaPlayer.prepareAsync();
+            debugLog(TAG, "🎵 Chargement fichier local: " + audioFile.getAbsolutePath());
+            playbackEngine.setSource(audioFile.getAbsolutePath());
+            markLocalFileInUse(audioFile);
 
             // Mettre à jour les variables d'état
             currentAudioPath = localPath;
@@ -3279,27 +3010,26 @@ public class QuranAudioService extends Service {
             // Sauvegarder l'état
             saveAudioState();
 
-            // Définir le MediaPlayer.OnPreparedListener pour gérer le démarrage après
-            // chargement
-            mediaPlayer.setOnPreparedListener(mp -> {
-                Log.d(TAG, "🎵 MediaPlayer prêt, démarrage automatique...");
-                isMediaReady = true;
-                applyResolvedDuration(mp);
+            // Suite du chargement quand le moteur est prêt (démarrage automatique)
+            onEnginePrepared = () -> {
+                debugLog(TAG, "🎵 Lecteur prêt, démarrage automatique...");
+                applyResolvedDuration();
                 currentPosition = 0;
                 if (pendingSeekMs >= 0) {
                     int seek = pendingSeekMs;
                     pendingSeekMs = -1;
-                    performSeek(seek, 0);
+                    performSeek(seek);
                 }
-                Log.d(TAG, "🎵 Durée totale: " + totalDuration + "ms");
-                Log.d(TAG, "🎵 wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
+                debugLog(TAG, "🎵 Durée totale: " + totalDuration + "ms");
+                debugLog(TAG, "🎵 wasPlayingBeforeNavigation: " + wasPlayingBeforeNavigation);
 
                 if (shouldAutoStartAfterNavigation()) {
-                    Log.d(TAG, "🎵 Démarrage automatique car l'utilisateur était en train d'écouter");
+                    debugLog(TAG, "🎵 Démarrage automatique car l'utilisateur était en train d'écouter");
                     try {
-                        mp.start();
+                        playbackEngine.play();
                         isPlaying = true;
-                        Log.d(TAG, "🎵 Lecture démarrée automatiquement");
+                        recordLoadToPlay();
+                        debugLog(TAG, "🎵 Lecture démarrée automatiquement");
 
                         // Démarrer le timer de progression
                         startProgressTimer();
@@ -3317,7 +3047,7 @@ public class QuranAudioService extends Service {
                         Log.e(TAG, "❌ Erreur démarrage automatique: " + e.getMessage());
                     }
                 } else {
-                    Log.d(TAG, "🎵 Pas de démarrage automatique car l'utilisateur n'était pas en train d'écouter");
+                    debugLog(TAG, "🎵 Pas de démarrage automatique car l'utilisateur n'était pas en train d'écouter");
                     isPlaying = false;
 
                     // 🎯 NOUVEAU : Synchroniser immédiatement avec le widget
@@ -3330,19 +3060,22 @@ public class QuranAudioService extends Service {
                     broadcastAudioStateChanged();
                 }
 
-                Log.d(TAG, "🔍 Envoi événements après préparation - durée: " + totalDuration + "ms");
+                debugLog(TAG, "🔍 Envoi événements après préparation - durée: " + totalDuration + "ms");
                 broadcastAudioStateChanged();
-                Log.d(TAG, "✅ Événements envoyés après préparation");
-            });
+                debugLog(TAG, "✅ Événements envoyés après préparation");
+            };
+
+            // Préparer la source de manière asynchrone
+            playbackEngine.prepare();
 
-            Log.d(TAG, "✅ Audio local chargé avec succès: " + surah + " - " + reciter);
+            debugLog(TAG, "✅ Audio local chargé avec succès: " + surah + " - " + reciter);
 
             // Diffuser l'état
             broadcastAudioStateChanged();
             updateNotification();
 
             // Mettre à jour directement l'état du widget
-            Log.d(TAG, "🚀 Mise à jour directe de l'état du widget après chargement audio");
+            debugLog(TAG, "🚀 Mise à jour directe de l'état du widget après chargement audio");
             QuranWidget.updateCurrentAudio(this, surah, reciter, localPath);
             QuranWidget.updatePlaybackState(getApplicationContext(), isPlaying, currentPosition, totalDuration);
 
@@ -3380,7 +3113,8 @@ public class QuranAudioService extends Service {
     public void setAutoAdvanceEnabled(boolean enabled) {
         this.autoAdvanceEnabled = enabled;
         saveAudioState();
-        Log.d(TAG, "🎵 Auto-avancement " + (enabled ? "activé" : "désactivé"));
+        queueNextSurah();
+        debugLog(TAG, "🎵 Auto-avancement " + (enabled ? "activé" : "désactivé"));
     }
 
     public boolean isAutoAdvanceEnabled() {
@@ -3390,7 +3124,8 @@ public class QuranAudioService extends Service {
     public void setLoopEnabled(boolean enabled) {
         this.loopEnabled = enabled;
         saveAudioState();
-        Log.d(TAG, "🎵 Boucle " + (enabled ? "activée" : "désactivée"));
+        queueNextSurah();
+        debugLog(TAG, "🎵 Boucle " + (enabled ? "activée" : "désactivée"));
     }
 
     public boolean isLoopEnabled() {
@@ -3409,41 +3144,22 @@ public class QuranAudioService extends Service {
 
     /**
      * NOUVEAU : Obtenir la liste des récitateurs disponibles (avec sourates
-     * téléchargées)
+     * téléchargées). 💾 Lue depuis l'index StorageBudget : seuls les dossiers modifiés
+     * depuis le dernier passage sont rescannés.
      */
     private java.util.List<String> getAvailableReciters() {
         java.util.List<String> availableReciters = new java.util.ArrayList<>();
 
         try {
-            String quranDir = getQuranDirectory();
-            java.io.File quranFolder = new java.io.File(quranDir);
-
-            if (!quranFolder.exists() || !quranFolder.isDirectory()) {
-                Log.d(TAG, "📁 Dossier Quran non trouvé: " + quranDir);
-                return availableReciters;
-            }
-
-            // Scanner tous les dossiers de récitateurs
-            java.io.File[] reciterFolders = quranFolder.listFiles(java.io.File::isDirectory);
-            if (reciterFolders != null) {
-                for (java.io.File reciterFolder : reciterFolders) {
-                    String folderName = reciterFolder.getName();
-                    String reciterName = folderName.replace("_", " ");
-
-                    // Vérifier qu'il y a au moins une sourate téléchargée
-                    java.io.File[] mp3Files = reciterFolder
-                            .listFiles((dir, name) -> name.toLowerCase().endsWith(".mp3"));
-                    if (mp3Files != null && mp3Files.length > 0) {
-                        availableReciters.add(reciterName);
-                        Log.d(TAG, "🎵 Récitateur disponible: " + reciterName + " (dossier: " + folderName + ", "
-                                + mp3Files.length + " sourates)");
-                    }
-                }
+            StorageBudget budget = StorageBudgetModule.budget(this);
+            budget.refresh();
+            for (String folderName : budget.reciterDirs()) {
+                availableReciters.add(folderName.replace("_", " "));
             }
 
             // Trier la liste
             java.util.Collections.sort(availableReciters);
-            Log.d(TAG, "📖 Récitateurs disponibles: " + availableReciters.size() + " récitateurs");
+            debugLog(TAG, "📖 Récitateurs disponibles: " + availableReciters.size() + " récitateurs");
 
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur scan récitateurs disponibles: " + e.getMessage());
@@ -3472,19 +3188,19 @@ public class QuranAudioService extends Service {
         if (currentReciter == null || currentReciter.isEmpty()) {
             // Aucun récitateur actuel, prendre le premier
             currentReciter = availableReciters.get(0);
-            Log.d(TAG, "🎵 Premier récitateur sélectionné: " + currentReciter);
+            debugLog(TAG, "🎵 Premier récitateur sélectionné: " + currentReciter);
         } else {
             // Trouver le récitateur actuel dans la liste
             int currentIndex = availableReciters.indexOf(currentReciter);
             if (currentIndex == -1) {
                 // Récitateur actuel non trouvé, prendre le premier
                 currentReciter = availableReciters.get(0);
-                Log.d(TAG, "🎵 Récitateur actuel non trouvé, premier récitateur sélectionné: " + currentReciter);
+                debugLog(TAG, "🎵 Récitateur actuel non trouvé, premier récitateur sélectionné: " + currentReciter);
             } else {
                 // Passer au récitateur suivant
                 int nextIndex = (currentIndex + 1) % availableReciters.size();
                 currentReciter = availableReciters.get(nextIndex);
-                Log.d(TAG, "🎵 Passage au récitateur suivant: " + currentReciter);
+                debugLog(TAG, "🎵 Passage au récitateur suivant: " + currentReciter);
             }
         }
 
@@ -3510,19 +3226,19 @@ public class QuranAudioService extends Service {
         if (currentReciter == null || currentReciter.isEmpty()) {
             // Aucun récitateur actuel, prendre le dernier
             currentReciter = availableReciters.get(availableReciters.size() - 1);
-            Log.d(TAG, "🎵 Dernier récitateur sélectionné: " + currentReciter);
+            debugLog(TAG, "🎵 Dernier récitateur sélectionné: " + currentReciter);
         } else {
             // Trouver le récitateur actuel dans la liste
             int currentIndex = availableReciters.indexOf(currentReciter);
             if (currentIndex == -1) {
                 // Récitateur actuel non trouvé, prendre le dernier
                 currentReciter = availableReciters.get(availableReciters.size() - 1);
-                Log.d(TAG, "🎵 Récitateur actuel non trouvé, dernier récitateur sélectionné: " + currentReciter);
+                debugLog(TAG, "🎵 Récitateur actuel non trouvé, dernier récitateur sélectionné: " + currentReciter);
             } else {
                 // Passer au récitateur précédent
                 int prevIndex = (currentIndex - 1 + availableReciters.size()) % availableReciters.size();
                 currentReciter = availableReciters.get(prevIndex);
-                Log.d(TAG, "🎵 Passage au récitateur précédent: " + currentReciter);
+                debugLog(TAG, "🎵 Passage au récitateur précédent: " + currentReciter);
             }
         }
 
@@ -3534,7 +3250,4 @@ public class QuranAudioService extends Service {
             Log.w(TAG, "⚠️ Aucune sourate téléchargée pour le récitateur: " + currentReciter);
         }
     }
-
-    // 🎯 SUPPRIMÉ: onGetSession() car plus de MediaSession3
-    // MediaSessionCompat suffit pour l'écran de verrouillage
 }
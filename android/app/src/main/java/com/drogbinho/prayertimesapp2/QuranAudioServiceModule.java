@@ -138,6 +138,14 @@ public class QuranAudioServiceModule extends ReactContextBaseJavaModule implemen
                     
                     sendEvent("QuranSurahCompleted", params);
                     Log.d(TAG, "✅ Événement QuranSurahCompleted envoyé à React Native");
+                } else if ("QuranAyahSegmentCompleted".equals(eventName)) {
+                    // 📖 Fin d'une plage d'ayahs (toutes répétitions jouées)
+                    com.facebook.react.bridge.WritableMap params = new com.facebook.react.bridge.Arguments().createMap();
+                    params.putInt("surahNumber", intent.getIntExtra("surahNumber", 0));
+                    params.putInt("fromAyah", intent.getIntExtra("fromAyah", 0));
+                    params.putInt("toAyah", intent.getIntExtra("toAyah", 0));
+                    params.putString("reciter", intent.getStringExtra("reciter"));
+                    sendEvent("QuranAyahSegmentCompleted", params);
                 } else if ("WidgetNavigateNext".equals(eventName)) {
                     // 🎯 NOUVEAU : Navigation suivante depuis le widget
                     Log.d(TAG, "🎯 Événement WIDGET_NAVIGATE_NEXT reçu du widget");
@@ -420,7 +428,7 @@ public class QuranAudioServiceModule extends ReactContextBaseJavaModule implemen
     public void seekToPosition(int position, Promise promise) {
         try {
             Log.d(TAG, "🎵 Navigation vers position: " + position);
-            android.util.Log.i(QuranSeekDebug.TAG, "RN seekToPosition | ms=" + position);
+            QuranSeekDebug.log(QuranSeekDebug.RN_SEEK, position, 0);
             
             if (!isServiceBound || audioService == null) {
                 throw new Exception("Service audio non lié");
@@ -435,6 +443,92 @@ public class QuranAudioServiceModule extends ReactContextBaseJavaModule implemen
         }
     }
 
+    /**
+     * 📖 Jouer les ayahs fromAyah..toAyah (répétées repeat fois) puis mettre en pause ;
+     * la fin émet QuranAyahSegmentCompleted. Résout false sans temps d'ayah disponibles.
+     */
+    @ReactMethod
+    public void playAyahRange(int surahNumber, int fromAyah, int toAyah, int repeat, Promise promise) {
+        try {
+            promise.resolve(boundService().playAyahRange(surahNumber, fromAyah, toAyah, repeat));
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Erreur playAyahRange: " + e.getMessage());
+            promise.reject("AYAH_RANGE_ERROR", e.getMessage());
+        }
+    }
+
+    /**
+     * 📖 Répéter une ayah times fois (mémorisation)
+     */
+    @ReactMethod
+    public void repeatAyah(int surahNumber, int ayah, int times, Promise promise) {
+        playAyahRange(surahNumber, ayah, ayah, times, promise);
+    }
+
+    /**
+     * 📖 Aller au début d'une ayah (charge la sourate si besoin)
+     */
+    @ReactMethod
+    public void jumpToAyah(int surahNumber, int ayah, Promise promise) {
+        try {
+            promise.resolve(boundService().jumpToAyah(surahNumber, ayah));
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Erreur jumpToAyah: " + e.getMessage());
+            promise.reject("AYAH_JUMP_ERROR", e.getMessage());
+        }
+    }
+
+    /**
+     * 📖 Ayah en cours (0 si inconnue)
+     */
+    @ReactMethod
+    public void getCurrentAyah(Promise promise) {
+        try {
+            promise.resolve(boundService().getCurrentAyah());
+        } catch (Exception e) {
+            promise.reject("AYAH_STATE_ERROR", e.getMessage());
+        }
+    }
+
+    /**
+     * 📖 Enregistrer les temps d'ayah d'un récitateur au format binaire compact.
+     * timingsJson : { "<sourate>": [début ayah 1, ..., début ayah n, fin ayah n] } en ms.
+     */
+    @ReactMethod
+    public void importAyahTimings(String reciter, String timingsJson, Promise promise) {
+        try {
+            org.json.JSONObject json = new org.json.JSONObject(timingsJson);
+            int[][] bounds = new int[AyahTimings.SURAH_COUNT][];
+            java.util.Iterator<String> keys = json.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                int surah = Integer.parseInt(key);
+                if (surah < 1 || surah > AyahTimings.SURAH_COUNT) {
+                    throw new IllegalArgumentException("Sourate invalide: " + key);
+                }
+                org.json.JSONArray times = json.getJSONArray(key);
+                int[] surahBounds = new int[times.length()];
+                for (int i = 0; i < surahBounds.length; i++) {
+                    surahBounds[i] = times.getInt(i);
+                }
+                bounds[surah - 1] = surahBounds;
+            }
+            AyahTimings.write(QuranAudioService.ayahTimingsFile(reactContext, reciter), bounds);
+            Log.d(TAG, "✅ Temps d'ayah enregistrés pour " + reciter + " (" + json.length() + " sourates)");
+            promise.resolve(true);
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Erreur importAyahTimings: " + e.getMessage());
+            promise.reject("AYAH_TIMINGS_ERROR", e.getMessage());
+        }
+    }
+
+    private QuranAudioService boundService() throws Exception {
+        if (!isServiceBound || audioService == null) {
+            throw new Exception("Service audio non lié");
+        }
+        return audioService;
+    }
+
     /**
      * Mettre à jour le statut premium
      */
@@ -525,8 +619,7 @@ public class QuranAudioServiceModule extends ReactContextBaseJavaModule implemen
      */
     private boolean checkPremiumStatus() {
         try {
-            android.content.SharedPreferences prefs = reactContext.getSharedPreferences("premium_prefs", android.content.Context.MODE_PRIVATE);
-            boolean isPremiumUser = prefs.getBoolean("is_premium_user", false);
+            boolean isPremiumUser = SettingsStore.get(reactContext).premiumUser;
             Log.d(TAG, "👑 Statut premium vérifié: " + isPremiumUser);
             return isPremiumUser;
         } catch (Exception e) {
@@ -0,0 +1,213 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Préchargement des sourates probables ({@link SurahPredictor}) pour le récitateur en
+ * cours, uniquement sur réseau non facturé et en charge (contraintes JobScheduler).
+ * Les fichiers arrivent via {@link BulkDownloadEngine} dans la disposition lue par
+ * QuranAudioService, qui les lit alors en local sans latence de streaming.
+ *
+ * Planifié à chaque début de lecture ; si les contraintes disparaissent (débranché,
+ * réseau mobile), les téléchargements sont mis en pause (.part conservés) et le job
+ * est replanifié.
+ */
+public class QuranPrefetchJobService extends JobService {
+    private static final String TAG = "QuranPrefetchJob";
+    private static final int JOB_ID = 9871;
+
+    private static final String PREFS_NAME = "quran_prefetch";
+    private static final String KEY_RECITER = "reciter";
+    private static final String KEY_SURAH = "surah";
+    private static final String KEY_AUTO_ADVANCE = "auto_advance";
+    private static final String KEY_LOOP = "loop";
+
+    private static final int MAX_PREFETCH = 3;
+    // Taille moyenne prudente d'une sourate, pour ne pas précharger au prix d'une éviction
+    private static final long ESTIMATED_SURAH_BYTES = 8L * 1024 * 1024;
+    private static final long POLL_MS = 5_000;
+    // JobScheduler coupe un job au bout de ~10 min
+    private static final long MAX_RUN_MS = 9 * 60 * 1000L;
+
+    private static SurahPredictor predictor;
+
+    private volatile boolean stopped;
+    private volatile String runningReciter;
+    private final List<Integer> prefetching = new ArrayList<>();
+
+    static synchronized SurahPredictor predictor(Context context) {
+        if (predictor == null) {
+            File dir = new File(context.getApplicationContext().getFilesDir(), "quran_prefetch");
+            predictor = new SurahPredictor(new File(dir, "history.tsv"));
+        }
+        return predictor;
+    }
+
+    /** Début de lecture d'une sourate : historique + contexte pour la prédiction, puis planification. */
+    static void onPlaybackStarted(Context context, String reciter, int surah, boolean autoAdvance, boolean loop) {
+        if (reciter == null || reciter.isEmpty() || surah < 1) {
+            return;
+        }
+        try {
+            predictor(context).record(reciter, surah, System.currentTimeMillis());
+            context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                    .putString(KEY_RECITER, reciter)
+                    .putInt(KEY_SURAH, surah)
+                    .putBoolean(KEY_AUTO_ADVANCE, autoAdvance)
+                    .putBoolean(KEY_LOOP, loop)
+                    .apply();
+            schedule(context);
+        } catch (Exception e) {
+            warnLog(TAG, "⚠️ Historique d'écoute non enregistré: {}", e.getMessage());
+        }
+    }
+
+    static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+        // Déjà planifié : le job lira le contexte le plus récent à son démarrage
+        if (scheduler.getPendingJob(JOB_ID) != null) {
+            return;
+        }
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, QuranPrefetchJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+        scheduler.schedule(job);
+        debugLog(TAG, "📅 Préchargement planifié (Wi-Fi + charge)");
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        stopped = false;
+        new Thread(() -> {
+            boolean reschedule = false;
+            try {
+                reschedule = runPrefetch();
+            } catch (Exception e) {
+                errorLog(TAG, "❌ Erreur préchargement: " + e.getMessage());
+            }
+            if (!stopped) {
+                jobFinished(params, reschedule);
+            }
+        }, "QuranPrefetch").start();
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        stopped = true;
+        pausePrefetching();
+        debugLog(TAG, "⏸️ Contraintes perdues, préchargement en pause");
+        return true; // replanifier quand Wi-Fi + charge reviennent
+    }
+
+    /** Retire les préchargements de la file ; les .part restent pour une reprise Range. */
+    private void pausePrefetching() {
+        String reciter = runningReciter;
+        BulkDownloadEngine engine = BulkDownloadModule.engine(this);
+        synchronized (prefetching) {
+            for (int surah : prefetching) {
+                engine.pause(reciter, surah);
+            }
+            prefetching.clear();
+        }
+    }
+
+    /** Renvoie true s'il reste des préchargements à reprendre dans un prochain job. */
+    private boolean runPrefetch() throws InterruptedException {
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String reciter = prefs.getString(KEY_RECITER, "");
+        if (reciter.isEmpty()) {
+            return false;
+        }
+        runningReciter = reciter;
+        List<SurahPredictor.Prediction> predictions = predictor(this).rank(prefs.getInt(KEY_SURAH, 0),
+                prefs.getBoolean(KEY_AUTO_ADVANCE, true), prefs.getBoolean(KEY_LOOP, false),
+                System.currentTimeMillis(), TimeZone.getDefault(), MAX_PREFETCH * 2);
+
+        BulkDownloadEngine engine = BulkDownloadModule.engine(this);
+        StorageBudget budget = StorageBudgetModule.budget(this);
+        budget.refresh();
+        Set<String> queued = new HashSet<>();
+        for (BulkDownloadEngine.Job job : engine.snapshot()) {
+            queued.add(job.key());
+        }
+
+        for (SurahPredictor.Prediction prediction : predictions) {
+            if (prefetching.size() >= MAX_PREFETCH || stopped) {
+                break;
+            }
+            if (engine.targetFile(reciter, prediction.surah).exists()) {
+                continue;
+            }
+            long limit = budget.getBudgetBytes();
+            if (limit != StorageBudget.UNLIMITED
+                    && budget.usedBytes() + ESTIMATED_SURAH_BYTES * (prefetching.size() + 1) > limit) {
+                debugLog(TAG, "💾 Budget stockage atteint, préchargement limité à {}", prefetching.size());
+                break;
+            }
+            // Déjà en file (ex. téléchargement demandé par l'utilisateur) : ne pas rétrograder sa priorité
+            if (queued.contains(BulkDownloadEngine.keyOf(reciter, prediction.surah))) {
+                continue;
+            }
+            String url = QuranAudioService.recitationUrl(reciter, prediction.surah, "download");
+            if (url != null && engine.enqueue(reciter, prediction.surah, url, null,
+                    BulkDownloadEngine.PRIORITY_PREFETCH)) {
+                synchronized (prefetching) {
+                    prefetching.add(prediction.surah);
+                }
+            }
+        }
+        if (prefetching.isEmpty()) {
+            debugLog(TAG, "✅ Rien à précharger pour {}", reciter);
+            return false;
+        }
+        infoLog(TAG, "📥 Préchargement {} : {}", reciter, prefetching);
+        engine.start();
+
+        // Le job reste actif (réveil, réseau) tant que les préchargements ne sont pas terminés
+        long deadline = System.currentTimeMillis() + MAX_RUN_MS;
+        while (!stopped && System.currentTimeMillis() < deadline && anyPending(engine, reciter)) {
+            Thread.sleep(POLL_MS);
+        }
+        if (stopped || !anyPending(engine, reciter)) {
+            return false;
+        }
+        // Temps écoulé : pause plutôt que de continuer hors contraintes
+        pausePrefetching();
+        return true;
+    }
+
+    private boolean anyPending(BulkDownloadEngine engine, String reciter) {
+        Set<String> keys = new HashSet<>();
+        for (BulkDownloadEngine.Job job : engine.snapshot()) {
+            keys.add(job.key());
+        }
+        synchronized (prefetching) {
+            for (int surah : prefetching) {
+                if (keys.contains(BulkDownloadEngine.keyOf(reciter, surah))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
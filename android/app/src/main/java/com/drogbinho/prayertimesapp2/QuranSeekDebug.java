@@ -1,37 +1,67 @@
 package com.drogbinho.prayertimesapp2;
 
-import android.content.Context;
-import android.content.Intent;
 import android.util.Log;
 
 /**
- * Logs seek audio — toujours actifs (Log.i), y compris en build release.
- * Filtrer avec: adb logcat -s QuranSeek
+ * Traces seek audio — toujours enregistrées dans {@link TraceRecorder} (coût quasi nul),
+ * y compris en build release. Logcat seulement si le niveau INFO est actif pour le tag :
+ * setNativeLogLevel("QuranSeek", "info") puis adb logcat -s QuranSeek
  */
 public final class QuranSeekDebug {
 
     public static final String TAG = "QuranSeek";
-    private static final String BROADCAST_ACTION = "com.drogbinho.prayertimesapp2.REACT_NATIVE_EVENT";
 
-    private QuranSeekDebug() {
+    // Événements (SUB_QURAN_SEEK) — a / b en commentaire
+    public static final int DURATION_RESOLVED = 1; // total, attendu
+    public static final int DURATION_POLL_OK = 2; // durée lecteur, total
+    public static final int DURATION_POLL_GIVE_UP = 3; // attendu, sonde
+    public static final int SEEK_REJECTED = 10; // premium (0/1), lecteur (0/1)
+    public static final int SEEK_PENDING = 11; // cible, 0
+    public static final int SEEK_REQUEST = 12; // cible, position
+    public static final int SEEK_TIMEOUT_RESUME = 13; // position, durée
+    public static final int SEEK_START = 14; // cible, tentative
+    public static final int SEEK_ERROR = 15; // 0, 0
+    public static final int SEEK_COMPLETE = 16; // cible, position réelle
+    public static final int SEEK_RESUME_FAIL = 17; // 0, 0
+    public static final int SEEK_POLL = 18; // cible, position réelle
+    public static final int SEEK_POLL_ERR = 19; // 0, 0
+    public static final int LOAD_HTTP = 20; // attendu, 0
+    public static final int RN_SEEK = 21; // cible, 0
+
+    static final String[] EVENT_NAMES = new String[22];
+    static {
+        EVENT_NAMES[DURATION_RESOLVED] = "DURATION_RESOLVED";
+        EVENT_NAMES[DURATION_POLL_OK] = "DURATION_POLL_OK";
+        EVENT_NAMES[DURATION_POLL_GIVE_UP] = "DURATION_POLL_GIVE_UP";
+        EVENT_NAMES[SEEK_REJECTED] = "SEEK_REJECTED";
+        EVENT_NAMES[SEEK_PENDING] = "SEEK_PENDING";
+        EVENT_NAMES[SEEK_REQUEST] = "SEEK_REQUEST";
+        EVENT_NAMES[SEEK_TIMEOUT_RESUME] = "SEEK_TIMEOUT_RESUME";
+        EVENT_NAMES[SEEK_START] = "SEEK_START";
+        EVENT_NAMES[SEEK_ERROR] = "SEEK_ERROR";
+        EVENT_NAMES[SEEK_COMPLETE] = "SEEK_COMPLETE";
+        EVENT_NAMES[SEEK_RESUME_FAIL] = "SEEK_RESUME_FAIL";
+        EVENT_NAMES[SEEK_POLL] = "SEEK_POLL";
+        EVENT_NAMES[SEEK_POLL_ERR] = "SEEK_POLL_ERR";
+        EVENT_NAMES[LOAD_HTTP] = "LOAD_HTTP";
+        EVENT_NAMES[RN_SEEK] = "RN_SEEK";
     }
 
-    public static void log(Context context, String stage, String details) {
-        String line = stage + " | " + details;
-        Log.i(TAG, line);
+    private QuranSeekDebug() {
+    }
 
-        if (context == null) {
-            return;
+    public static void log(int event, long a, long b) {
+        TraceRecorder.record(TraceRecorder.SUB_QURAN_SEEK, event, a, b);
+        if (ConditionalLogger.isLoggable(TAG, Log.INFO)) {
+            Log.i(TAG, EVENT_NAMES[event] + " | a=" + a + " b=" + b);
         }
-        try {
-            Intent intent = new Intent(BROADCAST_ACTION);
-            intent.setPackage(context.getPackageName());
-            intent.putExtra("eventName", "SeekDebug");
-            intent.putExtra("message", line);
-            intent.putExtra("details", details);
-            context.sendBroadcast(intent);
-        } catch (Exception e) {
-            Log.w(TAG, "broadcast SeekDebug failed: " + e.getMessage());
+    }
+
+    /** Variante erreur : le message ne tient pas dans le tampon binaire, il part en logcat. */
+    public static void logError(int event, String message) {
+        TraceRecorder.record(TraceRecorder.SUB_QURAN_SEEK, event, 0, 0);
+        if (ConditionalLogger.isLoggable(TAG, Log.WARN)) {
+            Log.w(TAG, EVENT_NAMES[event] + " | " + message);
         }
     }
 }
@@ -20,18 +20,26 @@ public class QuranSyncModule extends ReactContextBaseJavaModule {
     private static final String MODULE_NAME = "QuranSyncModule";
     
     private final ReactApplicationContext reactContext;
-    private BroadcastReceiver syncReceiver;
+    private volatile BroadcastReceiver syncReceiver;
+    // Receiver de synchronisation widget : enregistré après la première frame
+    private final ModuleInit.Task init;
     
     public QuranSyncModule(ReactApplicationContext reactContext) {
         super(reactContext);
         this.reactContext = reactContext;
-        initializeSyncReceiver();
+        init = ModuleInit.defer(TAG, PerfMetrics.G_INIT_QURAN_SYNC_MS, this::initializeSyncReceiver);
     }
     
     @Override
     public String getName() {
         return MODULE_NAME;
     }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        super.onCatalystInstanceDestroy();
+        cleanup();
+    }
     
     /**
      * Initialiser le BroadcastReceiver pour la synchronisation
@@ -112,6 +120,7 @@ public class QuranSyncModule extends ReactContextBaseJavaModule {
      */
     @ReactMethod
     public void checkWidgetSync(Promise promise) {
+        init.ensure();
         try {
             Log.d(TAG, "🔍 Vérification synchronisation widget au démarrage...");
             
@@ -144,6 +153,7 @@ public class QuranSyncModule extends ReactContextBaseJavaModule {
      */
     @ReactMethod
     public void clearWidgetSync(Promise promise) {
+        init.ensure();
         try {
             Log.d(TAG, "🗑️ Effacement données synchronisation widget...");
             
@@ -165,9 +175,11 @@ public class QuranSyncModule extends ReactContextBaseJavaModule {
      * Nettoyer le receiver lors de la destruction
      */
     public void cleanup() {
+        init.cancel(); // détruit avant la première frame : plus d'initialisation différée
         if (syncReceiver != null) {
             try {
                 reactContext.unregisterReceiver(syncReceiver);
+                syncReceiver = null;
                 Log.d(TAG, "✅ QuranSyncModule nettoyé");
             } catch (Exception e) {
                 Log.e(TAG, "❌ Erreur nettoyage QuranSyncModule: " + e.getMessage());
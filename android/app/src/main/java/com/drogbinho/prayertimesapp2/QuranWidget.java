@@ -179,6 +179,7 @@ public class QuranWidget extends AppWidgetProvider {
 
     static void updateQuranWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId) {
         widgetDebugLog(TAG, "🔄 Mise à jour du widget Coran " + appWidgetId);
+        long startNanos = System.nanoTime();
 
         try {
             // Vérifier le statut premium à chaque mise à jour
@@ -208,6 +209,9 @@ public class QuranWidget extends AppWidgetProvider {
 
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur mise à jour widget Coran: " + e.getMessage());
+        } finally {
+            PerfMetrics.increment(PerfMetrics.C_WIDGET_REFRESHES);
+            PerfMetrics.recordSinceNanos(PerfMetrics.H_WIDGET_REFRESH_MS, startNanos);
         }
     }
 
@@ -665,9 +669,8 @@ public class QuranWidget extends AppWidgetProvider {
 
     private static void checkPremiumStatus(Context context) {
         try {
-            // Le module natif met à jour les SharedPreferences avec le bon statut
-            SharedPreferences prefs = context.getSharedPreferences("premium_prefs", Context.MODE_PRIVATE);
-            isPremiumUser = prefs.getBoolean("is_premium_user", false);
+            // Le module natif met à jour premium_prefs ; SettingsStore en garde le reflet en mémoire
+            isPremiumUser = SettingsStore.get(context).premiumUser;
             widgetDebugLog(TAG, "👑 Statut premium: " + isPremiumUser);
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur vérification premium: " + e.getMessage());
@@ -702,30 +705,13 @@ public class QuranWidget extends AppWidgetProvider {
      * 🌍 Récupère la langue courante depuis les SharedPreferences
      */
     private static String getCurrentLanguage(Context context) {
-        widgetDebugLog(TAG, "🌍 DEBUG: Début récupération langue courante");
-
         try {
-            SharedPreferences prefs = context.getSharedPreferences("prayer_times_settings", Context.MODE_PRIVATE);
-
-            // Essayer plusieurs clés possibles
-            String[] possibleKeys = { "currentLanguage", "current_language", "language" };
-
-            for (String key : possibleKeys) {
-                String language = prefs.getString(key, null);
-                if (language != null && !language.isEmpty()) {
-                    widgetDebugLog(TAG, "✅ Langue trouvée avec clé '" + key + "': " + language);
-                    return language;
-                }
-                widgetDebugLog(TAG, "❌ Pas de langue pour clé: " + key);
+            // current_language, déjà en mémoire dans le snapshot SettingsStore (aucune lecture
+            // de prefs par traduction)
+            String language = SettingsStore.get(context).language;
+            if (language != null && !language.isEmpty()) {
+                return language;
             }
-
-            // Debug: afficher toutes les SharedPreferences
-            widgetDebugLog(TAG, "🔍 TOUTES les SharedPreferences:");
-            Map<String, ?> allPrefs = prefs.getAll();
-            for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-                widgetDebugLog(TAG, "  - " + entry.getKey() + " = " + entry.getValue());
-            }
-
         } catch (Exception e) {
             Log.e(TAG, "❌ Erreur récupération langue: " + e.getMessage());
         }
@@ -778,57 +764,15 @@ public class QuranWidget extends AppWidgetProvider {
         if (surahName == null || surahName.isEmpty()) {
             return 0;
         }
-
         // Chercher le pattern (XXX) dans le nom
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\((\\d{3})\\)");
-        java.util.regex.Matcher matcher = pattern.matcher(surahName);
-
-        if (matcher.find()) {
-            try {
-                return Integer.parseInt(matcher.group(1));
-            } catch (NumberFormatException e) {
-                Log.e(TAG, "❌ Erreur parsing numéro sourate: " + e.getMessage());
-                return 0;
-            }
-        }
-
-        return 0;
+        return SurahCatalog.numberFromParentheses(surahName);
     }
 
     /**
      * Obtenir le nom de sourate depuis le numéro
      */
     private static String getSurahNameFromNumber(int surahNumber) {
-        if (surahNumber < 1 || surahNumber > 114) {
-            return null;
-        }
-
-        // Liste des 114 sourates du Coran
-        String[] surahNames = {
-                "Al-Fatiha", "Al-Baqarah", "Aal-E-Imran", "An-Nisa", "Al-Maidah", "Al-An'am", "Al-A'raf", "Al-Anfal",
-                "At-Tawbah", "Yunus",
-                "Hud", "Yusuf", "Ar-Ra'd", "Ibrahim", "Al-Hijr", "An-Nahl", "Al-Isra", "Al-Kahf", "Maryam", "Ta-Ha",
-                "Al-Anbya", "Al-Hajj", "Al-Mu'minun", "An-Nur", "Al-Furqan", "Ash-Shu'ara", "An-Naml", "Al-Qasas",
-                "Al-Ankabut", "Ar-Rum",
-                "Luqman", "As-Sajdah", "Al-Ahzab", "Saba", "Fatir", "Ya-Sin", "As-Saffat", "Sad", "Az-Zumar", "Ghafir",
-                "Fussilat", "Ash-Shura", "Az-Zukhruf", "Ad-Dukhan", "Al-Jathiyah", "Al-Ahqaf", "Muhammad", "Al-Fath",
-                "Al-Hujurat", "Qaf",
-                "Adh-Dhariyat", "At-Tur", "An-Najm", "Al-Qamar", "Ar-Rahman", "Al-Waqi'ah", "Al-Hadid", "Al-Mujadila",
-                "Al-Hashr", "Al-Mumtahanah",
-                "As-Saf", "Al-Jumu'ah", "Al-Munafiqun", "At-Taghabun", "At-Talaq", "At-Tahrim", "Al-Mulk", "Al-Qalam",
-                "Al-Haqqah", "Al-Ma'arij",
-                "Nuh", "Al-Jinn", "Al-Muzzammil", "Al-Muddathir", "Al-Qiyamah", "Al-Insan", "Al-Mursalat", "An-Naba",
-                "An-Nazi'at", "Abasa",
-                "At-Takwir", "Al-Infitar", "Al-Mutaffifin", "Al-Inshiqaq", "Al-Buruj", "At-Tariq", "Al-A'la",
-                "Al-Ghashiyah", "Al-Fajr", "Al-Balad",
-                "Ash-Shams", "Al-Layl", "Ad-Duha", "Ash-Sharh", "At-Tin", "Al-'Alaq", "Al-Qadr", "Al-Bayyinah",
-                "Az-Zalzalah", "Al-'Adiyat",
-                "Al-Qari'ah", "At-Takathur", "Al-'Asr", "Al-Humazah", "Al-Fil", "Quraish", "Al-Ma'un", "Al-Kawthar",
-                "Al-Kafirun", "An-Nasr",
-                "Al-Masad", "Al-Ikhlas", "Al-Falaq", "An-Nas"
-        };
-
-        return surahNames[surahNumber - 1] + " (" + String.format("%03d", surahNumber) + ")";
+        return SurahCatalog.displayNameOf(surahNumber);
     }
 
     // Méthodes publiques pour la communication avec l'app principale
@@ -1102,12 +1046,7 @@ public class QuranWidget extends AppWidgetProvider {
             // vérifications fichiers inutiles
             if (currentAudioPath != null && !currentAudioPath.isEmpty()) {
                 if (currentAudioPath.startsWith("http://") || currentAudioPath.startsWith("https://")) {
-                    // CORRECTION CRITIQUE : Si l'URL n'a pas de token, l'ajouter
-                    if (!currentAudioPath.contains("&token=")) {
-                        Log.w(TAG, "⚠️ URL sans token détectée, correction automatique...");
-                        currentAudioPath = addTokenToUrl(context, currentAudioPath);
-                        Log.d(TAG, "✅ URL corrigée: " + currentAudioPath);
-                    }
+                    // Token ajouté à chaque requête par RecitationHttp : l'URL reste telle quelle
                     Log.d(TAG, "🌐 Audio streaming détecté: " + currentAudioPath);
                     return false; // C'est du streaming, pas local
                 }
@@ -1172,33 +1111,6 @@ public class QuranWidget extends AppWidgetProvider {
         }
     }
 
-    /**
-     * NOUVEAU : Ajouter le token d'authentification à une URL
-     */
-    private static String addTokenToUrl(Context context, String originalUrl) {
-        try {
-            if (originalUrl == null || originalUrl.isEmpty()) {
-                return originalUrl;
-            }
-
-            // Récupérer le token depuis les SharedPreferences
-            android.content.SharedPreferences prefs = context.getSharedPreferences("premium_prefs",
-                    Context.MODE_PRIVATE);
-            String userToken = prefs.getString("user_token", "");
-
-            if (!userToken.isEmpty()) {
-                Log.d(TAG, "🔗 Token trouvé dans le widget, ajout à l'URL");
-                return originalUrl + "&token=" + userToken;
-            } else {
-                Log.w(TAG, "⚠️ Aucun token trouvé dans le widget");
-                return originalUrl;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Erreur ajout token: " + e.getMessage());
-            return originalUrl;
-        }
-    }
-
     /**
      * NOUVEAU : Méthode de diagnostic pour tester l'état complet du système
      */
@@ -79,6 +79,7 @@ public class QuranWidgetModule extends ReactContextBaseJavaModule {
     public void updateWidgetPremiumStatus(boolean isPremium, Promise promise) {
         try {
             Log.d(TAG, "👑 Mise à jour statut premium: " + isPremium);
+            AsyncStorageReader.invalidate();
             
             // Sauvegarder dans les préférences
             SharedPreferences prefs = reactContext.getSharedPreferences("premium_prefs", Context.MODE_PRIVATE);
@@ -124,25 +125,20 @@ public class QuranWidgetModule extends ReactContextBaseJavaModule {
     public void getPremiumStatus(Promise promise) {
         try {
             // Essayer de lire depuis AsyncStorage d'abord
-            String premiumUserData = getAsyncStorageData("@prayer_app_premium_user");
+            Boolean storedPremium = AsyncStorageReader.readPremiumFlag(reactContext);
             boolean isPremium = false;
             
-            if (premiumUserData != null) {
-                try {
-                    org.json.JSONObject userData = new org.json.JSONObject(premiumUserData);
-                    isPremium = userData.optBoolean("isPremium", false);
-                    Log.d(TAG, "👑 Statut premium depuis AsyncStorage: " + isPremium);
-                    
-                    // Mettre à jour les SharedPreferences pour le widget
-                    SharedPreferences prefs = reactContext.getSharedPreferences("premium_prefs", Context.MODE_PRIVATE);
-                    prefs.edit().putBoolean("is_premium_user", isPremium).apply();
-                    Log.d(TAG, "💾 Statut premium sauvegardé dans SharedPreferences: " + isPremium);
-                    
-                    // Mettre à jour le widget
-                    QuranWidget.setPremiumStatus(isPremium);
-                } catch (org.json.JSONException e) {
-                    Log.w(TAG, "⚠️ Erreur parsing JSON AsyncStorage: " + e.getMessage());
-                }
+            if (storedPremium != null) {
+                isPremium = storedPremium;
+                Log.d(TAG, "👑 Statut premium depuis AsyncStorage: " + isPremium);
+                
+                // Mettre à jour les SharedPreferences pour le widget
+                SharedPreferences prefs = reactContext.getSharedPreferences("premium_prefs", Context.MODE_PRIVATE);
+                prefs.edit().putBoolean("is_premium_user", isPremium).apply();
+                Log.d(TAG, "💾 Statut premium sauvegardé dans SharedPreferences: " + isPremium);
+                
+                // Mettre à jour le widget
+                QuranWidget.setPremiumStatus(isPremium);
             }
             
             // Si pas trouvé dans AsyncStorage, essayer SharedPreferences
@@ -160,69 +156,11 @@ public class QuranWidgetModule extends ReactContextBaseJavaModule {
     }
     
     /**
-     * Lire les données depuis AsyncStorage (simplifié)
+     * Signal JS : AsyncStorage vient d'être modifié, vider le cache natif
      */
-    private String getAsyncStorageData(String key) {
-        try {
-            Log.d(TAG, "🔍 Tentative lecture AsyncStorage pour la clé: " + key);
-            
-            // Essayer de lire depuis les SharedPreferences d'abord (plus simple)
-            SharedPreferences asyncPrefs = reactContext.getSharedPreferences("AsyncStorage", Context.MODE_PRIVATE);
-            String value = asyncPrefs.getString(key, null);
-            
-            if (value != null) {
-                Log.d(TAG, "✅ Valeur trouvée dans SharedPreferences AsyncStorage: " + value.substring(0, Math.min(100, value.length())) + "...");
-                return value;
-            }
-            
-            // Fallback: essayer la base SQLite d'AsyncStorage
-            java.io.File dbFile = new java.io.File(reactContext.getApplicationInfo().dataDir, "databases/AsyncStorage.db");
-            Log.d(TAG, "📁 Chemin base AsyncStorage: " + dbFile.getAbsolutePath());
-            Log.d(TAG, "📁 Base AsyncStorage existe: " + dbFile.exists());
-            
-            if (!dbFile.exists()) {
-                Log.d(TAG, "⚠️ Base AsyncStorage non trouvée");
-                return null;
-            }
-            
-            // Lire directement depuis la base de données SQLite d'AsyncStorage
-            android.database.sqlite.SQLiteDatabase db = android.database.sqlite.SQLiteDatabase.openDatabase(
-                dbFile.getAbsolutePath(), null, android.database.sqlite.SQLiteDatabase.OPEN_READONLY
-            );
-            
-            try {
-                Log.d(TAG, "🔍 Base AsyncStorage ouverte, recherche de la clé: " + key);
-                
-                android.database.Cursor cursor = db.query(
-                    "catalystLocalStorage",
-                    new String[]{"value"},
-                    "key = ?",
-                    new String[]{key},
-                    null, null, null
-                );
-                
-                if (cursor != null && cursor.moveToFirst()) {
-                    value = cursor.getString(0);
-                    cursor.close();
-                    Log.d(TAG, "✅ Valeur trouvée dans SQLite AsyncStorage: " + value.substring(0, Math.min(100, value.length())) + "...");
-                    return value;
-                } else {
-                    Log.d(TAG, "⚠️ Aucune valeur trouvée pour la clé: " + key);
-                }
-                
-                if (cursor != null) {
-                    cursor.close();
-                }
-            } finally {
-                db.close();
-            }
-            
-            return null;
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Erreur lecture AsyncStorage: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+    @ReactMethod
+    public void invalidateAsyncStorageCache() {
+        AsyncStorageReader.invalidate();
     }
 
     /**
@@ -328,18 +266,14 @@ public class QuranWidgetModule extends ReactContextBaseJavaModule {
         try {
             Log.d(TAG, "🔄 Synchronisation du statut premium...");
             
-            // Lire depuis AsyncStorage
-            String premiumUserData = getAsyncStorageData("@prayer_app_premium_user");
+            // Lire depuis AsyncStorage (le signal de synchro invalide le cache)
+            AsyncStorageReader.invalidate();
+            Boolean storedPremium = AsyncStorageReader.readPremiumFlag(reactContext);
             boolean isPremium = false;
             
-            if (premiumUserData != null) {
-                try {
-                    org.json.JSONObject userData = new org.json.JSONObject(premiumUserData);
-                    isPremium = userData.optBoolean("isPremium", false);
-                    Log.d(TAG, "👑 Statut premium lu depuis AsyncStorage: " + isPremium);
-                } catch (org.json.JSONException e) {
-                    Log.w(TAG, "⚠️ Erreur parsing JSON AsyncStorage: " + e.getMessage());
-                }
+            if (storedPremium != null) {
+                isPremium = storedPremium;
+                Log.d(TAG, "👑 Statut premium lu depuis AsyncStorage: " + isPremium);
             } else {
                 Log.w(TAG, "⚠️ Aucune donnée premium trouvée dans AsyncStorage");
             }
@@ -379,6 +313,7 @@ public class QuranWidgetModule extends ReactContextBaseJavaModule {
     public void forcePremiumStatus(boolean isPremium, Promise promise) {
         try {
             Log.d(TAG, "🚀 Forçage du statut premium: " + isPremium);
+            AsyncStorageReader.invalidate();
             
             // Mettre à jour les SharedPreferences
             SharedPreferences prefs = reactContext.getSharedPreferences("premium_prefs", Context.MODE_PRIVATE);
@@ -0,0 +1,176 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.media.MediaDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Source audio HTTP pour MediaMetadataRetriever (sonde de durée, pochette), servie par le
+ * client partagé {@link RecitationHttp} (connexion réutilisée au lieu d'une nouvelle
+ * connexion TLS par lecture). Le début du fichier (ID3, pochette, en-tête Xing) est lu une
+ * fois et partagé entre la sonde de durée et l'extraction de pochette ; le reste est lu en
+ * flux, avec une requête Range à chaque saut de position. La lecture elle-même passe par
+ * {@link ExoPlaybackEngine}.
+ */
+public final class RecitationDataSource extends MediaDataSource {
+
+    static final int HEAD_BYTES = 256 * 1024;
+    private static final int MAX_HEADS = 4;
+
+    /** Début d'un fichier distant et sa taille totale (-1 si inconnue). */
+    private static final class Head {
+        final byte[] bytes;
+        final long totalSize;
+
+        Head(byte[] bytes, long totalSize) {
+            this.bytes = bytes;
+            this.totalSize = totalSize;
+        }
+    }
+
+    // Les dernières URL ouvertes (sourate courante, précédente…), accès LRU
+    private static final Map<String, Head> HEADS = new LinkedHashMap<String, Head>(MAX_HEADS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Head> eldest) {
+            return size() > MAX_HEADS;
+        }
+    };
+
+    private final Context context;
+    private final String url;
+    private Head head;
+    private Response response;
+    private InputStream stream;
+    private long streamPosition = -1;
+
+    public RecitationDataSource(Context context, String url) {
+        this.context = context.getApplicationContext();
+        this.url = url;
+    }
+
+    @Override
+    public synchronized int readAt(long position, byte[] buffer, int offset, int size) throws IOException {
+        if (size <= 0) {
+            return 0;
+        }
+        Head h = head();
+        if (h.totalSize >= 0 && position >= h.totalSize) {
+            return -1;
+        }
+        if (position < h.bytes.length) {
+            int n = (int) Math.min(size, h.bytes.length - position);
+            System.arraycopy(h.bytes, (int) position, buffer, offset, n);
+            return n;
+        }
+        if (h.bytes.length < HEAD_BYTES) {
+            return -1; // fichier entièrement contenu dans le début déjà lu
+        }
+        if (stream == null || position != streamPosition) {
+            openAt(position);
+        }
+        int n = stream.read(buffer, offset, size);
+        if (n > 0) {
+            streamPosition += n;
+        } else {
+            closeStream();
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized long getSize() throws IOException {
+        return head().totalSize;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeStream();
+    }
+
+    private Head head() throws IOException {
+        if (head != null) {
+            return head;
+        }
+        synchronized (HEADS) {
+            head = HEADS.get(url);
+        }
+        if (head != null) {
+            return head;
+        }
+        try (Response r = RecitationHttp.get(context, url, "bytes=0-" + (HEAD_BYTES - 1))) {
+            ResponseBody body = r.body();
+            long total;
+            if (r.code() == 206) {
+                total = BulkDownloadEngine.totalFromContentRange(r.header("Content-Range"), -1);
+            } else if (r.code() == 200) {
+                total = body != null ? body.contentLength() : -1; // serveur sans Range
+            } else {
+                throw new IOException("HTTP " + r.code());
+            }
+            head = new Head(readUpTo(body != null ? body.byteStream() : null, HEAD_BYTES), total);
+        }
+        synchronized (HEADS) {
+            HEADS.put(url, head);
+        }
+        return head;
+    }
+
+    private void openAt(long position) throws IOException {
+        closeStream();
+        response = RecitationHttp.get(context, url, "bytes=" + position + "-");
+        ResponseBody body = response.body();
+        if (body == null || (response.code() != 206 && response.code() != 200)) {
+            int code = response.code();
+            closeStream();
+            throw new IOException("HTTP " + code);
+        }
+        stream = body.byteStream();
+        if (response.code() == 200) {
+            // Range ignoré : on avance jusqu'à la position demandée
+            long skipped = 0;
+            while (skipped < position) {
+                long n = stream.skip(position - skipped);
+                if (n <= 0) {
+                    closeStream();
+                    throw new IOException("Flux trop court pour " + position);
+                }
+                skipped += n;
+            }
+        }
+        streamPosition = position;
+    }
+
+    private void closeStream() {
+        if (response != null) {
+            response.close();
+        }
+        response = null;
+        stream = null;
+        streamPosition = -1;
+    }
+
+    private static byte[] readUpTo(InputStream in, int max) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        byte[] buffer = new byte[max];
+        int filled = 0;
+        int n;
+        while (filled < max && (n = in.read(buffer, filled, max - filled)) != -1) {
+            filled += n;
+        }
+        if (filled == max) {
+            return buffer;
+        }
+        byte[] exact = new byte[filled];
+        System.arraycopy(buffer, 0, exact, 0, filled);
+        return exact;
+    }
+}
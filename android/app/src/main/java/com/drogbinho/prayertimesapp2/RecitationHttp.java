@@ -0,0 +1,110 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Client HTTP unique du process pour le trafic des récitations (lecture, sonde de durée,
+ * pochette, téléchargements en masse, préchargement). Dérivé du client OkHttp de React
+ * Native : même pool de connexions (keep-alive, HTTP/2 multiplexé) que les fetch JS, donc
+ * une seule poignée de main TLS vers myadhanapp.com tant que la connexion reste ouverte.
+ *
+ * Les requêtes vers l'API reçoivent le User-Agent de l'app et le token premium (paramètre
+ * "token") s'il manque dans l'URL : les appelants construisent des URL sans token.
+ */
+public final class RecitationHttp {
+    private static final String TAG = "RecitationHttp";
+    public static final String API_HOST = "myadhanapp.com";
+    public static final String USER_AGENT = "MyAdhan/1.0 (Android)";
+
+    private static final Object LOCK = new Object();
+    private static OkHttpClient client;
+
+    private RecitationHttp() {}
+
+    public static OkHttpClient client(Context context) {
+        synchronized (LOCK) {
+            if (client == null) {
+                Context app = context.getApplicationContext();
+                client = OkHttpClientProvider.getOkHttpClient().newBuilder()
+                        .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                        .connectTimeout(15, TimeUnit.SECONDS)
+                        .readTimeout(30, TimeUnit.SECONDS)
+                        .addInterceptor(new ApiInterceptor(app))
+                        .eventListener(new HandshakeCounter())
+                        .build();
+            }
+            return client;
+        }
+    }
+
+    /** Requête GET (avec Range optionnel, "bytes=N-" ou "bytes=N-M") via le client partagé. */
+    public static Response get(Context context, String url, String range) throws IOException {
+        Request.Builder request = new Request.Builder().url(url);
+        if (range != null) {
+            request.header("Range", range);
+        }
+        return client(context).newCall(request.build()).execute();
+    }
+
+    private static final class ApiInterceptor implements Interceptor {
+        private final SharedPreferences premiumPrefs;
+
+        ApiInterceptor(Context context) {
+            this.premiumPrefs = context.getSharedPreferences("premium_prefs", Context.MODE_PRIVATE);
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            HttpUrl url = request.url();
+            if (!url.host().endsWith(API_HOST)) {
+                return chain.proceed(request);
+            }
+            Request.Builder builder = request.newBuilder().header("User-Agent", USER_AGENT);
+            if (url.queryParameter("token") == null) {
+                String token = premiumPrefs.getString("user_token", "");
+                if (!token.isEmpty()) {
+                    builder.url(url.newBuilder().addQueryParameter("token", token).build());
+                } else {
+                    warnLog(TAG, "⚠️ Aucun token utilisateur pour {}", url.encodedPath());
+                }
+            }
+            return chain.proceed(builder.build());
+        }
+    }
+
+    // 📊 Poignées de main TLS réellement effectuées (connexions réutilisées non comptées)
+    private static final class HandshakeCounter extends EventListener {
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            PerfMetrics.increment(PerfMetrics.C_TLS_HANDSHAKES);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol,
+                IOException e) {
+            debugLog(TAG, "🔌 Connexion échouée vers {}: {}", address, e.getMessage());
+        }
+    }
+}
@@ -7,7 +7,9 @@ import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 import android.os.Handler;
-import android.os.Looper;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.view.Display;
 import android.view.Surface;
 import android.view.WindowManager;
 
@@ -23,6 +25,10 @@ import com.facebook.react.modules.core.DeviceEventManagerModule;
 
 /**
  * Boussole via TYPE_ROTATION_VECTOR + remap selon inclinaison (à plat / vertical).
+ *
+ * Tout le pipeline capteur tourne sur un HandlerThread dédié (buffers préalloués, aucune
+ * allocation par événement) ; la déclinaison est calculée une fois par position et l'envoi
+ * vers JS n'a lieu que si le cap bouge assez, avec une fréquence plafonnée.
  */
 public class RotationCompassModule extends ReactContextBaseJavaModule
         implements SensorEventListener, LifecycleEventListener {
@@ -43,8 +49,19 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
     /** Capteur/remap portrait : nord et sud étaient inversés de 180°. */
     private static final float AZIMUTH_CORRECTION_DEG = 180f;
 
+    /** Émission JS : variation minimale du cap, intervalle minimal (~30 Hz) et battement max. */
+    private static final float EMIT_MIN_DELTA_DEG = 0.5f;
+    private static final long EMIT_MIN_INTERVAL_MS = 33;
+    private static final long EMIT_MAX_SILENCE_MS = 1000;
+    /** Batching matériel quand l'écran n'a pas le focus (capteurs conservés, réveils groupés). */
+    private static final int BACKGROUND_MAX_LATENCY_US = 1_000_000;
+
     private final ReactApplicationContext reactContext;
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Thread capteur : tout l'état ci-dessous n'est lu/écrit que depuis ce thread
+    @Nullable
+    private HandlerThread sensorThread;
+    @Nullable
+    private Handler sensorHandler;
 
     @Nullable
     private SensorManager sensorManager;
@@ -64,6 +81,22 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
     private boolean hasGeoLocation = false;
     private float latitude = 0f;
     private float longitude = 0f;
+    private float declinationDeg = 0f;
+
+    private boolean hostFocused = true;
+    @Nullable
+    private Display display;
+
+    // Buffers réutilisés à chaque événement
+    private final float[] rotationMatrix = new float[9];
+    private final float[] remappedMatrix = new float[9];
+    private final float[] orientation = new float[3];
+    private final float[] flatOrientation = new float[3];
+
+    private long lastEmitAtMs = 0L;
+    private float lastEmittedHeading = Float.NaN;
+    private boolean lastEmittedCalibration = false;
+    private boolean lastEmittedInterference = false;
 
     public RotationCompassModule(ReactApplicationContext reactContext) {
         super(reactContext);
@@ -88,17 +121,47 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
 
     @ReactMethod
     public void start(double latitude, double longitude) {
-        if (Math.abs(latitude) > 0.0001d || Math.abs(longitude) > 0.0001d) {
-            hasGeoLocation = true;
-            this.latitude = (float) latitude;
-            this.longitude = (float) longitude;
-        } else {
-            hasGeoLocation = false;
+        final boolean geo = Math.abs(latitude) > 0.0001d || Math.abs(longitude) > 0.0001d;
+        final float lat = (float) latitude;
+        final float lon = (float) longitude;
+        ensureSensorThread().post(() -> {
+            if (geo) {
+                if (!hasGeoLocation || lat != this.latitude || lon != this.longitude) {
+                    this.latitude = lat;
+                    this.longitude = lon;
+                    declinationDeg = computeDeclination(lat, lon);
+                }
+                hasGeoLocation = true;
+            } else {
+                hasGeoLocation = false;
+                declinationDeg = 0f;
+            }
+
+            // Toujours réenregistrer (évite l'état bloqué après pause / permission dialog).
+            unregisterSensors();
+            registerSensors();
+        });
+    }
+
+    @ReactMethod
+    public void stop() {
+        Handler handler = sensorHandler;
+        if (handler != null) {
+            handler.post(this::unregisterSensors);
         }
+    }
 
-        // Toujours réenregistrer (évite l'état bloqué après pause / permission dialog).
-        unregisterSensors();
+    private synchronized Handler ensureSensorThread() {
+        if (sensorHandler == null) {
+            sensorThread = new HandlerThread("RotationCompass");
+            sensorThread.start();
+            sensorHandler = new Handler(sensorThread.getLooper());
+        }
+        return sensorHandler;
+    }
 
+    /** Thread capteur uniquement. Avec batching si l'écran n'a pas le focus. */
+    private void registerSensors() {
         Context context = getReactApplicationContext();
         sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
         if (sensorManager == null) {
@@ -112,22 +175,22 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
             return;
         }
 
+        WindowManager wm = (WindowManager) reactContext.getSystemService(Context.WINDOW_SERVICE);
+        display = wm != null ? wm.getDefaultDisplay() : null;
+
         hasSmoothedAzimuth = false;
         fieldHistoryIndex = 0;
         fieldHistoryCount = 0;
+        lastEmittedHeading = Float.NaN;
         int delay = SensorManager.SENSOR_DELAY_UI;
-        sensorManager.registerListener(this, rotationSensor, delay);
+        int maxLatencyUs = hostFocused ? 0 : BACKGROUND_MAX_LATENCY_US;
+        sensorManager.registerListener(this, rotationSensor, delay, maxLatencyUs, sensorHandler);
         if (magneticSensor != null) {
-            sensorManager.registerListener(this, magneticSensor, delay);
+            sensorManager.registerListener(this, magneticSensor, delay, maxLatencyUs, sensorHandler);
         }
         listening = true;
     }
 
-    @ReactMethod
-    public void stop() {
-        unregisterSensors();
-    }
-
     private void unregisterSensors() {
         if (sensorManager != null) {
             sensorManager.unregisterListener(this);
@@ -136,6 +199,24 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
         hasSmoothedAzimuth = false;
     }
 
+    /** Changement de focus : réenregistre les capteurs avec/sans batching s'ils tournent. */
+    private void setHostFocused(boolean focused) {
+        Handler handler = sensorHandler;
+        if (handler == null) {
+            return;
+        }
+        handler.post(() -> {
+            if (hostFocused == focused) {
+                return;
+            }
+            hostFocused = focused;
+            if (listening) {
+                unregisterSensors();
+                registerSensors();
+            }
+        });
+    }
+
     @Override
     public void onSensorChanged(SensorEvent event) {
         if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
@@ -151,17 +232,15 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
             return;
         }
 
-        float[] rotationMatrix = new float[9];
-        float[] remappedMatrix = new float[9];
-        float[] orientation = new float[3];
-
         SensorManager.getRotationMatrixFromVector(rotationMatrix, event.values);
         remapForDeviceAttitude(rotationMatrix, remappedMatrix);
         SensorManager.getOrientation(remappedMatrix, orientation);
 
         float azimuthDeg = (float) Math.toDegrees(orientation[0]);
         azimuthDeg = (azimuthDeg + AZIMUTH_CORRECTION_DEG + 360f) % 360f;
-        azimuthDeg = applyDeclination(azimuthDeg);
+        if (hasGeoLocation) {
+            azimuthDeg = (azimuthDeg + declinationDeg + 360f) % 360f;
+        }
 
         final float field = lastMagneticFieldUt;
         final boolean magneticInterference = detectMagneticInterference(field);
@@ -170,8 +249,7 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
         if (hasSmoothedAzimuth && magneticInterference) {
             float spike = shortestAngleDelta(smoothedAzimuth, azimuthDeg);
             if (Math.abs(spike) > OUTLIER_REJECT_DEG) {
-                mainHandler.post(
-                        () -> emitHeading(smoothedAzimuth, field, needsCalibration, true));
+                maybeEmitHeading(smoothedAzimuth, field, needsCalibration, true);
                 return;
             }
         }
@@ -196,10 +274,33 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
             }
         }
 
-        final float heading = smoothedAzimuth;
+        maybeEmitHeading(smoothedAzimuth, field, needsCalibration, magneticInterference);
+    }
 
-        mainHandler.post(
-                () -> emitHeading(heading, field, needsCalibration, magneticInterference));
+    /**
+     * N'envoie à JS que si le cap a bougé d'au moins EMIT_MIN_DELTA_DEG (au plus ~30 Hz),
+     * si un indicateur change, ou au moins une fois par seconde pour rafraîchir le champ.
+     */
+    private void maybeEmitHeading(
+            float heading,
+            float magneticFieldUt,
+            boolean needsCalibration,
+            boolean magneticInterference) {
+        long now = SystemClock.elapsedRealtime();
+        long elapsed = now - lastEmitAtMs;
+        boolean flagsChanged = needsCalibration != lastEmittedCalibration
+                || magneticInterference != lastEmittedInterference;
+        boolean moved = Float.isNaN(lastEmittedHeading)
+                || Math.abs(shortestAngleDelta(lastEmittedHeading, heading)) >= EMIT_MIN_DELTA_DEG;
+
+        if (!flagsChanged && !(moved && elapsed >= EMIT_MIN_INTERVAL_MS) && elapsed < EMIT_MAX_SILENCE_MS) {
+            return;
+        }
+        lastEmitAtMs = now;
+        lastEmittedHeading = heading;
+        lastEmittedCalibration = needsCalibration;
+        lastEmittedInterference = magneticInterference;
+        emitHeading(heading, magneticFieldUt, needsCalibration, magneticInterference);
     }
 
     private void recordFieldStrength(float fieldUt) {
@@ -244,11 +345,8 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
         return diff;
     }
 
-    /** Nord vrai (Qibla) = nord magnétique + déclinaison locale. */
-    private float applyDeclination(float magneticAzimuthDeg) {
-        if (!hasGeoLocation) {
-            return magneticAzimuthDeg;
-        }
+    /** Nord vrai (Qibla) = nord magnétique + déclinaison locale (calculée une fois par position). */
+    private static float computeDeclination(float latitude, float longitude) {
         try {
             GeomagneticField field =
                     new GeomagneticField(
@@ -256,16 +354,15 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
                             longitude,
                             0f,
                             System.currentTimeMillis());
-            return (magneticAzimuthDeg + field.getDeclination() + 360f) % 360f;
+            return field.getDeclination();
         } catch (Exception ignored) {
-            return magneticAzimuthDeg;
+            return 0f;
         }
     }
 
     private boolean isDeviceFlat(float[] rotationMatrix) {
-        float[] orient = new float[3];
-        SensorManager.getOrientation(rotationMatrix, orient);
-        float pitchDeg = Math.abs((float) Math.toDegrees(orient[1]));
+        SensorManager.getOrientation(rotationMatrix, flatOrientation);
+        float pitchDeg = Math.abs((float) Math.toDegrees(flatOrientation[1]));
         return pitchDeg < FLAT_PITCH_MIN_DEG || pitchDeg > FLAT_PITCH_MAX_DEG;
     }
 
@@ -274,12 +371,7 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
      * Vertical : remap standard portrait (AXIS_Y + AXIS_MINUS_X).
      */
     private void remapForDeviceAttitude(float[] in, float[] out) {
-        int displayRotation = Surface.ROTATION_0;
-        WindowManager wm =
-                (WindowManager) reactContext.getSystemService(Context.WINDOW_SERVICE);
-        if (wm != null && wm.getDefaultDisplay() != null) {
-            displayRotation = wm.getDefaultDisplay().getRotation();
-        }
+        int displayRotation = display != null ? display.getRotation() : Surface.ROTATION_0;
 
         boolean flat = isDeviceFlat(in);
 
@@ -346,6 +438,7 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
         if (!reactContext.hasActiveReactInstance()) {
             return;
         }
+        // RCTDeviceEventEmitter est thread-safe : pas de saut par le thread principal
         WritableMap params = Arguments.createMap();
         params.putDouble("heading", heading);
         params.putDouble("magneticFieldUt", magneticFieldUt);
@@ -363,17 +456,33 @@ public class RotationCompassModule extends ReactContextBaseJavaModule
 
     @Override
     public void onHostResume() {
-        // Le cycle capteur est géré par JS (useFocusEffect / AppState).
+        // Le cycle capteur est géré par JS (useFocusEffect / AppState) ; ici seul le
+        // batching est levé.
+        setHostFocused(true);
     }
 
     @Override
     public void onHostPause() {
         // Ne pas stop() ici : la pause (dialog permission, etc.) tuait la boussole
-        // sans redémarrage côté React.
+        // sans redémarrage côté React. On passe seulement en mode batching.
+        setHostFocused(false);
     }
 
     @Override
     public void onHostDestroy() {
-        stop();
+        Handler handler;
+        HandlerThread thread;
+        synchronized (this) {
+            handler = sensorHandler;
+            thread = sensorThread;
+            sensorHandler = null;
+            sensorThread = null;
+        }
+        if (handler != null && thread != null) {
+            handler.post(() -> {
+                unregisterSensors();
+                thread.quitSafely();
+            });
+        }
     }
 }
@@ -0,0 +1,769 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Réglages natifs en mémoire : prayer_times_settings, adhan_prefs, muted_prayers et
+ * premium_prefs sont chargés une fois dans un {@link Snapshot} immuable et typé.
+ * Une mise à jour copie le snapshot, le remplace d'un bloc, prévient les listeners puis
+ * confie la persistance à un unique writer en arrière-plan qui regroupe les écritures.
+ * Les écritures directes encore faites ailleurs dans les SharedPreferences rechargent le
+ * snapshot (OnSharedPreferenceChangeListener), il reste donc cohérent : les échos de notre
+ * propre writer sont ignorés, les autres changements sont regroupés en un seul rechargement
+ * sur le thread du writer.
+ */
+public final class SettingsStore {
+
+    private static final String TAG = "SettingsStore";
+
+    static final String PREFS_SETTINGS = "prayer_times_settings";
+    static final String PREFS_ADHAN = "adhan_prefs";
+    static final String PREFS_MUTED = "muted_prayers";
+    static final String PREFS_PREMIUM = "premium_prefs";
+    private static final String[] PREFS_FILES = { PREFS_SETTINGS, PREFS_ADHAN, PREFS_MUTED, PREFS_PREMIUM };
+
+    /** Délai de regroupement des écritures disque. */
+    private static final long WRITE_DELAY_MS = 300;
+    /** Délai de regroupement des rechargements après écritures extérieures. */
+    private static final long RELOAD_DELAY_MS = 100;
+    private static final Object REMOVED = new Object();
+
+    public interface Listener {
+        void onSettingsChanged(Snapshot previous, Snapshot current);
+    }
+
+    public interface Mutation {
+        void apply(Editor editor);
+    }
+
+    private static volatile Snapshot current;
+    private static Context appContext;
+    private static final Object UPDATE_LOCK = new Object();
+    private static final CopyOnWriteArrayList<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    // Écritures en attente : fichier → (clé → valeur ou REMOVED), protégé par PENDING
+    private static final HashMap<String, HashMap<String, Object>> PENDING = new HashMap<>();
+    private static Handler writer;
+    private static boolean writeScheduled;
+    private static boolean reloadScheduled;
+    // Écritures du writer dont la notification n'est pas encore arrivée ("fichier/clé" → nombre)
+    private static final HashMap<String, Integer> ECHOES = new HashMap<>();
+
+    // Un listener par fichier (il connaît son fichier). Références fortes obligatoires :
+    // SharedPreferences ne garde les listeners qu'en WeakReference
+    private static final Map<String, SharedPreferences.OnSharedPreferenceChangeListener> PREFS_LISTENERS =
+            new HashMap<>();
+
+    static {
+        for (String file : PREFS_FILES) {
+            PREFS_LISTENERS.put(file, (prefs, key) -> onPreferenceChanged(file, key));
+        }
+    }
+
+    private SettingsStore() {}
+
+    /** Snapshot courant (chargé au premier appel, ensuite sans I/O ni verrou). */
+    public static Snapshot get(Context context) {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (UPDATE_LOCK) {
+            if (current == null) {
+                appContext = context.getApplicationContext();
+                current = load(appContext);
+                for (String file : PREFS_FILES) {
+                    appContext.getSharedPreferences(file, Context.MODE_PRIVATE)
+                            .registerOnSharedPreferenceChangeListener(PREFS_LISTENERS.get(file));
+                }
+                debugLog(TAG, "Réglages chargés (langue={}, méthode={})", current.language, current.calcMethod);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Applique une modification : copie du snapshot, remplacement atomique, notification,
+     * puis écriture différée (regroupée avec les autres modifications proches).
+     */
+    public static Snapshot update(Context context, Mutation mutation) {
+        Snapshot previous;
+        Snapshot next;
+        synchronized (UPDATE_LOCK) {
+            previous = get(context);
+            Editor editor = new Editor(previous);
+            mutation.apply(editor);
+            if (editor.writes.isEmpty()) {
+                return previous;
+            }
+            next = new Snapshot(editor);
+            current = next;
+            enqueueWrites(editor.writes);
+        }
+        notifyListeners(previous, next);
+        return next;
+    }
+
+    /**
+     * {@link #update} suivi d'une écriture immédiate : pour les modifications lues ensuite
+     * directement dans les SharedPreferences par un autre composant (service, receiver,
+     * alarme), ou qui doivent survivre à un arrêt du process juste après l'appel.
+     */
+    public static Snapshot updateNow(Context context, Mutation mutation) {
+        Snapshot next = update(context, mutation);
+        writePending();
+        return next;
+    }
+
+    public static void addListener(Listener listener) {
+        LISTENERS.addIfAbsent(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Force l'écriture immédiate des modifications en attente (thread appelant). À appeler
+     * avant de passer la main à un autre composant (démarrage de service, programmation
+     * d'alarmes) qui relira les SharedPreferences.
+     */
+    public static void flush() {
+        writePending();
+    }
+
+    /** Tests JVM : oublie le snapshot et le contexte (une Application neuve par test). */
+    @VisibleForTesting
+    static void resetForTests() {
+        synchronized (UPDATE_LOCK) {
+            if (appContext != null) {
+                for (String file : PREFS_FILES) {
+                    appContext.getSharedPreferences(file, Context.MODE_PRIVATE)
+                            .unregisterOnSharedPreferenceChangeListener(PREFS_LISTENERS.get(file));
+                }
+            }
+            current = null;
+            appContext = null;
+        }
+        synchronized (PENDING) {
+            PENDING.clear();
+            ECHOES.clear();
+            reloadScheduled = false;
+        }
+        LISTENERS.clear();
+    }
+
+    private static void notifyListeners(Snapshot previous, Snapshot next) {
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.onSettingsChanged(previous, next);
+            } catch (Exception e) {
+                errorLog(TAG, "Listener réglages en erreur: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Notification SharedPreferences (thread principal) : ignore l'écho d'une écriture de
+     * notre writer, sinon programme un rechargement unique pour la rafale de changements.
+     */
+    private static void onPreferenceChanged(String file, String key) {
+        synchronized (PENDING) {
+            String echoKey = key != null ? echoKey(file, key) : null;
+            Integer echoes = echoKey != null ? ECHOES.get(echoKey) : null;
+            if (echoes != null) {
+                if (echoes > 1) {
+                    ECHOES.put(echoKey, echoes - 1);
+                } else {
+                    ECHOES.remove(echoKey);
+                }
+                return;
+            }
+            if (reloadScheduled) {
+                return;
+            }
+            reloadScheduled = true;
+            writerLocked().postDelayed(SettingsStore::reload, RELOAD_DELAY_MS);
+        }
+    }
+
+    /** Relit les SharedPreferences après une écriture extérieure au store. */
+    private static void reload() {
+        synchronized (PENDING) {
+            reloadScheduled = false;
+        }
+        Snapshot previous;
+        Snapshot next;
+        synchronized (UPDATE_LOCK) {
+            if (current == null || appContext == null) {
+                return;
+            }
+            previous = current;
+            next = load(appContext);
+            if (next.equals(previous)) {
+                return; // Clé hors snapshot, ou valeur réécrite à l'identique
+            }
+            current = next;
+        }
+        notifyListeners(previous, next);
+    }
+
+    // ============ PERSISTANCE ============
+
+    private static void enqueueWrites(Map<String, Map<String, Object>> writes) {
+        synchronized (PENDING) {
+            for (Map.Entry<String, Map<String, Object>> entry : writes.entrySet()) {
+                HashMap<String, Object> fileWrites = PENDING.get(entry.getKey());
+                if (fileWrites == null) {
+                    fileWrites = new HashMap<>();
+                    PENDING.put(entry.getKey(), fileWrites);
+                }
+                fileWrites.putAll(entry.getValue());
+            }
+            if (writeScheduled) {
+                return;
+            }
+            writeScheduled = true;
+            writerLocked().postDelayed(SettingsStore::writePending, WRITE_DELAY_MS);
+        }
+    }
+
+    /** Thread unique des écritures et rechargements (appelant : verrou PENDING tenu). */
+    private static Handler writerLocked() {
+        if (writer == null) {
+            HandlerThread thread = new HandlerThread("SettingsStore");
+            thread.start();
+            writer = new Handler(thread.getLooper());
+        }
+        return writer;
+    }
+
+    private static void writePending() {
+        HashMap<String, HashMap<String, Object>> batch;
+        synchronized (PENDING) {
+            writeScheduled = false;
+            if (PENDING.isEmpty() || appContext == null) {
+                return;
+            }
+            batch = new HashMap<>(PENDING);
+            PENDING.clear();
+        }
+        for (Map.Entry<String, HashMap<String, Object>> entry : batch.entrySet()) {
+            SharedPreferences prefs = appContext.getSharedPreferences(entry.getKey(), Context.MODE_PRIVATE);
+            Map<String, ?> stored = prefs.getAll();
+            SharedPreferences.Editor editor = prefs.edit();
+            synchronized (PENDING) {
+                for (Map.Entry<String, Object> write : entry.getValue().entrySet()) {
+                    putValue(editor, write.getKey(), write.getValue());
+                    // Seules les valeurs réellement modifiées sont notifiées par SharedPreferences
+                    if (isChange(stored, write.getKey(), write.getValue())) {
+                        String echoKey = echoKey(entry.getKey(), write.getKey());
+                        Integer echoes = ECHOES.get(echoKey);
+                        ECHOES.put(echoKey, echoes != null ? echoes + 1 : 1);
+                    }
+                }
+            }
+            if (!editor.commit()) {
+                errorLog(TAG, "❌ Écriture des réglages échouée: " + entry.getKey());
+            }
+        }
+        debugLog(TAG, "Réglages persistés ({} fichier(s))", batch.size());
+    }
+
+    private static String echoKey(String file, String key) {
+        return file + "/" + key;
+    }
+
+    private static boolean isChange(Map<String, ?> stored, String key, Object value) {
+        if (value == REMOVED || value == null) {
+            return stored.containsKey(key);
+        }
+        return !value.equals(stored.get(key));
+    }
+
+    private static void putValue(SharedPreferences.Editor editor, String key, Object value) {
+        if (value == REMOVED || value == null) {
+            editor.remove(key);
+        } else if (value instanceof String) {
+            editor.putString(key, (String) value);
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        }
+    }
+
+    // ============ CHARGEMENT ============
+
+    /** Lecture des fichiers, en superposant les écritures pas encore persistées. */
+    private static Snapshot load(Context context) {
+        Map<String, Map<String, ?>> values = new HashMap<>();
+        for (String file : PREFS_FILES) {
+            values.put(file, new HashMap<>(context.getSharedPreferences(file, Context.MODE_PRIVATE).getAll()));
+        }
+        synchronized (PENDING) {
+            for (Map.Entry<String, HashMap<String, Object>> entry : PENDING.entrySet()) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> fileValues = (Map<String, Object>) values.get(entry.getKey());
+                for (Map.Entry<String, Object> write : entry.getValue().entrySet()) {
+                    if (write.getValue() == REMOVED) {
+                        fileValues.remove(write.getKey());
+                    } else {
+                        fileValues.put(write.getKey(), write.getValue());
+                    }
+                }
+            }
+        }
+
+        Editor e = new Editor(null);
+        Map<String, ?> s = values.get(PREFS_SETTINGS);
+        Map<String, ?> a = values.get(PREFS_ADHAN);
+        e.language = str(s, "current_language", "en");
+        e.locationMode = str(s, "location_mode", "auto");
+        e.autoLatitude = flt(s, "auto_latitude", 0f);
+        e.autoLongitude = flt(s, "auto_longitude", 0f);
+        e.manualLatitude = flt(s, "manual_latitude", 0f);
+        e.manualLongitude = flt(s, "manual_longitude", 0f);
+        e.manualCityName = str(s, "manual_city_name", null);
+        e.calcMethod = str(s, "calc_method", "MuslimWorldLeague");
+        e.notificationsEnabled = bool(s, "notifications_enabled", true);
+        e.remindersEnabled = bool(s, "reminders_enabled", true);
+        e.reminderOffset = integer(s, "reminder_offset", 10);
+        e.enabledAfterSalah = bool(s, "enabled_after_salah", true);
+        e.delayAfterSalah = integer(s, "delay_after_salah", 5);
+        e.enabledMorningDhikr = bool(s, "enabled_morning_dhikr", true);
+        e.delayMorningDhikr = integer(s, "delay_morning_dhikr", 30);
+        e.enabledEveningDhikr = bool(s, "enabled_evening_dhikr", true);
+        e.delayEveningDhikr = integer(s, "delay_evening_dhikr", 30);
+        e.enabledSelectedDua = bool(s, "enabled_selected_dua", false);
+        e.delaySelectedDua = integer(s, "delay_selected_dua", 30);
+        e.duaAfterAdhanEnabled = bool(s, "dua_after_adhan_enabled", false);
+        e.todayPrayerTimes = parseTimes(str(s, "today_prayer_times", null));
+        e.todayPrayerTimesDate = str(s, "last_prayer_times_date", null);
+
+        e.adhanSound = str(a, "ADHAN_SOUND", "misharyrachid");
+        e.adhanVolume = flt(a, "adhan_volume", 1.0f);
+
+        e.mutedPrayers = parseMuted(str(values.get(PREFS_MUTED), "muted_prayers_list", ""));
+        e.premiumUser = bool(values.get(PREFS_PREMIUM), "is_premium_user", false);
+        return new Snapshot(e);
+    }
+
+    private static String str(Map<String, ?> map, String key, String def) {
+        Object v = map.get(key);
+        return v instanceof String ? (String) v : def;
+    }
+
+    private static boolean bool(Map<String, ?> map, String key, boolean def) {
+        Object v = map.get(key);
+        return v instanceof Boolean ? (Boolean) v : def;
+    }
+
+    private static int integer(Map<String, ?> map, String key, int def) {
+        Object v = map.get(key);
+        return v instanceof Integer ? (Integer) v : def;
+    }
+
+    private static float flt(Map<String, ?> map, String key, float def) {
+        Object v = map.get(key);
+        return v instanceof Float ? (Float) v : def;
+    }
+
+    private static Set<String> parseMuted(String list) {
+        if (list == null || list.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> muted = new HashSet<>();
+        for (String prayer : list.split(",")) {
+            String trimmed = prayer.trim();
+            if (!trimmed.isEmpty()) {
+                muted.add(trimmed);
+            }
+        }
+        return Collections.unmodifiableSet(muted);
+    }
+
+    private static Map<String, String> parseTimes(String json) {
+        if (json == null || json.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            JSONObject obj = new JSONObject(json);
+            Map<String, String> times = new LinkedHashMap<>();
+            Iterator<String> keys = obj.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                times.put(key, obj.getString(key));
+            }
+            return Collections.unmodifiableMap(times);
+        } catch (Exception e) {
+            warnLog(TAG, "today_prayer_times illisible: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    // ============ SNAPSHOT ============
+
+    /** Réglages figés : lecture directe des champs, aucune I/O. */
+    public static final class Snapshot {
+        public final String language;
+        public final String locationMode;
+        public final float autoLatitude;
+        public final float autoLongitude;
+        public final float manualLatitude;
+        public final float manualLongitude;
+        public final String manualCityName;
+        public final String calcMethod;
+
+        public final boolean notificationsEnabled;
+        public final boolean remindersEnabled;
+        public final int reminderOffset;
+        public final boolean enabledAfterSalah;
+        public final int delayAfterSalah;
+        public final boolean enabledMorningDhikr;
+        public final int delayMorningDhikr;
+        public final boolean enabledEveningDhikr;
+        public final int delayEveningDhikr;
+        public final boolean enabledSelectedDua;
+        public final int delaySelectedDua;
+        public final boolean duaAfterAdhanEnabled;
+
+        /** Horaires du jour "HH:mm" par prière (vide si rien n'est enregistré). */
+        public final Map<String, String> todayPrayerTimes;
+        public final String todayPrayerTimesDate;
+
+        public final String adhanSound;
+        public final float adhanVolume;
+        public final Set<String> mutedPrayers;
+        public final boolean premiumUser;
+
+        private Snapshot(Editor e) {
+            language = e.language;
+            locationMode = e.locationMode;
+            autoLatitude = e.autoLatitude;
+            autoLongitude = e.autoLongitude;
+            manualLatitude = e.manualLatitude;
+            manualLongitude = e.manualLongitude;
+            manualCityName = e.manualCityName;
+            calcMethod = e.calcMethod;
+            notificationsEnabled = e.notificationsEnabled;
+            remindersEnabled = e.remindersEnabled;
+            reminderOffset = e.reminderOffset;
+            enabledAfterSalah = e.enabledAfterSalah;
+            delayAfterSalah = e.delayAfterSalah;
+            enabledMorningDhikr = e.enabledMorningDhikr;
+            delayMorningDhikr = e.delayMorningDhikr;
+            enabledEveningDhikr = e.enabledEveningDhikr;
+            delayEveningDhikr = e.delayEveningDhikr;
+            enabledSelectedDua = e.enabledSelectedDua;
+            delaySelectedDua = e.delaySelectedDua;
+            duaAfterAdhanEnabled = e.duaAfterAdhanEnabled;
+            todayPrayerTimes = e.todayPrayerTimes;
+            todayPrayerTimesDate = e.todayPrayerTimesDate;
+            adhanSound = e.adhanSound;
+            adhanVolume = e.adhanVolume;
+            mutedPrayers = e.mutedPrayers;
+            premiumUser = e.premiumUser;
+        }
+
+        public boolean isManualLocation() {
+            return "manual".equals(locationMode);
+        }
+
+        /** Latitude selon le mode de localisation (manuel / auto). */
+        public double latitude() {
+            return isManualLocation() ? manualLatitude : autoLatitude;
+        }
+
+        public double longitude() {
+            return isManualLocation() ? manualLongitude : autoLongitude;
+        }
+
+        public boolean isPrayerMuted(String prayerLabel) {
+            return prayerLabel != null && mutedPrayers.contains(prayerLabel);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Snapshot)) {
+                return false;
+            }
+            Snapshot s = (Snapshot) o;
+            return Float.compare(autoLatitude, s.autoLatitude) == 0
+                    && Float.compare(autoLongitude, s.autoLongitude) == 0
+                    && Float.compare(manualLatitude, s.manualLatitude) == 0
+                    && Float.compare(manualLongitude, s.manualLongitude) == 0
+                    && Float.compare(adhanVolume, s.adhanVolume) == 0
+                    && notificationsEnabled == s.notificationsEnabled
+                    && remindersEnabled == s.remindersEnabled
+                    && reminderOffset == s.reminderOffset
+                    && enabledAfterSalah == s.enabledAfterSalah
+                    && delayAfterSalah == s.delayAfterSalah
+                    && enabledMorningDhikr == s.enabledMorningDhikr
+                    && delayMorningDhikr == s.delayMorningDhikr
+                    && enabledEveningDhikr == s.enabledEveningDhikr
+                    && delayEveningDhikr == s.delayEveningDhikr
+                    && enabledSelectedDua == s.enabledSelectedDua
+                    && delaySelectedDua == s.delaySelectedDua
+                    && duaAfterAdhanEnabled == s.duaAfterAdhanEnabled
+                    && premiumUser == s.premiumUser
+                    && Objects.equals(language, s.language)
+                    && Objects.equals(locationMode, s.locationMode)
+                    && Objects.equals(manualCityName, s.manualCityName)
+                    && Objects.equals(calcMethod, s.calcMethod)
+                    && Objects.equals(todayPrayerTimes, s.todayPrayerTimes)
+                    && Objects.equals(todayPrayerTimesDate, s.todayPrayerTimesDate)
+                    && Objects.equals(adhanSound, s.adhanSound)
+                    && Objects.equals(mutedPrayers, s.mutedPrayers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(language, calcMethod, adhanSound, todayPrayerTimes, mutedPrayers);
+        }
+    }
+
+    // ============ EDITOR ============
+
+    /**
+     * Copie modifiable d'un snapshot, passée à {@link #update}. Chaque setter modifie la
+     * copie et note la clé SharedPreferences à persister.
+     */
+    public static final class Editor {
+        String language;
+        String locationMode;
+        float autoLatitude;
+        float autoLongitude;
+        float manualLatitude;
+        float manualLongitude;
+        String manualCityName;
+        String calcMethod;
+        boolean notificationsEnabled;
+        boolean remindersEnabled;
+        int reminderOffset;
+        boolean enabledAfterSalah;
+        int delayAfterSalah;
+        boolean enabledMorningDhikr;
+        int delayMorningDhikr;
+        boolean enabledEveningDhikr;
+        int delayEveningDhikr;
+        boolean enabledSelectedDua;
+        int delaySelectedDua;
+        boolean duaAfterAdhanEnabled;
+        Map<String, String> todayPrayerTimes;
+        String todayPrayerTimesDate;
+        String adhanSound;
+        float adhanVolume;
+        Set<String> mutedPrayers;
+        boolean premiumUser;
+
+        final Map<String, Map<String, Object>> writes = new HashMap<>();
+
+        private Editor(Snapshot s) {
+            if (s == null) {
+                return;
+            }
+            language = s.language;
+            locationMode = s.locationMode;
+            autoLatitude = s.autoLatitude;
+            autoLongitude = s.autoLongitude;
+            manualLatitude = s.manualLatitude;
+            manualLongitude = s.manualLongitude;
+            manualCityName = s.manualCityName;
+            calcMethod = s.calcMethod;
+            notificationsEnabled = s.notificationsEnabled;
+            remindersEnabled = s.remindersEnabled;
+            reminderOffset = s.reminderOffset;
+            enabledAfterSalah = s.enabledAfterSalah;
+            delayAfterSalah = s.delayAfterSalah;
+            enabledMorningDhikr = s.enabledMorningDhikr;
+            delayMorningDhikr = s.delayMorningDhikr;
+            enabledEveningDhikr = s.enabledEveningDhikr;
+            delayEveningDhikr = s.delayEveningDhikr;
+            enabledSelectedDua = s.enabledSelectedDua;
+            delaySelectedDua = s.delaySelectedDua;
+            duaAfterAdhanEnabled = s.duaAfterAdhanEnabled;
+            todayPrayerTimes = s.todayPrayerTimes;
+            todayPrayerTimesDate = s.todayPrayerTimesDate;
+            adhanSound = s.adhanSound;
+            adhanVolume = s.adhanVolume;
+            mutedPrayers = s.mutedPrayers;
+            premiumUser = s.premiumUser;
+        }
+
+        private Editor write(String file, String key, Object value) {
+            Map<String, Object> fileWrites = writes.get(file);
+            if (fileWrites == null) {
+                fileWrites = new HashMap<>();
+                writes.put(file, fileWrites);
+            }
+            fileWrites.put(key, value != null ? value : REMOVED);
+            return this;
+        }
+
+        /** Écriture brute d'une clé non typée dans le snapshot (persistée par le même writer). */
+        public Editor putRaw(String file, String key, Object value) {
+            return write(file, key, value);
+        }
+
+        public Editor setLanguage(String value) {
+            language = value;
+            return write(PREFS_SETTINGS, "current_language", value);
+        }
+
+        public Editor setLocationMode(String value) {
+            locationMode = value;
+            return write(PREFS_SETTINGS, "location_mode", value);
+        }
+
+        public Editor setAutoLocation(float lat, float lon) {
+            autoLatitude = lat;
+            autoLongitude = lon;
+            write(PREFS_SETTINGS, "auto_latitude", lat);
+            return write(PREFS_SETTINGS, "auto_longitude", lon);
+        }
+
+        public Editor setManualLatitude(float value) {
+            manualLatitude = value;
+            return write(PREFS_SETTINGS, "manual_latitude", value);
+        }
+
+        public Editor setManualLongitude(float value) {
+            manualLongitude = value;
+            return write(PREFS_SETTINGS, "manual_longitude", value);
+        }
+
+        public Editor setManualCityName(String value) {
+            manualCityName = value;
+            return write(PREFS_SETTINGS, "manual_city_name", value);
+        }
+
+        public Editor setCalcMethod(String value) {
+            calcMethod = value;
+            return write(PREFS_SETTINGS, "calc_method", value);
+        }
+
+        public Editor setNotificationsEnabled(boolean value) {
+            notificationsEnabled = value;
+            return write(PREFS_SETTINGS, "notifications_enabled", value);
+        }
+
+        public Editor setRemindersEnabled(boolean value) {
+            remindersEnabled = value;
+            return write(PREFS_SETTINGS, "reminders_enabled", value);
+        }
+
+        public Editor setReminderOffset(int value) {
+            reminderOffset = value;
+            return write(PREFS_SETTINGS, "reminder_offset", value);
+        }
+
+        public Editor setEnabledAfterSalah(boolean value) {
+            enabledAfterSalah = value;
+            return write(PREFS_SETTINGS, "enabled_after_salah", value);
+        }
+
+        public Editor setDelayAfterSalah(int value) {
+            delayAfterSalah = value;
+            return write(PREFS_SETTINGS, "delay_after_salah", value);
+        }
+
+        public Editor setEnabledMorningDhikr(boolean value) {
+            enabledMorningDhikr = value;
+            return write(PREFS_SETTINGS, "enabled_morning_dhikr", value);
+        }
+
+        public Editor setDelayMorningDhikr(int value) {
+            delayMorningDhikr = value;
+            return write(PREFS_SETTINGS, "delay_morning_dhikr", value);
+        }
+
+        public Editor setEnabledEveningDhikr(boolean value) {
+            enabledEveningDhikr = value;
+            return write(PREFS_SETTINGS, "enabled_evening_dhikr", value);
+        }
+
+        public Editor setDelayEveningDhikr(int value) {
+            delayEveningDhikr = value;
+            return write(PREFS_SETTINGS, "delay_evening_dhikr", value);
+        }
+
+        public Editor setEnabledSelectedDua(boolean value) {
+            enabledSelectedDua = value;
+            return write(PREFS_SETTINGS, "enabled_selected_dua", value);
+        }
+
+        public Editor setDelaySelectedDua(int value) {
+            delaySelectedDua = value;
+            return write(PREFS_SETTINGS, "delay_selected_dua", value);
+        }
+
+        public Editor setDuaAfterAdhanEnabled(boolean value) {
+            duaAfterAdhanEnabled = value;
+            return write(PREFS_SETTINGS, "dua_after_adhan_enabled", value);
+        }
+
+        /** Horaires du jour ("HH:mm" par prière), persistés en un seul blob JSON. */
+        public Editor setTodayPrayerTimes(Map<String, String> times, String dateKey) {
+            Map<String, String> copy = new LinkedHashMap<>(times);
+            todayPrayerTimes = Collections.unmodifiableMap(copy);
+            todayPrayerTimesDate = dateKey;
+            write(PREFS_SETTINGS, "today_prayer_times", new JSONObject(copy).toString());
+            write(PREFS_SETTINGS, "last_prayer_times_date", dateKey);
+            return write(PREFS_SETTINGS, "last_prayer_times_update", System.currentTimeMillis());
+        }
+
+        public Editor setAdhanSound(String value) {
+            adhanSound = value;
+            return write(PREFS_ADHAN, "ADHAN_SOUND", value);
+        }
+
+        public Editor setAdhanVolume(float value) {
+            adhanVolume = value;
+            return write(PREFS_ADHAN, "adhan_volume", value);
+        }
+
+        public Editor setMutedPrayers(Set<String> prayers) {
+            mutedPrayers = Collections.unmodifiableSet(new HashSet<>(prayers));
+            StringBuilder list = new StringBuilder();
+            for (String prayer : prayers) {
+                if (list.length() > 0) {
+                    list.append(",");
+                }
+                list.append(prayer);
+            }
+            return write(PREFS_MUTED, "muted_prayers_list", list.toString());
+        }
+
+        public Editor setPremiumUser(boolean value) {
+            premiumUser = value;
+            return write(PREFS_PREMIUM, "is_premium_user", value);
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Comptabilité de l'espace occupé par les contenus téléchargés (quran/&lt;récitateur&gt;/ et
+ * premium_content/) et éviction LRU au-delà d'un budget réglable.
+ *
+ * L'index (taille, dernière écoute, épingle par fichier) est persisté et tenu à jour de
+ * façon incrémentale : les écritures connues passent par {@link #recordAdded} /
+ * {@link #recordPlayed}, et {@link #refresh()} ne rescanne que les dossiers dont la date
+ * de modification a changé (fichiers ajoutés ou supprimés par JS). Les fichiers épinglés,
+ * ceux en cours de lecture et les sons d'adhan premium (premium_content/, lus à l'heure de
+ * la prière) ne sont jamais évincés : ces derniers ne comptent que dans l'usage.
+ *
+ * Sans dépendance Android (testable sur la JVM) ; accès partagé via StorageBudgetModule.
+ */
+public final class StorageBudget {
+
+    /** Budget 0 : illimité (aucune éviction). */
+    public static final long UNLIMITED = 0;
+
+    static final String QURAN_DIR = "quran";
+    static final String PREMIUM_DIR = "premium_content";
+
+    public static final class Entry {
+        public final String path; // relatif au dossier de base, ex. "quran/Luhaidan/001_AlFatiha (001).mp3"
+        public final String group; // dossier parent, ex. "quran/Luhaidan"
+        long size;
+        long lastUsed;
+        boolean pinned;
+
+        Entry(String path, String group, long size, long lastUsed, boolean pinned) {
+            this.path = path;
+            this.group = group;
+            this.size = size;
+            this.lastUsed = lastUsed;
+            this.pinned = pinned;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public long lastUsed() {
+            return lastUsed;
+        }
+
+        public boolean pinned() {
+            return pinned;
+        }
+    }
+
+    /** Résultat d'une passe d'éviction. */
+    public static final class Eviction {
+        public final List<String> paths = new ArrayList<>();
+        public long bytes;
+        /** Budget encore dépassé (tout le reste est épinglé ou en lecture). */
+        public boolean overBudget;
+    }
+
+    /** Agrégat par dossier (récitateur ou premium_content). */
+    public static final class GroupUsage {
+        public final String group;
+        public long bytes;
+        public int files;
+        public long lastUsed;
+
+        GroupUsage(String group) {
+            this.group = group;
+        }
+    }
+
+    private final File baseDir;
+    private final File indexFile;
+    private final Object lock = new Object();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Long> dirStamps = new HashMap<>();
+    // Compteur de lecteurs par fichier (lecture Coran, adhan…)
+    private final Map<String, Integer> inUse = new HashMap<>();
+    private long budgetBytes = UNLIMITED;
+    private long usedBytes;
+    private long evictedFiles;
+    private long evictedBytes;
+
+    public StorageBudget(File baseDir, File indexFile) {
+        this.baseDir = baseDir;
+        this.indexFile = indexFile;
+        synchronized (lock) {
+            loadLocked();
+        }
+    }
+
+    public void setBudgetBytes(long budgetBytes) {
+        synchronized (lock) {
+            this.budgetBytes = Math.max(UNLIMITED, budgetBytes);
+        }
+    }
+
+    public long getBudgetBytes() {
+        synchronized (lock) {
+            return budgetBytes;
+        }
+    }
+
+    public long usedBytes() {
+        synchronized (lock) {
+            return usedBytes;
+        }
+    }
+
+    public long evictedFiles() {
+        synchronized (lock) {
+            return evictedFiles;
+        }
+    }
+
+    public long evictedBytes() {
+        synchronized (lock) {
+            return evictedBytes;
+        }
+    }
+
+    /** Nouveau fichier écrit par l'app (téléchargement terminé). */
+    public void recordAdded(File file) {
+        recordPlayed(file, System.currentTimeMillis());
+    }
+
+    public void recordPlayed(File file) {
+        recordPlayed(file, System.currentTimeMillis());
+    }
+
+    /** Met à jour taille et date d'usage ; ajoute le fichier s'il n'est pas encore suivi. */
+    public void recordPlayed(File file, long nowMillis) {
+        String path = relativePath(file);
+        if (path == null || !file.isFile()) {
+            return;
+        }
+        synchronized (lock) {
+            Entry entry = entries.get(path);
+            if (entry == null) {
+                putLocked(new Entry(path, groupOf(path), file.length(), nowMillis, false));
+            } else {
+                usedBytes += file.length() - entry.size;
+                entry.size = file.length();
+                entry.lastUsed = Math.max(entry.lastUsed, nowMillis);
+            }
+            saveLocked();
+        }
+    }
+
+    /** Fichier supprimé par l'app. */
+    public void recordRemoved(File file) {
+        String path = relativePath(file);
+        if (path == null) {
+            return;
+        }
+        synchronized (lock) {
+            if (removeLocked(path) != null) {
+                saveLocked();
+            }
+        }
+    }
+
+    /** Épingle (jamais évincé) ou libère un fichier. Renvoie false s'il n'est pas suivi. */
+    public boolean setPinned(File file, boolean pinned) {
+        String path = relativePath(file);
+        synchronized (lock) {
+            Entry entry = path != null ? entries.get(path) : null;
+            if (entry == null) {
+                return false;
+            }
+            entry.pinned = pinned;
+            saveLocked();
+            return true;
+        }
+    }
+
+    /** Fichier ouvert par un lecteur : protégé jusqu'à {@link #releaseInUse}. */
+    public void acquireInUse(File file) {
+        String path = relativePath(file);
+        if (path == null) {
+            return;
+        }
+        synchronized (lock) {
+            Integer count = inUse.get(path);
+            inUse.put(path, count == null ? 1 : count + 1);
+        }
+    }
+
+    public void releaseInUse(File file) {
+        String path = relativePath(file);
+        if (path == null) {
+            return;
+        }
+        synchronized (lock) {
+            Integer count = inUse.get(path);
+            if (count == null || count <= 1) {
+                inUse.remove(path);
+            } else {
+                inUse.put(path, count - 1);
+            }
+        }
+    }
+
+    /**
+     * Rescanne uniquement les dossiers modifiés depuis le dernier passage (ajouts ou
+     * suppressions faits hors de l'index). Renvoie le nombre de dossiers rescannés.
+     */
+    public int refresh() {
+        synchronized (lock) {
+            int scanned = 0;
+            Set<String> seenGroups = new HashSet<>();
+            List<File> dirs = new ArrayList<>();
+            File[] reciterDirs = new File(baseDir, QURAN_DIR).listFiles(File::isDirectory);
+            if (reciterDirs != null) {
+                Collections.addAll(dirs, reciterDirs);
+            }
+            File premium = new File(baseDir, PREMIUM_DIR);
+            if (premium.isDirectory()) {
+                dirs.add(premium);
+            }
+            for (File dir : dirs) {
+                String group = relativePath(dir);
+                seenGroups.add(group);
+                Long stamp = dirStamps.get(group);
+                if (stamp == null || stamp != dir.lastModified()) {
+                    scanDirLocked(dir, group);
+                    scanned++;
+                }
+            }
+            // Dossiers disparus (récitateur supprimé en bloc)
+            for (String group : new ArrayList<>(dirStamps.keySet())) {
+                if (!seenGroups.contains(group)) {
+                    dirStamps.remove(group);
+                    for (Entry entry : new ArrayList<>(entries.values())) {
+                        if (entry.group.equals(group)) {
+                            removeLocked(entry.path);
+                        }
+                    }
+                    scanned++;
+                }
+            }
+            if (scanned > 0) {
+                saveLocked();
+            }
+            return scanned;
+        }
+    }
+
+    /** Évince (LRU) jusqu'à revenir sous le budget. */
+    public Eviction enforce() {
+        return ensureRoom(0);
+    }
+
+    /**
+     * Évince les fichiers les moins récemment écoutés jusqu'à ce que {@code incomingBytes}
+     * supplémentaires tiennent dans le budget. Épinglés, fichiers en lecture et contenus
+     * premium exclus.
+     */
+    public Eviction ensureRoom(long incomingBytes) {
+        Eviction result = new Eviction();
+        synchronized (lock) {
+            if (budgetBytes == UNLIMITED || usedBytes + incomingBytes <= budgetBytes) {
+                return result;
+            }
+            List<Entry> candidates = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (!entry.pinned && !inUse.containsKey(entry.path) && isEvictable(entry.path)) {
+                    candidates.add(entry);
+                }
+            }
+            Collections.sort(candidates, (a, b) -> a.lastUsed != b.lastUsed
+                    ? Long.compare(a.lastUsed, b.lastUsed) : a.path.compareTo(b.path));
+            for (Entry entry : candidates) {
+                if (usedBytes + incomingBytes <= budgetBytes) {
+                    break;
+                }
+                File file = new File(baseDir, entry.path);
+                if (file.exists() && !file.delete()) {
+                    continue; // verrouillé ou en lecture ailleurs : on passe au suivant
+                }
+                //noinspection ResultOfMethodCallIgnored
+                Mp3SeekIndex.indexFileFor(file).delete();
+                removeLocked(entry.path);
+                result.paths.add(entry.path);
+                result.bytes += entry.size;
+            }
+            result.overBudget = usedBytes + incomingBytes > budgetBytes;
+            if (!result.paths.isEmpty()) {
+                evictedFiles += result.paths.size();
+                evictedBytes += result.bytes;
+                // Dossiers modifiés par nous : dates à jour pour ne pas les rescanner
+                for (String path : result.paths) {
+                    String group = groupOf(path);
+                    if (dirStamps.containsKey(group)) {
+                        dirStamps.put(group, new File(baseDir, group).lastModified());
+                    }
+                }
+                saveLocked();
+            }
+        }
+        return result;
+    }
+
+    /** Usage par dossier, trié par nom. */
+    public List<GroupUsage> usageByGroup() {
+        synchronized (lock) {
+            Map<String, GroupUsage> groups = new TreeMap<>();
+            for (Entry entry : entries.values()) {
+                GroupUsage usage = groups.get(entry.group);
+                if (usage == null) {
+                    usage = new GroupUsage(entry.group);
+                    groups.put(entry.group, usage);
+                }
+                usage.bytes += entry.size;
+                usage.files++;
+                usage.lastUsed = Math.max(usage.lastUsed, entry.lastUsed);
+            }
+            return new ArrayList<>(groups.values());
+        }
+    }
+
+    /** Copie des fichiers suivis, du plus ancien au plus récent usage. */
+    public List<Entry> entries() {
+        synchronized (lock) {
+            List<Entry> out = new ArrayList<>(entries.values());
+            Collections.sort(out, (a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+            return out;
+        }
+    }
+
+    /** Fichier correspondant à un chemin de l'index. */
+    public File fileOf(String path) {
+        return new File(baseDir, path);
+    }
+
+    /** Noms de dossiers récitateurs contenant au moins un .mp3 (d'après l'index). */
+    public List<String> reciterDirs() {
+        synchronized (lock) {
+            Set<String> dirs = new HashSet<>();
+            String prefix = QURAN_DIR + "/";
+            for (Entry entry : entries.values()) {
+                if (entry.group.startsWith(prefix) && entry.path.toLowerCase().endsWith(".mp3")) {
+                    dirs.add(entry.group.substring(prefix.length()));
+                }
+            }
+            List<String> out = new ArrayList<>(dirs);
+            Collections.sort(out);
+            return out;
+        }
+    }
+
+    private void scanDirLocked(File dir, String group) {
+        Map<String, File> present = new LinkedHashMap<>();
+        File[] files = dir.listFiles(File::isFile);
+        if (files != null) {
+            for (File file : files) {
+                if (isTracked(file.getName())) {
+                    present.put(group + "/" + file.getName(), file);
+                }
+            }
+        }
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.group.equals(group) && !present.containsKey(entry.path)) {
+                removeLocked(entry.path);
+            }
+        }
+        for (Map.Entry<String, File> e : present.entrySet()) {
+            File file = e.getValue();
+            Entry entry = entries.get(e.getKey());
+            if (entry == null) {
+                // Jamais vu : la date du fichier tient lieu de dernière écoute
+                putLocked(new Entry(e.getKey(), group, file.length(), file.lastModified(), false));
+            } else if (entry.size != file.length()) {
+                usedBytes += file.length() - entry.size;
+                entry.size = file.length();
+            }
+        }
+        dirStamps.put(group, dir.lastModified());
+    }
+
+    private static boolean isTracked(String name) {
+        // Téléchargements en cours, écritures temporaires et index de seek exclus
+        return !name.endsWith(BulkDownloadEngine.PART_SUFFIX) && !name.endsWith(".tmp")
+                && !name.endsWith(Mp3SeekIndex.SUFFIX);
+    }
+
+    private void putLocked(Entry entry) {
+        entries.put(entry.path, entry);
+        usedBytes += entry.size;
+    }
+
+    private Entry removeLocked(String path) {
+        Entry entry = entries.remove(path);
+        if (entry != null) {
+            usedBytes -= entry.size;
+        }
+        return entry;
+    }
+
+    /** Chemin relatif au dossier de base, null hors quran/ et premium_content/. */
+    private String relativePath(File file) {
+        String base = baseDir.getAbsolutePath() + File.separator;
+        String abs = file.getAbsolutePath();
+        if (!abs.startsWith(base)) {
+            return null;
+        }
+        String rel = abs.substring(base.length()).replace(File.separatorChar, '/');
+        return rel.startsWith(QURAN_DIR + "/") || rel.equals(PREMIUM_DIR) || rel.startsWith(PREMIUM_DIR + "/")
+                ? rel : null;
+    }
+
+    /** Seules les sourates sont évinçables : un adhan premium supprimé manquerait à la prière. */
+    private static boolean isEvictable(String path) {
+        return path.startsWith(QURAN_DIR + "/");
+    }
+
+    private static String groupOf(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash > 0 ? path.substring(0, slash) : path;
+    }
+
+    // Persistance (fichier temporaire + rename), une ligne par enregistrement, champs séparés
+    // par des tabulations :
+    //   S  fichiers évincés, octets évincés
+    //   D  dossier, date de modification connue
+    //   F  chemin, taille, dernière écoute, épinglé (0/1)
+
+    private void saveLocked() {
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        File parent = indexFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            parent.mkdirs();
+        }
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            writer.write("S\t" + evictedFiles + "\t" + evictedBytes);
+            writer.newLine();
+            for (Map.Entry<String, Long> stamp : dirStamps.entrySet()) {
+                writer.write("D\t" + stamp.getKey() + "\t" + stamp.getValue());
+                writer.newLine();
+            }
+            for (Entry entry : entries.values()) {
+                writer.write("F\t" + entry.path + "\t" + entry.size + "\t" + entry.lastUsed + "\t"
+                        + (entry.pinned ? 1 : 0));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            return; // l'ancien index reste en place
+        }
+        //noinspection ResultOfMethodCallIgnored
+        tmp.renameTo(indexFile);
+    }
+
+    private void loadLocked() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                try {
+                    if ("S".equals(f[0]) && f.length == 3) {
+                        evictedFiles = Long.parseLong(f[1]);
+                        evictedBytes = Long.parseLong(f[2]);
+                    } else if ("D".equals(f[0]) && f.length == 3) {
+                        dirStamps.put(f[1], Long.parseLong(f[2]));
+                    } else if ("F".equals(f[0]) && f.length == 5) {
+                        putLocked(new Entry(f[1], groupOf(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]),
+                                "1".equals(f[4])));
+                    }
+                } catch (RuntimeException ignored) {
+                    // ligne invalide : ignorée, le prochain rescan la reconstruira
+                }
+            }
+        } catch (IOException ignored) {
+            // index illisible : reconstruit au prochain refresh()
+        }
+    }
+}
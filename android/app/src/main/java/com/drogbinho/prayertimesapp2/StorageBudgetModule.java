@@ -0,0 +1,171 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import java.io.File;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Accès JS au budget de stockage ({@link StorageBudget}) : usage par récitateur / premium,
+ * budget réglable, épingles et statistiques d'éviction.
+ *
+ * Événement : storageEvicted { paths, bytes, usedBytes } après chaque éviction.
+ */
+public class StorageBudgetModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "StorageBudgetModule";
+    private static final String PREFS_NAME = "storage_budget";
+    private static final String KEY_BUDGET_BYTES = "budget_bytes";
+
+    private static StorageBudget budget;
+    private static volatile ReactApplicationContext eventContext;
+
+    public StorageBudgetModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        eventContext = reactContext;
+    }
+
+    @Override
+    public String getName() {
+        return "StorageBudgetModule";
+    }
+
+    /** Index partagé par process (service audio, téléchargements, JS). */
+    static synchronized StorageBudget budget(Context context) {
+        if (budget == null) {
+            Context app = context.getApplicationContext();
+            budget = new StorageBudget(app.getFilesDir(), new File(app.getFilesDir(), "storage_budget/index.tsv"));
+            budget.setBudgetBytes(prefs(app).getLong(KEY_BUDGET_BYTES, StorageBudget.UNLIMITED));
+        }
+        return budget;
+    }
+
+    /**
+     * Après l'écriture d'un fichier par l'app : l'ajoute à l'index puis évince si le budget
+     * est dépassé (le nouveau fichier, le plus récent, part en dernier).
+     */
+    static void onFileAdded(Context context, File file) {
+        StorageBudget b = budget(context);
+        b.recordAdded(file);
+        notifyEviction(b, b.enforce());
+    }
+
+    /** { budgetBytes, usedBytes, evictedFiles, evictedBytes, groups: [{ name, bytes, files, lastUsed }] } */
+    @ReactMethod
+    public void getUsage(Promise promise) {
+        try {
+            StorageBudget b = budget(getReactApplicationContext());
+            b.refresh();
+            promise.resolve(usageMap(b));
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur lecture usage: " + e.getMessage());
+            promise.reject("STORAGE_USAGE_ERROR", e.getMessage());
+        }
+    }
+
+    /** Nouveau budget (octets, 0 = illimité), appliqué immédiatement. Renvoie l'usage à jour. */
+    @ReactMethod
+    public void setBudget(double budgetBytes, Promise promise) {
+        try {
+            Context context = getReactApplicationContext();
+            long bytes = Math.max(StorageBudget.UNLIMITED, (long) budgetBytes);
+            prefs(context).edit().putLong(KEY_BUDGET_BYTES, bytes).apply();
+            StorageBudget b = budget(context);
+            b.setBudgetBytes(bytes);
+            b.refresh();
+            notifyEviction(b, b.enforce());
+            debugLog(TAG, "💾 Budget stockage: {} octets (utilisé {})", bytes, b.usedBytes());
+            promise.resolve(usageMap(b));
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur budget stockage: " + e.getMessage());
+            promise.reject("STORAGE_BUDGET_ERROR", e.getMessage());
+        }
+    }
+
+    /** Épingle un fichier (chemin absolu) pour qu'il ne soit jamais évincé. */
+    @ReactMethod
+    public void setPinned(String path, boolean pinned, Promise promise) {
+        StorageBudget b = budget(getReactApplicationContext());
+        File file = new File(path);
+        if (!b.setPinned(file, pinned)) {
+            b.recordAdded(file); // pas encore indexé (écrit par JS)
+            promise.resolve(b.setPinned(file, pinned));
+            return;
+        }
+        promise.resolve(true);
+    }
+
+    /** Fichiers suivis du moins au plus récemment écoutés : [{ path, size, lastUsed, pinned }]. */
+    @ReactMethod
+    public void getEvictionCandidates(Promise promise) {
+        StorageBudget b = budget(getReactApplicationContext());
+        b.refresh();
+        WritableArray result = Arguments.createArray();
+        for (StorageBudget.Entry entry : b.entries()) {
+            WritableMap map = Arguments.createMap();
+            map.putString("path", b.fileOf(entry.path).getAbsolutePath());
+            map.putDouble("size", entry.size());
+            map.putDouble("lastUsed", entry.lastUsed());
+            map.putBoolean("pinned", entry.pinned());
+            result.pushMap(map);
+        }
+        promise.resolve(result);
+    }
+
+    private static WritableMap usageMap(StorageBudget b) {
+        WritableMap map = Arguments.createMap();
+        map.putDouble("budgetBytes", b.getBudgetBytes());
+        map.putDouble("usedBytes", b.usedBytes());
+        map.putDouble("evictedFiles", b.evictedFiles());
+        map.putDouble("evictedBytes", b.evictedBytes());
+        WritableArray groups = Arguments.createArray();
+        for (StorageBudget.GroupUsage usage : b.usageByGroup()) {
+            WritableMap group = Arguments.createMap();
+            group.putString("name", usage.group);
+            group.putDouble("bytes", usage.bytes);
+            group.putInt("files", usage.files);
+            group.putDouble("lastUsed", usage.lastUsed);
+            groups.pushMap(group);
+        }
+        map.putArray("groups", groups);
+        return map;
+    }
+
+    private static void notifyEviction(StorageBudget b, StorageBudget.Eviction eviction) {
+        if (eviction.paths.isEmpty()) {
+            if (eviction.overBudget) {
+                warnLog(TAG, "⚠️ Budget dépassé, rien d'évinçable (utilisé {})", b.usedBytes());
+            }
+            return;
+        }
+        infoLog(TAG, "🧹 {} fichier(s) évincé(s), {} octets libérés", eviction.paths.size(), eviction.bytes);
+        ReactApplicationContext context = eventContext;
+        if (context == null || !context.hasActiveReactInstance()) {
+            return;
+        }
+        WritableMap params = Arguments.createMap();
+        WritableArray paths = Arguments.createArray();
+        for (String path : eviction.paths) {
+            paths.pushString(b.fileOf(path).getAbsolutePath());
+        }
+        params.putArray("paths", paths);
+        params.putDouble("bytes", eviction.bytes);
+        params.putDouble("usedBytes", b.usedBytes());
+        params.putBoolean("overBudget", eviction.overBudget);
+        context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit("storageEvicted", params);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,128 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Noms translittérés des 114 sourates et recherche nom ↔ numéro, sans dépendance Android
+ * (utilisé par QuranAudioService, QuranWidget et le module de benchmarks JVM).
+ *
+ * Libellés acceptés en entrée : "Al-Kahf", "Al-Kahf (018)", "Al-Kahf (018) - Récitateur"…
+ */
+public final class SurahCatalog {
+
+    public static final int COUNT = 114;
+
+    private static final String[] NAMES = {
+            "Al-Fatiha", "Al-Baqarah", "Aal-E-Imran", "An-Nisa", "Al-Maidah",
+            "Al-An'am", "Al-A'raf", "Al-Anfal", "At-Tawbah", "Yunus",
+            "Hud", "Yusuf", "Ar-Ra'd", "Ibrahim", "Al-Hijr",
+            "An-Nahl", "Al-Isra", "Al-Kahf", "Maryam", "Ta-Ha",
+            "Al-Anbiya", "Al-Hajj", "Al-Mu'minun", "An-Nur", "Al-Furqan",
+            "Ash-Shu'ara", "An-Naml", "Al-Qasas", "Al-Ankabut", "Ar-Rum",
+            "Luqman", "As-Sajdah", "Al-Ahzab", "Saba", "Fatir",
+            "Ya-Sin", "As-Saffat", "Sad", "Az-Zumar", "Ghafir",
+            "Fussilat", "Ash-Shura", "Az-Zukhruf", "Ad-Dukhan", "Al-Jathiyah",
+            "Al-Ahqaf", "Muhammad", "Al-Fath", "Al-Hujurat", "Qaf",
+            "Adh-Dhariyat", "At-Tur", "An-Najm", "Al-Qamar", "Ar-Rahman",
+            "Al-Waqi'ah", "Al-Hadid", "Al-Mujadila", "Al-Hashr", "Al-Mumtahanah",
+            "As-Saff", "Al-Jumu'ah", "Al-Munafiqun", "At-Taghabun", "At-Talaq",
+            "At-Tahrim", "Al-Mulk", "Al-Qalam", "Al-Haqqah", "Al-Ma'arij",
+            "Nuh", "Al-Jinn", "Al-Muzzammil", "Al-Muddaththir", "Al-Qiyamah",
+            "Al-Insan", "Al-Mursalat", "An-Naba", "An-Nazi'at", "Abasa",
+            "At-Takwir", "Al-Infitar", "Al-Mutaffifin", "Al-Inshiqaq", "Al-Buruj",
+            "At-Tariq", "Al-A'la", "Al-Ghashiyah", "Al-Fajr", "Al-Balad",
+            "Ash-Shams", "Al-Layl", "Ad-Duha", "Ash-Sharh", "At-Tin",
+            "Al-Alaq", "Al-Qadr", "Al-Bayyinah", "Az-Zalzalah", "Al-Adiyat",
+            "Al-Qari'ah", "At-Takathur", "Al-Asr", "Al-Humazah", "Al-Fil",
+            "Quraysh", "Al-Ma'un", "Al-Kawthar", "Al-Kafirun", "An-Nasr",
+            "Al-Masad", "Al-Ikhlas", "Al-Falaq", "An-Nas"
+    };
+
+    // Nom (minuscules) → numéro, pour la recherche exacte
+    private static final Map<String, Integer> BY_NAME = new HashMap<>(COUNT * 2);
+    // Numéros triés par longueur de nom décroissante : "An-Nasr" est testé avant "An-Nas"
+    private static final int[] BY_LENGTH_DESC = new int[COUNT];
+    // Libellés "Nom (001)" précalculés
+    private static final String[] DISPLAY_NAMES = new String[COUNT];
+
+    static {
+        Integer[] order = new Integer[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            BY_NAME.put(NAMES[i].toLowerCase(Locale.ROOT), i + 1);
+            DISPLAY_NAMES[i] = NAMES[i] + " (" + pad3(i + 1) + ")";
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> NAMES[b].length() - NAMES[a].length());
+        for (int i = 0; i < COUNT; i++) {
+            BY_LENGTH_DESC[i] = order[i] + 1;
+        }
+    }
+
+    private SurahCatalog() {}
+
+    /** Nom seul ("Al-Kahf"), null si hors 1..114. */
+    public static String nameOf(int number) {
+        return number >= 1 && number <= COUNT ? NAMES[number - 1] : null;
+    }
+
+    /** Libellé de navigation "Al-Kahf (018)", null si hors 1..114. */
+    public static String displayNameOf(int number) {
+        return number >= 1 && number <= COUNT ? DISPLAY_NAMES[number - 1] : null;
+    }
+
+    /**
+     * Numéro depuis un libellé : d'abord le motif "(NNN)", puis le nom exact, puis le nom le
+     * plus long contenu dans le libellé. 0 si introuvable.
+     */
+    public static int numberOf(String label) {
+        if (label == null || label.isEmpty()) {
+            return 0;
+        }
+        int fromPattern = numberFromParentheses(label);
+        if (fromPattern > 0) {
+            return fromPattern;
+        }
+        Integer exact = BY_NAME.get(label.trim().toLowerCase(Locale.ROOT));
+        if (exact != null) {
+            return exact;
+        }
+        for (int number : BY_LENGTH_DESC) {
+            if (label.contains(NAMES[number - 1])) {
+                return number;
+            }
+        }
+        return 0;
+    }
+
+    /** Premier "(NNN)" (3 chiffres) du libellé, 0 si absent ou hors 1..114. */
+    static int numberFromParentheses(String label) {
+        int from = 0;
+        int open;
+        while ((open = label.indexOf('(', from)) >= 0) {
+            if (open + 4 < label.length() && label.charAt(open + 4) == ')') {
+                int value = 0;
+                boolean digits = true;
+                for (int i = open + 1; i <= open + 3; i++) {
+                    char c = label.charAt(i);
+                    if (c < '0' || c > '9') {
+                        digits = false;
+                        break;
+                    }
+                    value = value * 10 + (c - '0');
+                }
+                if (digits) {
+                    return value >= 1 && value <= COUNT ? value : 0;
+                }
+            }
+            from = open + 1;
+        }
+        return 0;
+    }
+
+    private static String pad3(int n) {
+        return n < 10 ? "00" + n : n < 100 ? "0" + n : String.valueOf(n);
+    }
+}
@@ -0,0 +1,236 @@
+package com.drogbinho.prayertimesapp2;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Historique d'écoute du Coran et prédiction des prochaines sourates probables, pour le
+ * préchargement (QuranPrefetchJobService). Le score d'une sourate additionne :
+ * - la suite logique (sourate suivante si l'auto-avancement est actif, boucle 114 → 1) ;
+ * - l'habitude hebdomadaire (écoutée le même jour de la semaine les semaines passées,
+ *   ex. Al-Kahf le vendredi) et quotidienne (écoutée la plupart des jours récents) ;
+ * - la récence (écoutes récentes, décroissance exponentielle).
+ *
+ * Sans dépendance Android ; l'historique est un fichier TSV borné (les plus anciennes
+ * écoutes sont oubliées), réécrit via fichier temporaire + rename.
+ */
+public final class SurahPredictor {
+
+    static final int MAX_HISTORY = 512;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final int HABIT_WEEKS = 6;
+    private static final int DAILY_WINDOW_DAYS = 7;
+    private static final double RECENCY_HALF_LIFE_DAYS = 3;
+
+    private static final double W_NEXT = 1.0;
+    private static final double W_AFTER_NEXT = 0.4;
+    private static final double W_WEEKLY = 0.9;
+    private static final double W_DAILY = 0.7;
+    private static final double W_RECENT = 0.3;
+
+    /** Sourate candidate et son score (plus haut = plus probable). */
+    public static final class Prediction {
+        public final int surah;
+        public final double score;
+
+        Prediction(int surah, double score) {
+            this.surah = surah;
+            this.score = score;
+        }
+    }
+
+    private static final class Play {
+        final long at;
+        final String reciter;
+        final int surah;
+
+        Play(long at, String reciter, int surah) {
+            this.at = at;
+            this.reciter = reciter;
+            this.surah = surah;
+        }
+    }
+
+    private final File historyFile;
+    private final Object lock = new Object();
+    private final ArrayDeque<Play> history = new ArrayDeque<>();
+
+    public SurahPredictor(File historyFile) {
+        this.historyFile = historyFile;
+        synchronized (lock) {
+            loadLocked();
+        }
+    }
+
+    /** Ajoute une écoute (début de lecture d'une sourate). */
+    public void record(String reciter, int surah, long atMillis) {
+        if (surah < 1 || surah > 114) {
+            return;
+        }
+        synchronized (lock) {
+            history.addLast(new Play(atMillis, reciter != null ? reciter : "", surah));
+            while (history.size() > MAX_HISTORY) {
+                history.removeFirst();
+            }
+            saveLocked();
+        }
+    }
+
+    public int historySize() {
+        synchronized (lock) {
+            return history.size();
+        }
+    }
+
+    /**
+     * Sourates probables après {@code currentSurah} (0 si inconnue), triées par score
+     * décroissant, sourate courante exclue. Au plus {@code limit} résultats.
+     */
+    public List<Prediction> rank(int currentSurah, boolean autoAdvance, boolean loop,
+            long nowMillis, TimeZone timeZone, int limit) {
+        double[] scores = new double[115];
+
+        if (autoAdvance && currentSurah >= 1 && currentSurah <= 114) {
+            int next = nextOf(currentSurah, loop);
+            if (next > 0) {
+                scores[next] += W_NEXT;
+                int afterNext = nextOf(next, loop);
+                if (afterNext > 0) {
+                    scores[afterNext] += W_AFTER_NEXT;
+                }
+            }
+        }
+
+        Calendar cal = Calendar.getInstance(timeZone);
+        long today = dayIndex(cal, nowMillis);
+        cal.setTimeInMillis(nowMillis);
+        int weekday = cal.get(Calendar.DAY_OF_WEEK);
+
+        // Jours distincts d'écoute par sourate : même jour de semaine (semaines passées) et 7 derniers jours
+        List<Set<Long>> weeklyDays = new ArrayList<>(Collections.nCopies(115, (Set<Long>) null));
+        List<Set<Long>> recentDays = new ArrayList<>(Collections.nCopies(115, (Set<Long>) null));
+        synchronized (lock) {
+            for (Play play : history) {
+                long day = dayIndex(cal, play.at);
+                long age = today - day;
+                if (age < 0) {
+                    continue;
+                }
+                double ageDays = Math.max(0, (nowMillis - play.at) / (double) DAY_MS);
+                scores[play.surah] += W_RECENT * Math.pow(0.5, ageDays / RECENCY_HALF_LIFE_DAYS);
+
+                if (age > 0 && age <= HABIT_WEEKS * 7L && cal.get(Calendar.DAY_OF_WEEK) == weekday) {
+                    addDay(weeklyDays, play.surah, day);
+                }
+                if (age > 0 && age <= DAILY_WINDOW_DAYS) {
+                    addDay(recentDays, play.surah, day);
+                }
+            }
+        }
+        for (int s = 1; s <= 114; s++) {
+            if (weeklyDays.get(s) != null) {
+                scores[s] += W_WEEKLY * weeklyDays.get(s).size() / HABIT_WEEKS;
+            }
+            // Une seule journée n'est pas une habitude
+            if (recentDays.get(s) != null && recentDays.get(s).size() >= 2) {
+                scores[s] += W_DAILY * recentDays.get(s).size() / DAILY_WINDOW_DAYS;
+            }
+        }
+
+        List<Prediction> out = new ArrayList<>();
+        for (int s = 1; s <= 114; s++) {
+            if (s != currentSurah && scores[s] > 0) {
+                out.add(new Prediction(s, scores[s]));
+            }
+        }
+        Collections.sort(out, (a, b) -> a.score != b.score ? Double.compare(b.score, a.score)
+                : Integer.compare(a.surah, b.surah));
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
+    private static int nextOf(int surah, boolean loop) {
+        if (surah < 114) {
+            return surah + 1;
+        }
+        return loop ? 1 : -1;
+    }
+
+    private static void addDay(List<Set<Long>> days, int surah, long day) {
+        Set<Long> set = days.get(surah);
+        if (set == null) {
+            set = new HashSet<>();
+            days.set(surah, set);
+        }
+        set.add(day);
+    }
+
+    /** Numéro de jour local (laisse {@code cal} positionné sur {@code millis}). */
+    private static long dayIndex(Calendar cal, long millis) {
+        cal.setTimeInMillis(millis);
+        long offset = cal.get(Calendar.ZONE_OFFSET) + cal.get(Calendar.DST_OFFSET);
+        return Math.floorDiv(millis + offset, DAY_MS);
+    }
+
+    // Une écoute par ligne : horodatage, récitateur, sourate
+
+    private void saveLocked() {
+        File tmp = new File(historyFile.getPath() + ".tmp");
+        File parent = historyFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            parent.mkdirs();
+        }
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            for (Play play : history) {
+                writer.write(play.at + "\t" + play.reciter + "\t" + play.surah);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            return; // l'ancien historique reste en place
+        }
+        //noinspection ResultOfMethodCallIgnored
+        tmp.renameTo(historyFile);
+    }
+
+    private void loadLocked() {
+        if (!historyFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(historyFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                if (f.length != 3) {
+                    continue;
+                }
+                try {
+                    history.addLast(new Play(Long.parseLong(f[0]), f[1], Integer.parseInt(f[2])));
+                } catch (RuntimeException ignored) {
+                    // ligne invalide : ignorée
+                }
+            }
+            while (history.size() > MAX_HISTORY) {
+                history.removeFirst();
+            }
+        } catch (IOException ignored) {
+            // historique illisible : on repart de zéro
+        }
+    }
+}
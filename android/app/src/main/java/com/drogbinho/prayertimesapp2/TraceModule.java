@@ -0,0 +1,78 @@
+package com.drogbinho.prayertimesapp2;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Accès JS au tampon de traces natif ({@link TraceRecorder}) : lecture, vidage sur fichier,
+ * remise à zéro. Rien n'est envoyé spontanément, tout se fait à la demande.
+ */
+public class TraceModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "TraceModule";
+
+    private final ReactApplicationContext reactContext;
+
+    public TraceModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @Override
+    public String getName() {
+        return "TraceModule";
+    }
+
+    /**
+     * Événements du plus ancien au plus récent : { ts, subsystem, event, a, b }.
+     * Les arguments sont renvoyés en double (précision exacte jusqu'à 2^53, suffisant ici).
+     */
+    @ReactMethod
+    public void getTraceEvents(Promise promise) {
+        try {
+            long[] events = TraceRecorder.snapshot();
+            int slot = TraceRecorder.slotSize();
+            WritableArray result = Arguments.createArray();
+            for (int i = 0; i + slot <= events.length; i += slot) {
+                int subsystem = TraceRecorder.subsystemOf(events[i + 1]);
+                int event = TraceRecorder.eventOf(events[i + 1]);
+                WritableMap map = Arguments.createMap();
+                map.putDouble("ts", events[i]);
+                map.putString("subsystem", TraceRecorder.subsystemName(subsystem));
+                map.putString("event", TraceRecorder.eventName(subsystem, event));
+                map.putDouble("a", events[i + 2]);
+                map.putDouble("b", events[i + 3]);
+                result.pushMap(map);
+            }
+            promise.resolve(result);
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur lecture traces: " + e.getMessage());
+            promise.reject("TRACE_ERROR", e.getMessage());
+        }
+    }
+
+    /** Écrit le tampon dans files/traces et renvoie le chemin du fichier. */
+    @ReactMethod
+    public void dumpTrace(Promise promise) {
+        try {
+            File file = TraceRecorder.dumpToFile(reactContext);
+            promise.resolve(file.getAbsolutePath());
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Erreur dump traces: " + e.getMessage());
+            promise.reject("TRACE_DUMP_ERROR", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void clearTrace() {
+        TraceRecorder.clear();
+    }
+}
@@ -0,0 +1,191 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Enregistreur de traces en mémoire : tampon circulaire binaire de taille fixe, sans verrou.
+ * Chaque événement = (timestamp, sous-système, événement, deux arguments long). Toujours actif
+ * en production (coût ~ quelques écritures ordonnées), vidé sur fichier ou vers JS à la demande.
+ */
+public final class TraceRecorder {
+
+    private static final String TAG = "TraceRecorder";
+
+    // Sous-systèmes producteurs
+    public static final int SUB_ADHAN = 1;
+    public static final int SUB_QURAN_AUDIO = 2;
+    public static final int SUB_QURAN_SEEK = 3;
+    public static final int SUB_WIDGET = 4;
+    public static final int SUB_ALARMS = 5;
+    public static final int SUB_DOWNLOAD = 6;
+    private static final String[] SUBSYSTEM_NAMES = {
+            "unknown", "adhan", "quran_audio", "quran_seek", "widget", "alarms", "download" };
+
+    // Événements adhan (SUB_ADHAN)
+    public static final int EV_ADHAN_ALARM_RECEIVED = 1; // a = heure prévue, b = 0
+    public static final int EV_ADHAN_SERVICE_START = 2; // a = heure prévue, b = 0
+    public static final int EV_ADHAN_PREWARM_READY = 3; // a = heure prévue, b = 0
+    public static final int EV_ADHAN_PLAYBACK_STARTED = 4; // a = décalage ms, b = pré-chauffé (0/1)
+    private static final String[] ADHAN_EVENT_NAMES = {
+            "?", "ALARM_RECEIVED", "SERVICE_START", "PREWARM_READY", "PLAYBACK_STARTED" };
+
+    // Événements alarmes (SUB_ALARMS)
+    public static final int EV_BOOT_STAGE_DONE = 1; // a = étape BootReprogramProgress, b = durée ms
+    private static final String[] ALARMS_EVENT_NAMES = { "?", "BOOT_STAGE_DONE" };
+
+    private static final int CAPACITY = 4096; // puissance de 2
+    private static final int MASK = CAPACITY - 1;
+    private static final int SLOT_SIZE = 4; // ts, (sous-système << 32 | événement), arg1, arg2
+
+    private static final int DUMP_MAGIC = 0x4D415452; // "MATR"
+    private static final int DUMP_VERSION = 1;
+    private static final int MAX_DUMP_FILES = 5;
+
+    private static final AtomicLongArray DATA = new AtomicLongArray(CAPACITY * SLOT_SIZE);
+    // Numéro de séquence + 1 de l'événement complet dans chaque case, -1 pendant l'écriture
+    private static final AtomicLongArray COMMITTED = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static volatile long clearedBefore = 0;
+
+    private TraceRecorder() {}
+
+    /**
+     * Enregistre un événement. Sans allocation ni verrou : les écritures ordonnées (lazySet)
+     * publient les données avant le marqueur de validation de la case.
+     */
+    public static void record(int subsystem, int event, long arg1, long arg2) {
+        long seq = SEQUENCE.getAndIncrement();
+        int slot = (int) (seq & MASK);
+        int base = slot * SLOT_SIZE;
+        COMMITTED.lazySet(slot, -1);
+        DATA.lazySet(base, System.currentTimeMillis());
+        DATA.lazySet(base + 1, ((long) subsystem << 32) | (event & 0xFFFFFFFFL));
+        DATA.lazySet(base + 2, arg1);
+        DATA.lazySet(base + 3, arg2);
+        COMMITTED.lazySet(slot, seq + 1);
+    }
+
+    /**
+     * Copie cohérente des événements présents, du plus ancien au plus récent.
+     * Format : SLOT_SIZE longs par événement (ts, sous-système << 32 | événement, a, b).
+     */
+    public static long[] snapshot() {
+        long end = SEQUENCE.get();
+        long start = Math.max(Math.max(0, end - CAPACITY), clearedBefore);
+        long[] out = new long[(int) (end - start) * SLOT_SIZE];
+        int count = 0;
+        for (long seq = start; seq < end; seq++) {
+            int slot = (int) (seq & MASK);
+            int base = slot * SLOT_SIZE;
+            if (COMMITTED.get(slot) != seq + 1) {
+                continue; // en cours d'écriture ou déjà écrasé
+            }
+            long ts = DATA.get(base);
+            long id = DATA.get(base + 1);
+            long a = DATA.get(base + 2);
+            long b = DATA.get(base + 3);
+            if (COMMITTED.get(slot) != seq + 1) {
+                continue;
+            }
+            int o = count * SLOT_SIZE;
+            out[o] = ts;
+            out[o + 1] = id;
+            out[o + 2] = a;
+            out[o + 3] = b;
+            count++;
+        }
+        return count * SLOT_SIZE == out.length ? out : Arrays.copyOf(out, count * SLOT_SIZE);
+    }
+
+    /** Ignore les événements déjà enregistrés lors des prochains snapshots. */
+    public static void clear() {
+        clearedBefore = SEQUENCE.get();
+    }
+
+    public static int slotSize() {
+        return SLOT_SIZE;
+    }
+
+    public static int subsystemOf(long id) {
+        return (int) (id >>> 32);
+    }
+
+    public static int eventOf(long id) {
+        return (int) id;
+    }
+
+    public static String subsystemName(int subsystem) {
+        return subsystem >= 0 && subsystem < SUBSYSTEM_NAMES.length ? SUBSYSTEM_NAMES[subsystem] : "unknown";
+    }
+
+    public static String eventName(int subsystem, int event) {
+        String[] names;
+        switch (subsystem) {
+            case SUB_ADHAN:
+                names = ADHAN_EVENT_NAMES;
+                break;
+            case SUB_QURAN_SEEK:
+                names = QuranSeekDebug.EVENT_NAMES;
+                break;
+            case SUB_ALARMS:
+                names = ALARMS_EVENT_NAMES;
+                break;
+            default:
+                names = null;
+        }
+        if (names != null && event > 0 && event < names.length) {
+            return names[event];
+        }
+        return String.valueOf(event);
+    }
+
+    /**
+     * Écrit le tampon dans files/traces/trace_yyyyMMdd_HHmmss.bin (en-tête "MATR", version,
+     * nombre d'événements, puis 4 longs big-endian par événement). Garde les 5 derniers.
+     */
+    public static File dumpToFile(Context context) throws IOException {
+        long[] events = snapshot();
+        File dir = new File(context.getFilesDir(), "traces");
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Impossible de créer " + dir.getAbsolutePath());
+        }
+        String stamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        File file = new File(dir, "trace_" + stamp + ".bin");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(DUMP_MAGIC);
+            out.writeInt(DUMP_VERSION);
+            out.writeInt(events.length / SLOT_SIZE);
+            for (long value : events) {
+                out.writeLong(value);
+            }
+        }
+
+        File[] dumps = dir.listFiles((d, name) -> name.startsWith("trace_") && name.endsWith(".bin"));
+        if (dumps != null && dumps.length > MAX_DUMP_FILES) {
+            Arrays.sort(dumps, (f1, f2) -> f1.getName().compareTo(f2.getName()));
+            for (int i = 0; i < dumps.length - MAX_DUMP_FILES; i++) {
+                if (!dumps[i].delete()) {
+                    warnLog(TAG, "Ancien dump non supprimé: {}", dumps[i].getName());
+                }
+            }
+        }
+        debugLog(TAG, "Trace vidée: {} événements → {}", events.length / SLOT_SIZE, file.getName());
+        return file;
+    }
+}
@@ -0,0 +1,271 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.drogbinho.prayertimesapp2.ConditionalLogger.*;
+
+/**
+ * Chaîne de réveil unique pour les tâches périodiques / à échéance (maintenance quotidienne,
+ * rafraîchissement du widget…) : une seule alarme, armée sur la prochaine échéance, et
+ * toutes les tâches arrivées dans leur fenêtre de tolérance tournent dans le même réveil.
+ *
+ * Une tâche à tolérance T peut être exécutée jusqu'à T avant son échéance : elle profite
+ * ainsi du réveil d'une autre tâche ou d'une alarme adhan / rappel ({@link #onExternalWake}).
+ * Les réveils sont comptés par sous-système (voir {@link #getStats}).
+ *
+ * L'alarme n'est exacte que si la tâche en tête est à échéance exacte (maintenance
+ * quotidienne) ; sinon elle est armée en fenêtre inexacte sur sa tolérance.
+ */
+public final class WakeupCoordinator {
+
+    private static final String TAG = "WakeupCoordinator";
+    public static final String ACTION_WAKEUP = "com.drogbinho.prayertimesapp2.ACTION_WAKEUP";
+    private static final int REQUEST_CODE = 9870;
+
+    private static final String PREFS = "wakeup_coordinator";
+    private static final String KEY_DUE_PREFIX = "due_"; // absent = tâche inactive
+    private static final String KEY_WAKEUPS = "wakeups_total";
+    private static final String KEY_RUNS_PREFIX = "runs_";
+    private static final String KEY_PIGGYBACK_PREFIX = "piggyback_";
+
+    // Tâches connues (identifiant = suffixe des clés persistées)
+    public static final String TASK_DAILY_MAINTENANCE = "maintenance";
+    public static final String TASK_WIDGET_REFRESH = "widget_refresh";
+    private static final String[] TASKS = { TASK_DAILY_MAINTENANCE, TASK_WIDGET_REFRESH };
+
+    private static final long MINUTE = 60 * 1000L;
+    private static final long WIDGET_REFRESH_PERIOD_MS = 30 * MINUTE;
+
+    private static final Object LOCK = new Object();
+
+    private WakeupCoordinator() {}
+
+    /** Active une tâche (prochaine échéance normale) et réarme la chaîne. */
+    public static void enable(Context context, String task) {
+        synchronized (LOCK) {
+            SharedPreferences prefs = prefs(context);
+            if (prefs.getLong(KEY_DUE_PREFIX + task, 0) > System.currentTimeMillis()) {
+                return; // déjà active : on ne repousse pas son échéance
+            }
+            prefs.edit().putLong(KEY_DUE_PREFIX + task, nextDue(task, System.currentTimeMillis())).apply();
+            armLocked(context, prefs);
+        }
+    }
+
+    /** Force la prochaine exécution d'une tâche à une heure donnée (ex. maintenance 45 s après le boot). */
+    public static void runOnceAt(Context context, String task, long atMillis) {
+        synchronized (LOCK) {
+            SharedPreferences prefs = prefs(context);
+            prefs.edit().putLong(KEY_DUE_PREFIX + task, atMillis).apply();
+            armLocked(context, prefs);
+        }
+    }
+
+    public static void disable(Context context, String task) {
+        synchronized (LOCK) {
+            SharedPreferences prefs = prefs(context);
+            prefs.edit().remove(KEY_DUE_PREFIX + task).apply();
+            armLocked(context, prefs);
+        }
+    }
+
+    /** Réarme la chaîne (après redémarrage AlarmManager est vide). */
+    public static void rearm(Context context) {
+        synchronized (LOCK) {
+            armLocked(context, prefs(context));
+        }
+    }
+
+    /** Réveil de la chaîne : exécute toutes les tâches dans leur fenêtre, puis réarme. */
+    static void onWakeup(Context context) {
+        synchronized (LOCK) {
+            SharedPreferences prefs = prefs(context);
+            prefs.edit().putLong(KEY_WAKEUPS, prefs.getLong(KEY_WAKEUPS, 0) + 1).apply();
+            runDueLocked(context, prefs, KEY_RUNS_PREFIX);
+            armLocked(context, prefs);
+        }
+    }
+
+    /**
+     * Le téléphone est déjà réveillé par une autre alarme (adhan, rappel, dhikr) : on en
+     * profite pour les tâches déjà dans leur fenêtre de tolérance. Ne coûte qu'une lecture
+     * de préférences si rien n'est dû.
+     */
+    public static void onExternalWake(Context context) {
+        synchronized (LOCK) {
+            SharedPreferences prefs = prefs(context);
+            if (runDueLocked(context, prefs, KEY_PIGGYBACK_PREFIX) > 0) {
+                armLocked(context, prefs);
+            }
+        }
+    }
+
+    /** Compteurs : réveils de la chaîne, exécutions par tâche (propres / opportunistes). */
+    public static Map<String, Long> getStats(Context context) {
+        SharedPreferences prefs = prefs(context);
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put(KEY_WAKEUPS, prefs.getLong(KEY_WAKEUPS, 0));
+        for (String task : TASKS) {
+            stats.put(KEY_RUNS_PREFIX + task, prefs.getLong(KEY_RUNS_PREFIX + task, 0));
+            stats.put(KEY_PIGGYBACK_PREFIX + task, prefs.getLong(KEY_PIGGYBACK_PREFIX + task, 0));
+            stats.put(KEY_DUE_PREFIX + task, prefs.getLong(KEY_DUE_PREFIX + task, 0));
+        }
+        return stats;
+    }
+
+    private static int runDueLocked(Context context, SharedPreferences prefs, String counterPrefix) {
+        long now = System.currentTimeMillis();
+        SharedPreferences.Editor editor = prefs.edit();
+        int ran = 0;
+        for (String task : TASKS) {
+            long due = prefs.getLong(KEY_DUE_PREFIX + task, 0);
+            if (due == 0 || due - tolerance(task) > now) {
+                continue;
+            }
+            boolean keep = runTask(context, task);
+            ran++;
+            editor.putLong(counterPrefix + task, prefs.getLong(counterPrefix + task, 0) + 1);
+            if (keep) {
+                editor.putLong(KEY_DUE_PREFIX + task, nextDue(task, now));
+            } else {
+                editor.remove(KEY_DUE_PREFIX + task);
+            }
+        }
+        if (ran > 0) {
+            editor.apply();
+            debugLog(TAG, "{} tâche(s) exécutée(s) ({})", ran, counterPrefix);
+        }
+        return ran;
+    }
+
+    /** Exécute une tâche ; false = tâche désactivée (plus rien à faire). */
+    private static boolean runTask(Context context, String task) {
+        try {
+            switch (task) {
+                case TASK_DAILY_MAINTENANCE:
+                    MaintenanceReceiver.runMaintenance(context);
+                    return true;
+                case TASK_WIDGET_REFRESH: {
+                    int[] ids = AppWidgetManager.getInstance(context)
+                            .getAppWidgetIds(new ComponentName(context, PrayerTimesWidget.class));
+                    if (ids.length == 0) {
+                        debugLog(TAG, "Plus aucun widget, rafraîchissement périodique désactivé");
+                        return false;
+                    }
+                    Intent intent = new Intent(context, PrayerTimesWidget.class);
+                    intent.setAction("SMART_UPDATE_WIDGET");
+                    context.sendBroadcast(intent);
+                    return true;
+                }
+                default:
+                    return false;
+            }
+        } catch (Exception e) {
+            errorLog(TAG, "❌ Tâche " + task + " en erreur: " + e.getMessage(), e);
+            return true;
+        }
+    }
+
+    /** Échéance suivante après {@code fromMillis}. */
+    private static long nextDue(String task, long fromMillis) {
+        if (TASK_DAILY_MAINTENANCE.equals(task)) {
+            // 00:05 : évite les conflits avec les autres processus système à minuit pile
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(fromMillis);
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+            calendar.set(Calendar.MINUTE, 5);
+            calendar.set(Calendar.SECOND, 0);
+            calendar.set(Calendar.MILLISECOND, 0);
+            if (calendar.getTimeInMillis() <= fromMillis) {
+                calendar.add(Calendar.DAY_OF_MONTH, 1);
+            }
+            return calendar.getTimeInMillis();
+        }
+        return fromMillis + WIDGET_REFRESH_PERIOD_MS;
+    }
+
+    /** Avance maximale acceptée pour partager un réveil (0 = échéance exacte). */
+    private static long tolerance(String task) {
+        if (TASK_DAILY_MAINTENANCE.equals(task)) {
+            return 0; // toujours après minuit : sinon elle reprogrammerait la veille
+        }
+        return WIDGET_REFRESH_PERIOD_MS / 2;
+    }
+
+    private static void armLocked(Context context, SharedPreferences prefs) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            errorLog(TAG, "❌ AlarmManager non disponible");
+            return;
+        }
+        long next = Long.MAX_VALUE;
+        long nextExact = Long.MAX_VALUE;
+        String nextTask = null;
+        for (String task : TASKS) {
+            long due = prefs.getLong(KEY_DUE_PREFIX + task, 0);
+            if (due <= 0) {
+                continue;
+            }
+            if (due < next) {
+                next = due;
+                nextTask = task;
+            }
+            if (tolerance(task) == 0) {
+                nextExact = Math.min(nextExact, due);
+            }
+        }
+
+        Intent intent = new Intent(context, WakeupReceiver.class);
+        intent.setAction(ACTION_WAKEUP);
+        if (next == Long.MAX_VALUE) {
+            PendingIntent existing = PendingIntent.getBroadcast(context, REQUEST_CODE, intent,
+                    PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+            if (existing != null) {
+                alarmManager.cancel(existing);
+                existing.cancel();
+            }
+            debugLog(TAG, "Aucune tâche active, chaîne de réveil arrêtée");
+            return;
+        }
+
+        // Échéance dépassée (téléphone éteint, process tué) : réveil dès que possible
+        long now = System.currentTimeMillis();
+        long triggerAt = Math.max(next, now + 1000);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, REQUEST_CODE, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        long tolerance = tolerance(nextTask);
+        long windowStart = Math.max(next - tolerance, now + 1000);
+        long windowLength = Math.max(next - windowStart, tolerance);
+        if (tolerance > 0 && windowStart + windowLength <= nextExact) {
+            // Tâche tolérante en tête : fenêtre inexacte [échéance - tolérance, échéance],
+            // le système regroupe ce réveil avec ceux des autres applications. Une fenêtre
+            // qui déborderait sur la maintenance laisse place à l'alarme exacte.
+            alarmManager.setWindow(AlarmManager.RTC_WAKEUP, windowStart, windowLength, pendingIntent);
+            debugLog(TAG, "Prochain réveil ({}) entre {} et {} s", nextTask,
+                    (windowStart - now) / 1000, (windowStart + windowLength - now) / 1000);
+            return;
+        }
+        try {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pendingIntent);
+            debugLog(TAG, "Prochain réveil ({}) dans {} s", nextTask, (triggerAt - now) / 1000);
+        } catch (Exception e) {
+            // Alarmes exactes refusées : réveil inexact, les tâches restent dans leur fenêtre
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pendingIntent);
+            warnLog(TAG, "Alarme exacte refusée, réveil inexact: {}", e.getMessage());
+        }
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
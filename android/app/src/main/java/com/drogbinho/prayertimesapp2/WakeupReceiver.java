@@ -0,0 +1,20 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Réveil de la chaîne {@link WakeupCoordinator} : exécute toutes les tâches dues dans ce
+ * même réveil puis arme le suivant.
+ */
+public class WakeupReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (intent == null || !WakeupCoordinator.ACTION_WAKEUP.equals(intent.getAction())) {
+            return;
+        }
+        WakeupCoordinator.onWakeup(context);
+    }
+}
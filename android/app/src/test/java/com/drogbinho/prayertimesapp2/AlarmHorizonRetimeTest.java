@@ -0,0 +1,119 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.AlarmManager;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowAlarmManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Décalage des alarmes en file après un changement d'horaires : seules les prières qui
+ * bougent au-delà de la tolérance sont déplacées, les autres restent armées telles quelles.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class AlarmHorizonRetimeTest {
+
+    private static final long MINUTE = 60_000L;
+    // Fajr, Sunrise, Dhuhr, Asr, Maghrib, Isha (minutes depuis minuit)
+    private static final short[] DAY = { 312, 408, 751, 947, 1094, 1182 };
+
+    private Context context;
+    private AlarmManager alarmManager;
+    private long tomorrow;
+
+    @Before
+    public void setUp() {
+        SettingsStore.resetForTests();
+        AlarmHorizon.resetForTests();
+        ShadowAlarmManager.setCanScheduleExactAlarms(true);
+        context = ApplicationProvider.getApplicationContext();
+        alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        tomorrow = cal.getTimeInMillis();
+
+        new AlarmHorizon.Batch()
+                .add(AlarmHorizon.KIND_REMINDER, at(DAY[0]), 1, reminder("Fajr"))
+                .add(AlarmHorizon.KIND_REMINDER, at(DAY[2]), 2, reminder("Dhuhr"))
+                .add(AlarmHorizon.KIND_REMINDER, at(DAY[4]), 3, reminder("Maghrib"))
+                .commit(context);
+    }
+
+    @After
+    public void tearDown() {
+        SettingsStore.resetForTests();
+        AlarmHorizon.resetForTests();
+    }
+
+    @Test
+    public void retime_movesOnlyPrayersBeyondTolerance() {
+        short[] after = DAY.clone();
+        after[0] += 5; // Fajr : déplacée
+        after[2] += 1; // Dhuhr : dans la tolérance
+        after[4] -= 3; // Maghrib : déplacée
+        PrayerShift shift = PrayerShift.of(tomorrow, 1, DAY, after, TimeZone.getDefault());
+
+        int moved = AlarmHorizon.retime(context, shift, PrayerShift.TOLERANCE_MINUTES * MINUTE);
+
+        assertEquals(2, moved);
+        assertEquals(Arrays.asList(at(DAY[0]) + 5 * MINUTE, at(DAY[2]), at(DAY[4]) - 3 * MINUTE),
+                scheduledTriggers());
+        assertEquals(at(DAY[4]) - 3 * MINUTE, AlarmHorizon.latestTrigger(context));
+    }
+
+    @Test
+    public void retime_withinToleranceLeavesAlarmsUntouched() {
+        short[] after = DAY.clone();
+        after[0] -= 1;
+        after[4] += 1;
+        PrayerShift shift = PrayerShift.of(tomorrow, 1, DAY, after, TimeZone.getDefault());
+
+        int moved = AlarmHorizon.retime(context, shift, PrayerShift.TOLERANCE_MINUTES * MINUTE);
+
+        assertEquals(0, moved);
+        assertEquals(Arrays.asList(at(DAY[0]), at(DAY[2]), at(DAY[4])), scheduledTriggers());
+    }
+
+    private long at(int minutes) {
+        return tomorrow + minutes * MINUTE;
+    }
+
+    private Intent reminder(String prayer) {
+        Intent intent = new Intent(context, PrayerReminderReceiver.class);
+        intent.putExtra("PRAYER_LABEL", prayer);
+        return intent;
+    }
+
+    private List<Long> scheduledTriggers() {
+        List<Long> triggers = new ArrayList<>();
+        for (ShadowAlarmManager.ScheduledAlarm alarm : shadowOf(alarmManager).getScheduledAlarms()) {
+            triggers.add(alarm.getTriggerAtMs());
+        }
+        Collections.sort(triggers);
+        return triggers;
+    }
+}
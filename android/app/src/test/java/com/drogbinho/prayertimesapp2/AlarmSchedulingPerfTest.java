@@ -0,0 +1,111 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.AlarmManager;
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowAlarmManager;
+
+import java.util.Calendar;
+
+/**
+ * Budgets de programmation / annulation des alarmes adhan (2 jours × 5 prières) :
+ * nombre de PendingIntent.getBroadcast, accès SharedPreferences et allocations.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, shadows = { CountingShadowPendingIntent.class, CountingShadowAssetManager.class })
+public class AlarmSchedulingPerfTest {
+
+    private static final long MB = 1024L * 1024L;
+    private static final String[] PRAYERS = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
+
+    private CountingContext context;
+    private AdhanModule module;
+    private AlarmManager alarmManager;
+
+    @Before
+    public void setUp() {
+        SettingsStore.resetForTests();
+        AlarmHorizon.resetForTests();
+        ShadowAlarmManager.setCanScheduleExactAlarms(true);
+        context = new CountingContext(ApplicationProvider.getApplicationContext());
+        module = new AdhanModule(new ReactApplicationContext(context));
+        alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+    }
+
+    @After
+    public void tearDown() {
+        SettingsStore.resetForTests();
+        AlarmHorizon.resetForTests();
+    }
+
+    @Test
+    public void scheduleAdhanAlarms_staysWithinBudget() {
+        module.scheduleAdhanAlarms(twoDaysOfPrayers(), "misharyrachid");
+        module.cancelAllAdhanAlarms();
+
+        PerfProbe.Sample sample = PerfProbe.measure(context,
+                () -> module.scheduleAdhanAlarms(twoDaysOfPrayers(), "misharyrachid"));
+
+        // 10 alarmes en file, seules les HORIZON_SIZE premières armées (+ pré-chauffages) ;
+        // la file est écrite une fois pour tout le lot
+        PerfProbe.assertWithin("AdhanModule.scheduleAdhanAlarms", sample,
+                0, 20, 1, 2 * AlarmHorizon.HORIZON_SIZE, 2 * MB);
+    }
+
+    @Test
+    public void cancelAllAdhanAlarms_staysWithinBudgetAndClearsScheduledAlarms() {
+        module.scheduleAdhanAlarms(twoDaysOfPrayers(), "misharyrachid");
+        assertFalse(shadowOf(alarmManager).getScheduledAlarms().isEmpty());
+
+        PerfProbe.Sample sample = PerfProbe.measure(context, module::cancelAllAdhanAlarms);
+
+        // 5 prières × 17 motifs + pré-chauffages + alarmes armées de l'horizon :
+        // l'ancien balayage ±1000 en faisait > 10 000
+        PerfProbe.assertWithin("AdhanModule.cancelAllAdhanAlarms", sample,
+                0, 20, 1, 100 + 2 * AlarmHorizon.HORIZON_SIZE, 2 * MB);
+        assertEquals(0, shadowOf(alarmManager).getScheduledAlarms().size());
+    }
+
+    /** Même forme que la map envoyée par le JS : clé "Fajr_today" → {time, displayLabel, …}. */
+    private static JavaOnlyMap twoDaysOfPrayers() {
+        JavaOnlyMap prayerTimes = new JavaOnlyMap();
+        Calendar cal = Calendar.getInstance();
+        String[] suffixes = { "today", "tomorrow" };
+        for (int day = 0; day < suffixes.length; day++) {
+            for (int i = 0; i < PRAYERS.length; i++) {
+                cal.setTimeInMillis(System.currentTimeMillis());
+                cal.add(Calendar.DAY_OF_YEAR, day);
+                cal.set(Calendar.HOUR_OF_DAY, 5 + i * 3);
+                cal.set(Calendar.MINUTE, 0);
+                cal.set(Calendar.SECOND, 0);
+                cal.set(Calendar.MILLISECOND, 0);
+                if (day == 0 && cal.getTimeInMillis() <= System.currentTimeMillis()) {
+                    // Aujourd'hui déjà passée : reste programmable (AlarmManager la déclenchera aussitôt)
+                    cal.setTimeInMillis(System.currentTimeMillis() + 60_000L * (i + 1));
+                }
+                JavaOnlyMap info = new JavaOnlyMap();
+                info.putDouble("time", cal.getTimeInMillis());
+                info.putString("displayLabel", PRAYERS[i]);
+                info.putString("notifTitle", PRAYERS[i]);
+                info.putString("notifBody", "Adhan " + PRAYERS[i]);
+                prayerTimes.putMap(PRAYERS[i] + "_" + suffixes[day], info);
+            }
+        }
+        return prayerTimes;
+    }
+}
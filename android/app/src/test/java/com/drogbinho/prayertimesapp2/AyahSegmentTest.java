@@ -0,0 +1,73 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Segment d'ayahs : répétitions, fin de segment et blocage de la mise en file de la
+ * sourate suivante tant qu'un segment est armé.
+ */
+public class AyahSegmentTest {
+
+    @Test
+    public void repeatLastAyahWithAutoAdvance_blocksQueueUntilAllRepeatsDone() {
+        AyahSegment segment = new AyahSegment();
+        assertEquals(2, segment.nextSurahToQueue(1, true, false));
+
+        // Al-Fatiha 7, x3 : la fin de la plage est la fin du fichier
+        segment.arm(1, 7, 7, 31_000, 42_000, 3);
+        assertTrue(segment.isActive());
+        assertEquals(-1, segment.nextSurahToQueue(1, true, false));
+
+        assertEquals(AyahSegment.REPEAT, segment.onEnd());
+        assertEquals(31_000, segment.startMs());
+        assertEquals(-1, segment.nextSurahToQueue(1, true, false));
+        assertEquals(AyahSegment.REPEAT, segment.onEnd());
+        assertEquals(-1, segment.nextSurahToQueue(1, true, false));
+
+        assertEquals(AyahSegment.FINISHED, segment.onEnd());
+        assertFalse(segment.isActive());
+        assertEquals(1, segment.surah());
+        assertEquals(7, segment.fromAyah());
+        assertEquals(7, segment.toAyah());
+        // Segment terminé : l'enchaînement reprend
+        assertEquals(2, segment.nextSurahToQueue(1, true, false));
+        assertEquals(AyahSegment.NONE, segment.onEnd());
+    }
+
+    @Test
+    public void singlePlay_finishesOnFirstEnd() {
+        AyahSegment segment = new AyahSegment();
+        segment.arm(2, 255, 255, 1_000, 9_000, 0);
+
+        assertEquals(0, segment.repeatsLeft());
+        assertEquals(AyahSegment.FINISHED, segment.onEnd());
+        assertFalse(segment.isActive());
+    }
+
+    @Test
+    public void clear_disarmsWithoutCompletion() {
+        AyahSegment segment = new AyahSegment();
+        segment.arm(114, 1, 6, 500, 24_000, 2);
+
+        segment.clear();
+
+        assertFalse(segment.isActive());
+        assertEquals(AyahSegment.NONE, segment.onEnd());
+        assertEquals(1, segment.nextSurahToQueue(114, true, true));
+    }
+
+    @Test
+    public void nextSurahToQueue_followsAutoAdvanceAndLoop() {
+        AyahSegment segment = new AyahSegment();
+
+        assertEquals(-1, segment.nextSurahToQueue(5, false, true));
+        assertEquals(6, segment.nextSurahToQueue(5, true, false));
+        assertEquals(-1, segment.nextSurahToQueue(114, true, false));
+        assertEquals(1, segment.nextSurahToQueue(114, true, true));
+        assertEquals(-1, segment.nextSurahToQueue(0, true, true));
+    }
+}
@@ -0,0 +1,93 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Index des temps d'ayah : aller-retour du format binaire, résolution position → ayah
+ * et rejet des fichiers invalides.
+ */
+public class AyahTimingsTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void roundTrip_resolvesStartAndEndOfEachAyah() throws Exception {
+        int[][] bounds = new int[AyahTimings.SURAH_COUNT][];
+        bounds[0] = new int[] { 0, 6_000, 11_500, 16_000, 20_000, 25_500, 31_000, 42_000 };
+        bounds[113] = new int[] { 500, 4_000, 8_000, 12_000, 16_000, 20_000, 24_000 };
+        File file = new File(tmp.getRoot(), "timings/R.bin");
+        AyahTimings.write(file, bounds);
+
+        AyahTimings timings = AyahTimings.open(file);
+
+        assertEquals(7, timings.ayahCount(1));
+        assertEquals(0, timings.ayahCount(2));
+        assertEquals(6, timings.ayahCount(114));
+        assertEquals(0, timings.ayahCount(115));
+        assertEquals(11_500, timings.startMs(1, 3));
+        assertEquals(16_000, timings.endMs(1, 3));
+        assertEquals(42_000, timings.endMs(1, 7));
+        assertEquals(500, timings.startMs(114, 1));
+        assertFalse(timings.has(2, 1));
+        assertFalse(timings.has(1, 8));
+        assertTrue(timings.has(114, 6));
+    }
+
+    @Test
+    public void ayahAt_findsLastAyahStartingAtOrBeforePosition() throws Exception {
+        int[][] bounds = new int[AyahTimings.SURAH_COUNT][];
+        int[] baqara = new int[287]; // 286 ayahs + fin
+        for (int i = 0; i < baqara.length; i++) {
+            baqara[i] = 1_000 + i * 25_000;
+        }
+        bounds[1] = baqara;
+        File file = new File(tmp.getRoot(), "R.bin");
+        AyahTimings.write(file, bounds);
+        AyahTimings timings = AyahTimings.open(file);
+
+        assertEquals(0, timings.ayahAt(2, 999)); // avant la première ayah
+        assertEquals(1, timings.ayahAt(2, 1_000));
+        assertEquals(1, timings.ayahAt(2, 25_999));
+        assertEquals(2, timings.ayahAt(2, 26_000));
+        for (int ayah = 1; ayah <= 286; ayah++) {
+            assertEquals(ayah, timings.ayahAt(2, timings.startMs(2, ayah)));
+            assertEquals(ayah, timings.ayahAt(2, timings.endMs(2, ayah) - 1));
+        }
+        assertEquals(286, timings.ayahAt(2, Integer.MAX_VALUE));
+        assertEquals(0, timings.ayahAt(3, 5_000)); // sourate sans temps
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_rejectsDecreasingTimes() throws Exception {
+        int[][] bounds = new int[AyahTimings.SURAH_COUNT][];
+        bounds[0] = new int[] { 0, 5_000, 4_000 };
+        AyahTimings.write(new File(tmp.getRoot(), "R.bin"), bounds);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void startMs_rejectsUntimedAyah() throws Exception {
+        File file = new File(tmp.getRoot(), "R.bin");
+        AyahTimings.write(file, new int[AyahTimings.SURAH_COUNT][]);
+        AyahTimings.open(file).startMs(1, 1);
+    }
+
+    @Test(expected = IOException.class)
+    public void open_rejectsForeignFile() throws Exception {
+        File file = new File(tmp.getRoot(), "R.bin");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[4 * 200]);
+        }
+        AyahTimings.open(file);
+    }
+}
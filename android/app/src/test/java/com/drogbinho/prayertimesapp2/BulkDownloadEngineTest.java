@@ -0,0 +1,308 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moteur de téléchargement en masse contre un serveur HTTP local (com.sun.net.httpserver) :
+ * disposition des fichiers, reprise Range, somme de contrôle, nouvelles tentatives espacées,
+ * priorités, file persistée.
+ */
+public class BulkDownloadEngineTest {
+
+    private static final String RECITER = "Test Reciter";
+    private static final long RETRY_BASE_MS = 100;
+    private static final byte[] BODY = new byte[300 * 1024];
+
+    static {
+        for (int i = 0; i < BODY.length; i++) {
+            BODY[i] = (byte) (i * 31);
+        }
+    }
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private HttpServer server;
+    private final List<String> rangeHeaders = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+    private File quranRoot;
+    private File stateFile;
+
+    @Before
+    public void setUp() throws IOException {
+        quranRoot = tmp.newFolder("quran");
+        stateFile = new File(tmp.getRoot(), "bulk/queue.tsv");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // /surah/N : même contenu pour chaque sourate, Range "bytes=X-" supporté
+        server.createContext("/surah/", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            rangeHeaders.add(range);
+            requestTimes.add(System.nanoTime());
+            int from = 0;
+            if (range != null && range.startsWith("bytes=")) {
+                from = Integer.parseInt(range.substring(6, range.indexOf('-')));
+                exchange.getResponseHeaders().add("Content-Range",
+                        "bytes " + from + "-" + (BODY.length - 1) + "/" + BODY.length);
+                exchange.sendResponseHeaders(206, BODY.length - from);
+            } else {
+                exchange.sendResponseHeaders(200, BODY.length);
+            }
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY, from, BODY.length - from);
+            }
+        });
+        // /shifted/N : répond 206 depuis l'octet 0 quelle que soit la plage demandée
+        server.createContext("/shifted/", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            rangeHeaders.add(range);
+            if (range != null) {
+                exchange.getResponseHeaders().add("Content-Range",
+                        "bytes 0-" + (BODY.length - 1) + "/" + BODY.length);
+                exchange.sendResponseHeaders(206, BODY.length);
+            } else {
+                exchange.sendResponseHeaders(200, BODY.length);
+            }
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void download_writesQuranLayoutWithoutPartFile() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+        BulkDownloadEngine engine = newEngine(2, listener);
+        engine.start();
+        engine.enqueue(RECITER, 18, url(18), null, BulkDownloadEngine.PRIORITY_NORMAL);
+
+        listener.await();
+        File target = new File(quranRoot, "Test_Reciter/018_AlKahf (018).mp3");
+        assertEquals(target, engine.targetFile(RECITER, 18));
+        assertArrayEquals(BODY, Files.readAllBytes(target.toPath()));
+        assertFalse(engine.partFile(RECITER, 18).exists());
+        engine.shutdown();
+    }
+
+    @Test
+    public void download_resumesPartialFileWithRange() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+        BulkDownloadEngine engine = newEngine(1, listener);
+        File part = engine.partFile(RECITER, 1);
+        assertTrue(part.getParentFile().mkdirs());
+        try (FileOutputStream out = new FileOutputStream(part)) {
+            out.write(BODY, 0, 100_000);
+        }
+
+        engine.start();
+        engine.enqueue(RECITER, 1, url(1), sha256(BODY), BulkDownloadEngine.PRIORITY_NORMAL);
+
+        listener.await();
+        assertEquals("bytes=100000-", rangeHeaders.get(0));
+        assertArrayEquals(BODY, Files.readAllBytes(engine.targetFile(RECITER, 1).toPath()));
+        engine.shutdown();
+    }
+
+    @Test
+    public void download_restartsFromZeroWhenContentRangeDoesNotMatchResumeOffset() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+        BulkDownloadEngine engine = newEngine(1, listener);
+        File part = engine.partFile(RECITER, 4);
+        assertTrue(part.getParentFile().mkdirs());
+        try (FileOutputStream out = new FileOutputStream(part)) {
+            out.write(BODY, 0, 100_000);
+        }
+
+        engine.start();
+        engine.enqueue(RECITER, 4, shiftedUrl(4), sha256(BODY), BulkDownloadEngine.PRIORITY_NORMAL);
+
+        listener.await();
+        assertEquals(Arrays.asList("bytes=100000-", null), rangeHeaders);
+        assertEquals(Collections.singletonList(4), listener.completed);
+        assertArrayEquals(BODY, Files.readAllBytes(engine.targetFile(RECITER, 4).toPath()));
+        engine.shutdown();
+    }
+
+    @Test
+    public void contentRangeStart_parsesFirstServedByte() {
+        assertEquals(100, BulkDownloadEngine.startFromContentRange("bytes 100-999/1000"));
+        assertEquals(0, BulkDownloadEngine.startFromContentRange("bytes 0-999/*"));
+        assertEquals(-1, BulkDownloadEngine.startFromContentRange("bytes */1000"));
+        assertEquals(-1, BulkDownloadEngine.startFromContentRange(null));
+    }
+
+    @Test
+    public void retryDelay_doublesAndIsCapped() {
+        assertEquals(2_000, BulkDownloadEngine.retryDelayMs(2_000, 1));
+        assertEquals(4_000, BulkDownloadEngine.retryDelayMs(2_000, 2));
+        assertEquals(8_000, BulkDownloadEngine.retryDelayMs(2_000, 3));
+        assertEquals(60_000, BulkDownloadEngine.retryDelayMs(2_000, 30));
+    }
+
+    @Test
+    public void checksumMismatch_failsWithoutLeavingFiles() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+        BulkDownloadEngine engine = newEngine(1, listener);
+        engine.start();
+        engine.enqueue(RECITER, 2, url(2), "00", BulkDownloadEngine.PRIORITY_NORMAL);
+
+        listener.await();
+        assertEquals(Collections.singletonList(2), listener.failed);
+        assertEquals(BulkDownloadEngine.MAX_ATTEMPTS, rangeHeaders.size());
+        // Tentatives espacées : base puis 2 × base
+        long firstGapMs = TimeUnit.NANOSECONDS.toMillis(requestTimes.get(1) - requestTimes.get(0));
+        long secondGapMs = TimeUnit.NANOSECONDS.toMillis(requestTimes.get(2) - requestTimes.get(1));
+        assertTrue("1er délai " + firstGapMs + " ms", firstGapMs >= RETRY_BASE_MS);
+        assertTrue("2e délai " + secondGapMs + " ms", secondGapMs >= 2 * RETRY_BASE_MS);
+        assertFalse(engine.targetFile(RECITER, 2).exists());
+        assertFalse(engine.partFile(RECITER, 2).exists());
+        engine.shutdown();
+    }
+
+    @Test
+    public void enqueue_rejectsMalformedUrl() throws Exception {
+        BulkDownloadEngine engine = newEngine(1, new RecordingListener(0));
+        engine.start();
+
+        assertFalse(engine.enqueue(RECITER, 3, "not a url", null, BulkDownloadEngine.PRIORITY_NORMAL));
+        assertFalse(engine.enqueue(RECITER, 3, null, null, BulkDownloadEngine.PRIORITY_NORMAL));
+        assertTrue(rangeHeaders.isEmpty());
+        engine.shutdown();
+    }
+
+    @Test
+    public void prioritize_movesTappedSurahToFront() throws Exception {
+        RecordingListener listener = new RecordingListener(4);
+        BulkDownloadEngine engine = newEngine(1, listener);
+        for (int surah = 1; surah <= 4; surah++) {
+            engine.enqueue(RECITER, surah, url(surah), null, BulkDownloadEngine.PRIORITY_NORMAL);
+        }
+        assertTrue(engine.prioritize(RECITER, 3));
+        engine.start();
+
+        listener.await();
+        assertEquals(Arrays.asList(3, 1, 2, 4), listener.completed);
+        engine.shutdown();
+    }
+
+    @Test
+    public void pause_removesQueuedJobAndKeepsPartFile() throws Exception {
+        BulkDownloadEngine engine = newEngine(1, new RecordingListener(0));
+        File part = engine.partFile(RECITER, 7);
+        assertTrue(part.getParentFile().mkdirs());
+        try (FileOutputStream out = new FileOutputStream(part)) {
+            out.write(BODY, 0, 1_000);
+        }
+        engine.enqueue(RECITER, 7, url(7), null, BulkDownloadEngine.PRIORITY_PREFETCH);
+
+        assertTrue(engine.pause(RECITER, 7));
+        assertFalse(engine.pause(RECITER, 7));
+        assertTrue(engine.snapshot().isEmpty());
+        assertTrue(part.exists());
+        engine.shutdown();
+    }
+
+    @Test
+    public void queue_survivesRestart() throws Exception {
+        BulkDownloadEngine first = newEngine(1, new RecordingListener(0));
+        first.enqueue(RECITER, 5, url(5), null, BulkDownloadEngine.PRIORITY_NORMAL);
+        first.enqueue(RECITER, 6, url(6), null, BulkDownloadEngine.PRIORITY_USER);
+        first.shutdown();
+
+        RecordingListener listener = new RecordingListener(2);
+        BulkDownloadEngine second = newEngine(1, listener);
+        assertEquals(2, second.snapshot().size());
+        assertEquals(6, second.snapshot().get(0).surah);
+        second.start();
+
+        listener.await();
+        assertEquals(Arrays.asList(6, 5), listener.completed);
+        second.shutdown();
+    }
+
+    private BulkDownloadEngine newEngine(int concurrency, RecordingListener listener) {
+        BulkDownloadEngine engine = new BulkDownloadEngine(quranRoot, stateFile, concurrency, listener);
+        engine.setRetryBaseDelayMsForTests(RETRY_BASE_MS);
+        return engine;
+    }
+
+    private String url(int surah) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/surah/" + surah;
+    }
+
+    private String shiftedUrl(int surah) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/shifted/" + surah;
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static final class RecordingListener implements BulkDownloadEngine.Listener {
+        final List<Integer> completed = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch done;
+
+        RecordingListener(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("Téléchargements non terminés", done.await(10, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public void onProgress(BulkDownloadEngine.Job job, long bytesDownloaded, long totalBytes) {
+        }
+
+        @Override
+        public void onCompleted(BulkDownloadEngine.Job job, File file) {
+            completed.add(job.surah);
+            done.countDown();
+        }
+
+        @Override
+        public void onFailed(BulkDownloadEngine.Job job, String error) {
+            failed.add(job.surah);
+            done.countDown();
+        }
+
+        @Override
+        public void onIdle() {
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Context de test qui compte les lectures / écritures SharedPreferences faites par le
+ * code natif (les ouvertures d'assets sont comptées par {@link CountingShadowAssetManager}).
+ */
+class CountingContext extends ContextWrapper {
+
+    int prefsReads;
+    int prefsWrites;
+
+    private final Map<String, CountingSharedPreferences> prefs = new HashMap<>();
+
+    CountingContext(Context base) {
+        super(base);
+    }
+
+    void reset() {
+        prefsReads = 0;
+        prefsWrites = 0;
+    }
+
+    // Les modules appellent getApplicationContext() : on reste dans le context instrumenté
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public SharedPreferences getSharedPreferences(String name, int mode) {
+        CountingSharedPreferences wrapped = prefs.get(name);
+        if (wrapped == null) {
+            wrapped = new CountingSharedPreferences(super.getSharedPreferences(name, mode));
+            prefs.put(name, wrapped);
+        }
+        return wrapped;
+    }
+
+    private final class CountingSharedPreferences implements SharedPreferences {
+        private final SharedPreferences delegate;
+
+        CountingSharedPreferences(SharedPreferences delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<String, ?> getAll() {
+            prefsReads++;
+            return delegate.getAll();
+        }
+
+        @Override
+        public String getString(String key, String defValue) {
+            prefsReads++;
+            return delegate.getString(key, defValue);
+        }
+
+        @Override
+        public Set<String> getStringSet(String key, Set<String> defValues) {
+            prefsReads++;
+            return delegate.getStringSet(key, defValues);
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+            prefsReads++;
+            return delegate.getInt(key, defValue);
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            prefsReads++;
+            return delegate.getLong(key, defValue);
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            prefsReads++;
+            return delegate.getFloat(key, defValue);
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            prefsReads++;
+            return delegate.getBoolean(key, defValue);
+        }
+
+        @Override
+        public boolean contains(String key) {
+            prefsReads++;
+            return delegate.contains(key);
+        }
+
+        @Override
+        public Editor edit() {
+            return new CountingEditor(delegate.edit());
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            delegate.registerOnSharedPreferenceChangeListener(listener);
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            delegate.unregisterOnSharedPreferenceChangeListener(listener);
+        }
+    }
+
+    private final class CountingEditor implements SharedPreferences.Editor {
+        private final SharedPreferences.Editor delegate;
+
+        CountingEditor(SharedPreferences.Editor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SharedPreferences.Editor putString(String key, String value) {
+            delegate.putString(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putStringSet(String key, Set<String> values) {
+            delegate.putStringSet(key, values);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putInt(String key, int value) {
+            delegate.putInt(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putLong(String key, long value) {
+            delegate.putLong(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putFloat(String key, float value) {
+            delegate.putFloat(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putBoolean(String key, boolean value) {
+            delegate.putBoolean(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor remove(String key) {
+            delegate.remove(key);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor clear() {
+            delegate.clear();
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            prefsWrites++;
+            return delegate.commit();
+        }
+
+        @Override
+        public void apply() {
+            prefsWrites++;
+            delegate.apply();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.content.res.AssetManager;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowArscAssetManager14;
+
+import java.io.FileNotFoundException;
+
+/**
+ * Compte les ouvertures réelles d'assets (AssetManager.open → nativeOpenAsset), quel que
+ * soit le Context ou l'AssetManager utilisé pour y arriver. Mode ressources binaire, sdk 34.
+ */
+@Implements(value = AssetManager.class, minSdk = 34, maxSdk = 34)
+public class CountingShadowAssetManager extends ShadowArscAssetManager14 {
+
+    static int assetOpens;
+
+    @Implementation
+    protected static long nativeOpenAsset(long ptr, String fileName, int accessMode)
+            throws FileNotFoundException {
+        assetOpens++;
+        return ShadowArscAssetManager14.nativeOpenAsset(ptr, fileName, accessMode);
+    }
+}
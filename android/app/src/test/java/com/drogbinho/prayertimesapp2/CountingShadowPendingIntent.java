@@ -0,0 +1,25 @@
+package com.drogbinho.prayertimesapp2;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowPendingIntent;
+
+/**
+ * Compte les PendingIntent.getBroadcast (création ou recherche FLAG_NO_CREATE) :
+ * c'est l'appel système répété par la programmation / l'annulation des alarmes.
+ */
+@Implements(PendingIntent.class)
+public class CountingShadowPendingIntent extends ShadowPendingIntent {
+
+    static int broadcastLookups;
+
+    @Implementation
+    protected static PendingIntent getBroadcast(Context context, int requestCode, Intent intent, int flags) {
+        broadcastLookups++;
+        return ShadowPendingIntent.getBroadcast(context, requestCode, intent, flags);
+    }
+}
@@ -0,0 +1,223 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Index de seek MP3 : parcours des trames (tags ID3, trame Xing, VBR), délai / remplissage
+ * LAME, résolution temps → octet et invalidation quand le fichier change.
+ */
+public class Mp3SeekIndexTest {
+
+    // MPEG-1 couche III, 44,1 kHz, stéréo, sans CRC : 128 kbit/s (417 octets) et 192 kbit/s (626)
+    private static final int H_128 = 0xFFFB9000;
+    private static final int H_192 = 0xFFFBB000;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void frameLength_matchesLayerIIIFormula() {
+        assertEquals(417, Mp3SeekIndex.frameLength(H_128));
+        assertEquals(418, Mp3SeekIndex.frameLength(H_128 | 0x200)); // remplissage
+        assertEquals(626, Mp3SeekIndex.frameLength(H_192));
+        assertEquals(-1, Mp3SeekIndex.frameLength(0x49443303)); // "ID3"
+    }
+
+    @Test
+    public void build_indexesVbrFramesAfterId3AndXing() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        id3(out, 1000);
+        frame(out, H_128, true); // trame Xing : pas d'audio
+        long firstAudio = out.size();
+        long[] starts = new long[100];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = out.size();
+            frame(out, i % 3 == 0 ? H_192 : H_128, false);
+        }
+        long audioEnd = out.size();
+        out.write("TAG".getBytes("US-ASCII")); // ID3v1
+        out.write(new byte[125]);
+        File file = write("001.mp3", out.toByteArray());
+
+        Mp3SeekIndex index = Mp3SeekIndex.build(file);
+
+        assertNotNull(index);
+        assertEquals(100, index.frameCount);
+        assertEquals(44100, index.sampleRate);
+        assertEquals(2, index.channels);
+        assertEquals(firstAudio, index.offsetOfEntry(0));
+        assertEquals(audioEnd, index.dataEnd);
+        assertEquals((100 + Mp3SeekIndex.FRAMES_PER_ENTRY - 1) / Mp3SeekIndex.FRAMES_PER_ENTRY,
+                index.entryCount());
+        for (int entry = 0; entry < index.entryCount(); entry++) {
+            assertEquals(starts[entry * Mp3SeekIndex.FRAMES_PER_ENTRY], index.offsetOfEntry(entry));
+        }
+        assertEquals(100L * 1152 * 1_000_000 / 44100, index.durationUs());
+        // Trame Xing sans extension LAME
+        assertEquals(0, index.encoderDelay);
+        assertEquals(0, index.encoderPadding);
+    }
+
+    @Test
+    public void build_readsLameEncoderDelayAndPaddingAndPersistsThem() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] info = new byte[Mp3SeekIndex.frameLength(H_128)];
+        writeInt(info, 0, H_128);
+        writeInt(info, 36, 0x496E666F); // "Info" (CBR)
+        writeInt(info, 40, 0x1 | 0x4); // drapeaux : nombre de trames + table
+        writeInt(info, 44, 32);
+        // Extension LAME après la table (100 octets) : délai / remplissage 21 octets plus loin
+        int lame = 48 + 100;
+        System.arraycopy("LAME3.100".getBytes("US-ASCII"), 0, info, lame, 9);
+        int delay = 576;
+        int padding = 1_200;
+        info[lame + 21] = (byte) (delay >>> 4);
+        info[lame + 22] = (byte) ((delay & 0xF) << 4 | padding >>> 8);
+        info[lame + 23] = (byte) padding;
+        out.write(info, 0, info.length);
+        long firstAudio = out.size();
+        for (int i = 0; i < 32; i++) {
+            frame(out, H_128, false);
+        }
+        File file = write("005.mp3", out.toByteArray());
+
+        Mp3SeekIndex built = Mp3SeekIndex.loadOrBuild(file);
+
+        assertNotNull(built);
+        assertEquals(32, built.frameCount);
+        assertEquals(firstAudio, built.offsetOfEntry(0));
+        assertEquals(delay, built.encoderDelay);
+        assertEquals(padding, built.encoderPadding);
+
+        Mp3SeekIndex loaded = Mp3SeekIndex.load(file);
+        assertNotNull(loaded);
+        assertEquals(delay, loaded.encoderDelay);
+        assertEquals(padding, loaded.encoderPadding);
+    }
+
+    @Test
+    public void entryForTimeUs_returnsEntryStartingAtOrBeforeTarget() throws Exception {
+        Mp3SeekIndex index = Mp3SeekIndex.build(cbr("001.mp3", 200));
+        assertNotNull(index);
+
+        assertEquals(0, index.entryForTimeUs(0));
+        for (int entry = 0; entry < index.entryCount(); entry++) {
+            long t = index.timeUsOfEntry(entry);
+            assertEquals(entry, index.entryForTimeUs(t));
+            assertEquals(entry, index.entryForTimeUs(t + 1));
+            assertEquals(entry, index.entryForPosition(index.offsetOfEntry(entry)));
+            assertEquals(entry, index.entryForPosition(index.offsetOfEntry(entry) + 1));
+        }
+        // Au-delà de la fin : dernière entrée
+        assertEquals(index.entryCount() - 1, index.entryForTimeUs(index.durationUs() * 2));
+    }
+
+    @Test
+    public void loadOrBuild_persistsAndReloads() throws Exception {
+        File file = cbr("002.mp3", 64);
+
+        Mp3SeekIndex built = Mp3SeekIndex.loadOrBuild(file);
+        assertNotNull(built);
+        assertTrue(Mp3SeekIndex.indexFileFor(file).exists());
+
+        Mp3SeekIndex loaded = Mp3SeekIndex.load(file);
+        assertNotNull(loaded);
+        assertEquals(built.frameCount, loaded.frameCount);
+        assertEquals(built.entryCount(), loaded.entryCount());
+        assertEquals(built.offsetOfEntry(built.entryCount() - 1), loaded.offsetOfEntry(loaded.entryCount() - 1));
+    }
+
+    @Test
+    public void load_dropsIndexWhenFileChanges() throws Exception {
+        File file = cbr("003.mp3", 64);
+        assertNotNull(Mp3SeekIndex.loadOrBuild(file));
+
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[417]);
+        }
+
+        assertNull(Mp3SeekIndex.load(file));
+        assertFalse(Mp3SeekIndex.indexFileFor(file).exists());
+    }
+
+    @Test
+    public void load_dropsCorruptIndex() throws Exception {
+        File file = cbr("004.mp3", 16);
+        write("004.mp3" + Mp3SeekIndex.SUFFIX, new byte[] { 1, 2, 3 });
+
+        assertNull(Mp3SeekIndex.load(file));
+        assertFalse(Mp3SeekIndex.indexFileFor(file).exists());
+    }
+
+    @Test
+    public void build_returnsNullForNonMp3() throws Exception {
+        File file = write("cover.jpg", new byte[4096]);
+        assertNull(Mp3SeekIndex.build(file));
+    }
+
+    private File cbr(String name, int frames) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < frames; i++) {
+            frame(out, H_128, false);
+        }
+        return write(name, out.toByteArray());
+    }
+
+    private static void id3(ByteArrayOutputStream out, int size) {
+        out.write('I');
+        out.write('D');
+        out.write('3');
+        out.write(3);
+        out.write(0);
+        out.write(0);
+        out.write(size >>> 21 & 0x7F);
+        out.write(size >>> 14 & 0x7F);
+        out.write(size >>> 7 & 0x7F);
+        out.write(size & 0x7F);
+        out.write(new byte[size], 0, size);
+    }
+
+    private static void frame(ByteArrayOutputStream out, int header, boolean xing) {
+        byte[] frame = new byte[Mp3SeekIndex.frameLength(header)];
+        frame[0] = (byte) (header >>> 24);
+        frame[1] = (byte) (header >>> 16);
+        frame[2] = (byte) (header >>> 8);
+        frame[3] = (byte) header;
+        if (xing) {
+            // MPEG-1 stéréo : marqueur après 4 octets d'en-tête + 32 d'infos annexes
+            frame[36] = 'X';
+            frame[37] = 'i';
+            frame[38] = 'n';
+            frame[39] = 'g';
+        }
+        out.write(frame, 0, frame.length);
+    }
+
+    private static void writeInt(byte[] bytes, int i, int value) {
+        bytes[i] = (byte) (value >>> 24);
+        bytes[i + 1] = (byte) (value >>> 16);
+        bytes[i + 2] = (byte) (value >>> 8);
+        bytes[i + 3] = (byte) value;
+    }
+
+    private File write(String name, byte[] bytes) throws IOException {
+        File file = new File(tmp.getRoot(), name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,150 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Métriques natives : seaux log2 et leurs bornes, cycle record / snapshot / reset,
+ * percentiles approchés et encodage varint zigzag du snapshot.
+ */
+public class PerfMetricsTest {
+
+    @Before
+    public void setUp() {
+        PerfMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        PerfMetrics.reset();
+    }
+
+    @Test
+    public void bucketOf_followsPowerOfTwoBoundaries() {
+        assertEquals(0, PerfMetrics.bucketOf(-5));
+        assertEquals(0, PerfMetrics.bucketOf(0));
+        assertEquals(1, PerfMetrics.bucketOf(1));
+        assertEquals(2, PerfMetrics.bucketOf(2));
+        assertEquals(2, PerfMetrics.bucketOf(3));
+        assertEquals(3, PerfMetrics.bucketOf(4));
+        assertEquals(10, PerfMetrics.bucketOf(1023));
+        assertEquals(11, PerfMetrics.bucketOf(1024));
+        // Dernier seau : tout ce qui dépasse 2^22
+        assertEquals(PerfMetrics.BUCKETS - 1, PerfMetrics.bucketOf(1L << 22));
+        assertEquals(PerfMetrics.BUCKETS - 1, PerfMetrics.bucketOf(Long.MAX_VALUE));
+
+        for (int b = 1; b < PerfMetrics.BUCKETS - 1; b++) {
+            long low = PerfMetrics.bucketLowerBound(b);
+            assertEquals(b, PerfMetrics.bucketOf(low));
+            assertEquals(b - 1, PerfMetrics.bucketOf(low - 1));
+        }
+        assertEquals(0, PerfMetrics.bucketLowerBound(0));
+    }
+
+    @Test
+    public void recordSnapshotReset_roundTrip() {
+        int h = PerfMetrics.H_QURAN_SEEK_MS;
+        PerfMetrics.record(h, 3);
+        PerfMetrics.record(h, 40);
+        PerfMetrics.record(h, 0);
+        PerfMetrics.increment(PerfMetrics.C_QURAN_REBUFFER);
+        PerfMetrics.add(PerfMetrics.C_DOWNLOAD_BYTES, 4096);
+        PerfMetrics.set(PerfMetrics.G_REMINDER_REGISTRY_ENTRIES, 12);
+        PerfMetrics.set(PerfMetrics.G_REMINDER_REGISTRY_ENTRIES, 7);
+
+        long[] snapshot = PerfMetrics.snapshot();
+
+        assertEquals(PerfMetrics.histogramOffset(PerfMetrics.histogramCount()), snapshot.length);
+        assertEquals(1, snapshot[PerfMetrics.C_QURAN_REBUFFER]);
+        assertEquals(4096, snapshot[PerfMetrics.C_DOWNLOAD_BYTES]);
+        assertEquals(7, snapshot[PerfMetrics.G_REMINDER_REGISTRY_ENTRIES]);
+        assertEquals(3, PerfMetrics.histCount(snapshot, h));
+        assertEquals(43, PerfMetrics.histSum(snapshot, h));
+        assertEquals(40, PerfMetrics.histMax(snapshot, h));
+        assertEquals(1, PerfMetrics.histBucket(snapshot, h, 0));
+        assertEquals(1, PerfMetrics.histBucket(snapshot, h, PerfMetrics.bucketOf(3)));
+        assertEquals(1, PerfMetrics.histBucket(snapshot, h, PerfMetrics.bucketOf(40)));
+        // Les autres histogrammes ne sont pas touchés
+        assertEquals(0, PerfMetrics.histCount(snapshot, PerfMetrics.H_WIDGET_REFRESH_MS));
+
+        PerfMetrics.reset();
+
+        for (long value : PerfMetrics.snapshot()) {
+            assertEquals(0, value);
+        }
+    }
+
+    @Test
+    public void percentile_returnsBucketUpperBoundCappedAtMax() {
+        int h = PerfMetrics.H_ADHAN_FIRE_LATENCY_MS;
+        assertEquals(0, PerfMetrics.percentile(PerfMetrics.snapshot(), h, 0.5));
+
+        for (int i = 0; i < 90; i++) {
+            PerfMetrics.record(h, 5); // seau [4, 8)
+        }
+        for (int i = 0; i < 10; i++) {
+            PerfMetrics.record(h, 300); // seau [256, 512)
+        }
+        long[] snapshot = PerfMetrics.snapshot();
+
+        assertEquals(7, PerfMetrics.percentile(snapshot, h, 0.5));
+        assertEquals(7, PerfMetrics.percentile(snapshot, h, 0.9));
+        // Borne haute 511, plafonnée au max observé
+        assertEquals(300, PerfMetrics.percentile(snapshot, h, 0.95));
+        assertEquals(300, PerfMetrics.percentile(snapshot, h, 1.0));
+    }
+
+    @Test
+    public void encode_writesZigzagVarintsAndTrimsTrailingBuckets() {
+        PerfMetrics.increment(PerfMetrics.C_TLS_HANDSHAKES);
+        PerfMetrics.set(PerfMetrics.G_INIT_DOWNLOAD_MS, -1);
+        PerfMetrics.record(PerfMetrics.H_MODULE_INIT_MS, 100);
+        long[] snapshot = PerfMetrics.snapshot();
+
+        Decoder in = new Decoder(PerfMetrics.encode(snapshot));
+
+        assertEquals(0x4D41504D, in.next());
+        assertEquals(1, in.next());
+        assertEquals(PerfMetrics.counterCount(), in.next());
+        for (int i = 0; i < PerfMetrics.counterCount(); i++) {
+            assertEquals(snapshot[i], in.next());
+        }
+        assertEquals(PerfMetrics.histogramCount(), in.next());
+        for (int h = 0; h < PerfMetrics.histogramCount(); h++) {
+            assertEquals(PerfMetrics.histCount(snapshot, h), in.next());
+            assertEquals(PerfMetrics.histSum(snapshot, h), in.next());
+            assertEquals(PerfMetrics.histMax(snapshot, h), in.next());
+            long used = in.next();
+            assertEquals(h == PerfMetrics.H_MODULE_INIT_MS ? PerfMetrics.bucketOf(100) + 1 : 0, used);
+            for (int b = 0; b < used; b++) {
+                assertEquals(PerfMetrics.histBucket(snapshot, h, b), in.next());
+            }
+        }
+        assertEquals(in.bytes.length, in.position);
+    }
+
+    /** Lecture LEB128 + zigzag, symétrique de PerfMetrics.writeVarint. */
+    private static final class Decoder {
+        final byte[] bytes;
+        int position;
+
+        Decoder(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long next() {
+            long v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                v |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (v >>> 1) ^ -(v & 1);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mesure d'une opération en régime établi : compteurs du {@link CountingContext},
+ * ouvertures d'assets, recherches PendingIntent et octets alloués par le thread courant.
+ */
+final class PerfProbe {
+
+    static final class Sample {
+        final int assetOpens;
+        final int prefsReads;
+        final int prefsWrites;
+        final int broadcastLookups;
+        final long allocatedBytes;
+
+        Sample(int assetOpens, int prefsReads, int prefsWrites, int broadcastLookups, long allocatedBytes) {
+            this.assetOpens = assetOpens;
+            this.prefsReads = prefsReads;
+            this.prefsWrites = prefsWrites;
+            this.broadcastLookups = broadcastLookups;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "assets=" + assetOpens + ", prefsReads=" + prefsReads + ", prefsWrites=" + prefsWrites
+                    + ", broadcastLookups=" + broadcastLookups + ", allocated=" + allocatedBytes / 1024 + " KiB";
+        }
+    }
+
+    private PerfProbe() {}
+
+    /** Exécute l'opération une fois (les appels de préchauffe sont à la charge du test). */
+    static Sample measure(CountingContext context, Runnable operation) {
+        context.reset();
+        CountingShadowAssetManager.assetOpens = 0;
+        CountingShadowPendingIntent.broadcastLookups = 0;
+        long before = allocatedBytes();
+        operation.run();
+        long allocated = before < 0 ? -1 : allocatedBytes() - before;
+        return new Sample(CountingShadowAssetManager.assetOpens, context.prefsReads, context.prefsWrites,
+                CountingShadowPendingIntent.broadcastLookups, allocated);
+    }
+
+    static void assertWithin(String operation, Sample sample, int maxAssetOpens, int maxPrefsReads,
+            int maxPrefsWrites, int maxBroadcastLookups, long maxAllocatedBytes) {
+        String detail = operation + " → " + sample;
+        assertTrue("asset opens: " + detail, sample.assetOpens <= maxAssetOpens);
+        assertTrue("prefs reads: " + detail, sample.prefsReads <= maxPrefsReads);
+        assertTrue("prefs writes: " + detail, sample.prefsWrites <= maxPrefsWrites);
+        assertTrue("PendingIntent lookups: " + detail, sample.broadcastLookups <= maxBroadcastLookups);
+        // -1 : allocation non mesurable sur cette JVM, budget ignoré
+        assertTrue("allocations: " + detail,
+                sample.allocatedBytes < 0 || sample.allocatedBytes <= maxAllocatedBytes);
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
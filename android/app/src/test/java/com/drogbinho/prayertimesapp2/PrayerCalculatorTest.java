@@ -0,0 +1,81 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * Calendrier compact de computeTimetable : disposition par jour (RANGE_STRIDE valeurs),
+ * encodage Int16 little-endian et validation stricte de la date de départ.
+ */
+public class PrayerCalculatorTest {
+
+    private static final TimeZone ZURICH = TimeZone.getTimeZone("Europe/Zurich");
+    private static final double GENEVA_LAT = 46.2044;
+    private static final double GENEVA_LON = 6.1432;
+
+    @Test
+    public void computeRange_laysOutOneStridePerDayAcrossMonthEnd() {
+        int days = 5; // 28 février → 4 mars 2026
+        short[] range = PrayerCalculator.computeRange(GENEVA_LAT, GENEVA_LON, "MuslimWorldLeague", 2026, 2, 28,
+                days, ZURICH);
+
+        assertEquals(days * PrayerCalculator.RANGE_STRIDE, range.length);
+        int[][] dates = { { 2026, 2, 28 }, { 2026, 3, 1 }, { 2026, 3, 2 }, { 2026, 3, 3 }, { 2026, 3, 4 } };
+        for (int d = 0; d < days; d++) {
+            short[] single = PrayerCalculator.computeRange(GENEVA_LAT, GENEVA_LON, "MuslimWorldLeague",
+                    dates[d][0], dates[d][1], dates[d][2], 1, ZURICH);
+            int o = d * PrayerCalculator.RANGE_STRIDE;
+            assertArrayEquals("jour " + d, single,
+                    Arrays.copyOfRange(range, o, o + PrayerCalculator.RANGE_STRIDE));
+            // Fajr < Sunrise < Dhuhr < Asr < Maghrib < Isha, dans la journée locale
+            for (int p = 1; p < PrayerCalculator.RANGE_STRIDE; p++) {
+                assertTrue("jour " + d + ", prière " + p, range[o + p - 1] < range[o + p]);
+            }
+            assertTrue(range[o] > 0 && range[o + 5] < 24 * 60);
+        }
+    }
+
+    @Test
+    public void packLittleEndian_matchesInt16ArrayLayout() {
+        short[] times = { 312, -5, 1500, Short.MAX_VALUE, Short.MIN_VALUE, 0 };
+
+        byte[] packed = PrayerCalculator.packLittleEndian(times);
+
+        assertEquals(times.length * 2, packed.length);
+        assertEquals((byte) 0x38, packed[0]); // 312 = 0x0138
+        assertEquals((byte) 0x01, packed[1]);
+        assertEquals((byte) 0xFB, packed[2]); // -5 = 0xFFFB
+        assertEquals((byte) 0xFF, packed[3]);
+        short[] decoded = new short[times.length];
+        ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(decoded);
+        assertArrayEquals(times, decoded);
+    }
+
+    @Test
+    public void parseDate_rejectsInvalidDatesInsteadOfRollingOver() {
+        assertArrayEquals(new int[] { 2026, 3, 10 }, PrayerCalculator.parseDate("2026-03-10"));
+        assertArrayEquals(new int[] { 2024, 2, 29 }, PrayerCalculator.parseDate("2024-02-29"));
+
+        assertNull(PrayerCalculator.parseDate("2026-02-29")); // année non bissextile
+        assertNull(PrayerCalculator.parseDate("2026-02-30"));
+        assertNull(PrayerCalculator.parseDate("2026-04-31"));
+        assertNull(PrayerCalculator.parseDate("2026-13-01"));
+        assertNull(PrayerCalculator.parseDate("2026-00-10"));
+        assertNull(PrayerCalculator.parseDate("2026-03-00"));
+        assertNull(PrayerCalculator.parseDate("0000-03-10"));
+        assertNull(PrayerCalculator.parseDate("2026-3-10"));
+        assertNull(PrayerCalculator.parseDate("2026/03/10"));
+        assertNull(PrayerCalculator.parseDate("2026-03-1x"));
+        assertNull(PrayerCalculator.parseDate("2026-03-10T00:00"));
+        assertNull(PrayerCalculator.parseDate(null));
+    }
+}
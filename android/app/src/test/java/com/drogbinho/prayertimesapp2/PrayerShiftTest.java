@@ -0,0 +1,106 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Hystérésis des changements de position / méthode : bruit GPS sous 250 m, décalage toléré
+ * d'une minute, et décalage appliqué à chaque alarme selon sa prière et son jour.
+ */
+public class PrayerShiftTest {
+
+    private static final TimeZone ZURICH = TimeZone.getTimeZone("Europe/Zurich");
+    private static final double GENEVA_LAT = 46.2044;
+    private static final double GENEVA_LON = 6.1432;
+    // Longueur d'un degré de latitude sur la sphère de PrayerShift
+    private static final double METERS_PER_DEGREE = 6_371_000 * Math.PI / 180;
+    // Fajr, Sunrise, Dhuhr, Asr, Maghrib, Isha (minutes depuis minuit)
+    private static final short[] DAY = { 312, 408, 751, 947, 1094, 1182 };
+
+    @Test
+    public void isGpsNoise_below250Meters() {
+        assertTrue(PrayerShift.isGpsNoise(GENEVA_LAT, GENEVA_LON, GENEVA_LAT, GENEVA_LON));
+        assertTrue(PrayerShift.isGpsNoise(GENEVA_LAT, GENEVA_LON, north(249), GENEVA_LON));
+        assertFalse(PrayerShift.isGpsNoise(GENEVA_LAT, GENEVA_LON, north(251), GENEVA_LON));
+        assertFalse(PrayerShift.isGpsNoise(GENEVA_LAT, GENEVA_LON, 46.5197, 6.6323)); // Lausanne
+        assertEquals(1_000, PrayerShift.distanceMeters(GENEVA_LAT, GENEVA_LON, north(1_000), GENEVA_LON), 0.5);
+    }
+
+    @Test
+    public void movesAlarms_onlyBeyondOneMinute() {
+        short[] before = days(2);
+
+        PrayerShift same = PrayerShift.of(startOfDay(), 2, before, before.clone(), ZURICH);
+        assertEquals(0, same.maxShiftMinutes());
+        assertFalse(same.movesAlarms());
+
+        short[] oneMinute = before.clone();
+        oneMinute[PrayerCalculator.RANGE_STRIDE + 5]++; // Isha du lendemain
+        oneMinute[2]--; // Dhuhr
+        PrayerShift withinTolerance = PrayerShift.of(startOfDay(), 2, before, oneMinute, ZURICH);
+        assertEquals(PrayerShift.TOLERANCE_MINUTES, withinTolerance.maxShiftMinutes());
+        assertFalse(withinTolerance.movesAlarms());
+
+        short[] twoMinutes = oneMinute.clone();
+        twoMinutes[0] -= 2; // Fajr
+        PrayerShift shifted = PrayerShift.of(startOfDay(), 2, before, twoMinutes, ZURICH);
+        assertEquals(2, shifted.maxShiftMinutes());
+        assertTrue(shifted.movesAlarms());
+    }
+
+    @Test
+    public void deltaMillis_usesPrayerAndDayOfTrigger() {
+        short[] before = days(3);
+        short[] after = before.clone();
+        after[0] += 3; // Fajr, jour 0
+        after[PrayerCalculator.RANGE_STRIDE + 4] -= 2; // Maghrib, jour 1
+        after[2 * PrayerCalculator.RANGE_STRIDE + 4] -= 4; // Maghrib, jour 2
+        long start = startOfDay();
+        PrayerShift shift = PrayerShift.of(start + 9 * 3_600_000L, 3, before, after, ZURICH);
+
+        assertEquals(3 * 60_000L, shift.deltaMillis("Fajr", at(start, 0, DAY[0])));
+        assertEquals(3 * 60_000L, shift.deltaMillis("fajr", at(start, 0, DAY[0] - 10))); // rappel avant
+        assertEquals(0, shift.deltaMillis("Maghrib", at(start, 0, DAY[4])));
+        assertEquals(-2 * 60_000L, shift.deltaMillis("Maghrib", at(start, 1, DAY[4] + 15))); // dhikr après
+        assertEquals(-4 * 60_000L, shift.deltaMillis("Maghrib", at(start, 2, DAY[4])));
+        // Hors plage : jour le plus proche
+        assertEquals(-4 * 60_000L, shift.deltaMillis("Maghrib", at(start, 9, DAY[4])));
+        assertEquals(3 * 60_000L, shift.deltaMillis("Fajr", at(start, -1, DAY[0])));
+        // Prière inconnue ou absente : pas de décalage
+        assertEquals(0, shift.deltaMillis("Duha", at(start, 0, DAY[0])));
+        assertEquals(0, shift.deltaMillis(null, at(start, 0, DAY[0])));
+    }
+
+    private static double north(double meters) {
+        return GENEVA_LAT + meters / METERS_PER_DEGREE;
+    }
+
+    private static short[] days(int days) {
+        short[] out = new short[days * PrayerCalculator.RANGE_STRIDE];
+        for (int d = 0; d < days; d++) {
+            System.arraycopy(DAY, 0, out, d * PrayerCalculator.RANGE_STRIDE, DAY.length);
+        }
+        return out;
+    }
+
+    private static long startOfDay() {
+        Calendar cal = Calendar.getInstance(ZURICH);
+        cal.clear();
+        cal.set(2026, Calendar.MARCH, 10);
+        return cal.getTimeInMillis();
+    }
+
+    private static long at(long startOfDay, int day, int minutes) {
+        Calendar cal = Calendar.getInstance(ZURICH);
+        cal.setTimeInMillis(startOfDay);
+        cal.add(Calendar.DAY_OF_MONTH, day);
+        cal.add(Calendar.MINUTE, minutes);
+        return cal.getTimeInMillis();
+    }
+}
@@ -0,0 +1,145 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Budget de stockage : comptabilité incrémentale, éviction LRU (épinglés, fichiers en
+ * lecture et adhans premium protégés) et persistance de l'index.
+ */
+public class StorageBudgetTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File base;
+    private File index;
+
+    @Before
+    public void setUp() {
+        base = tmp.getRoot();
+        index = new File(base, "storage_budget/index.tsv");
+    }
+
+    @Test
+    public void refresh_countsReciterAndPremiumFiles() throws Exception {
+        write("quran/Reciter_A/001.mp3", 100);
+        write("quran/Reciter_A/002.mp3", 200);
+        write("quran/Reciter_B/001.mp3.part", 50);
+        write("premium_content/adhan_x.mp3", 300);
+        StorageBudget budget = new StorageBudget(base, index);
+
+        assertEquals(3, budget.refresh());
+        assertEquals(600, budget.usedBytes());
+        assertEquals(Collections.singletonList("Reciter_A"), budget.reciterDirs());
+        // Rien n'a changé : aucun dossier rescanné
+        assertEquals(0, budget.refresh());
+    }
+
+    @Test
+    public void enforce_evictsLeastRecentlyPlayedFirst() throws Exception {
+        File a = write("quran/R/001.mp3", 100);
+        File b = write("quran/R/002.mp3", 100);
+        File c = write("quran/R/003.mp3", 100);
+        StorageBudget budget = new StorageBudget(base, index);
+        budget.recordPlayed(a, 3_000);
+        budget.recordPlayed(b, 1_000);
+        budget.recordPlayed(c, 2_000);
+
+        budget.setBudgetBytes(150);
+        StorageBudget.Eviction eviction = budget.enforce();
+
+        assertEquals(Arrays.asList("quran/R/002.mp3", "quran/R/003.mp3"), eviction.paths);
+        assertEquals(200, eviction.bytes);
+        assertFalse(eviction.overBudget);
+        assertTrue(a.exists());
+        assertFalse(b.exists());
+        assertEquals(100, budget.usedBytes());
+        assertEquals(2, budget.evictedFiles());
+    }
+
+    @Test
+    public void enforce_skipsPinnedAndPlayingFiles() throws Exception {
+        File pinned = write("premium_content/adhan.mp3", 100);
+        File playing = write("quran/R/001.mp3", 100);
+        File old = write("quran/R/002.mp3", 100);
+        StorageBudget budget = new StorageBudget(base, index);
+        budget.recordPlayed(pinned, 1_000);
+        budget.recordPlayed(playing, 2_000);
+        budget.recordPlayed(old, 3_000);
+        assertTrue(budget.setPinned(pinned, true));
+        budget.acquireInUse(playing);
+
+        budget.setBudgetBytes(50);
+        StorageBudget.Eviction eviction = budget.enforce();
+
+        assertEquals(Collections.singletonList("quran/R/002.mp3"), eviction.paths);
+        assertTrue(eviction.overBudget);
+        assertTrue(pinned.exists());
+        assertTrue(playing.exists());
+
+        budget.releaseInUse(playing);
+        assertEquals(Collections.singletonList("quran/R/001.mp3"), budget.enforce().paths);
+    }
+
+    @Test
+    public void enforce_neverEvictsPremiumAdhan() throws Exception {
+        File adhan = write("premium_content/adhan.mp3", 300);
+        File surah = write("quran/R/001.mp3", 100);
+        StorageBudget budget = new StorageBudget(base, index);
+        budget.refresh();
+        budget.recordPlayed(adhan, 1_000);
+        budget.recordPlayed(surah, 2_000);
+
+        budget.setBudgetBytes(50);
+        StorageBudget.Eviction eviction = budget.enforce();
+
+        assertEquals(Collections.singletonList("quran/R/001.mp3"), eviction.paths);
+        assertTrue(eviction.overBudget);
+        assertTrue(adhan.exists());
+        assertEquals(300, budget.usedBytes());
+    }
+
+    @Test
+    public void index_survivesRestartAndPicksUpExternalChanges() throws Exception {
+        File a = write("quran/R/001.mp3", 100);
+        StorageBudget first = new StorageBudget(base, index);
+        first.recordPlayed(a, 5_000);
+        first.setPinned(a, true);
+        first.refresh();
+
+        File dir = a.getParentFile();
+        write("quran/R/002.mp3", 40);
+        assertTrue(dir.setLastModified(dir.lastModified() + 2_000));
+
+        StorageBudget second = new StorageBudget(base, index);
+        assertEquals(100, second.usedBytes());
+        assertEquals(1, second.refresh());
+        assertEquals(140, second.usedBytes());
+        StorageBudget.Entry entry = second.entries().get(0);
+        assertEquals("quran/R/001.mp3", entry.path);
+        assertTrue(entry.pinned());
+        assertEquals(5_000, entry.lastUsed());
+    }
+
+    private File write(String path, int size) throws IOException {
+        File file = new File(base, path);
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[size]);
+        }
+        return file;
+    }
+}
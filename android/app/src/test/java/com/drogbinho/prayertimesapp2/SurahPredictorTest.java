@@ -0,0 +1,101 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Prédiction des prochaines sourates : suite logique, habitude hebdomadaire (Al-Kahf le
+ * vendredi), habitude quotidienne et persistance de l'historique.
+ */
+public class SurahPredictorTest {
+
+    private static final TimeZone TZ = TimeZone.getTimeZone("Europe/Paris");
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void rank_nextSurahFirstWhenAutoAdvance() throws Exception {
+        SurahPredictor predictor = new SurahPredictor(new File(tmp.getRoot(), "history.tsv"));
+        long now = at(2026, Calendar.OCTOBER, 14, 20);
+
+        List<Integer> ranked = surahs(predictor.rank(36, true, false, now, TZ, 3));
+        assertEquals(37, (int) ranked.get(0));
+        assertEquals(38, (int) ranked.get(1));
+
+        assertEquals(1, (int) surahs(predictor.rank(114, true, true, now, TZ, 1)).get(0));
+        assertTrue(predictor.rank(114, true, false, now, TZ, 3).isEmpty());
+        assertTrue(predictor.rank(36, false, false, now, TZ, 3).isEmpty());
+    }
+
+    @Test
+    public void rank_weeklyHabitWinsOnItsWeekday() throws Exception {
+        SurahPredictor predictor = new SurahPredictor(new File(tmp.getRoot(), "history.tsv"));
+        long friday = at(2026, Calendar.OCTOBER, 16, 9);
+        for (int week = 1; week <= 4; week++) {
+            predictor.record("Reciter", 18, friday - week * 7 * DAY_MS);
+        }
+        predictor.record("Reciter", 2, friday - 2 * DAY_MS);
+
+        assertEquals(18, (int) surahs(predictor.rank(0, true, false, friday, TZ, 3)).get(0));
+        // Le mardi suivant, l'habitude du vendredi ne compte plus
+        long tuesday = friday + 4 * DAY_MS;
+        List<SurahPredictor.Prediction> tuesdayRank = predictor.rank(0, true, false, tuesday, TZ, 3);
+        assertTrue(tuesdayRank.isEmpty() || tuesdayRank.get(0).score < 0.3);
+    }
+
+    @Test
+    public void rank_dailyHabitAndCurrentSurahExcluded() throws Exception {
+        SurahPredictor predictor = new SurahPredictor(new File(tmp.getRoot(), "history.tsv"));
+        long now = at(2026, Calendar.OCTOBER, 14, 22);
+        for (int day = 1; day <= 5; day++) {
+            predictor.record("Reciter", 67, now - day * DAY_MS);
+        }
+
+        List<Integer> ranked = surahs(predictor.rank(1, true, false, now, TZ, 3));
+        assertEquals(67, (int) ranked.get(0));
+        assertEquals(2, (int) ranked.get(1));
+        assertFalse(surahs(predictor.rank(67, false, false, now, TZ, 3)).contains(67));
+    }
+
+    @Test
+    public void history_persistsAndIsBounded() throws Exception {
+        File file = new File(tmp.getRoot(), "prefetch/history.tsv");
+        SurahPredictor first = new SurahPredictor(file);
+        long now = at(2026, Calendar.OCTOBER, 14, 12);
+        for (int i = 0; i < SurahPredictor.MAX_HISTORY + 10; i++) {
+            first.record("Reciter", 1 + i % 114, now - i * 60_000L);
+        }
+        first.record("Reciter", 0, now); // ignorée
+
+        SurahPredictor second = new SurahPredictor(file);
+        assertEquals(SurahPredictor.MAX_HISTORY, second.historySize());
+    }
+
+    private static long at(int year, int month, int day, int hour) {
+        Calendar cal = Calendar.getInstance(TZ);
+        cal.clear();
+        cal.set(year, month, day, hour, 0);
+        return cal.getTimeInMillis();
+    }
+
+    private static List<Integer> surahs(List<SurahPredictor.Prediction> predictions) {
+        List<Integer> out = new ArrayList<>();
+        for (SurahPredictor.Prediction prediction : predictions) {
+            out.add(prediction.surah);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,95 @@
+package com.drogbinho.prayertimesapp2;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.appwidget.AppWidgetManager;
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Budgets d'un rafraîchissement de widget en régime établi (caches chauds) : aucune
+ * relecture d'asset, peu d'accès SharedPreferences, allocations bornées.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, shadows = { CountingShadowPendingIntent.class, CountingShadowAssetManager.class })
+public class WidgetRefreshPerfTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    private CountingContext context;
+    private AppWidgetManager appWidgetManager;
+
+    @Before
+    public void setUp() {
+        SettingsStore.resetForTests();
+        Context app = ApplicationProvider.getApplicationContext();
+        String today = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date());
+        app.getSharedPreferences(SettingsStore.PREFS_SETTINGS, Context.MODE_PRIVATE).edit()
+                .putString("current_language", "fr")
+                .putString("today_prayer_times", "{\"Fajr\":\"05:12\",\"Sunrise\":\"06:48\",\"Dhuhr\":\"12:31\","
+                        + "\"Asr\":\"15:47\",\"Maghrib\":\"18:14\",\"Isha\":\"19:42\"}")
+                .putString("last_prayer_times_date", today)
+                .commit();
+        app.getSharedPreferences(SettingsStore.PREFS_PREMIUM, Context.MODE_PRIVATE).edit()
+                .putBoolean("is_premium_user", true)
+                .commit();
+        context = new CountingContext(app);
+        appWidgetManager = AppWidgetManager.getInstance(context);
+    }
+
+    @After
+    public void tearDown() {
+        SettingsStore.resetForTests();
+    }
+
+    @Test
+    public void prayerTimesWidgetUpdate_staysWithinBudget() {
+        int widgetId = shadowOf(appWidgetManager).createWidget(PrayerTimesWidget.class, R.layout.prayer_times_widget);
+        // Préchauffe : snapshot SettingsStore, traductions et duas en cache
+        PrayerTimesWidget.updateAppWidget(context, appWidgetManager, widgetId);
+
+        PerfProbe.Sample sample = PerfProbe.measure(context,
+                () -> PrayerTimesWidget.updateAppWidget(context, appWidgetManager, widgetId));
+
+        // 2 PendingIntent.getBroadcast (dua, actualiser) ; le clic app passe par getActivity
+        PerfProbe.assertWithin("PrayerTimesWidget.updateAppWidget", sample,
+                0, 40, 3, 2, 8 * MB);
+    }
+
+    @Test
+    public void widgetDataSetChange_staysWithinBudget() {
+        WidgetRemoteViewsFactory factory = new WidgetRemoteViewsFactory(context);
+        factory.onDataSetChanged();
+
+        PerfProbe.Sample sample = PerfProbe.measure(context, factory::onDataSetChanged);
+
+        // getDailyDhikr mémorise l'index de la dua du jour : jusqu'à une écriture
+        PerfProbe.assertWithin("WidgetRemoteViewsFactory.onDataSetChanged", sample,
+                0, 40, 1, 0, 4 * MB);
+    }
+
+    @Test
+    public void quranWidgetUpdate_staysWithinBudget() {
+        int widgetId = shadowOf(appWidgetManager).createWidget(QuranWidget.class, R.layout.quran_widget);
+        QuranWidget.updateQuranWidget(context, appWidgetManager, widgetId);
+
+        PerfProbe.Sample sample = PerfProbe.measure(context,
+                () -> QuranWidget.updateQuranWidget(context, appWidgetManager, widgetId));
+
+        // 6 boutons (lecture, précédent, suivant, app, auto-avance, boucle)
+        PerfProbe.assertWithin("QuranWidget.updateQuranWidget", sample,
+                0, 40, 3, 6, 8 * MB);
+    }
+}
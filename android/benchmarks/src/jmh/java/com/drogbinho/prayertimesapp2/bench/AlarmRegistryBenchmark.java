@@ -0,0 +1,62 @@
+package com.drogbinho.prayertimesapp2.bench;
+
+import com.drogbinho.prayertimesapp2.AlarmRegistryCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Registre des rappels / dhikr : 150 = 30 jours × 5 prières, 600 = 4 types de dhikr sur
+ * 30 jours, 3000 = registre jamais purgé (ancien comportement après plusieurs semaines).
+ */
+@State(Scope.Benchmark)
+public class AlarmRegistryBenchmark {
+
+    private static final String[] PRAYERS = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
+    private static final String[] TYPES = { "afterSalah", "dhikrMorning", "eveningDhikr", "selectedDua" };
+    private static final long BASE = 1_760_000_000_000L;
+
+    @Param({ "150", "600", "3000" })
+    public int entries;
+
+    private String reminders;
+    private String dhikrs;
+
+    @Setup
+    public void setUp() {
+        String r = "[]";
+        String d = "[]";
+        for (int i = 0; i < entries; i++) {
+            long t = BASE + i * 3_600_000L;
+            r = AlarmRegistryCodec.appendReminder(r, PRAYERS[i % PRAYERS.length], t);
+            d = AlarmRegistryCodec.appendDhikr(d, TYPES[i % TYPES.length], PRAYERS[i % PRAYERS.length], t);
+        }
+        reminders = r;
+        dhikrs = d;
+    }
+
+    @Benchmark
+    public String appendReminder() {
+        return AlarmRegistryCodec.appendReminder(reminders, "Isha", BASE + 42);
+    }
+
+    @Benchmark
+    public String appendReminderLegacy() throws Exception {
+        return LegacyImplementations.appendReminder(reminders, "Isha", BASE + 42);
+    }
+
+    @Benchmark
+    public int[] planReminderCancellation() throws Exception {
+        return AlarmRegistryCodec.reminderRequestCodes(reminders);
+    }
+
+    @Benchmark
+    public List<AlarmRegistryCodec.DhikrAlarm> planDhikrCancellation() throws Exception {
+        return AlarmRegistryCodec.dhikrAlarms(dhikrs);
+    }
+}
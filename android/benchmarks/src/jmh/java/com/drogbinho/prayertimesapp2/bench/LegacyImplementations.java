@@ -0,0 +1,89 @@
+package com.drogbinho.prayertimesapp2.bench;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Copies des implémentations d'avant extraction, mesurées dans le même run que les
+ * nouvelles pour obtenir les chiffres avant/après sans changer de commit.
+ */
+final class LegacyImplementations {
+
+    private LegacyImplementations() {}
+
+    /** NotificationAlarmRegistry.appendReminder : parse + re-sérialisation complète. */
+    static String appendReminder(String raw, String prayer, long triggerAtMillis) throws JSONException {
+        JSONArray arr = new JSONArray(raw);
+        JSONObject o = new JSONObject();
+        o.put("p", prayer);
+        o.put("t", triggerAtMillis);
+        arr.put(o);
+        return arr.toString();
+    }
+
+    /** PrayerTimesWidget.getTranslation : relecture + parse du fichier à chaque clé. */
+    static String translation(InputStream in, String key) throws IOException, JSONException {
+        InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        StringBuilder jsonBuilder = new StringBuilder();
+        char[] buffer = new char[1024];
+        int length;
+        while ((length = reader.read(buffer)) != -1) {
+            jsonBuilder.append(buffer, 0, length);
+        }
+        JSONObject translations = new JSONObject(jsonBuilder.toString());
+        return translations.has(key) ? translations.getString(key) : key;
+    }
+
+    /** QuranAudioService.extractSurahNumber : regex compilée à chaque appel puis map reconstruite. */
+    static int extractSurahNumber(String surahName, String[] names) {
+        if (surahName == null || surahName.isEmpty()) {
+            return 0;
+        }
+        Pattern pattern = Pattern.compile("\\((\\d{3})\\)");
+        Matcher matcher = pattern.matcher(surahName);
+        if (matcher.find()) {
+            return Integer.parseInt(matcher.group(1));
+        }
+        Map<String, Integer> surahNames = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            surahNames.put(names[i], i + 1);
+        }
+        for (Map.Entry<String, Integer> entry : surahNames.entrySet()) {
+            if (surahName.contains(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return 0;
+    }
+
+    /** PrayerTimesWidget.getNextPrayerName : split + parseInt par prière. */
+    static String nextPrayerName(Map<String, String> prayerTimes, int currentTimeInMinutes) {
+        String[] prayerOrder = { "Fajr", "Dhuhr", "Asr", "Maghrib", "Isha" };
+        for (String prayer : prayerOrder) {
+            String timeStr = prayerTimes.get(prayer);
+            if (timeStr != null) {
+                try {
+                    String[] parts = timeStr.split(":");
+                    if (parts.length == 2) {
+                        int prayerTimeInMinutes = Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+                        if (prayerTimeInMinutes > currentTimeInMinutes) {
+                            return prayer;
+                        }
+                    }
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return "Fajr";
+    }
+}
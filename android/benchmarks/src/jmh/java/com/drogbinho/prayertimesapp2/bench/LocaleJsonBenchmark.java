@@ -0,0 +1,71 @@
+package com.drogbinho.prayertimesapp2.bench;
+
+import com.drogbinho.prayertimesapp2.LocaleJson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chargement des assets du widget avec les vrais fichiers de l'app (≈ 90 Ko de locales,
+ * ≈ 45 Ko de duas en français).
+ */
+@State(Scope.Benchmark)
+public class LocaleJsonBenchmark {
+
+    @Param({ "fr", "ar", "en" })
+    public String language;
+
+    private byte[] localeBytes;
+    private byte[] dhikrBytes;
+    private String localeJson;
+    private String dhikrJson;
+    private Map<String, String> cachedTranslations;
+
+    @Setup
+    public void setUp() throws Exception {
+        File assets = new File(System.getProperty("bench.assets", "../app/src/main/assets"));
+        localeBytes = Files.readAllBytes(new File(assets, "locales_" + language + ".json").toPath());
+        dhikrBytes = Files.readAllBytes(new File(assets, "dhikr." + language + ".json").toPath());
+        localeJson = LocaleJson.readUtf8(new ByteArrayInputStream(localeBytes));
+        dhikrJson = LocaleJson.readUtf8(new ByteArrayInputStream(dhikrBytes));
+        cachedTranslations = LocaleJson.parseStrings(localeJson);
+    }
+
+    @Benchmark
+    public String readLocaleFile() throws IOException {
+        return LocaleJson.readUtf8(new ByteArrayInputStream(localeBytes));
+    }
+
+    @Benchmark
+    public Map<String, String> parseLocale() throws Exception {
+        return LocaleJson.parseStrings(localeJson);
+    }
+
+    @Benchmark
+    public List<LocaleJson.Dua> parseDuas() throws Exception {
+        return LocaleJson.parseDuas(dhikrJson);
+    }
+
+    /** Une traduction du widget, cache chaud (cas courant après le premier affichage). */
+    @Benchmark
+    public String translationCached() {
+        String value = cachedTranslations.get("fajr");
+        return value != null ? value : "fajr";
+    }
+
+    /** Même traduction avec l'ancien code : lecture + parse complet à chaque appel. */
+    @Benchmark
+    public String translationLegacy() throws Exception {
+        return LegacyImplementations.translation(new ByteArrayInputStream(localeBytes), "fajr");
+    }
+}
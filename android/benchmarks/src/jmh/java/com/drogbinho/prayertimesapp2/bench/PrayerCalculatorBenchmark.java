@@ -0,0 +1,87 @@
+package com.drogbinho.prayertimesapp2.bench;
+
+import com.batoulapps.adhan.CalculationParameters;
+import com.drogbinho.prayertimesapp2.PrayerCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Paramètres de méthode, calcul d'une journée, d'une année (horizon de reprogrammation,
+ * calendrier compact)
+ * et recherche de la prochaine prière sur les 1440 minutes d'une journée.
+ */
+@State(Scope.Benchmark)
+public class PrayerCalculatorBenchmark {
+
+    private static final String[] METHODS = { "MuslimWorldLeague", "Egyptian", "Karachi", "UmmAlQura",
+            "NorthAmerica", "Kuwait", "Qatar", "Singapore", "Tehran", "Turkey" };
+
+    @Param({ "MuslimWorldLeague", "UmmAlQura" })
+    public String method;
+
+    private final TimeZone timeZone = TimeZone.getTimeZone("Europe/Zurich");
+    private Date[] year;
+    private Map<String, String> today;
+
+    @Setup
+    public void setUp() {
+        Calendar cal = Calendar.getInstance(timeZone);
+        cal.set(2026, Calendar.JANUARY, 1, 12, 0, 0);
+        year = new Date[365];
+        for (int i = 0; i < year.length; i++) {
+            year[i] = cal.getTime();
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        today = new LinkedHashMap<>(PrayerCalculator.computeDay(46.2044, 6.1432, year[170], method, timeZone));
+    }
+
+    @Benchmark
+    public void parametersForAllMethods(Blackhole bh) {
+        for (String m : METHODS) {
+            CalculationParameters params = PrayerCalculator.parametersFor(m);
+            bh.consume(params);
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> computeDay() {
+        return PrayerCalculator.computeDay(46.2044, 6.1432, year[170], method, timeZone);
+    }
+
+    @Benchmark
+    public void computeYear(Blackhole bh) {
+        for (Date day : year) {
+            bh.consume(PrayerCalculator.computeDay(46.2044, 6.1432, day, method, timeZone));
+        }
+    }
+
+    @Benchmark
+    public short[] computeYearPacked() {
+        return PrayerCalculator.computeRange(46.2044, 6.1432, method, 2026, 1, 1, 365, timeZone);
+    }
+
+    @Benchmark
+    public void nextPrayerWholeDay(Blackhole bh) {
+        for (int minute = 0; minute < 1440; minute++) {
+            bh.consume(PrayerCalculator.nextPrayerName(today, minute));
+        }
+    }
+
+    @Benchmark
+    public void nextPrayerWholeDayLegacy(Blackhole bh) {
+        for (int minute = 0; minute < 1440; minute++) {
+            bh.consume(LegacyImplementations.nextPrayerName(today, minute));
+        }
+    }
+}
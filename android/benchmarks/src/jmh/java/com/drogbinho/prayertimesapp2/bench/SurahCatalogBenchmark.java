@@ -0,0 +1,65 @@
+package com.drogbinho.prayertimesapp2.bench;
+
+import com.drogbinho.prayertimesapp2.SurahCatalog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Recherche nom ↔ numéro sur les 114 sourates, avec les trois formes de libellés vues en
+ * production : "Nom (NNN)", "Nom - Récitateur" et nom seul.
+ */
+@State(Scope.Benchmark)
+public class SurahCatalogBenchmark {
+
+    private final String[] names = new String[SurahCatalog.COUNT];
+    private final String[] displayLabels = new String[SurahCatalog.COUNT];
+    private final String[] reciterLabels = new String[SurahCatalog.COUNT];
+
+    @Setup
+    public void setUp() {
+        for (int i = 1; i <= SurahCatalog.COUNT; i++) {
+            names[i - 1] = SurahCatalog.nameOf(i);
+            displayLabels[i - 1] = SurahCatalog.displayNameOf(i) + " - Abdul Basit";
+            reciterLabels[i - 1] = SurahCatalog.nameOf(i) + " - Abdul Basit";
+        }
+    }
+
+    @Benchmark
+    public void nameByNumber(Blackhole bh) {
+        for (int i = 1; i <= SurahCatalog.COUNT; i++) {
+            bh.consume(SurahCatalog.displayNameOf(i));
+        }
+    }
+
+    @Benchmark
+    public void numberFromDisplayLabel(Blackhole bh) {
+        for (String label : displayLabels) {
+            bh.consume(SurahCatalog.numberOf(label));
+        }
+    }
+
+    @Benchmark
+    public void numberFromDisplayLabelLegacy(Blackhole bh) {
+        for (String label : displayLabels) {
+            bh.consume(LegacyImplementations.extractSurahNumber(label, names));
+        }
+    }
+
+    @Benchmark
+    public void numberFromReciterLabel(Blackhole bh) {
+        for (String label : reciterLabels) {
+            bh.consume(SurahCatalog.numberOf(label));
+        }
+    }
+
+    @Benchmark
+    public void numberFromReciterLabelLegacy(Blackhole bh) {
+        for (String label : reciterLabels) {
+            bh.consume(LegacyImplementations.extractSurahNumber(label, names));
+        }
+    }
+}